@@ -0,0 +1,175 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009 C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *  
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package advanced.cursorLockBenchmark;
+
+import org.mt4j.MTApplication;
+import org.mt4j.components.visibleComponents.shapes.MTRectangle;
+import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputProcessors.componentProcessors.AbstractCursorProcessor;
+import org.mt4j.input.inputProcessors.componentProcessors.arcballProcessor.ArcballProcessor;
+import org.mt4j.input.inputProcessors.componentProcessors.dragProcessor.DragProcessor;
+import org.mt4j.input.inputProcessors.componentProcessors.dragProcessor.MultipleDragProcessor;
+import org.mt4j.input.inputProcessors.componentProcessors.lassoProcessor.LassoProcessor;
+import org.mt4j.input.inputProcessors.componentProcessors.panProcessor.PanProcessorTwoFingers;
+import org.mt4j.input.inputProcessors.componentProcessors.rotateProcessor.RotateProcessor;
+import org.mt4j.input.inputProcessors.componentProcessors.scaleProcessor.ScaleProcessor;
+import org.mt4j.input.inputProcessors.componentProcessors.tapAndHoldProcessor.TapAndHoldProcessor;
+import org.mt4j.input.inputProcessors.componentProcessors.tapProcessor.TapProcessor;
+import org.mt4j.input.inputProcessors.componentProcessors.zoomProcessor.ZoomProcessor;
+import org.mt4j.sceneManagement.AbstractScene;
+import org.mt4j.sceneManagement.IPreDrawAction;
+
+/**
+ * Measures the cursor locking of the input processors in lock storms.
+ * <br>A component has 10 input processors registered: tap, tap and hold, drag, multiple drag,
+ * arcball and lasso with lock priority 1 and rotate, scale, zoom and two finger pan with lock
+ * priority 2. Two cursors on the component are watched by all of them. Every frame the cursors
+ * go through 2000 rounds of a two finger gesture: all priority 1 processors lock the first cursor,
+ * all priority 2 processors lock both cursors - which sends lock signals to the others - and 
+ * then everything is unlocked again, which sends unlock signals.
+ * Every 300 frames the average time of a lock or unlock call is printed, and whether
+ * the lock priorities of the cursors were as expected in every round.
+ */
+public class CursorLockBenchmarkScene extends AbstractScene{
+	
+	private static final int ROUNDS_PER_FRAME = 2000;
+	
+	private static final int FRAMES_PER_RUN = 300;
+	
+	private MTApplication app;
+	
+	private InputCursor first;
+	
+	private InputCursor second;
+	
+	private AbstractCursorProcessor[] oneFingerProcessors;
+	
+	private AbstractCursorProcessor[] twoFingerProcessors;
+
+	public CursorLockBenchmarkScene(MTApplication mtApplication, String name) {
+		super(mtApplication, name);
+		this.app = mtApplication;
+		
+		MTRectangle rect = new MTRectangle(100, 100, 400, 300, app);
+		this.getCanvas().addChild(rect);
+		
+		oneFingerProcessors = new AbstractCursorProcessor[]{
+				new TapProcessor(app), 
+				new TapAndHoldProcessor(app), 
+				new DragProcessor(app), 
+				new MultipleDragProcessor(app), 
+				new ArcballProcessor(app, rect), 
+				new LassoProcessor(app, this.getCanvas(), this.getSceneCam())};
+		twoFingerProcessors = new AbstractCursorProcessor[]{
+				new RotateProcessor(app), 
+				new ScaleProcessor(app), 
+				new ZoomProcessor(app), 
+				new PanProcessorTwoFingers(app)};
+		
+		first = new InputCursor();
+		second = new InputCursor();
+		rect.unregisterAllInputProcessors();
+		for (int i = 0; i < oneFingerProcessors.length; i++) {
+			register(rect, oneFingerProcessors[i]);
+		}
+		for (int i = 0; i < twoFingerProcessors.length; i++) {
+			register(rect, twoFingerProcessors[i]);
+		}
+		
+		this.registerPreDrawAction(new IPreDrawAction() {
+			private int frame = 0;
+			private long lockNanos = 0;
+			private long lockCalls = 0;
+			private int failedRounds = 0;
+			
+			public void processAction() {
+				long start = System.nanoTime();
+				for (int i = 0; i < ROUNDS_PER_FRAME; i++) {
+					if (!runRound()){
+						failedRounds++;
+					}
+				}
+				lockNanos += System.nanoTime() - start;
+				lockCalls += ROUNDS_PER_FRAME * 2 * (oneFingerProcessors.length + 2 * twoFingerProcessors.length);
+				
+				frame++;
+				if (frame % FRAMES_PER_RUN == 0){
+					System.out.println("Cursor locks: " + (oneFingerProcessors.length + twoFingerProcessors.length) + " processors"
+							+ ", " + lockCalls + " lock/unlock calls" 
+							+ ", avg: " + (lockNanos / lockCalls) + " ns per call"
+							+ ", rounds with unexpected lock priorities: " + failedRounds);
+					lockNanos = 0;
+					lockCalls = 0;
+					failedRounds = 0;
+				}
+			}
+			
+			public boolean isLoop() {
+				return true;
+			}
+		});
+	}
+	
+	
+	/**
+	 * Registers the processor with the component and with the cursors.
+	 */
+	private void register(MTRectangle rect, AbstractCursorProcessor processor){
+		rect.registerInputProcessor(processor);
+		first.registerGeneralInterest(processor);
+		second.registerGeneralInterest(processor);
+	}
+	
+	
+	/**
+	 * Runs one round of a two finger gesture on the cursors.
+	 * 
+	 * @return true, if the lock priorities of the cursors were as expected
+	 */
+	private boolean runRound(){
+		boolean ok = true;
+		for (int i = 0; i < oneFingerProcessors.length; i++) {
+			ok &= first.getLock(oneFingerProcessors[i]);
+		}
+		ok &= first.getCurrentLockPriority() == oneFingerProcessors[0].getLockPriority();
+		for (int i = 0; i < twoFingerProcessors.length; i++) {
+			AbstractCursorProcessor processor = twoFingerProcessors[i];
+			ok &= first.getLock(processor) && second.getLock(processor);
+		}
+		ok &= !first.canLock(oneFingerProcessors[0]) 
+				&& first.getCurrentLockPriority() == twoFingerProcessors[0].getLockPriority();
+		for (int i = 0; i < twoFingerProcessors.length; i++) {
+			AbstractCursorProcessor processor = twoFingerProcessors[i];
+			first.unlock(processor);
+			second.unlock(processor);
+		}
+		for (int i = 0; i < oneFingerProcessors.length; i++) {
+			first.unlock(oneFingerProcessors[i]);
+		}
+		ok &= first.getCurrentLockPriority() == 0 && second.getCurrentLockPriority() == 0;
+		return ok;
+	}
+	
+	@Override
+	public void init() {
+	}
+
+	@Override
+	public void shutDown() {
+	}
+}
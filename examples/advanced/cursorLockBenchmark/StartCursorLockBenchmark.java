@@ -0,0 +1,16 @@
+package advanced.cursorLockBenchmark;
+
+import org.mt4j.MTApplication;
+
+public class StartCursorLockBenchmark extends MTApplication{
+	private static final long serialVersionUID = 1L;
+
+	public static void main(String args[]){
+		initialize();
+	}
+	
+	@Override
+	public void startUp(){
+		this.addScene(new CursorLockBenchmarkScene(this, "Cursor lock benchmark scene"));
+	}
+}
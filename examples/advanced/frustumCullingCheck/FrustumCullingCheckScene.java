@@ -0,0 +1,280 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009 C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *  
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package advanced.frustumCullingCheck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.mt4j.MTApplication;
+import org.mt4j.components.MTComponent;
+import org.mt4j.components.visibleComponents.shapes.AbstractShape;
+import org.mt4j.components.visibleComponents.shapes.MTRectangle;
+import org.mt4j.sceneManagement.AbstractScene;
+import org.mt4j.sceneManagement.IPreDrawAction;
+import org.mt4j.util.MTColor;
+import org.mt4j.util.camera.Frustum;
+import org.mt4j.util.camera.IFrustum;
+import org.mt4j.util.math.Vector3D;
+
+/**
+ * Checks what the hierarchical frustum culling of the canvas relies on
+ * (see <code>MTCanvas.setFrustumCulling()</code>) and prints the number of failures.
+ * <ul>
+ * <li>The box and sphere tests of the camera frustum against point sampling on random
+ * boxes: a box or sphere with a sampled point in the frustum must not be <code>OUTSIDE</code>, 
+ * and one with a sampled point outside must not be <code>INSIDE</code>.</li>
+ * <li>The global subtree bounds of random, transformed rectangle trees against the global vertices
+ * of the rectangles in the subtree, before and after random components of the trees 
+ * are moved, rotated and scaled.</li>
+ * </ul>
+ * The trees stay on the canvas, so they are drawn with culling afterwards.
+ */
+public class FrustumCullingCheckScene extends AbstractScene{
+	
+	private static final int BOXES = 5000;
+	
+	private static final int TREES = 30;
+	
+	private static final int TREE_DEPTH = 3;
+	
+	private static final int CHILDREN_PER_NODE = 3;
+	
+	private static final int CHANGES = 200;
+	
+	/** The number of failures printed in detail. */
+	private static final int MAX_REPORTED_FAILURES = 10;
+	
+	private MTApplication app;
+	
+	private Random random;
+	
+	private List<MTComponent> roots;
+	
+	private List<MTComponent> nodes;
+	
+	private int failures;
+
+	public FrustumCullingCheckScene(MTApplication mtApplication, String name) {
+		super(mtApplication, name);
+		this.app = mtApplication;
+		this.random = new Random(4711);
+		this.roots = new ArrayList<MTComponent>();
+		this.nodes = new ArrayList<MTComponent>();
+		
+		for (int i = 0; i < TREES; i++) {
+			MTComponent root = this.createTree(TREE_DEPTH);
+			this.getCanvas().addChild(root);
+			roots.add(root);
+		}
+		
+		//The camera frustum is set up when the scene is drawn
+		this.registerPreDrawAction(new IPreDrawAction() {
+			public void processAction() {
+				runChecks();
+			}
+			
+			public boolean isLoop() {
+				return false;
+			}
+		});
+	}
+	
+	
+	/**
+	 * Runs the checks and prints the results.
+	 */
+	private void runChecks(){
+		IFrustum frustum = this.getSceneCam().getFrustum();
+		if (!(frustum instanceof Frustum)){
+			System.out.println("Frustum culling check: the scene camera has no box test, skipped.");
+			return;
+		}
+		failures = 0;
+		
+		int boxFailures = this.checkBoxes((Frustum) frustum);
+		System.out.println("Frustum culling check: " + BOXES + " random boxes and spheres, failures: " + boxFailures);
+		
+		int checked = this.checkTrees();
+		for (int i = 0; i < CHANGES; i++) {
+			MTComponent node = nodes.get(random.nextInt(nodes.size()));
+			this.transformRandomly(node);
+			checked += this.checkTrees();
+		}
+		int treeFailures = failures - boxFailures;
+		System.out.println("Frustum culling check: " + checked + " subtree bounds of " + TREES + " rectangle trees" 
+				+ " with " + CHANGES + " random changes, failures: " + treeFailures);
+		System.out.println("Frustum culling check " + (failures == 0 ? "passed." : "FAILED."));
+	}
+	
+	
+	/**
+	 * Checks the box and sphere tests of the frustum on random boxes.
+	 * 
+	 * @return the number of failures
+	 */
+	private int checkBoxes(Frustum frustum){
+		int before = failures;
+		Vector3D p = new Vector3D();
+		for (int i = 0; i < BOXES; i++) {
+			float sizeX = random.nextFloat() * app.width * 0.5f;
+			float sizeY = random.nextFloat() * app.height * 0.5f;
+			float sizeZ = random.nextFloat() * 500;
+			float minX = -app.width + random.nextFloat() * app.width * 3;
+			float minY = -app.height + random.nextFloat() * app.height * 3;
+			float minZ = -1500 + random.nextFloat() * 2000;
+			float[] box = new float[]{minX, minY, minZ, minX + sizeX, minY + sizeY, minZ + sizeZ};
+			
+			boolean anyInside = false;
+			boolean anyOutside = false;
+			int steps = 6;
+			for (int x = 0; x <= steps; x++) {
+				for (int y = 0; y <= steps; y++) {
+					for (int z = 0; z <= steps; z++) {
+						p.setXYZ(minX + sizeX * x / steps, minY + sizeY * y / steps, minZ + sizeZ * z / steps);
+						if (frustum.isPointInFrustum(p) == IFrustum.OUTSIDE){
+							anyOutside = true;
+						}else{
+							anyInside = true;
+						}
+					}
+				}
+			}
+			this.checkState("box", box, frustum.isBoxInFrustum(box), anyInside, anyOutside);
+			
+			//The sphere around the box, like the canvas tests it before the box
+			Vector3D center = new Vector3D(minX + sizeX * 0.5f, minY + sizeY * 0.5f, minZ + sizeZ * 0.5f);
+			float radius = (float) Math.sqrt(sizeX * sizeX + sizeY * sizeY + sizeZ * sizeZ) * 0.5f;
+			int sphereState = frustum.isSphereInFrustum(center, radius);
+			if (sphereState == IFrustum.OUTSIDE && anyInside){
+				this.fail("sphere around box " + toString(box) + " is OUTSIDE, but a point of the box is in the frustum");
+			}
+		}
+		return failures - before;
+	}
+	
+	
+	private void checkState(String what, float[] box, int state, boolean anyInside, boolean anyOutside){
+		if (state == IFrustum.OUTSIDE && anyInside){
+			this.fail(what + " " + toString(box) + " is OUTSIDE, but a sampled point is in the frustum");
+		}else if (state == IFrustum.INSIDE && anyOutside){
+			this.fail(what + " " + toString(box) + " is INSIDE, but a sampled point is outside of the frustum");
+		}
+	}
+	
+	
+	/**
+	 * Checks that the subtree bounds of every node contain the global vertices of the subtree.
+	 * 
+	 * @return the number of checked subtrees
+	 */
+	private int checkTrees(){
+		int checked = 0;
+		for (int i = 0; i < nodes.size(); i++) {
+			MTComponent node = nodes.get(i);
+			float[] bounds = node.getSubtreeBoundsGlobal();
+			if (bounds == null){
+				this.fail(node.getName() + " has unknown subtree bounds");
+				continue;
+			}
+			checked++;
+			this.checkContained(node, node, bounds);
+		}
+		return checked;
+	}
+	
+	
+	private void checkContained(MTComponent node, MTComponent current, float[] bounds){
+		if (current instanceof AbstractShape){
+			Vector3D[] vertices = ((AbstractShape) current).getVerticesGlobal();
+			for (int i = 0; i < vertices.length; i++) {
+				Vector3D v = vertices[i];
+				if (bounds.length != 6 || !contains(bounds, v)){
+					this.fail("vertex " + v + " of " + current.getName() + " is outside of the subtree bounds " 
+							+ toString(bounds) + " of " + node.getName());
+					return;
+				}
+			}
+		}
+		MTComponent[] children = current.getChildren();
+		for (int i = 0; i < children.length; i++) {
+			this.checkContained(node, children[i], bounds);
+		}
+	}
+	
+	
+	private static boolean contains(float[] bounds, Vector3D v){
+		float tolerance = 0.01f;
+		return v.x >= bounds[0] - tolerance && v.y >= bounds[1] - tolerance && v.z >= bounds[2] - tolerance
+			&& v.x <= bounds[3] + tolerance && v.y <= bounds[4] + tolerance && v.z <= bounds[5] + tolerance;
+	}
+	
+	
+	/**
+	 * Creates a tree of randomly transformed rectangles.
+	 */
+	private MTComponent createTree(int depth){
+		MTRectangle rect = new MTRectangle(0, 0, 20 + random.nextFloat() * 150, 20 + random.nextFloat() * 150, app);
+		rect.setName("rectangle " + nodes.size());
+		rect.setFillColor(new MTColor(random.nextInt(255), random.nextInt(255), random.nextInt(255), 150));
+		nodes.add(rect);
+		if (depth == TREE_DEPTH){
+			rect.translate(new Vector3D(random.nextFloat() * app.width, random.nextFloat() * app.height, 0));
+		}
+		this.transformRandomly(rect);
+		if (depth > 1){
+			for (int i = 0; i < CHILDREN_PER_NODE; i++) {
+				rect.addChild(this.createTree(depth - 1));
+			}
+		}
+		return rect;
+	}
+	
+	
+	private void transformRandomly(MTComponent comp){
+		comp.translate(new Vector3D(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 100 - 50));
+		comp.rotateZ(new Vector3D(random.nextFloat() * 100, random.nextFloat() * 100, 0), random.nextFloat() * 360);
+		comp.rotateX(new Vector3D(0, random.nextFloat() * 100, 0), random.nextFloat() * 60 - 30);
+		float s = 0.5f + random.nextFloat();
+		comp.scale(s, s, s, new Vector3D(0, 0, 0));
+	}
+	
+	
+	private void fail(String message){
+		failures++;
+		if (failures <= MAX_REPORTED_FAILURES){
+			System.out.println("Frustum culling check failure: " + message);
+		}
+	}
+	
+	
+	private static String toString(float[] box){
+		if (box.length != 6){
+			return "(empty)";
+		}
+		return "[" + box[0] + ", " + box[1] + ", " + box[2] + " - " + box[3] + ", " + box[4] + ", " + box[5] + "]";
+	}
+	
+	@Override
+	public void init() {
+	}
+
+	@Override
+	public void shutDown() {
+	}
+}
@@ -0,0 +1,16 @@
+package advanced.frustumCullingCheck;
+
+import org.mt4j.MTApplication;
+
+public class StartFrustumCullingCheck extends MTApplication{
+	private static final long serialVersionUID = 1L;
+
+	public static void main(String args[]){
+		initialize();
+	}
+	
+	@Override
+	public void startUp(){
+		this.addScene(new FrustumCullingCheckScene(this, "Frustum culling check scene"));
+	}
+}
@@ -12,6 +12,7 @@ import org.mt4j.input.inputData.AbstractCursorInputEvt;
 import org.mt4j.input.inputData.InputCursor;
 import org.mt4j.input.inputData.MTInputEvent;
 import org.mt4j.sceneManagement.AbstractScene;
+import org.mt4j.util.math.Vector3D;
 
 import processing.core.PApplet;
 import processing.core.PGraphics;
@@ -36,6 +37,8 @@ public class GestureSound extends MTComponent {
 	float lastLeft1 = 0f;
 	float lastLeft2 = 0f;
 	public static Buffer b;
+	/** draw the cursor where the engine expects it to be by the time the frame is visible */
+	public boolean drawPredicted = true;
 
 	public GestureSound(PApplet applet, final AbstractScene scene) {
 		super(applet);
@@ -208,6 +211,12 @@ public class GestureSound extends MTComponent {
 				g.fill(255,0,255);
 			}
 			
+			if (drawPredicted) {
+				Vector3D raw = engine.getRawPosition(in);
+				Vector3D predicted = engine.getPosition(in, true);
+				g.line(raw.x, raw.y, predicted.x, predicted.y);
+				g.ellipse(predicted.x, predicted.y, 12, 12);
+			}
 			
 			int sizeofpast = in.getEventCount();
 			double[] x = new double[sizeofpast];
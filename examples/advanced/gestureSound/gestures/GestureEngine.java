@@ -9,9 +9,11 @@ import org.mt4j.input.inputData.AbstractCursorInputEvt;
 import org.mt4j.input.inputData.InputCursor;
 import org.mt4j.input.inputData.MTInputEvent;
 
+import org.mt4j.util.LongHashMap;
+import org.mt4j.util.math.Vector3D;
+
 import processing.core.PApplet;
-import Jama.Matrix;
-import advanced.gestureSound.gestures.filters.KalmanFilter;
+import advanced.gestureSound.gestures.filters.CursorTrack;
 import advanced.gestureSound.gestures.qualities.Curvature;
 import advanced.gestureSound.gestures.qualities.Quality;
 import advanced.gestureSound.gestures.qualities.Velocity;
@@ -52,17 +54,22 @@ public class GestureEngine {
 	
 
 	public HashMap<String, ArrayList<SynthInfo>> map;
-	public HashMap<String, HashMap<InputCursor, Quality>> qualities;
-	public HashMap<InputCursor, KalmanFilter> filters;
+	//keyed by cursor id
+	public HashMap<String, LongHashMap<Quality>> qualities;
+	public LongHashMap<CursorTrack> tracks;
 	public static PApplet applet;
 	
+	/** roughly sensor + tuio + one frame late rendering, in ms */
+	public static final int DEFAULT_PREDICTION_HORIZON = 32;
+	int predictionHorizon = DEFAULT_PREDICTION_HORIZON;
+	
 	public GestureEngine(PApplet app, InputDelegate in) {
 		applet = app;
 		map = new HashMap<String, ArrayList<SynthInfo>>();
-		qualities =  new HashMap<String, HashMap<InputCursor,Quality>>();
-		qualities.put(Curvature.name, new HashMap<InputCursor,Quality>()) ;
-		qualities.put(Velocity.name, new HashMap<InputCursor,Quality>()) ;
-		filters = new HashMap<InputCursor, KalmanFilter>();
+		qualities =  new HashMap<String, LongHashMap<Quality>>();
+		qualities.put(Curvature.name, new LongHashMap<Quality>()) ;
+		qualities.put(Velocity.name, new LongHashMap<Quality>()) ;
+		tracks = new LongHashMap<CursorTrack>();
 		setupCursorListener(in);
 	}
 	
@@ -105,51 +112,89 @@ public class GestureEngine {
 	}
 	
 	public void removeCursor(InputCursor in) {
-		filters.remove(in);
+		tracks.remove(in.getId());
 	}
 	public void addCursor(InputCursor in) {
 		addQualitiesForCursor(in);
-		KalmanFilter f = KalmanFilter.buildKF2D(9, 1, 20); //magicparams, still don't know what they mean.
-		f.setX(new Matrix(new double[][]{{in.getCurrentEvtPosX()}, {in.getCurrentEvtPosY()}, {0.01}, {0.01} }));
-		f.predict();
-		filters.put(in, f);
-		
+		tracks.put(in.getId(), new CursorTrack(in.getCurrentEvtPosX(), in.getCurrentEvtPosY()));
 	}
 	
 	public void addQualitiesForCursor(InputCursor in) {
-		qualities.get(Curvature.name).put(in, new Curvature(this));
-		qualities.get(Velocity.name).put(in, new Velocity(this));
+		qualities.get(Curvature.name).put(in.getId(), new Curvature(this));
+		qualities.get(Velocity.name).put(in.getId(), new Velocity(this));
 	}
 	
 	public InputCursor filter(InputCursor in) {
 		AbstractCursorInputEvt evt = in.getCurrentEvent();
 		if (evt == null) return in;
-		KalmanFilter f = filters.get(in);
-		if (f == null) return in;
-		f.correct(new Matrix(new double[][]{{evt.getPosX(), evt.getPosY()}}).transpose());
-		f.predict();
-		evt.setPositionX((float) f.getX().get(0,0));  //I get it!
-		evt.setPositionY((float) f.getX().get(1,0));
+		CursorTrack t = tracks.get(in.getId());
+		if (t == null) return in;
+		t.correct(evt);
+		evt.setPositionX(t.getFilteredX());  //I get it!
+		evt.setPositionY(t.getFilteredY());
 		return in;
 	}
 	
+	/**
+	 * How far ahead predicted positions are extrapolated. Set this to the
+	 * measured touch-to-screen latency of the setup.
+	 * @param millis
+	 */
+	public void setPredictionHorizon(int millis) {
+		predictionHorizon = millis;
+	}
+	
+	public int getPredictionHorizon() {
+		return predictionHorizon;
+	}
+	
+	/**
+	 * The filtered position of the cursor, or the filtered position extrapolated
+	 * by the prediction horizon.
+	 * @param in
+	 * @param predicted
+	 * @return
+	 */
+	public Vector3D getPosition(InputCursor in, boolean predicted) {
+		CursorTrack t = tracks.get(in.getId());
+		if (t == null) 
+			return new Vector3D(in.getCurrentEvtPosX(), in.getCurrentEvtPosY());
+		if (predicted)
+			return new Vector3D(t.getPredictedX(predictionHorizon), t.getPredictedY(predictionHorizon));
+		return new Vector3D(t.getFilteredX(), t.getFilteredY());
+	}
+	
+	/**
+	 * The unfiltered position as it came from the input source.
+	 * @param in
+	 * @return
+	 */
+	public Vector3D getRawPosition(InputCursor in) {
+		CursorTrack t = tracks.get(in.getId());
+		if (t == null) 
+			return new Vector3D(in.getCurrentEvtPosX(), in.getCurrentEvtPosY());
+		return new Vector3D(t.getRawX(), t.getRawY());
+	}
+	
 	public void updateEngine(InputCursor in) {
-		for (HashMap<InputCursor,Quality> cursorAndQualities : qualities.values()) {
-			if (cursorAndQualities.containsKey(in))
-				cursorAndQualities.get(in).update(in);
+		for (LongHashMap<Quality> cursorAndQualities : qualities.values()) {
+			Quality q = cursorAndQualities.get(in.getId());
+			if (q != null)
+				q.update(in);
 		}
 	}
 	
 	public float getCurrentValue(String name) {
-		for (Quality qual : qualities.get(name).values()) {
+		for (Quality qual : qualities.get(name).values(new Quality[0])) {
 			return qual.getCurrentValue();
 		}
 		return Float.NaN;
 	}
 	
 	public float getCurrentValue(String name, InputCursor cursor) {
-		if (qualities.get(name).containsKey(cursor)) {
-			return qualities.get(name).get(cursor).getCurrentValue();
+		Quality q = qualities.get(name).get(cursor.getId());
+		if (q != null) {
+			return q.getCurrentValue();
 		}
 		return Float.NaN;
 	}
@@ -0,0 +1,104 @@
+package advanced.gestureSound.gestures.filters;
+
+import org.mt4j.input.inputData.AbstractCursorInputEvt;
+
+import Jama.Matrix;
+
+/**
+ * Per-cursor filter state. Wraps the 2D kalman filter and keeps the raw
+ * measurement, the filtered position and a smoothed velocity so the
+ * position can be extrapolated ahead by the pipeline latency.
+ */
+public class CursorTrack {
+	/** how much a new velocity sample counts, 1 = no smoothing */
+	public static float VELOCITY_SMOOTHING = 0.5f;
+
+	KalmanFilter filter;
+
+	float rawX, rawY;
+	float filteredX, filteredY;
+	//in pixels per millisecond
+	float velX, velY;
+
+	float lastX, lastY;
+	long lastTime = -1;
+
+	public CursorTrack(float x, float y) {
+		filter = KalmanFilter.buildKF2D(9, 1, 20); //magicparams, still don't know what they mean.
+		filter.setX(new Matrix(new double[][]{{x}, {y}, {0.01}, {0.01} }));
+		filter.predict();
+		rawX = filteredX = lastX = x;
+		rawY = filteredY = lastY = y;
+	}
+
+	/**
+	 * Feeds a new measurement into the filter. The event itself is not touched.
+	 */
+	public void correct(AbstractCursorInputEvt evt) {
+		rawX = evt.getPosX();
+		rawY = evt.getPosY();
+		filter.correct(new Matrix(new double[][]{{rawX, rawY}}).transpose());
+		filter.predict();
+		filteredX = (float) filter.getX().get(0,0);
+		filteredY = (float) filter.getX().get(1,0);
+
+		//the filter model only tracks position usefully, so the velocity
+		//comes from successive filtered positions over the event timestamps.
+		//nanos, because millis are too coarse at high input rates
+		long now = evt.getWhenNanos();
+		if (lastTime < 0) {
+			lastTime = now;
+			lastX = filteredX;
+			lastY = filteredY;
+		}
+		else if (now > lastTime) {
+			float dt = (now - lastTime) / 1000000f;
+			velX += VELOCITY_SMOOTHING*((filteredX-lastX)/dt - velX);
+			velY += VELOCITY_SMOOTHING*((filteredY-lastY)/dt - velY);
+			lastTime = now;
+			lastX = filteredX;
+			lastY = filteredY;
+		}
+		//same timestamp: wait until time moved so dt stays meaningful
+	}
+
+	public float getRawX() {
+		return rawX;
+	}
+
+	public float getRawY() {
+		return rawY;
+	}
+
+	public float getFilteredX() {
+		return filteredX;
+	}
+
+	public float getFilteredY() {
+		return filteredY;
+	}
+
+	public float getVelocityX() {
+		return velX;
+	}
+
+	public float getVelocityY() {
+		return velY;
+	}
+
+	/**
+	 * Extrapolates the filtered position
+	 * @param horizonMillis how far ahead, usually the measured touch to screen latency
+	 */
+	public float getPredictedX(int horizonMillis) {
+		return filteredX + velX*horizonMillis;
+	}
+
+	public float getPredictedY(int horizonMillis) {
+		return filteredY + velY*horizonMillis;
+	}
+
+	public KalmanFilter getFilter() {
+		return filter;
+	}
+}
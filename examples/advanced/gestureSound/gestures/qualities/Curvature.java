@@ -10,6 +10,7 @@ import advanced.gestureSound.Geometry;
 
 import org.mt4j.input.inputData.AbstractCursorInputEvt;
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.util.math.Vector3D;
 
 import Jama.Matrix;
 import advanced.gestureSound.gestures.GestureEngine;
@@ -111,14 +112,14 @@ public class Curvature extends Quality {
 		if (in.getEventCount() < 3)
 			return 0.0f;
 		List<AbstractCursorInputEvt> events = in.getEvents();
-		AbstractCursorInputEvt posEvt 	= events.get(events.size()-1);
+		Vector3D pos 					= getPosition(in);
 		AbstractCursorInputEvt prev 	= events.get(events.size()-2);
 		AbstractCursorInputEvt prev2 	= events.get(events.size()-3);
 		if (prev == null)
 			return 0;
 		if (prev2 == null)
 			return 0;
-		return findCurvature(posEvt.getPosX(), posEvt.getPosY(), prev.getPosX(), prev.getPosY(), prev2.getPosX(), prev2.getPosY());
+		return findCurvature(pos.x, pos.y, prev.getPosX(), prev.getPosY(), prev2.getPosX(), prev2.getPosY());
 	}
 	public static double findCurvature(double x1, double y1, double x2, double y2, double x3, double y3) {
 
@@ -1,12 +1,15 @@
 package advanced.gestureSound.gestures.qualities;
 
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.util.math.Vector3D;
 
 import advanced.gestureSound.gestures.GestureEngine;
 
 public abstract class Quality {
 	GestureEngine engine;
 	public static String name="";
+	/** look at where the finger will be instead of where it was last reported */
+	protected boolean usePrediction = false;
 	
 	public static Quality cursorDetected(GestureEngine engine) {
 		return null;
@@ -19,5 +22,20 @@ public abstract class Quality {
 	
 	public abstract void update(InputCursor in);
 	
+	public void setUsePrediction(boolean usePrediction) {
+		this.usePrediction = usePrediction;
+	}
+	
+	public boolean isUsePrediction() {
+		return usePrediction;
+	}
+	
+	/**
+	 * Current position of the cursor, predicted if this quality wants it.
+	 */
+	protected Vector3D getPosition(InputCursor in) {
+		return engine.getPosition(in, usePrediction);
+	}
+	
 	public abstract float getCurrentValue();
 }
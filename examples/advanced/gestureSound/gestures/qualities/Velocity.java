@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.mt4j.input.inputData.AbstractCursorInputEvt;
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.util.math.Vector3D;
 
 import Jama.Matrix;
 import advanced.gestureSound.gestures.GestureEngine;
@@ -15,6 +16,7 @@ public class Velocity extends Quality {
 	KalmanFilter filter;
 	
 	float currentValue;
+	Vector3D velocity = new Vector3D();
 	
 	public static Quality cursorDetected(GestureEngine engine) {
 		return new Velocity(engine);
@@ -43,7 +45,7 @@ public class Velocity extends Quality {
 		engine. gestureQualityChange(name, val, in);
 	}
 	private float findVelocity(InputCursor in) {
-		return in.getVelocityVector().length();
+		return in.getVelocityVector(120, velocity).length();
 
 	}
 
@@ -9,7 +9,7 @@ import org.mt4j.components.MTComponent;
 import org.mt4j.input.IMTInputEventListener;
 import org.mt4j.input.inputData.AbstractCursorInputEvt;
 import org.mt4j.input.inputData.InputCursor;
-import org.mt4j.input.inputData.MTFingerInputEvt;
+import org.mt4j.input.inputData.InputEventPool;
 import org.mt4j.input.inputData.MTInputEvent;
 import org.mt4j.input.inputSources.AbstractInputSource;
 import org.mt4j.sceneManagement.AbstractScene;
@@ -57,12 +57,13 @@ public class InputDelegate extends MTComponent {
 
 	public void trailOff(final MTInputEvent inEvt, final InputCursor m) {
 		final AbstractCursorInputEvt posEvt = (AbstractCursorInputEvt)inEvt;
-		m.getEvents().remove(posEvt);
+		if (m.getCurrentEvent() == posEvt)
+			m.removeLastEvent();
 
 		/** bezel curve stuff **/
 		List<AbstractCursorInputEvt> past = m.getEvents();
-		int n= m.getEvents(1000).size();
-		int sizeofpast = m.getEvents().size();
+		int sizeofpast = m.getEventCount();
+		int n= sizeofpast - Math.max(1, m.getEventIndexAfterNanos(System.nanoTime()-1000000000L));
 		n = Math.min(n, sizeofpast-1);
 		final Point2D[] s = new Point2D[n+1];
 		final double cX = past.get(sizeofpast-1).getPosX();
@@ -77,11 +78,12 @@ public class InputDelegate extends MTComponent {
 		Point2D p0,p1,p2;
 		float curve = 0f;
 		float damp = 0f;
+		Vector3D velocity = new Vector3D();
 		for (int i=0;i<10;i++) {
 			p0 = Geometry.evalBezier(s,0.0+i/20);
 			p1 = Geometry.evalBezier(s,0.2+i/20);
 			p2 = Geometry.evalBezier(s,0.4+i/20);
-			damp += m.getVelocityVector(i*100).length();
+			damp += m.getVelocityVector(i*100, velocity).length();
 			curve +=  (float) Curvature.findCurvature(p0.getX(),p0.getY(),p1.getX(),p1.getY(),p2.getX(),p2.getY());
 		}
 		/** that was way more complicated than it needed to be. oh well. **/
@@ -103,14 +105,16 @@ public class InputDelegate extends MTComponent {
 				synchronized(m.getEvents()) {
 
 					if (currentVec.length() < 1) { 
-						m.getEvents().add(posEvt);
+						m.addEvent(posEvt);
 						fireInputEvent(posEvt);
+						//we kept the cursor alive past its source, so its events are ours to give back
+						InputEventPool.getInstance().recycleEvents(m);
 						done();
 						return;
 					}
 					AbstractCursorInputEvt evt = m.getPreviousEvent();
 					evt = predictNext(m);
-					m.getEvents().add(evt);
+					m.addEvent(evt);
 //					System.out.println("Sending evt: " + evt + " Stats: "
 //							+ evt.getId() + " " + evt.getPosX() + " "
 //							+ evt.getPosY() + " " + evt.getWhen());
@@ -153,7 +157,7 @@ public class InputDelegate extends MTComponent {
 					currentY = U.minmax(currentY, 0, p.height);
 				}
 				
-				return new MTFingerInputEvt((AbstractInputSource) evt
+				return InputEventPool.getInstance().getFingerEvent((AbstractInputSource) evt
 						.getSource(), evt.getTargetComponent(), currentX
 						, currentY , evt.getId() + 2, m);
 			}
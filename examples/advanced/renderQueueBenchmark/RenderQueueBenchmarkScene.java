@@ -0,0 +1,143 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009 C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *  
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package advanced.renderQueueBenchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mt4j.MTApplication;
+import org.mt4j.components.MTComponent;
+import org.mt4j.components.renderQueue.IRenderBackend;
+import org.mt4j.components.renderQueue.RecordingRenderBackend;
+import org.mt4j.components.renderQueue.RenderQueue;
+import org.mt4j.components.visibleComponents.shapes.MTRectangle;
+import org.mt4j.sceneManagement.AbstractScene;
+import org.mt4j.sceneManagement.IPreDrawAction;
+import org.mt4j.util.MTColor;
+import org.mt4j.util.math.Vector3D;
+
+/**
+ * Draws 2000 small, mostly non overlapping shapes with a few different fill colors,
+ * transparencies and stroke weights and prints the average frame time and render phase time.
+ * <br>Every 300 frames the canvas switches between drawing the shapes one by one and
+ * drawing them with its <code>RenderQueue</code>. In the first frame with the render queue, 
+ * the queue draws with a <code>RecordingRenderBackend</code> instead of OpenGL, so 
+ * the number of queued items, batches, draw calls and state changes is printed.
+ */
+public class RenderQueueBenchmarkScene extends AbstractScene{
+	
+	private static final int SHAPES = 2000;
+	
+	private static final int FRAMES_PER_RUN = 300;
+	
+	private MTApplication app;
+	
+	private List<MTComponent> shapes;
+
+	public RenderQueueBenchmarkScene(MTApplication mtApplication, String name) {
+		super(mtApplication, name);
+		this.app = mtApplication;
+		this.shapes = new ArrayList<MTComponent>();
+		
+		int columns = (int) Math.ceil(Math.sqrt(SHAPES * app.width / (float) app.height));
+		int rows = (int) Math.ceil(SHAPES / (float) columns);
+		float cellWidth = app.width / (float) columns;
+		float cellHeight = app.height / (float) rows;
+		for (int i = 0; i < SHAPES; i++) {
+			MTRectangle rect = new MTRectangle(0, 0, cellWidth * 0.6f, cellHeight * 0.6f, app);
+			int kind = i % 6;
+			rect.setFillColor(new MTColor(kind * 40, 255 - kind * 40, 128, kind % 2 == 0 ? 255 : 180));
+			rect.setNoStroke(kind >= 4);
+			rect.setStrokeWeight(kind == 3 ? 2 : 1);
+			rect.setPickable(false);
+			rect.translate(new Vector3D((i % columns + 0.2f) * cellWidth, (i / columns + 0.2f) * cellHeight, 0));
+			this.getCanvas().addChild(rect);
+			shapes.add(rect);
+		}
+		this.getCanvas().setUseRenderQueue(false);
+		
+		this.registerPreDrawAction(new IPreDrawAction() {
+			private int frame = 0;
+			private long lastFrameStart = 0;
+			private long frameNanos = 0;
+			private long renderNanos = 0;
+			private final Vector3D wobble = new Vector3D(0, 0, 0);
+			private final RecordingRenderBackend recorder = new RecordingRenderBackend();
+			private IRenderBackend glBackend;
+			
+			public void processAction() {
+				long start = System.nanoTime();
+				if (lastFrameStart != 0){
+					frameNanos += start - lastFrameStart;
+					renderNanos += getCanvas().getLastRenderPhaseNanos();
+				}
+				lastFrameStart = start;
+				
+				//Print what the queue recorded in the last frame and draw with OpenGL again
+				RenderQueue queue = getCanvas().getRenderQueue();
+				if (glBackend != null){
+					System.out.println("Render queue: " + queue.getLastFlushItemCount() + " items"
+							+ " in " + queue.getLastFlushBatchCount() + " batches"
+							+ ", recorded " + recorder.getDrawCallCount() + " draw calls"
+							+ " and " + recorder.getStateChangeCount() + " state changes");
+					queue.setBackend(glBackend);
+					glBackend = null;
+					recorder.reset();
+				}
+				
+				//Move every shape a little, so the frames aren't skipped as idle
+				float phase = frame * 0.05f;
+				for (int i = 0; i < shapes.size(); i++) {
+					wobble.setXYZ((float) Math.sin(phase + i) * 0.1f, (float) Math.cos(phase + i) * 0.1f, 0);
+					shapes.get(i).translate(wobble);
+				}
+				
+				frame++;
+				if (frame % FRAMES_PER_RUN == 0){
+					System.out.println((getCanvas().isUseRenderQueue() ? "Render queue" : "Direct drawing") 
+							+ ": " + SHAPES + " shapes"
+							+ ", avg frame: " + (frameNanos / (FRAMES_PER_RUN - 1) / 1000) + " us"
+							+ ", avg render phase: " + (renderNanos / (FRAMES_PER_RUN - 1) / 1000) + " us");
+					frameNanos = 0;
+					renderNanos = 0;
+					lastFrameStart = 0;
+					getCanvas().setUseRenderQueue(!getCanvas().isUseRenderQueue());
+					
+					//Record the commands of the first frame with the render queue
+					queue = getCanvas().getRenderQueue();
+					if (queue != null){
+						glBackend = queue.getBackend();
+						queue.setBackend(recorder);
+					}
+				}
+			}
+			
+			public boolean isLoop() {
+				return true;
+			}
+		});
+	}
+	
+	@Override
+	public void init() {
+	}
+
+	@Override
+	public void shutDown() {
+	}
+}
@@ -0,0 +1,16 @@
+package advanced.renderQueueBenchmark;
+
+import org.mt4j.MTApplication;
+
+public class StartRenderQueueBenchmark extends MTApplication{
+	private static final long serialVersionUID = 1L;
+
+	public static void main(String args[]){
+		initialize();
+	}
+	
+	@Override
+	public void startUp(){
+		this.addScene(new RenderQueueBenchmarkScene(this, "Render queue benchmark scene"));
+	}
+}
@@ -0,0 +1,175 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009 C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *  
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package advanced.renderQueueCheck;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mt4j.MTApplication;
+import org.mt4j.components.renderQueue.RecordingRenderBackend;
+import org.mt4j.components.renderQueue.RenderQueue;
+import org.mt4j.components.visibleComponents.shapes.MTRectangle;
+import org.mt4j.sceneManagement.AbstractScene;
+import org.mt4j.sceneManagement.IPreDrawAction;
+import org.mt4j.util.MTColor;
+
+import processing.core.PGraphics3D;
+
+/**
+ * Queues two known layouts of rectangles into a <code>RenderQueue</code> which draws with a
+ * <code>RecordingRenderBackend</code> and checks the number of items, batches, draw calls
+ * and state changes of the flush against the expected numbers.
+ * <ul>
+ * <li>A row of 14 rectangles which don't overlap: 6 opaque ones without a stroke, 4 transparent ones
+ * with stroke weight 2 and 4 opaque ones with stroke weight 1. The 14 fills are drawn in one batch,
+ * the strokes overlap their fills and are drawn above them in one batch per stroke weight.
+ * So 22 items in 3 batches, with one texture state and two line states.</li>
+ * <li>A stack of 5 overlapping rectangles with stroke weights 1, 2, 1, 2, 1. Every item overlaps all 
+ * earlier ones, so nothing may be reordered: 10 items in 10 batches, with one texture state 
+ * and five line states.</li>
+ * </ul>
+ * The rectangles are added to the canvas as well, so they are visible.
+ * <br>Only shapes drawn with direct OpenGL are queued, so the check needs the OpenGL renderer.
+ */
+public class RenderQueueCheckScene extends AbstractScene{
+	
+	private MTApplication app;
+	
+	private List<MTRectangle> row;
+	
+	private List<MTRectangle> stack;
+	
+	private int failures;
+
+	public RenderQueueCheckScene(MTApplication mtApplication, String name) {
+		super(mtApplication, name);
+		this.app = mtApplication;
+		this.row = new ArrayList<MTRectangle>();
+		this.stack = new ArrayList<MTRectangle>();
+		
+		float width = app.width / 16f;
+		for (int i = 0; i < 14; i++) {
+			MTRectangle rect = new MTRectangle(width * (i + 1), 100, width * 0.6f, 80, app);
+			if (i < 6){
+				rect.setFillColor(new MTColor(50 + i * 30, 100, 200, 255));
+				rect.setNoStroke(true);
+			}else if (i < 10){
+				rect.setFillColor(new MTColor(200, 50 + i * 10, 100, 128));
+				rect.setStrokeWeight(2);
+			}else{
+				rect.setFillColor(new MTColor(100, 200, 50 + i * 10, 255));
+				rect.setStrokeWeight(1);
+			}
+			row.add(rect);
+		}
+		
+		for (int i = 0; i < 5; i++) {
+			MTRectangle rect = new MTRectangle(100 + i * 30, 300 + i * 30, 200, 150, app);
+			rect.setFillColor(new MTColor(40 * i, 150, 255 - 40 * i, 255));
+			rect.setStrokeWeight(i % 2 == 0 ? 1 : 2);
+			stack.add(rect);
+		}
+		
+		for (MTRectangle rect : row) {
+			this.getCanvas().addChild(rect);
+		}
+		for (MTRectangle rect : stack) {
+			this.getCanvas().addChild(rect);
+		}
+		
+		//The camera matrices are set up when the scene is drawn
+		this.registerPreDrawAction(new IPreDrawAction() {
+			public void processAction() {
+				runChecks();
+			}
+			
+			public boolean isLoop() {
+				return false;
+			}
+		});
+	}
+	
+	
+	/**
+	 * Runs the checks and prints the results.
+	 */
+	private void runChecks(){
+		if (!(app.g instanceof PGraphics3D)){
+			System.out.println("Render queue check: needs the OpenGL renderer, skipped.");
+			return;
+		}
+		this.getSceneCam().update();
+		PGraphics3D g3d = (PGraphics3D) app.g;
+		RecordingRenderBackend recorder = new RecordingRenderBackend();
+		RenderQueue queue = new RenderQueue(recorder);
+		failures = 0;
+		
+		if (!this.check("row of separate rectangles", row, queue, recorder, g3d, 22, 3, 3)
+			|| !this.check("stack of overlapping rectangles", stack, queue, recorder, g3d, 10, 10, 6)
+		){
+			System.out.println("Render queue check: the rectangles aren't drawn with direct OpenGL, skipped.");
+			return;
+		}
+		System.out.println("Render queue check " + (failures == 0 ? "passed." : "FAILED."));
+	}
+	
+	
+	/**
+	 * Queues and flushes the rectangles and compares the recorded counts with the expected ones.
+	 * 
+	 * @return false, if a rectangle couldn't be queued
+	 */
+	private boolean check(String layout, List<MTRectangle> rects, RenderQueue queue, RecordingRenderBackend recorder, PGraphics3D g3d, 
+			int expectedItems, int expectedBatches, int expectedStateChanges){
+		recorder.reset();
+		for (MTRectangle rect : rects) {
+			//The rectangles aren't transformed, so the camera matrix is their modelview matrix
+			if (!queue.add(rect, g3d.camera, g3d.projection)){
+				queue.flush();
+				return false;
+			}
+		}
+		queue.flush();
+		
+		System.out.println("Render queue check: " + layout + ": " + queue.getLastFlushItemCount() + " items"
+				+ " in " + queue.getLastFlushBatchCount() + " batches"
+				+ ", recorded " + recorder.getDrawCallCount() + " draw calls"
+				+ " and " + recorder.getStateChangeCount() + " state changes");
+		this.expect(layout, "items", expectedItems, queue.getLastFlushItemCount());
+		this.expect(layout, "batches", expectedBatches, queue.getLastFlushBatchCount());
+		this.expect(layout, "draw calls", expectedBatches, recorder.getDrawCallCount());
+		this.expect(layout, "state changes", expectedStateChanges, recorder.getStateChangeCount());
+		return true;
+	}
+	
+	
+	private void expect(String layout, String what, int expected, int actual){
+		if (expected != actual){
+			failures++;
+			System.out.println("Render queue check failure: " + layout + " has " + actual + " " + what + ", expected " + expected);
+		}
+	}
+	
+	@Override
+	public void init() {
+	}
+
+	@Override
+	public void shutDown() {
+	}
+}
@@ -0,0 +1,16 @@
+package advanced.renderQueueCheck;
+
+import org.mt4j.MTApplication;
+
+public class StartRenderQueueCheck extends MTApplication{
+	private static final long serialVersionUID = 1L;
+
+	public static void main(String args[]){
+		initialize();
+	}
+	
+	@Override
+	public void startUp(){
+		this.addScene(new RenderQueueCheckScene(this, "Render queue check scene"));
+	}
+}
@@ -0,0 +1,16 @@
+package advanced.transformBenchmark;
+
+import org.mt4j.MTApplication;
+
+public class StartTransformBenchmark extends MTApplication{
+	private static final long serialVersionUID = 1L;
+
+	public static void main(String args[]){
+		initialize();
+	}
+	
+	@Override
+	public void startUp(){
+		this.addScene(new TransformBenchmarkScene(this, "Transform benchmark scene"));
+	}
+}
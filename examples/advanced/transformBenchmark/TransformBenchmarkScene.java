@@ -0,0 +1,140 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009 C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *  
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package advanced.transformBenchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mt4j.MTApplication;
+import org.mt4j.components.MTComponent;
+import org.mt4j.components.visibleComponents.shapes.MTRectangle;
+import org.mt4j.sceneManagement.AbstractScene;
+import org.mt4j.sceneManagement.IPreDrawAction;
+import org.mt4j.util.MTColor;
+import org.mt4j.util.math.Vector3D;
+
+/**
+ * Animates 10000 components in 100 rotating groups and prints the average
+ * frame time and the time spent calculating the global matrices.
+ * <br>Every 300 frames the canvas switches between the lazy calculation of the global
+ * matrices and the update in one pass by its <code>TransformHierarchy</code>.
+ */
+public class TransformBenchmarkScene extends AbstractScene{
+	
+	private static final int GROUPS = 100;
+	
+	private static final int COMPONENTS_PER_GROUP = 99;
+	
+	private static final int FRAMES_PER_RUN = 300;
+	
+	private MTApplication app;
+	
+	private List<MTComponent> groups;
+	
+	private List<MTComponent> components;
+
+	public TransformBenchmarkScene(MTApplication mtApplication, String name) {
+		super(mtApplication, name);
+		this.app = mtApplication;
+		this.groups = new ArrayList<MTComponent>();
+		this.components = new ArrayList<MTComponent>();
+		
+		int columns = (int) Math.ceil(Math.sqrt(GROUPS));
+		float cellWidth = app.width / (float) columns;
+		float cellHeight = app.height / (float) columns;
+		for (int g = 0; g < GROUPS; g++) {
+			MTComponent group = new MTComponent(app, "group " + g);
+			group.translate(new Vector3D((g % columns + 0.5f) * cellWidth, (g / columns + 0.5f) * cellHeight, 0));
+			for (int i = 0; i < COMPONENTS_PER_GROUP; i++) {
+				MTRectangle rect = new MTRectangle(0, 0, 4, 4, app);
+				rect.setFillColor(new MTColor(i * 2, 255 - i * 2, g * 2, 255));
+				rect.setNoStroke(true);
+				rect.setPickable(false);
+				float angle = (float) (i * 2 * Math.PI / COMPONENTS_PER_GROUP);
+				float radius = 5 + (i % 5) * 8;
+				rect.translate(new Vector3D((float) Math.cos(angle) * radius, (float) Math.sin(angle) * radius, 0));
+				group.addChild(rect);
+				components.add(rect);
+			}
+			this.getCanvas().addChild(group);
+			groups.add(group);
+		}
+		
+		this.registerPreDrawAction(new IPreDrawAction() {
+			private int frame = 0;
+			private long lastFrameStart = 0;
+			private long frameNanos = 0;
+			private long transformNanos = 0;
+			private final Vector3D rotationPoint = new Vector3D(0, 0, 0);
+			private final Vector3D wobble = new Vector3D(0, 0, 0);
+			
+			public void processAction() {
+				long start = System.nanoTime();
+				if (lastFrameStart != 0){
+					frameNanos += start - lastFrameStart;
+				}
+				lastFrameStart = start;
+				
+				//Animate every component
+				float phase = frame * 0.05f;
+				for (int g = 0; g < groups.size(); g++) {
+					groups.get(g).rotateZ(rotationPoint, 1);
+				}
+				for (int i = 0; i < components.size(); i++) {
+					MTComponent comp = components.get(i);
+					wobble.setXYZ((float) Math.sin(phase + i) * 0.2f, (float) Math.cos(phase + i) * 0.2f, 0);
+					comp.translate(wobble);
+				}
+				
+				//Measure the calculation of the global matrices as done before drawing and picking
+				long transformStart = System.nanoTime();
+				if (getCanvas().isUseTransformHierarchy()){
+					getCanvas().getTransformHierarchy().update();
+				}
+				for (int i = 0; i < components.size(); i++) {
+					components.get(i).getGlobalMatrix();
+				}
+				transformNanos += System.nanoTime() - transformStart;
+				
+				frame++;
+				if (frame % FRAMES_PER_RUN == 0){
+					System.out.println((getCanvas().isUseTransformHierarchy() ? "Transform hierarchy" : "Lazy global matrices") 
+							+ ": " + (GROUPS * (COMPONENTS_PER_GROUP + 1)) + " components"
+							+ ", avg frame: " + (frameNanos / (FRAMES_PER_RUN - 1) / 1000) + " us"
+							+ ", avg global matrices: " + (transformNanos / FRAMES_PER_RUN / 1000) + " us");
+					frameNanos = 0;
+					transformNanos = 0;
+					lastFrameStart = 0;
+					getCanvas().setUseTransformHierarchy(!getCanvas().isUseTransformHierarchy());
+				}
+			}
+			
+			public boolean isLoop() {
+				return true;
+			}
+		});
+	}
+	
+	@Override
+	public void init() {
+	}
+
+	@Override
+	public void shutDown() {
+	}
+}
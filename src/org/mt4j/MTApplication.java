@@ -20,6 +20,8 @@ package org.mt4j;
 
 import java.awt.Dimension;
 import java.awt.Toolkit;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
 import java.io.FileInputStream;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -35,10 +37,15 @@ import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.SimpleLayout;
+import org.mt4j.components.MTComponent;
 import org.mt4j.input.InputManager;
+import org.mt4j.input.InputProcessingThread;
+import org.mt4j.input.TimerWheel;
 import org.mt4j.input.inputData.AbstractCursorInputEvt;
 import org.mt4j.input.inputData.ActiveCursorPool;
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputData.InputEventPool;
+import org.mt4j.input.inputData.MTInputEvent;
 import org.mt4j.input.inputProcessors.globalProcessors.AbstractGlobalInputProcessor;
 import org.mt4j.input.inputSources.AbstractInputSource;
 import org.mt4j.sceneManagement.ISceneChangeListener;
@@ -122,6 +129,30 @@ public class MTApplication extends PApplet {
 	/** The scene stack. */
 	private ArrayDeque<Iscene> sceneStack;
 	
+	/** Guards the input processing against concurrent changes of the scene. */
+	private final Object inputLock = new Object();
+	
+	/** The input processing thread, null if input is processed in the render thread. */
+	private volatile InputProcessingThread inputThread;
+	
+	/** The frame rate while the application is idle, -1 if idle frames are never skipped. */
+	private volatile float idleFrameRate = -1;
+	
+	/** The draw change count at the end of the last drawn frame. */
+	private int lastDrawChangeCount;
+	
+	/** The window width of the last drawn frame. */
+	private int lastFrameWidth;
+	
+	/** The window height of the last drawn frame. */
+	private int lastFrameHeight;
+	
+	/** Whether mouse or key events were queued since the last drawn frame started. */
+	private volatile boolean appletEventsQueued;
+	
+	/** The number of skipped idle frames. */
+	private long skippedFrameCount;
+	
 	
 //	private static boolean fullscreen;
 	/*
@@ -304,6 +335,7 @@ public class MTApplication extends PApplet {
 		
 		//Load some properties from Settings.txt file
 		Properties properties = new Properties();
+		boolean useInputThread = false;
 	    try {
 	        properties.load(new FileInputStream(MT4jSettings.getInstance().getDefaultSettingsPath() + "Settings.txt"));
 	        //FIXME at fullscreen really use the screen dimension? -> we need to set the native resoultion ourselves!
@@ -317,6 +349,11 @@ public class MTApplication extends PApplet {
 		    MT4jSettings.getInstance().setNumSamples((Integer.parseInt(properties.getProperty("OpenGLAntialiasing", new Integer(0).toString()))));
 		    
 		    vSync = Boolean.parseBoolean(properties.getProperty("Vertical_sync", "false"));
+		    InputEventPool.getInstance().setEnabled(Boolean.parseBoolean(properties.getProperty("InputEventPooling", "false")));
+		    InputEventPool.getInstance().setDebug(Boolean.parseBoolean(properties.getProperty("InputEventPoolDebug", "false")));
+		    useInputThread = Boolean.parseBoolean(properties.getProperty("InputThread", "false"));
+		    MTInputEvent.setStageStampsEnabled(Boolean.parseBoolean(properties.getProperty("InputStageStamps", "false")));
+		    this.setIdleFrameRate(Float.parseFloat(properties.getProperty("IdleFrameRate", "-1")));
 		    //Set frametitle
 		    String frameTitle = properties.getProperty("Frametitle", "MT-Application");
 		    MT4jSettings.getInstance().setFrameTitle(frameTitle);
@@ -369,6 +406,10 @@ public class MTApplication extends PApplet {
 		
 		//Call startup at the end of setup(). Should be overridden in extending classes
 		this.startUp();
+		
+		if (useInputThread){
+			this.setInputThreadEnabled(true);
+		}
 
 		/*
 		* Resizable Window test
@@ -439,6 +480,136 @@ public class MTApplication extends PApplet {
 	}
 	
 	
+	/**
+	 * Skips the frame if the application is idle (see <code>setIdleFrameRate()</code>), 
+	 * else lets processing draw it.
+	 */
+	@Override
+	public void handleDraw() {
+		float idleRate = this.idleFrameRate;
+		if (idleRate >= 0 && this.alreadyRun && this.isIdle()){
+			if (idleRate == 0 || System.nanoTime() - timeLastFrame < (long)(1000000000L / idleRate)){
+				skippedFrameCount++;
+				return;
+			}
+		}
+		super.handleDraw();
+	}
+	
+	
+	/**
+	 * Checks if nothing happened since the last frame was drawn, so the next one would look the same.
+	 * <br>Polls the input sources which have to ask for new input, because <code>pre()</code> isnt
+	 * called while frames are skipped.
+	 * 
+	 * @return true, if the application is idle
+	 */
+	private boolean isIdle(){
+		boolean idle = MTComponent.getDrawChangeCount() == lastDrawChangeCount
+			&& !MTComponent.isUpdateRequested()
+			&& !appletEventsQueued
+			&& !redraw
+			&& this.pendingTransition == null
+			&& animMgr.size() == 0
+			&& width == lastFrameWidth 
+			&& height == lastFrameHeight;
+		
+		if (idle){
+			synchronized (invokeLaterActions) {
+				idle = invokeLaterActions.isEmpty();
+			}
+		}
+		
+		InputProcessingThread inputThread = this.inputThread;
+		if (inputThread != null){
+			idle &= !inputThread.hasPublishedCommands();
+		}else{
+			//Pending timeouts have to be advanced in the render thread
+			idle &= TimerWheel.getInstance().getTimeoutCount() == 0;
+		}
+		
+		//Poll all sources, even if we already know that the frame will be drawn
+		InputManager inputManager = this.getInputManager();
+		if (inputManager != null){
+			for (AbstractInputSource source : inputManager.getRegisteredInputSources()){
+				if (source.pollAndCheckEvents()){
+					idle = false;
+				}
+			}
+		}
+		return idle;
+	}
+	
+	
+	/* (non-Javadoc)
+	 * @see processing.core.PApplet#enqueueMouseEvent(java.awt.event.MouseEvent)
+	 */
+	@Override
+	protected void enqueueMouseEvent(MouseEvent e) {
+		super.enqueueMouseEvent(e);
+		//Processing dispatches the queued events while drawing the next frame
+		appletEventsQueued = true;
+	}
+	
+	
+	/* (non-Javadoc)
+	 * @see processing.core.PApplet#enqueueKeyEvent(java.awt.event.KeyEvent)
+	 */
+	@Override
+	protected void enqueueKeyEvent(KeyEvent e) {
+		super.enqueueKeyEvent(e);
+		appletEventsQueued = true;
+	}
+	
+	
+	/**
+	 * Sets the frame rate the application drops to while it is idle.
+	 * <br>The application is idle if no component changed since the last frame, no input is
+	 * queued and no animations, transitions, controllers or pending input timeouts are running. 
+	 * While idle, frames are skipped, which saves CPU and GPU time when the application isnt used.
+	 * New input wakes the application up within one frame of the maximum frame rate.
+	 * <ul>
+	 * <li>-1 never skips frames (default)
+	 * <li>0 skips all frames while idle
+	 * <li>a positive value still draws that many frames per second while idle
+	 * </ul>
+	 * Components which are changed without using their setters have to call <code>MTComponent.setDrawDirty()</code>
+	 * or <code>requestRedraw()</code> has to be called, else the change may not be shown until the next input arrives.
+	 * <br>Can also be set with the <code>IdleFrameRate</code> setting in the Settings.txt file.
+	 * 
+	 * @param idleFrameRate the idle frame rate
+	 */
+	public void setIdleFrameRate(float idleFrameRate){
+		this.idleFrameRate = idleFrameRate < 0 ? -1 : idleFrameRate;
+	}
+	
+	/**
+	 * Gets the frame rate the application drops to while it is idle.
+	 * 
+	 * @return the idle frame rate, -1 if idle frames are never skipped
+	 */
+	public float getIdleFrameRate(){
+		return this.idleFrameRate;
+	}
+	
+	/**
+	 * Makes sure the next frame is drawn, even if the application is idle.
+	 * <br>Can be called from any thread.
+	 */
+	public void requestRedraw(){
+		MTComponent.requestUpdate();
+	}
+	
+	/**
+	 * Gets the number of frames skipped because the application was idle.
+	 * 
+	 * @return the skipped frame count
+	 */
+	public long getSkippedFrameCount(){
+		return this.skippedFrameCount;
+	}
+	
+	
 	/**
 	 * Is called at the end of the setup() method.
 	 * <br>Override this method in your extended MTApplication class!
@@ -466,6 +637,10 @@ public class MTApplication extends PApplet {
 		timeLastFrame = nanos;
 //		*/
 		
+		//Changes requested from now on are drawn in the next frame
+		MTComponent.clearUpdateRequest();
+		appletEventsQueued = false;
+		
 		/*
 		//Use currentTimeMillis
 		if (!alreadyRun){
@@ -479,31 +654,57 @@ public class MTApplication extends PApplet {
 		
 //		System.out.println("TimeDelta: " + timeDelta);
 		
-		//Run invoke later actions
-		synchronized (invokeLaterActions) {
-			while (!invokeLaterActions.isEmpty()){
-				invokeLaterActions.pollFirst().run();
+		//The input thread picks and reads the global matrices, bounds and hit test caches of the scene,
+		//so it must not run while the scene is changed, animated, updated or drawn
+		synchronized (inputLock) {
+			//Run invoke later actions
+			synchronized (invokeLaterActions) {
+				while (!invokeLaterActions.isEmpty()){
+					invokeLaterActions.pollFirst().run();
+				}
+			}
+		
+			//Run the scene changes requested by the input processing thread
+			InputProcessingThread inputThread = this.inputThread;
+			if (inputThread != null){
+				inputThread.runCommands();
+			}else{
+				//Run the expired input timeouts, the input thread does that itself if enabled
+				TimerWheel.getInstance().advance(nanos);
 			}
-		}
 		
-		//Update animation manager
-		animMgr.update(timeDelta);
+			//Update animation manager
+			animMgr.update(timeDelta);
 		
 //		/*
-		//Handle scene transitions
-		if (this.pendingTransition != null){
-			//Run the transition
-			this.pendingTransition.transition.drawAndUpdate(this.g, timeDelta);
+			//Handle scene transitions
+			if (this.pendingTransition != null){
+				//Run the transition
+				this.pendingTransition.transition.drawAndUpdate(this.g, timeDelta);
 			
-			if (this.pendingTransition.transition.isFinished()){
-				this.pendingTransition.transition.shutDown();
-				this.doSceneChange(this.getCurrentScene(), this.pendingTransition.nextScene);
-				this.pendingTransition = null;
+				if (this.pendingTransition.transition.isFinished()){
+					this.pendingTransition.transition.shutDown();
+					this.doSceneChange(this.getCurrentScene(), this.pendingTransition.nextScene);
+					this.pendingTransition = null;
+				}
+			}else{
+				//Draw the current scene
+				this.getCurrentScene().drawAndUpdate(this.g, timeDelta);
 			}
-		}else{
-			//Draw the current scene
-			this.getCurrentScene().drawAndUpdate(this.g, timeDelta);
 		}
+		
+		//Record when the input of this frame has been drawn. Also done if stage stamps were 
+		//just disabled, so the cursors waiting for their rendered stamp are recycled
+		if (this.getInputManager() != null){
+			for (AbstractInputSource source : this.getInputManager().getRegisteredInputSources()){
+				source.stampRenderedEvents();
+			}
+		}
+		
+		//Changes made while drawing, i.e. by components which temporarily change their style, are drawn already
+		lastDrawChangeCount = MTComponent.getDrawChangeCount();
+		lastFrameWidth = width;
+		lastFrameHeight = height;
 //		 */
 		
 		/*
@@ -530,6 +731,58 @@ public class MTApplication extends PApplet {
 	}
 	
 	
+	/**
+	 * Enables or disables processing the input in a separate thread.
+	 * If enabled, the input sources, global input processors and component input processors
+	 * run in an <code>InputProcessingThread</code> at the rate the input arrives instead of
+	 * once per frame. Gesture listeners are still invoked in the rendering thread, 
+	 * batched at the start of the next frame.
+	 * <br>Can also be enabled with the <code>InputThread</code> setting in the Settings.txt file.
+	 * 
+	 * @param enabled the enabled
+	 * 
+	 * @see InputProcessingThread
+	 */
+	public synchronized void setInputThreadEnabled(boolean enabled){
+		if (enabled && this.inputThread == null){
+			InputProcessingThread thread = new InputProcessingThread(this);
+			this.inputThread = thread;
+			thread.start();
+		}else if (!enabled && this.inputThread != null){
+			final InputProcessingThread thread = this.inputThread;
+			this.inputThread = null;
+			thread.shutDown();
+			//Dont lose the gesture commands of the last input pass
+			this.invokeLater(new Runnable() {
+				public void run() {
+					thread.runCommands();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Gets the input processing thread.
+	 * 
+	 * @return the input thread or null if the input is processed in the rendering thread
+	 */
+	public InputProcessingThread getInputThread(){
+		return this.inputThread;
+	}
+	
+	/**
+	 * Gets the lock which is held while the input is processed and
+	 * while the scene is changed, animated, updated and drawn.
+	 * <br>Code which changes the scene from another thread than the rendering thread 
+	 * has to hold this lock when the input processing thread is enabled.
+	 * 
+	 * @return the input lock
+	 */
+	public Object getInputLock(){
+		return this.inputLock;
+	}
+	
+	
 	/**
 	 * Checks which scene is on top of the scene stack at the moment.
 	 * If no scene has been pushed on the stack, null is returned.
@@ -688,6 +941,8 @@ public class MTApplication extends PApplet {
 
 			//Set new current scene
 			this.currentScene = newScene;
+			//Draw the new scene in the next frame even if the application is idle
+			MTComponent.requestUpdate();
 			
 			//FIXME TEST -> Make it possible to destroy scenes after a transition
 			//(During a transition the old scene cant be removed or destroyed because
@@ -725,11 +980,16 @@ public class MTApplication extends PApplet {
 	 * 
 	 * @param newScene the new scene
 	 */
-	public synchronized boolean changeScene(Iscene newScene){
-		if (!this.sceneList.contains(newScene)){
-			this.addScene(newScene);
+	public boolean changeScene(Iscene newScene){
+		//Dont change the scene while the input thread is processing input
+		synchronized (inputLock) {
+			synchronized (this) {
+				if (!this.sceneList.contains(newScene)){
+					this.addScene(newScene);
+				}
+				return this.initiateSceneChange(this.getCurrentScene(), newScene);
+			}
 		}
-		return this.initiateSceneChange(this.getCurrentScene(), newScene);
 	}
 
 	
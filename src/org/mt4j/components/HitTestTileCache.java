@@ -0,0 +1,334 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.components;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.mt4j.components.interfaces.IMTComponent3D;
+import org.mt4j.util.math.Ray;
+import org.mt4j.util.math.Tools3D;
+import org.mt4j.util.math.Vector3D;
+
+
+/**
+ * Caches the hit test results of a canvas in screen tiles.
+ * <p>
+ * Each tile remembers the results of the picks made in it, one per pixel, and
+ * the children of the canvas whose subtree bounds reach into the tile's viewing volume.
+ * A tile is invalidated when one of these children - or something in their subtree - moves,
+ * changes its geometry, visibility or pickability, when a child is added whose bounds reach into
+ * the tile, or when a candidate is removed. So repeated touches on a static user interface
+ * don't pick the scene again.
+ * <br>If the canvas camera changes all tiles are dropped. Tiles reached by a subtree with
+ * unknown bounds (see <code>MTComponent.getSubtreeBoundsGlobal()</code>) are never cached.
+ */
+class HitTestTileCache {
+
+	/** The width and height of a tile in pixels. */
+	private static final int TILE_SIZE = 32;
+
+	/** The maximum number of cached tiles. */
+	private static final int MAX_TILES = 4096;
+
+	/** The canvas. */
+	private MTCanvas canvas;
+
+	/** The tiles. */
+	private Map<Long, Tile> tiles;
+
+	/** The children of the canvas with the state the tiles were checked with. */
+	private Map<MTComponent, ChildEntry> children;
+
+	/** The change count of the canvas subtree when the children were last checked. */
+	private int canvasChangeCount;
+
+	/** The scan stamp. */
+	private int scanStamp;
+
+
+	/**
+	 * Instantiates a new hit test tile cache.
+	 *
+	 * @param canvas the canvas
+	 */
+	public HitTestTileCache(MTCanvas canvas) {
+		this.canvas = canvas;
+		this.tiles = new HashMap<Long, Tile>();
+		this.children = new IdentityHashMap<MTComponent, ChildEntry>();
+		this.canvasChangeCount = -1;
+	}
+
+
+	/**
+	 * Gets the component at the screen position, from the cache if possible.
+	 *
+	 * @param x the x
+	 * @param y the y
+	 *
+	 * @return the component at the position or the canvas if no component was hit
+	 */
+	public IMTComponent3D getComponentAt(float x, float y){
+		this.checkChildren();
+
+		int px = (int) Math.floor(x);
+		int py = (int) Math.floor(y);
+		int tx = floorDiv(px, TILE_SIZE);
+		int ty = floorDiv(py, TILE_SIZE);
+		Long key = Long.valueOf(((long) tx << 32) | (ty & 0xffffffffL));
+		Tile tile = tiles.get(key);
+		if (tile != null && !tile.isCameraUnchanged()){
+			this.clear();
+			tile = null;
+		}
+		if (tile == null){
+			if (tiles.size() >= MAX_TILES){
+				this.clear();
+			}
+			tile = new Tile(tx, ty);
+			tiles.put(key, tile);
+		}
+		if (tile.candidates == null){
+			tile.updateCandidates();
+		}
+		if (!tile.cacheable){
+			return this.pick(x, y);
+		}
+
+		int index = (py - ty * TILE_SIZE) * TILE_SIZE + (px - tx * TILE_SIZE);
+		IMTComponent3D comp = tile.results[index];
+		if (comp == null){
+			comp = this.pick(x, y);
+			tile.results[index] = comp;
+		}
+		return comp;
+	}
+
+
+	private IMTComponent3D pick(float x, float y){
+		IMTComponent3D comp = canvas.pick(x, y).getNearestPickResult();
+		return comp != null ? comp : canvas;
+	}
+
+
+	private static int floorDiv(int a, int b){
+		return a >= 0 ? a / b : -((-a + b - 1) / b);
+	}
+
+
+	/**
+	 * Clears the cache.
+	 */
+	public void clear(){
+		tiles.clear();
+	}
+
+
+	/**
+	 * Invalidates the tiles affected by the children which changed since the last check.
+	 */
+	private void checkChildren(){
+		if (canvas.getSubtreeChangeCount() == canvasChangeCount){
+			return; //Nothing changed
+		}
+		scanStamp++;
+		boolean childChanged = false;
+		for (int i = 0; i < canvas.getChildCount(); i++) {
+			MTComponent child = canvas.getChildByIndex(i);
+			ChildEntry entry = children.get(child);
+			if (entry == null){
+				entry = new ChildEntry();
+				entry.changeCount = child.getSubtreeChangeCount();
+				entry.bounds = child.getSubtreeBoundsGlobal();
+				children.put(child, entry);
+				this.invalidate(child, entry.bounds);
+				childChanged = true;
+			}else if (entry.changeCount != child.getSubtreeChangeCount()){
+				entry.changeCount = child.getSubtreeChangeCount();
+				entry.bounds = child.getSubtreeBoundsGlobal();
+				this.invalidate(child, entry.bounds);
+				childChanged = true;
+			}
+			entry.stamp = scanStamp;
+		}
+		for (Iterator<Map.Entry<MTComponent, ChildEntry>> it = children.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<MTComponent, ChildEntry> e = it.next();
+			if (e.getValue().stamp != scanStamp){ //Removed
+				it.remove();
+				this.invalidate(e.getKey(), MTComponent.NO_BOUNDS);
+				childChanged = true;
+			}
+		}
+		if (!childChanged){
+			//The canvas itself changed, i.e. its clip
+			this.clear();
+		}
+		//Brings the rest of the canvas subtree up to date, so later changes are counted again
+		canvas.getSubtreeBoundsGlobal();
+		canvasChangeCount = canvas.getSubtreeChangeCount();
+	}
+
+
+	/**
+	 * Invalidates the tiles which the child was a candidate of or which the new bounds reach into.
+	 *
+	 * @param child the child
+	 * @param newBounds the new bounds of the child
+	 */
+	private void invalidate(MTComponent child, float[] newBounds){
+		for (Tile tile : tiles.values()) {
+			if (tile.candidates == null){
+				continue; //Already invalid
+			}
+			if (newBounds == null
+				|| tile.candidates.contains(child)
+				|| (newBounds.length == 6 && tile.intersects(newBounds))
+			){
+				tile.invalidate();
+			}
+		}
+	}
+
+
+	/**
+	 * The state of a canvas child when the tiles were checked.
+	 */
+	private static class ChildEntry{
+		int changeCount;
+		float[] bounds;
+		int stamp;
+	}
+
+
+	/**
+	 * A screen tile.
+	 */
+	private class Tile{
+		/** The children whose bounds reach into the tile, null if they have to be updated. */
+		List<MTComponent> candidates;
+
+		/** False if a subtree with unknown bounds reaches into the tile. */
+		boolean cacheable;
+
+		/** The picked components per pixel. */
+		IMTComponent3D[] results;
+
+		/** The tile x. */
+		int tx;
+
+		/** The tile y. */
+		int ty;
+
+		/** The pick ray through the center of the tile when the tile was created. */
+		Ray centerRay;
+
+		/** The points on the planes bounding the viewing volume of the tile. */
+		Vector3D[] planePoints;
+
+		/** The inward plane normals. */
+		Vector3D[] planeNormals;
+
+		Tile(int tx, int ty){
+			this.tx = tx;
+			this.ty = ty;
+			float x0 = tx * TILE_SIZE;
+			float y0 = ty * TILE_SIZE;
+			float x1 = x0 + TILE_SIZE;
+			float y1 = y0 + TILE_SIZE;
+			this.centerRay = this.getRay(x0 + TILE_SIZE * 0.5f, y0 + TILE_SIZE * 0.5f);
+
+			Ray[] corners = new Ray[]{this.getRay(x0, y0), this.getRay(x1, y0), this.getRay(x1, y1), this.getRay(x0, y1)};
+			Vector3D inside = centerRay.getPointInRayDirection();
+			List<Vector3D> points = new ArrayList<Vector3D>();
+			List<Vector3D> normals = new ArrayList<Vector3D>();
+			for (int i = 0; i < 4; i++) {
+				Vector3D a = corners[i].getRayStartPoint();
+				Vector3D b = corners[i].getPointInRayDirection();
+				Vector3D c = corners[(i + 1) % 4].getPointInRayDirection();
+				Vector3D normal = b.getSubtracted(a).getCross(c.getSubtracted(a));
+				if (normal.length() == 0){
+					continue; //Degenerate, dont restrict by this plane
+				}
+				if (normal.dot(inside.getSubtracted(a)) < 0){
+					normal.scaleLocal(-1);
+				}
+				points.add(a);
+				normals.add(normal);
+			}
+			this.planePoints = points.toArray(new Vector3D[points.size()]);
+			this.planeNormals = normals.toArray(new Vector3D[normals.size()]);
+		}
+
+		private Ray getRay(float x, float y){
+			return Tools3D.getCameraPickRay(canvas.getRenderer(), canvas, x, y);
+		}
+
+		/**
+		 * Checks if the pick rays of the tile are still the same.
+		 */
+		boolean isCameraUnchanged(){
+			Ray ray = this.getRay(tx * TILE_SIZE + TILE_SIZE * 0.5f, ty * TILE_SIZE + TILE_SIZE * 0.5f);
+			return ray.getRayStartPoint().equalsVectorWithTolerance(centerRay.getRayStartPoint(), 0.001f)
+				&& ray.getPointInRayDirection().equalsVectorWithTolerance(centerRay.getPointInRayDirection(), 0.001f);
+		}
+
+		/**
+		 * Checks if the box reaches into the viewing volume of the tile.
+		 */
+		boolean intersects(float[] b){
+			for (int i = 0; i < planeNormals.length; i++) {
+				Vector3D n = planeNormals[i];
+				Vector3D p = planePoints[i];
+				//The corner of the box furthest inside
+				float x = n.x >= 0 ? b[3] : b[0];
+				float y = n.y >= 0 ? b[4] : b[1];
+				float z = n.z >= 0 ? b[5] : b[2];
+				float distance = n.x * (x - p.x) + n.y * (y - p.y) + n.z * (z - p.z);
+				if (distance < -0.001f * n.length()){
+					return false;
+				}
+			}
+			return true;
+		}
+
+		void updateCandidates(){
+			this.candidates = new ArrayList<MTComponent>();
+			this.cacheable = true;
+			for (Map.Entry<MTComponent, ChildEntry> e : children.entrySet()) {
+				float[] bounds = e.getValue().bounds;
+				if (bounds == null){
+					this.cacheable = false;
+					candidates.add(e.getKey());
+				}else if (bounds.length == 6 && this.intersects(bounds)){
+					candidates.add(e.getKey());
+				}
+			}
+			this.results = new IMTComponent3D[TILE_SIZE * TILE_SIZE];
+		}
+
+		void invalidate(){
+			this.candidates = null;
+			this.results = null;
+		}
+	}
+
+}
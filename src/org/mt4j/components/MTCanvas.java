@@ -17,16 +17,26 @@
  ***********************************************************************/
 package org.mt4j.components;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.HashMap;
 
-import javax.swing.Timer;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
 import org.mt4j.MTApplication;
 import org.mt4j.components.clusters.Cluster;
 import org.mt4j.components.clusters.ClusterManager;
 import org.mt4j.components.interfaces.IMTComponent3D;
+import org.mt4j.components.renderQueue.GLRenderBackend;
+import org.mt4j.components.renderQueue.RenderQueue;
 import org.mt4j.input.IHitTestInfoProvider;
 import org.mt4j.input.inputData.MTInputEvent;
 import org.mt4j.input.inputProcessors.componentProcessors.dragProcessor.DragProcessor;
@@ -35,6 +45,7 @@ import org.mt4j.input.inputProcessors.componentProcessors.scaleProcessor.ScalePr
 import org.mt4j.input.inputProcessors.componentProcessors.tapProcessor.TapProcessor;
 import org.mt4j.sceneManagement.AbstractScene;
 import org.mt4j.sceneManagement.Iscene;
+import org.mt4j.util.camera.IFrustum;
 import org.mt4j.util.camera.Icamera;
 import org.mt4j.util.math.Matrix;
 
@@ -49,23 +60,26 @@ import processing.core.PGraphics3D;
  */
 public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 	
+	/** The Constant logger. */
+	private static final Logger logger = Logger.getLogger(MTCanvas.class.getName());
+	static{
+		logger.setLevel(Level.WARN);
+		SimpleLayout l = new SimpleLayout();
+		ConsoleAppender ca = new ConsoleAppender(l);
+		logger.addAppender(ca);
+	}
+	
 	/** The cluster manager. */
 	private ClusterManager clusterManager;
 	
-	/** The last time hit test. */
-	private long lastTimeHitTest;
-	
 	/** The cache time delta. */
 	private long cacheTimeDelta;
 	
 	/** The cache clear time. */
 	private int cacheClearTime;
 	
-	/** The position to component. */
-	private HashMap<Position, IMTComponent3D> positionToComponent;
-	
-	/** The timer. */
-	private Timer timer;
+	/** The hit test cache. */
+	private HitTestTileCache hitTestCache;
 	
 	/** The use hit test cache. */
 	private boolean useHitTestCache;
@@ -73,7 +87,40 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 	/** The frustum culling switch. */
 	private boolean frustumCulling;
 	
+	/** The transform hierarchy. */
+	private TransformHierarchy transformHierarchy;
+	
+	/** Whether the global matrices are updated in one pass before drawing. */
+	private boolean useTransformHierarchy;
+	
 	private int culledObjects = 0;
+	
+	/** The render queue, null if not used. */
+	private RenderQueue renderQueue;
+	
+	/** The default minimum number of components for the update phase to run in parallel. */
+	public static final int DEFAULT_PARALLEL_UPDATE_THRESHOLD = 2000;
+	
+	/** The executor for the parallel update phase, shared by all canvases. */
+	private static ExecutorService updateExecutor;
+	
+	/** The number of threads updating in parallel, including the rendering thread. */
+	private static final int UPDATE_THREADS = Runtime.getRuntime().availableProcessors();
+	
+	/** Whether the components are updated in a separate phase before rendering. */
+	private boolean updatePhaseSeparated;
+	
+	/** The minimum number of components for the update phase to run in parallel. */
+	private int parallelUpdateThreshold;
+	
+	/** The duration of the last update phase in nanoseconds. */
+	private long lastUpdatePhaseNanos;
+	
+	/** The duration of the last transform phase in nanoseconds. */
+	private long lastTransformPhaseNanos;
+	
+	/** The duration of the last render phase in nanoseconds. */
+	private long lastRenderPhaseNanos;
 
 	private long lastUpdateTime;
 	
@@ -101,27 +148,21 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 	public MTCanvas(PApplet pApplet, String name, Icamera attachedCamera) {
 		super(pApplet, name, attachedCamera);
 		//Cache settings
-		lastTimeHitTest = 0;
 		cacheTimeDelta = 100;
 		cacheClearTime = 20000;
-		useHitTestCache = true;
+		useHitTestCache = false;
 		
 		lastUpdateTime = 0;
 		
 		clusterManager = new ClusterManager(pApplet, this);
 		
-		positionToComponent = new HashMap<Position, IMTComponent3D>();
+		hitTestCache = new HitTestTileCache(this);
 		
-		//Schedule a Timer task to clear the object cache so it wont 
-		//get filled infinitely
-		timer = new Timer(cacheClearTime, new ActionListener(){
-			public void actionPerformed(ActionEvent arg0) {
-//				System.out.println("Hit test chache entries: " + positionToComponent.size() + " ... cleared!");
-				positionToComponent.clear();
-			}
-		});
-//		timer.start(); //FIXME TEST DISABLE HIT CACHE
-		this.useHitTestCache = false; //FIXME TEST DISABLE HIT CACHE
+		transformHierarchy = new TransformHierarchy(this);
+		useTransformHierarchy = true;
+		
+		updatePhaseSeparated = false;
+		parallelUpdateThreshold = DEFAULT_PARALLEL_UPDATE_THRESHOLD;
 		
 //		this.setCollidable(false);
 		
@@ -133,19 +174,15 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 		this.setPickable(false);
 		
 		//Frustum culling default
-		frustumCulling = false;
+		frustumCulling = true;
 	}
 	
 	@Override
 	protected void destroyComponent() {
 		super.destroyComponent();
 		
-		if (this.timer != null && timer.isRunning()){
-			timer.stop();
-		}
-		
-		if (positionToComponent != null){
-			positionToComponent.clear();
+		if (hitTestCache != null){
+			hitTestCache.clear();
 		}
 	}
 	
@@ -170,46 +207,14 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 	public IMTComponent3D getComponentAt(float x, float y) { 
 		IMTComponent3D closest3DComp = null;
 		try{
-			long now = System.currentTimeMillis();
 			if (useHitTestCache){
-				if (now - lastTimeHitTest > cacheTimeDelta){ //If the time since last check surpassed => do new hit-test!
-					//Benchmark the picking
-//					long a = System.nanoTime();
-					closest3DComp = this.pick(x, y).getNearestPickResult();
-					//Benchmark the picking
-//					long b = System.nanoTime();
-//					System.out.println("Time for picking the scene: " + (b-a));
-					/*
-					for (MTBaseComponent c : pickResult.getPickList())
-						System.out.println(c.getName());
-					if (closest3DComp != null)
-						System.out.println("Using: " + closest3DComp.getName());
-					*/
-					if (closest3DComp == null){
-						closest3DComp = this;
-					}
-					positionToComponent.put(new Position(x,y), closest3DComp);
-				}else{
-					//Check whats in the cache
-					IMTComponent3D cachedComp = positionToComponent.get(new Position(x,y));
-					if (cachedComp != null){ //Use cached obj
-						closest3DComp = cachedComp;
-						positionToComponent.put(new Position(x,y), closest3DComp);
-					}else{
-						closest3DComp = this.pick(x, y).getNearestPickResult();
-						if (closest3DComp == null){
-							closest3DComp = this;
-						}
-						positionToComponent.put(new Position(x,y), closest3DComp);
-					}
-				}
+				closest3DComp = hitTestCache.getComponentAt(x, y);
 			}else{//IF no hittest cache is being used
 				closest3DComp = this.pick(x, y).getNearestPickResult();
 				if (closest3DComp == null){
 					closest3DComp = this;
 				}
 			}
-			lastTimeHitTest = now;
 			
 	//		/*//TODO anders machen..z.b. geclusterte comps einfach als kinder von
 			//bergeordnetem clusterpoly machen? aber mit clusterPoly.setComposite(TRUE);
@@ -295,12 +300,15 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 	 * First calls the <code>updateComponent(long timeDelta)</code> method. Then
 	 * the <code>drawComponent()</code> method of each object in the scene graph.
 	 * Also handles the setting of cameras attached to the objects.
+	 * <br>If the update phase is separated (see <code>setUpdatePhaseSeparated()</code>) all components
+	 * are updated before any component is drawn, else each component is updated right before it is drawn.
 	 * @param graphics 
 	 * 
 	 * @param updateTime the time passed since the last update (in ms)
 	 */
 	public void drawAndUpdateCanvas(PGraphics graphics, long updateTime){
 		this.culledObjects = 0;
+		long start = System.nanoTime();
 		
 		//FIXME THIS IS A HACK! WE SHOULD REPLACE CLUSTERS WITH NORMAL COMPONENTS INSTEAD!
 		//Update cluster components 
@@ -310,8 +318,195 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 			cluster.updateComponent(updateTime);
 		}
 		
-		this.drawUpdateRecursive(this, updateTime, graphics);
+		if (updatePhaseSeparated){
+			this.updatePhase(updateTime);
+		}
+		long updateEnd = System.nanoTime();
+		
+		if (useTransformHierarchy){
+			//Update all dirty global matrices at once, so they are cached for drawing and picking
+			transformHierarchy.update();
+		}
+		long transformEnd = System.nanoTime();
+		
+		this.drawUpdateRecursive(this, updateTime, graphics, !updatePhaseSeparated, frustumCulling);
+		if (renderQueue != null){
+			renderQueue.flush();
+		}
+		long renderEnd = System.nanoTime();
 //		System.out.println("Culled objects: " + culledObjects);
+		
+		lastUpdatePhaseNanos = updateEnd - start;
+		lastTransformPhaseNanos = transformEnd - updateEnd;
+		lastRenderPhaseNanos = renderEnd - transformEnd;
+	}
+	
+	
+	/**
+	 * Updates all visible components of the canvas.
+	 * If there are enough components, the subtrees of the canvas children are updated in parallel.
+	 * 
+	 * @param updateTime the update time
+	 */
+	private void updatePhase(long updateTime){
+		if (!this.isVisible()){
+			return;
+		}
+		this.updateComponent(updateTime);
+		
+		MTComponent[] children = this.getChildren();
+		int total = 0;
+		int[] sizes = null;
+		if (UPDATE_THREADS > 1 && children.length > 1){
+			sizes = new int[children.length];
+			for (int i = 0; i < children.length; i++) {
+				sizes[i] = countVisible(children[i]);
+				total += sizes[i];
+			}
+		}
+		
+		if (sizes == null || total < parallelUpdateThreshold){
+			for (int i = 0; i < children.length; i++) {
+				updateRecursive(children[i], updateTime, null);
+			}
+			return;
+		}
+		
+		//Split the children into contiguous chunks of about the same number of components
+		int chunkCount = Math.min(children.length, UPDATE_THREADS * 2);
+		List<List<MTComponent>> renderThreadUpdates = new ArrayList<List<MTComponent>>(chunkCount);
+		List<Future<?>> futures = new ArrayList<Future<?>>(chunkCount);
+		//The canvas is the only ancestor the chunks share, so the threads mustn't invalidate its subtree bounds
+		boolean wasDirty = this.holdSubtreeInvalidation();
+		try{
+			int chunkStart = 0;
+			int done = 0;
+			for (int chunk = 0; chunk < chunkCount && chunkStart < children.length; chunk++) {
+				int target = (int) ((long) total * (chunk + 1) / chunkCount);
+				int chunkEnd = chunkStart;
+				while (chunkEnd < children.length && (done < target || chunkEnd == chunkStart)){
+					done += sizes[chunkEnd];
+					chunkEnd++;
+				}
+				if (chunk == chunkCount - 1){
+					chunkEnd = children.length;
+				}
+				List<MTComponent> deferred = new ArrayList<MTComponent>();
+				renderThreadUpdates.add(deferred);
+				UpdateTask task = new UpdateTask(children, chunkStart, chunkEnd, updateTime, deferred);
+				if (chunkEnd == children.length){
+					task.run(); //The rendering thread takes the last chunk itself
+				}else{
+					futures.add(getUpdateExecutor().submit(task));
+				}
+				chunkStart = chunkEnd;
+			}
+		}finally{
+			//Wait for all threads even if interrupted, they may still change the canvas children
+			boolean interrupted = false;
+			for (Future<?> future : futures) {
+				boolean waiting = true;
+				while (waiting){
+					try {
+						future.get();
+						waiting = false;
+					} catch (InterruptedException e) {
+						interrupted = true;
+					} catch (ExecutionException e) {
+						Throwable cause = e.getCause() != null ? e.getCause() : e;
+						logger.error("Error while updating components: " + cause.getMessage(), cause);
+						waiting = false;
+					}
+				}
+			}
+			if (interrupted){
+				Thread.currentThread().interrupt();
+			}
+			this.resumeSubtreeInvalidation(wasDirty);
+		}
+		
+		//Update the components which have to be updated by the rendering thread
+		for (List<MTComponent> deferred : renderThreadUpdates) {
+			for (MTComponent comp : deferred) {
+				comp.updateComponent(updateTime);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Updates the component and its visible children.
+	 * 
+	 * @param comp the comp
+	 * @param updateTime the update time
+	 * @param deferred the list to put the components in which can't be updated by this thread, null if this is the rendering thread
+	 */
+	private static void updateRecursive(MTComponent comp, long updateTime, List<MTComponent> deferred){
+		if (comp.isVisible()){
+			if (deferred != null && !comp.isUpdateThreadSafe()){
+				deferred.add(comp);
+			}else{
+				comp.updateComponent(updateTime);
+			}
+			List<MTComponent> children = comp.getChildList();
+			for (int i = 0; i < children.size(); i++) {
+				updateRecursive(children.get(i), updateTime, deferred);
+			}
+		}
+	}
+	
+	
+	private static int countVisible(MTComponent comp){
+		if (!comp.isVisible()){
+			return 0;
+		}
+		int count = 1;
+		List<MTComponent> children = comp.getChildList();
+		for (int i = 0; i < children.size(); i++) {
+			count += countVisible(children.get(i));
+		}
+		return count;
+	}
+	
+	
+	private static synchronized ExecutorService getUpdateExecutor(){
+		if (updateExecutor == null){
+			updateExecutor = Executors.newFixedThreadPool(Math.max(1, UPDATE_THREADS - 1), new ThreadFactory() {
+				private int count = 0;
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "MTCanvas update thread " + count++);
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return updateExecutor;
+	}
+	
+	
+	/**
+	 * Updates the subtrees of a range of canvas children.
+	 */
+	private static class UpdateTask implements Runnable{
+		private MTComponent[] children;
+		private int start;
+		private int end;
+		private long updateTime;
+		private List<MTComponent> deferred;
+		
+		public UpdateTask(MTComponent[] children, int start, int end, long updateTime, List<MTComponent> deferred) {
+			this.children = children;
+			this.start = start;
+			this.end = end;
+			this.updateTime = updateTime;
+			this.deferred = deferred;
+		}
+
+		public void run() {
+			for (int i = start; i < end; i++) {
+				updateRecursive(children[i], updateTime, deferred);
+			}
+		}
 	}
 
 	
@@ -321,11 +516,40 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 	 * @param currentcomp the currentcomp
 	 * @param updateTime the update time
 	 * @param graphics the renderer
+	 * @param update whether to update the components before drawing them
+	 * @param cull whether the component and its children have to be checked against the camera frustum
 	 */
-	private void drawUpdateRecursive(MTComponent currentcomp, long updateTime, PGraphics graphics){
+	private void drawUpdateRecursive(MTComponent currentcomp, long updateTime, PGraphics graphics, boolean update, boolean cull){
 		if (currentcomp.isVisible()){
 			//Update current component
-			currentcomp.updateComponent(updateTime);
+			if (update){
+				currentcomp.updateComponent(updateTime);
+			}
+			
+			//Check the whole subtree with the camera frustum
+			int frustumState = -1;
+			if (cull && currentcomp.getAttachedCamera() == null){
+				frustumState = currentcomp.getSubtreeFrustumState(currentcomp.getViewingCamera().getFrustum());
+				if (frustumState == IFrustum.OUTSIDE){
+					culledObjects++;
+					if (update){
+						List<MTComponent> children = currentcomp.getChildList();
+						for (int i = 0; i < children.size(); i++) {
+							updateRecursive(children.get(i), updateTime, null);
+						}
+					}
+					return;
+				}
+			}
+			//Everything below is visible if the subtree is inside the frustum
+			boolean cullChildren = cull && frustumState != IFrustum.INSIDE;
+			
+			//Draw the queued shapes before the component changes the state for itself and its children,
+			//the component itself is then drawn directly within that state
+			boolean flushAround = renderQueue != null && !RenderQueue.isStateNeutral(currentcomp);
+			if (flushAround){
+				renderQueue.flush();
+			}
 			
 			if (currentcomp.getAttachedCamera() != null){
 				//Saves transformations up to this object
@@ -351,11 +575,11 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 				currentcomp.preDraw(graphics);
 				
 				//Check visibility with camera frustum
-				if (frustumCulling){
+				if (cull){
 					if (currentcomp.isContainedIn(currentcomp.getViewingCamera().getFrustum())){
 						if (!this.calledFromDrawComponent){ //FIXME TEST
 						// DRAW THE COMPONENT  \\
-						currentcomp.drawComponent(graphics);
+						this.drawOrQueueComponent(currentcomp, graphics, !flushAround);
 						}
 					}else{
 						culledObjects++;
@@ -364,7 +588,7 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 				}else{
 					if (!this.calledFromDrawComponent){ //FIXME TEST
 					// DRAW THE COMPONENT  \\
-					currentcomp.drawComponent(graphics);
+					this.drawOrQueueComponent(currentcomp, graphics, !flushAround);
 					}
 				}
 				
@@ -372,8 +596,11 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 
 				//Draw Children
 				for (MTComponent child : currentcomp.getChildList())
-					drawUpdateRecursive(child, updateTime, graphics);
+					drawUpdateRecursive(child, updateTime, graphics, update, cullChildren);
 
+				if (flushAround){
+					renderQueue.flush();
+				}
 				currentcomp.postDrawChildren(graphics);
 				
 				//Restores the transforms of the previous camera etc
@@ -387,29 +614,51 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 				
 				currentcomp.preDraw(graphics);
 				
-				if (frustumCulling){
-					//Check visibility with camera frustum
+				if (cull && frustumState == -1){
+					//The subtree bounds are unknown, check the component itself with camera frustum
 					if (currentcomp.isContainedIn(currentcomp.getViewingCamera().getFrustum())){
 						// DRAW THE COMPONENT  \\
-						currentcomp.drawComponent(graphics);
+						this.drawOrQueueComponent(currentcomp, graphics, !flushAround);
 					}else{
 						culledObjects++;
 						//System.out.println("Not visible: " + currentcomp.getName());
 					}
 				}else{
 					// DRAW THE COMPONENT  \\
-					currentcomp.drawComponent(graphics);
+					this.drawOrQueueComponent(currentcomp, graphics, !flushAround);
 				}
 				
 				currentcomp.postDraw(graphics);
 					
 				for (MTComponent child : currentcomp.getChildList())
-					drawUpdateRecursive(child, updateTime, graphics);
+					drawUpdateRecursive(child, updateTime, graphics, update, cullChildren);
 				
+				if (flushAround){
+					renderQueue.flush();
+				}
 				currentcomp.postDrawChildren(graphics);
 			}
 		}//if visible end
 	}
+	
+	
+	/**
+	 * Draws the component or adds it to the render queue if it is used.
+	 * 
+	 * @param comp the comp
+	 * @param graphics the graphics
+	 * @param queue false if the component has to be drawn right away, i.e. because its 
+	 * <code>preDraw()</code> enabled a clip or fill paint which its <code>postDraw()</code> relies on
+	 */
+	private void drawOrQueueComponent(MTComponent comp, PGraphics graphics, boolean queue){
+		if (renderQueue != null && queue){
+			if (renderQueue.add(comp, graphics)){
+				return;
+			}
+			renderQueue.flush();
+		}
+		comp.drawComponent(graphics);
+	}
 
 	
 	/* (non-Javadoc)
@@ -464,13 +713,13 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 	}
 
 	/**
-	 * If repeated calls to getObjectAt(float x, float y) in MTCanvas class
-	 * are called during the provided cacheTimeDelta, the Canvas looks into his
-	 * cache instead of querying all objects again
-	 * Default value is: 80.
+	 * Has no effect anymore, the entries of the hit test cache stay valid until
+	 * the components they depend on change.
 	 * 
 	 * @param cacheTimeDelta the cache time delta
+	 * @deprecated the hit test cache is invalidated by changes of the scene, not by time
 	 */
+	@Deprecated
 	public void setCacheTimeDelta(long cacheTimeDelta) {
 		this.cacheTimeDelta = cacheTimeDelta;
 	}
@@ -486,23 +735,28 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 
 	
 	/**
-	 * The canvas can be set to look into a hit test cache if
-	 * repeated calls to getComponentAt() with the same coordinates
-	 * during a short period of time are made.
-	 * This period of time can be set with
-	 * <code>setCacheTimeDelta(long cacheTimeDelta)</code>
+	 * The canvas can be set to look into a hit test cache when
+	 * getComponentAt() is called.
+	 * The results are cached per pixel in screen tiles. A tile is invalidated
+	 * when a component whose bounds reach into it changes, is added or removed, or when
+	 * the camera changes. Tiles reached by components whose bounds are unknown aren't cached.
 	 * <p>
 	 * This is useful for example when a click is made many gestureanalyzers
-	 * call getObjectAt() almost concurrently.
+	 * call getComponentAt() almost concurrently, and for repeated touches on
+	 * static parts of the scene. In scenes where most components move every frame
+	 * the tiles are invalidated before they are used again, so the cache only adds
+	 * bookkeeping there.
+	 * <br>The cache reads the bounds and change counts of the components, so like
+	 * picking it must not be used while the scene is changed or drawn (see
+	 * <code>MTApplication.getInputLock()</code>).
+	 * Default value is: false.
 	 * 
 	 * @param useHitTestCache the use hit test cache
 	 */
 	public void setUseHitTestCache(boolean useHitTestCache) {
-		if (useHitTestCache && !timer.isRunning())
-			timer.start();
-		else if (!useHitTestCache && timer.isRunning())
-			timer.stop();
-		
+		if (!useHitTestCache){
+			hitTestCache.clear();
+		}
 		this.useHitTestCache = useHitTestCache;
 	}
 
@@ -517,93 +771,178 @@ public class MTCanvas extends MTComponent implements IHitTestInfoProvider{
 	}
 
 	/**
-	 * Sets the time intervals in ms in which the canvas clears its hit test cache
-	 * Default value is: 20000 ms
-	 * <p>
-	 * This is important to prevent the hit test cache from growing indefinitely.
+	 * Has no effect anymore, the hit test cache is bounded by its number of tiles.
 	 * 
 	 * @param cacheClearTime the cache clear time
+	 * @deprecated the hit test cache doesnt grow indefinitely anymore
 	 */
+	@Deprecated
 	public void setCacheClearTime(int cacheClearTime) {
-		timer.setDelay(cacheClearTime);
 		this.cacheClearTime = cacheClearTime;
 	}
 
 
-	public boolean isFrustumCulling() {
-		return frustumCulling;
+	/**
+	 * Checks if the global matrices of all components are updated in one pass before drawing.
+	 * 
+	 * @return true, if the transform hierarchy is used
+	 */
+	public boolean isUseTransformHierarchy() {
+		return useTransformHierarchy;
 	}
 
-	public void setFrustumCulling(boolean frustumCulling) {
-		this.frustumCulling = frustumCulling;
+	/**
+	 * Sets whether the global matrices of all components in the canvas are updated 
+	 * in one linear pass at the start of each frame (see <code>TransformHierarchy</code>).
+	 * Else they are calculated lazily when <code>getGlobalMatrix()</code> is called.
+	 * Default value is: true.
+	 * 
+	 * @param useTransformHierarchy the use transform hierarchy
+	 */
+	public void setUseTransformHierarchy(boolean useTransformHierarchy) {
+		this.useTransformHierarchy = useTransformHierarchy;
 	}
 	
+	/**
+	 * Checks if the render queue is used.
+	 * 
+	 * @return true, if the render queue is used
+	 */
+	public boolean isUseRenderQueue() {
+		return renderQueue != null;
+	}
+
+	/**
+	 * Sets whether shapes drawn with OpenGL are collected in a render queue while traversing the canvas
+	 * and drawn sorted by texture and line state in batches instead of one by one (see <code>RenderQueue</code>).
+	 * Shapes with custom drawing code are still drawn in scene graph order.
+	 * Default value is: false.
+	 * 
+	 * @param useRenderQueue the use render queue
+	 */
+	public void setUseRenderQueue(boolean useRenderQueue) {
+		if (useRenderQueue && renderQueue == null){
+			renderQueue = new RenderQueue(new GLRenderBackend(this.getRenderer()));
+		}else if (!useRenderQueue){
+			renderQueue = null;
+		}
+	}
 	
+	/**
+	 * Gets the render queue of the canvas.
+	 * 
+	 * @return the render queue, null if it isn't used
+	 */
+	public RenderQueue getRenderQueue() {
+		return renderQueue;
+	}
 	
+	/**
+	 * Gets the transform hierarchy of the canvas.
+	 * 
+	 * @return the transform hierarchy
+	 */
+	public TransformHierarchy getTransformHierarchy() {
+		return transformHierarchy;
+	}
 
+
+	/**
+	 * Checks if the components are updated in a separate phase before rendering.
+	 * 
+	 * @return true, if the update phase is separated
+	 */
+	public boolean isUpdatePhaseSeparated() {
+		return updatePhaseSeparated;
+	}
+
+	/**
+	 * Sets whether all components are updated in a separate phase before any component is drawn,
+	 * instead of updating each component right before drawing it.
+	 * <br>If the canvas contains at least <code>getParallelUpdateThreshold()</code> visible components 
+	 * the subtrees of its children are then updated in parallel by multiple threads. So the <code>updateComponent()</code> 
+	 * methods and the controllers of the components must only change their own subtree and must not use the OpenGL context
+	 * (see <code>MTComponent.isUpdateThreadSafe()</code>).
+	 * Default value is: false.
+	 * 
+	 * @param updatePhaseSeparated the update phase separated
+	 */
+	public void setUpdatePhaseSeparated(boolean updatePhaseSeparated) {
+		this.updatePhaseSeparated = updatePhaseSeparated;
+	}
+
+	/**
+	 * Gets the parallel update threshold.
+	 * 
+	 * @return the parallel update threshold
+	 */
+	public int getParallelUpdateThreshold() {
+		return parallelUpdateThreshold;
+	}
+
+	/**
+	 * Sets the minimum number of visible components for the separated update phase to run in parallel.
+	 * <br>Use <code>Integer.MAX_VALUE</code> to always update in the rendering thread.
+	 * Default value is: <code>DEFAULT_PARALLEL_UPDATE_THRESHOLD</code>.
+	 * 
+	 * @param parallelUpdateThreshold the parallel update threshold
+	 */
+	public void setParallelUpdateThreshold(int parallelUpdateThreshold) {
+		this.parallelUpdateThreshold = parallelUpdateThreshold;
+	}
+
+	/**
+	 * Gets the duration of the update phase of the last frame. 
+	 * If the update phase isn't separated, this only includes the update of the clusters,
+	 * the components are updated in the render phase.
+	 * 
+	 * @return the last update phase duration in nanoseconds
+	 */
+	public long getLastUpdatePhaseNanos() {
+		return lastUpdatePhaseNanos;
+	}
+
+	/**
+	 * Gets the duration of the update of the global matrices in the last frame.
+	 * 
+	 * @return the last transform phase duration in nanoseconds
+	 */
+	public long getLastTransformPhaseNanos() {
+		return lastTransformPhaseNanos;
+	}
+
+	/**
+	 * Gets the duration of the render phase of the last frame.
+	 * 
+	 * @return the last render phase duration in nanoseconds
+	 */
+	public long getLastRenderPhaseNanos() {
+		return lastRenderPhaseNanos;
+	}
 	
-	
+
 	/**
-	 * Class used for the pickobject cache.
+	 * Checks if components outside of the camera frustum are skipped when drawing.
+	 * 
+	 * @return true, if frustum culling is enabled
 	 */
-	private class Position{
-		
-		/** The y. */
-		float x,y;
-		
-		/**
-		 * Instantiates a new position.
-		 * 
-		 * @param x the x
-		 * @param y the y
-		 */
-		public Position(float x, float y){
-			this.x = x;
-			this.y = y;
-		}
-		
-		/**
-		 * Gets the x.
-		 * 
-		 * @return the x
-		 */
-		public float getX() {return x;}
-		
-		/**
-		 * Sets the x.
-		 * 
-		 * @param x the new x
-		 */
-		public void setX(float x) {this.x = x;}
-		
-		/**
-		 * Gets the y.
-		 * 
-		 * @return the y
-		 */
-		public float getY() {return y;}
-		
-		/**
-		 * Sets the y.
-		 * 
-		 * @param y the new y
-		 */
-		public void setY(float y) {this.y = y;}
-		
-		/* (non-Javadoc)
-		 * @see java.lang.Object#equals(java.lang.Object)
-		 */
-		@Override
-		public boolean equals(Object arg0) {
-			return (arg0 instanceof Position && ((Position)arg0).getX() == this.getX() && ((Position)arg0).getY() == this.getY());
-		}
-		
-		/* (non-Javadoc)
-		 * @see java.lang.Object#hashCode()
-		 */
-		@Override
-		public int hashCode() {
-			return ((int)x+(int)y);
-		}
+	public boolean isFrustumCulling() {
+		return frustumCulling;
+	}
+
+	/**
+	 * Sets whether components outside of the camera frustum are skipped when drawing.
+	 * <br>Each component's subtree is checked with its cached global bounding sphere and box 
+	 * (see <code>MTComponent.getSubtreeBoundsGlobal()</code>), so whole subtrees outside of the frustum
+	 * are skipped and the children of subtrees completely inside aren't checked anymore. 
+	 * Components whose bounds are unknown are checked one by one with their bounding shape.
+	 * <br>Culled components are still updated.
+	 * Default value is: true.
+	 * 
+	 * @param frustumCulling the frustum culling
+	 */
+	public void setFrustumCulling(boolean frustumCulling) {
+		this.frustumCulling = frustumCulling;
 	}
+
 }
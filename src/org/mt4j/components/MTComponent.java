@@ -35,12 +35,14 @@ import org.mt4j.components.interfaces.IMTController;
 import org.mt4j.input.ComponentInputProcessorSupport;
 import org.mt4j.input.GestureEventSupport;
 import org.mt4j.input.IMTInputEventListener;
+import org.mt4j.input.InputProcessingThread;
 import org.mt4j.input.inputData.MTInputEvent;
 import org.mt4j.input.inputProcessors.IGestureEventListener;
 import org.mt4j.input.inputProcessors.IInputProcessor;
 import org.mt4j.input.inputProcessors.MTGestureEvent;
 import org.mt4j.input.inputProcessors.componentProcessors.AbstractComponentProcessor;
 import org.mt4j.util.MT4jSettings;
+import org.mt4j.util.camera.Frustum;
 import org.mt4j.util.camera.IFrustum;
 import org.mt4j.util.camera.Icamera;
 import org.mt4j.util.camera.ViewportSetting;
@@ -185,6 +187,51 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	/** The user data. */
 	private Map<Object, Object> userData;
 	
+	/** The global axis aligned bounds of this component and its children {minX, minY, minZ, maxX, maxY, maxZ}. */
+	private float[] subtreeBounds;
+	
+	/** The subtree bounds empty. */
+	private boolean subtreeBoundsEmpty;
+	
+	/** False if the subtree bounds are unknown. */
+	private boolean subtreeBoundsValid;
+	
+	/** False if a component of the subtree may draw outside of the subtree bounds. */
+	private boolean subtreeDrawBoundsValid;
+	
+	/** The center of the global bounding sphere of this component and its children. */
+	private Vector3D subtreeSphereCenter;
+	
+	/** The radius of the global bounding sphere of this component and its children. */
+	private float subtreeSphereRadius;
+	
+	/** The subtree bounds dirty. */
+	private boolean subtreeBoundsDirty;
+	
+	/** Counts how often the subtree was marked as changed. */
+	private int subtreeChangeCount;
+	
+	/** Counts how often components were added to or removed from the subtree. */
+	private int structureChangeCount;
+	
+	/** Caches which classes override getIntersectionLocal(). */
+	private static final Map<Class<?>, Boolean> intersectionOverridden = new HashMap<Class<?>, Boolean>();
+	
+	/** Caches which classes override drawComponent(). */
+	private static final Map<Class<?>, Boolean> drawOverridden = new HashMap<Class<?>, Boolean>();
+	
+	/** Bounds of a component which cant be hit. */
+	protected static final float[] NO_BOUNDS = new float[0];
+	
+	/** The tolerance added to the subtree bounds. */
+	private static final float SUBTREE_BOUNDS_TOLERANCE = 0.01f;
+	
+	/** Counts the changes of any component which affect how it is drawn. */
+	private static volatile int drawChangeCount;
+	
+	/** Whether a component asked to be updated and drawn again in the next frame. */
+	private static volatile boolean updateRequested;
+	
 	/**
 	 * Creates a new component. The component has no initial visual representation.
 	 * 
@@ -284,6 +331,9 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 			
 			this.attachedCamera = attachedCamera;
 			this.viewingCamera = attachedCamera;
+			
+			this.subtreeBounds = new float[6];
+			this.subtreeBoundsDirty = true;
 	}
 	
 	// INPUT LISTENER STUF ////
@@ -392,6 +442,7 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 		this.attachedCamera = attachedCamera;
 		this.viewingCamera = attachedCamera;
 		this.propagateCamChange(attachedCamera); 
+		setDrawDirty();
 	}
 	/// CAMERA SETTINGS /////////////////////////////////////
 	
@@ -679,6 +730,8 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	public void setMatricesDirty(boolean matricesDirty) {
 //		System.out.println("Setting matrices dirty->" + matricesDirty + " on: "  + this.getName());
 		if (matricesDirty == true){
+			this.setSubtreeBoundsDirty();
+			
 			//absolute matrix ndert sich damit auch auch wenn drber parents geadded werden!
 			this.setGlobalMatrixDirty(true);
 			
@@ -722,7 +775,7 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	 * 
 	 * whether the cached  Global matrix is still valid
 	 */
-	private boolean isGlobalMatrixDirty() {
+	boolean isGlobalMatrixDirty() {
 		return globalMatrixDirty;
 	}
 
@@ -861,6 +914,17 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	}
 	
 	
+	/**
+	 * Sets the global matrix calculated by a <code>TransformHierarchy</code>.
+	 * 
+	 * @param globalMatrix the global matrix
+	 */
+	void setGlobalMatrixInternal(Matrix globalMatrix){
+		this.globalMatrix = globalMatrix;
+		this.setGlobalMatrixDirty(false);
+	}
+	
+	
 	/**
 	 * Gets the abs matrix recursive.
 	 * 
@@ -1674,6 +1738,7 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	public void setClip(Clip clip) {
 		if (MT4jSettings.getInstance().isOpenGlMode()){
 			this.clip = clip;	
+			this.setSubtreeBoundsDirty();
 		}
 	}
 	// CLIP ////////////////
@@ -1700,6 +1765,7 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	public void setChildClip(Clip childClip) {
 		if (MT4jSettings.getInstance().isOpenGlMode()){
 			this.childClip = childClip;	
+			this.setSubtreeBoundsDirty();
 		}
 	}
 	// CHILD CLIP MASK /////////////////////
@@ -1714,6 +1780,7 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	 */
 	public void setLight(MTLight light){
 		this.light = light;
+		setDrawDirty();
 	}
 
 	/**
@@ -1755,8 +1822,30 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	public void updateComponent(long timeDelta) {
 		if (controller != null){
 			controller.update(timeDelta);
+			//The controller may change the component every frame
+			requestUpdate();
 		}
 	}
+	
+	
+	/**
+	 * Checks if <code>updateComponent()</code> of this component may be called from another
+	 * thread than the rendering thread.
+	 * <br>If the canvas separates the update phase from rendering (see <code>MTCanvas.setUpdatePhaseSeparated()</code>),
+	 * the subtrees of the canvas may be updated in parallel. Components whose update uses the 
+	 * OpenGL context - for example to upload textures - have to override this and return false,
+	 * they are then updated by the rendering thread after the parallel update.
+	 * <br>A parallel update - including the controller - may only change this component and its own subtree.
+	 * Components whose update changes other components, or adds or removes children (which changes a 
+	 * counter of every ancestor, see <code>getStructureChangeCount()</code>), have to return false as well.
+	 * The invalidation of the subtree bounds of the ancestors (<code>setSubtreeBoundsDirty()</code>) is held
+	 * back at the canvas during the parallel update and done by the rendering thread afterwards.
+	 * 
+	 * @return true, if the update is thread safe
+	 */
+	public boolean isUpdateThreadSafe(){
+		return true;
+	}
 
 	
 	/**
@@ -1798,6 +1887,8 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 		}
 		tangibleComp.setParent(this);
 		childComponents.add(i, tangibleComp);
+		this.setSubtreeBoundsDirty();
+		this.setStructureChanged();
 		
 		if (!sameParent){ //TEST - only mark dirty if comp was added to different parent
 			//To inform its children, that they have to update their 
@@ -2050,7 +2141,10 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	public void removeChild(MTComponent comp){
 		try {
 			comp.setParent(null);
-			childComponents.remove(comp);
+			if (childComponents.remove(comp)){
+				this.setSubtreeBoundsDirty();
+				this.setStructureChanged();
+			}
 			
 			//search up the tree and update the camera responsible for drawing the component
 			//will probably be null here
@@ -2071,6 +2165,8 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 			child.removeFromParent();
 		}
 		childComponents.clear();
+		this.setSubtreeBoundsDirty();
+		this.setStructureChanged();
 	}
 	
 	
@@ -2137,6 +2233,8 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 
 			childComponents.add(getChildCount(),child);
 			childComponents.remove(child);
+			//The order decides between picks at the same distance
+			child.setSubtreeBoundsDirty();
 			
 //			childComponents.remove(child);
 //			childComponents.add(getChildCount(),child);
@@ -2148,7 +2246,10 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	 * @see com.jMT.components.interfaces.IMTComponent#setVisible(boolean)
 	 */
 	public void setVisible(boolean visible){
-		this.visible = visible;
+		if (this.visible != visible){
+			this.visible = visible;
+			this.setSubtreeBoundsDirty();
+		}
 	}
 	
 	
@@ -2219,7 +2320,10 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	 * @see mTouch.components.interfaces.IMTComponent3D#setPickable(boolean)
 	 */
 	public void setPickable(boolean pickable) {
-		this.pickable = pickable;
+		if (this.pickable != pickable){
+			this.pickable = pickable;
+			this.setSubtreeBoundsDirty();
+		}
 	}
 
 
@@ -2516,7 +2620,7 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 		/* recursively check all children now */
 		for (int i = 0; i < childComponents.size(); i++) {
 			MTComponent child = childComponents.get(i);
-			if (child.isVisible()) { 
+			if (child.isVisible() && child.isSubtreeHitBy(currentRay)) { 
 				if (composite){
 					//Start a new picking with a new Pickresult obj from here
 					PickResult compositePickRes = new PickResult();
@@ -2556,6 +2660,385 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	}
 	
 	
+	/**
+	 * Marks the subtree bounds of this component and its ancestors as changed.
+	 * <br>Is called when the component's matrices, geometry, children or
+	 * anything else that affects picking changes.
+	 * Components whose area that can be hit changes otherwise (see <code>getContentBoundsLocal()</code>)
+	 * have to call this.
+	 */
+	protected void setSubtreeBoundsDirty(){
+		setDrawDirty();
+		MTComponent current = this;
+		//Ancestors of a dirty component are dirty already
+		while (current != null && !current.subtreeBoundsDirty){
+			current.subtreeBoundsDirty = true;
+			current.subtreeChangeCount++;
+			current = current.parent;
+		}
+	}
+	
+	
+	/**
+	 * Stops the invalidation of subtree bounds at this component until <code>resumeSubtreeInvalidation()</code>
+	 * is called, so the subtrees of the children can be changed by different threads without
+	 * writing the fields of this component and its ancestors.
+	 * 
+	 * @return true, if the subtree bounds of this component were dirty already
+	 */
+	boolean holdSubtreeInvalidation(){
+		boolean dirty = this.subtreeBoundsDirty;
+		this.subtreeBoundsDirty = true;
+		return dirty;
+	}
+	
+	
+	/**
+	 * Lets the invalidation of subtree bounds reach this component again and 
+	 * invalidates it and its ancestors if a child was invalidated in the meantime.
+	 * <br>Has to be called by the thread which called <code>holdSubtreeInvalidation()</code>,
+	 * after the other threads are done.
+	 * 
+	 * @param wasDirty the value returned by <code>holdSubtreeInvalidation()</code>
+	 */
+	void resumeSubtreeInvalidation(boolean wasDirty){
+		if (wasDirty){
+			return;
+		}
+		this.subtreeBoundsDirty = false;
+		//The children were clean before, because this component was
+		List<MTComponent> children = this.getChildList();
+		for (int i = 0; i < children.size(); i++) {
+			if (children.get(i).subtreeBoundsDirty){
+				this.setSubtreeBoundsDirty();
+				return;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Informs that something changed which affects how a component is drawn.
+	 * <br>Is called by the setters of the components, so usually this doesnt have to be called by the user. 
+	 * Code which changes a component behind its back - i.e. by altering its vertex buffers, 
+	 * textures or style colors directly - has to call this, else an application which skips
+	 * idle frames may not show the change (see <code>MTApplication.setIdleFrameRate()</code>).
+	 * <br>Can be called from any thread.
+	 */
+	public static void setDrawDirty(){
+		drawChangeCount++;
+	}
+	
+	
+	/**
+	 * Gets a counter which changes whenever <code>setDrawDirty()</code> is called.
+	 * 
+	 * @return the draw change count
+	 */
+	public static int getDrawChangeCount(){
+		return drawChangeCount;
+	}
+	
+	
+	/**
+	 * Asks for the next frame to be updated and drawn even if nothing else changed.
+	 * <br>Components which change every frame on their own - i.e. while a controller
+	 * runs or a movie plays - call this in <code>updateComponent()</code> to keep
+	 * an application which skips idle frames running.
+	 * <br>Can be called from any thread.
+	 */
+	public static void requestUpdate(){
+		updateRequested = true;
+	}
+	
+	
+	/**
+	 * Checks if an update was requested since the last call of <code>clearUpdateRequest()</code>.
+	 * 
+	 * @return true, if an update was requested
+	 */
+	public static boolean isUpdateRequested(){
+		return updateRequested;
+	}
+	
+	
+	/**
+	 * Clears the update request.
+	 * <br>NOTE: Is called by the MTApplication at the start of each frame.
+	 */
+	public static void clearUpdateRequest(){
+		updateRequested = false;
+	}
+	
+	
+	/**
+	 * Informs this component and its ancestors that a component was added to or removed from their subtree.
+	 */
+	private void setStructureChanged(){
+		MTComponent current = this;
+		while (current != null){
+			current.structureChangeCount++;
+			current = current.parent;
+		}
+	}
+	
+	
+	/**
+	 * Gets a counter which changes whenever a component is added to or removed from the subtree.
+	 * 
+	 * @return the structure change count
+	 */
+	int getStructureChangeCount(){
+		return structureChangeCount;
+	}
+	
+	
+	/**
+	 * Gets a counter which changes whenever something in the subtree that can affect 
+	 * picking changes after the subtree bounds were last computed.
+	 * 
+	 * @return the subtree change count
+	 */
+	int getSubtreeChangeCount(){
+		return subtreeChangeCount;
+	}
+	
+	
+	/**
+	 * Gets the local space axis aligned box which contains everything of this component 
+	 * (without its children) that can be hit by a pick ray - i.e. where <code>getIntersectionLocal()</code>
+	 * can return an intersection.
+	 * <br>Used to skip subtrees which a pick ray doesent hit.
+	 * <br>Components which override <code>getIntersectionLocal()</code> should override this, too.
+	 * 
+	 * @return the box as {minX, minY, minZ, maxX, maxY, maxZ}, <code>NO_BOUNDS</code> if the component
+	 * cant be hit or null if it is unknown
+	 */
+	protected float[] getContentBoundsLocal(){
+		if (isIntersectionOverridden(this.getClass(), MTComponent.class)){
+			return null;
+		}
+		return NO_BOUNDS;
+	}
+	
+	
+	/**
+	 * Checks if the class overrides <code>getIntersectionLocal()</code> below the specified class.
+	 * 
+	 * @param c the class
+	 * @param base the class which the bounds are known for
+	 * 
+	 * @return true, if the intersection is overridden
+	 */
+	protected static boolean isIntersectionOverridden(Class<?> c, Class<?> base){
+		synchronized (intersectionOverridden) {
+			Boolean overridden = intersectionOverridden.get(c);
+			if (overridden == null){
+				try {
+					Class<?> declaring = c.getMethod("getIntersectionLocal", Ray.class).getDeclaringClass();
+					overridden = !declaring.isAssignableFrom(base);
+				} catch (NoSuchMethodException e) {
+					overridden = true;
+				}
+				intersectionOverridden.put(c, overridden);
+			}
+			return overridden;
+		}
+	}
+	
+	
+	/**
+	 * Checks if the class draws something in <code>drawComponent()</code>.
+	 * 
+	 * @param c the class
+	 * 
+	 * @return true, if the drawComponent() method is overridden
+	 */
+	private static boolean isDrawOverridden(Class<?> c){
+		synchronized (drawOverridden) {
+			Boolean overridden = drawOverridden.get(c);
+			if (overridden == null){
+				try {
+					overridden = c.getMethod("drawComponent", PGraphics.class).getDeclaringClass() != MTComponent.class;
+				} catch (NoSuchMethodException e) {
+					overridden = true;
+				}
+				drawOverridden.put(c, overridden);
+			}
+			return overridden;
+		}
+	}
+	
+	
+	/**
+	 * Recomputes the subtree bounds if they changed.
+	 * 
+	 * @return true, if the subtree bounds are known
+	 */
+	private boolean updateSubtreeBounds(){
+		if (!subtreeBoundsDirty){
+			return subtreeBoundsValid;
+		}
+		//A camera changes the pick ray of this subtree
+		boolean valid = this.attachedCamera == null;
+		boolean drawValid = true;
+		boolean empty = true;
+		float[] b = this.subtreeBounds;
+		
+		float[] content = this.getContentBoundsLocal();
+		if (content == null){
+			valid = false;
+		}else if (content.length != 6){
+			//Cant be hit, but may still draw something
+			drawValid = !isDrawOverridden(this.getClass());
+		}else{
+			//Transform the box center and grow the extents by the absolute matrix values
+			Matrix m = this.getGlobalMatrix();
+			float cx = (content[0] + content[3]) * 0.5f;
+			float cy = (content[1] + content[4]) * 0.5f;
+			float cz = (content[2] + content[5]) * 0.5f;
+			float ex = (content[3] - content[0]) * 0.5f;
+			float ey = (content[4] - content[1]) * 0.5f;
+			float ez = (content[5] - content[2]) * 0.5f;
+			float gx = m.m00 * cx + m.m01 * cy + m.m02 * cz + m.m03;
+			float gy = m.m10 * cx + m.m11 * cy + m.m12 * cz + m.m13;
+			float gz = m.m20 * cx + m.m21 * cy + m.m22 * cz + m.m23;
+			float hx = Math.abs(m.m00) * ex + Math.abs(m.m01) * ey + Math.abs(m.m02) * ez;
+			float hy = Math.abs(m.m10) * ex + Math.abs(m.m11) * ey + Math.abs(m.m12) * ez;
+			float hz = Math.abs(m.m20) * ex + Math.abs(m.m21) * ey + Math.abs(m.m22) * ez;
+			b[0] = gx - hx; b[1] = gy - hy; b[2] = gz - hz;
+			b[3] = gx + hx; b[4] = gy + hy; b[5] = gz + hz;
+			empty = false;
+		}
+		
+		for (int i = 0; i < childComponents.size(); i++) {
+			MTComponent child = childComponents.get(i);
+			if (!child.updateSubtreeBounds()){
+				valid = false;
+			}else if (!child.subtreeDrawBoundsValid){
+				drawValid = false;
+			}
+			if (valid && !child.subtreeBoundsEmpty){
+				float[] c = child.subtreeBounds;
+				if (empty){
+					System.arraycopy(c, 0, b, 0, 6);
+					empty = false;
+				}else{
+					b[0] = Math.min(b[0], c[0]); b[1] = Math.min(b[1], c[1]); b[2] = Math.min(b[2], c[2]);
+					b[3] = Math.max(b[3], c[3]); b[4] = Math.max(b[4], c[4]); b[5] = Math.max(b[5], c[5]);
+				}
+			}
+		}
+		
+		if (valid && !empty){
+			float ex = (b[3] - b[0]) * 0.5f;
+			float ey = (b[4] - b[1]) * 0.5f;
+			float ez = (b[5] - b[2]) * 0.5f;
+			if (subtreeSphereCenter == null){
+				subtreeSphereCenter = new Vector3D();
+			}
+			subtreeSphereCenter.setXYZ(b[0] + ex, b[1] + ey, b[2] + ez);
+			subtreeSphereRadius = (float) Math.sqrt(ex * ex + ey * ey + ez * ez) + SUBTREE_BOUNDS_TOLERANCE;
+		}
+		
+		this.subtreeBoundsEmpty = empty;
+		this.subtreeBoundsValid = valid;
+		this.subtreeDrawBoundsValid = valid && drawValid;
+		this.subtreeBoundsDirty = false;
+		return valid;
+	}
+	
+	
+	/**
+	 * Checks if this component and its children can be seen through the frustum.
+	 * <br>Uses the cached global bounding sphere and box of the subtree, which are only
+	 * recomputed if something in the subtree changed.
+	 * 
+	 * @param frustum the frustum
+	 * 
+	 * @return <code>IFrustum.OUTSIDE</code>, <code>IFrustum.INTERSECT</code> or <code>IFrustum.INSIDE</code>,
+	 * or -1 if the subtree bounds are unknown or a component may draw outside of them
+	 */
+	int getSubtreeFrustumState(IFrustum frustum){
+		if (!this.updateSubtreeBounds() || !subtreeDrawBoundsValid){
+			return -1;
+		}
+		if (subtreeBoundsEmpty){
+			return IFrustum.OUTSIDE;
+		}
+		int state = frustum.isSphereInFrustum(subtreeSphereCenter, subtreeSphereRadius);
+		if (state == IFrustum.INTERSECT && frustum instanceof Frustum){
+			state = ((Frustum)frustum).isBoxInFrustum(subtreeBounds);
+		}
+		return state;
+	}
+	
+	
+	/**
+	 * Gets the global axis aligned bounds of this component and all of its children.
+	 * The bounds are only recomputed if something in the subtree changed.
+	 * 
+	 * @return the bounds as {minX, minY, minZ, maxX, maxY, maxZ}, <code>NO_BOUNDS</code> if nothing
+	 * in the subtree can be hit or null if the bounds are unknown (i.e. a component of the subtree
+	 * has its own camera or unknown content bounds)
+	 */
+	public float[] getSubtreeBoundsGlobal(){
+		if (!this.updateSubtreeBounds()){
+			return null;
+		}
+		if (subtreeBoundsEmpty){
+			return NO_BOUNDS;
+		}
+		return subtreeBounds.clone();
+	}
+	
+	
+	/**
+	 * Checks if the ray may hit this component or one of its children.
+	 * 
+	 * @param ray the global ray
+	 * 
+	 * @return false, if the ray misses the subtree bounds
+	 */
+	private boolean isSubtreeHitBy(Ray ray){
+		if (!this.updateSubtreeBounds()){
+			return true;
+		}
+		if (subtreeBoundsEmpty){
+			return false;
+		}
+		Vector3D start = ray.getRayStartPoint();
+		Vector3D dir = ray.getPointInRayDirection();
+		float[] b = this.subtreeBounds;
+		float tMin = -Float.MAX_VALUE;
+		float tMax = Float.MAX_VALUE;
+		//Slab test for the line through the ray
+		for (int axis = 0; axis < 3; axis++) {
+			float origin = axis == 0 ? start.x : (axis == 1 ? start.y : start.z);
+			float d = (axis == 0 ? dir.x : (axis == 1 ? dir.y : dir.z)) - origin;
+			float min = b[axis] - SUBTREE_BOUNDS_TOLERANCE;
+			float max = b[axis + 3] + SUBTREE_BOUNDS_TOLERANCE;
+			if (d == 0){
+				if (origin < min || origin > max){
+					return false;
+				}
+			}else{
+				float t1 = (min - origin) / d;
+				float t2 = (max - origin) / d;
+				if (t1 > t2){
+					float t = t1; t1 = t2; t2 = t;
+				}
+				tMin = Math.max(tMin, t1);
+				tMax = Math.min(tMax, t2);
+				if (tMin > tMax){
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	
 	/**
 	 * Calculates the "real" picking ray for the object.
 	 * <br>If the obj has a custom camera attached to it, this camera's position is the new ray origin and
@@ -2680,10 +3163,25 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	/**
 	 * Processes gesture events.<br>
 	 * Fires the specified gesture event to the attached IGestureEventListers of this component.
+	 * <br>If called from the input processing thread, the listeners are invoked at the
+	 * start of the next frame in the rendering thread, since they usually modify the component.
+	 * Reused gesture events are copied for that. The time windows of the cursors
+	 * (i.e. <code>InputCursor.getVelocityVector(int)</code>) end at the time of the
+	 * event in these listeners.
 	 * 
 	 * @param gestureEvent the gesture event
 	 */
 	public boolean processGestureEvent(MTGestureEvent gestureEvent){
+		if (InputProcessingThread.isInputThread()){
+			//The processor may reuse the event before the listeners get it
+			final MTGestureEvent deferredEvent = gestureEvent.getRetainableEvent();
+			InputProcessingThread.runOnRenderThread(new Runnable() {
+				public void run() {
+					gestureEvtSupport.fireGestureEvt(deferredEvent);
+				}
+			}, gestureEvent.getWhenNanos());
+			return false;
+		}
 		this.gestureEvtSupport.fireGestureEvt(gestureEvent);
 //		System.out.println("processGestureEvent on obj: " + this.getName() + " gestureEvent source: " + gestureEvent.getSource() +" ID: " +  gestureEvent.getId());
 		return false;
@@ -2711,6 +3209,7 @@ public class MTComponent implements IMTComponent3D, IMTInputEventListener, IGest
 	 */
 	public void setComposite(boolean composite) {
 		this.composite = composite;
+		this.setSubtreeBoundsDirty();
 	}
 
 
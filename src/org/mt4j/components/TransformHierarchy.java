@@ -0,0 +1,219 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.components;
+
+import java.util.List;
+
+import org.mt4j.util.math.Matrix;
+
+
+/**
+ * Updates the global matrices of all components below a root component in one linear pass.
+ * <p>
+ * The components are kept in arrays in depth first order, so a parent always comes before
+ * its children, together with the index of their parent. Their global matrices are stored
+ * in one contiguous float array, 16 floats row major per component.
+ * <br><code>update()</code> walks the arrays once and recalculates the global matrix of each component
+ * whose matrix is dirty from the global matrix of its parent and its local matrix - instead of
+ * each <code>getGlobalMatrix()</code> call walking up the parents of a dirty component.
+ * After the update, <code>getGlobalMatrix()</code> returns the cached matrix for all components.
+ * <br>The arrays are rebuilt when a component is added or removed below the root.
+ */
+public class TransformHierarchy {
+
+	/** The root. */
+	private MTComponent root;
+
+	/** The components in depth first order. */
+	private MTComponent[] nodes;
+
+	/** The index of the parent of each component, -1 for the root. */
+	private int[] parents;
+
+	/** The global matrices, 16 floats per component. */
+	private float[] world;
+
+	/** The global matrix objects the entries in <code>world</code> were calculated or copied from. */
+	private Matrix[] worldSources;
+
+	/** The number of components. */
+	private int count;
+
+	/** The structure change count of the root when the arrays were built. */
+	private int structureChangeCount;
+
+
+	/**
+	 * Instantiates a new transform hierarchy.
+	 *
+	 * @param root the root component
+	 */
+	public TransformHierarchy(MTComponent root) {
+		this.root = root;
+		this.nodes = new MTComponent[64];
+		this.parents = new int[64];
+		this.world = new float[64 * 16];
+		this.worldSources = new Matrix[64];
+		this.structureChangeCount = -1;
+	}
+
+
+	/**
+	 * Updates the global matrices of all dirty components below the root.
+	 * <br>Should be called once per frame before the components are drawn.
+	 */
+	public void update(){
+		if (root.getStructureChangeCount() != structureChangeCount){
+			this.rebuild();
+		}
+
+		MTComponent[] nodes = this.nodes;
+		int[] parents = this.parents;
+		float[] w = this.world;
+		Matrix[] sources = this.worldSources;
+		for (int i = 0; i < count; i++) {
+			MTComponent node = nodes[i];
+			int o = i * 16;
+			int p = parents[i];
+			if (p < 0){
+				//The root may have parents outside of the hierarchy
+				Matrix global = node.getGlobalMatrix();
+				if (global != sources[i]){
+					store(global, w, o);
+					sources[i] = global;
+				}
+			}else if (node.isGlobalMatrixDirty()){
+				Matrix l = node.getLocalMatrix();
+				int po = p * 16;
+				for (int r = 0; r < 16; r += 4) {
+					float p0 = w[po + r], p1 = w[po + r + 1], p2 = w[po + r + 2], p3 = w[po + r + 3];
+					w[o + r]     = p0 * l.m00 + p1 * l.m10 + p2 * l.m20 + p3 * l.m30;
+					w[o + r + 1] = p0 * l.m01 + p1 * l.m11 + p2 * l.m21 + p3 * l.m31;
+					w[o + r + 2] = p0 * l.m02 + p1 * l.m12 + p2 * l.m22 + p3 * l.m32;
+					w[o + r + 3] = p0 * l.m03 + p1 * l.m13 + p2 * l.m23 + p3 * l.m33;
+				}
+				Matrix global = new Matrix(
+						w[o],      w[o + 1],  w[o + 2],  w[o + 3],
+						w[o + 4],  w[o + 5],  w[o + 6],  w[o + 7],
+						w[o + 8],  w[o + 9],  w[o + 10], w[o + 11],
+						w[o + 12], w[o + 13], w[o + 14], w[o + 15]);
+				node.setGlobalMatrixInternal(global);
+				sources[i] = global;
+			}else{
+				//Calculated lazily by getGlobalMatrix() since the last update
+				Matrix global = node.getGlobalMatrix();
+				if (global != sources[i]){
+					store(global, w, o);
+					sources[i] = global;
+				}
+			}
+		}
+	}
+
+
+	private static void store(Matrix m, float[] w, int o){
+		w[o]      = m.m00; w[o + 1]  = m.m01; w[o + 2]  = m.m02; w[o + 3]  = m.m03;
+		w[o + 4]  = m.m10; w[o + 5]  = m.m11; w[o + 6]  = m.m12; w[o + 7]  = m.m13;
+		w[o + 8]  = m.m20; w[o + 9]  = m.m21; w[o + 10] = m.m22; w[o + 11] = m.m23;
+		w[o + 12] = m.m30; w[o + 13] = m.m31; w[o + 14] = m.m32; w[o + 15] = m.m33;
+	}
+
+
+	/**
+	 * Rebuilds the arrays in depth first order.
+	 */
+	private void rebuild(){
+		for (int i = 0; i < count; i++) {
+			nodes[i] = null;
+			worldSources[i] = null;
+		}
+		count = 0;
+		//Depth first order with an explicit stack so deep trees dont overflow the call stack
+		int[] stackNodes = new int[16];
+		MTComponent[] stack = new MTComponent[16];
+		int top = 0;
+		stack[top] = root;
+		stackNodes[top] = -1;
+		top++;
+		while (top > 0){
+			top--;
+			MTComponent node = stack[top];
+			int parent = stackNodes[top];
+			stack[top] = null;
+			int index = this.add(node, parent);
+			List<MTComponent> children = node.getChildList();
+			for (int c = children.size() - 1; c >= 0; c--) {
+				if (top == stack.length){
+					MTComponent[] newStack = new MTComponent[top * 2];
+					System.arraycopy(stack, 0, newStack, 0, top);
+					stack = newStack;
+					int[] newStackNodes = new int[top * 2];
+					System.arraycopy(stackNodes, 0, newStackNodes, 0, top);
+					stackNodes = newStackNodes;
+				}
+				stack[top] = children.get(c);
+				stackNodes[top] = index;
+				top++;
+			}
+		}
+		structureChangeCount = root.getStructureChangeCount();
+	}
+
+
+	private int add(MTComponent node, int parent){
+		if (count == nodes.length){
+			int capacity = nodes.length * 2;
+			MTComponent[] newNodes = new MTComponent[capacity];
+			System.arraycopy(nodes, 0, newNodes, 0, count);
+			nodes = newNodes;
+			int[] newParents = new int[capacity];
+			System.arraycopy(parents, 0, newParents, 0, count);
+			parents = newParents;
+			float[] newWorld = new float[capacity * 16];
+			System.arraycopy(world, 0, newWorld, 0, count * 16);
+			world = newWorld;
+			Matrix[] newSources = new Matrix[capacity];
+			System.arraycopy(worldSources, 0, newSources, 0, count);
+			worldSources = newSources;
+		}
+		nodes[count] = node;
+		parents[count] = parent;
+		worldSources[count] = null;
+		return count++;
+	}
+
+
+	/**
+	 * Gets the number of components in the hierarchy.
+	 *
+	 * @return the component count
+	 */
+	public int getComponentCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the root.
+	 *
+	 * @return the root
+	 */
+	public MTComponent getRoot() {
+		return root;
+	}
+
+}
@@ -0,0 +1,135 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.components.renderQueue;
+
+import java.nio.FloatBuffer;
+
+import javax.media.opengl.GL;
+
+import org.mt4j.util.math.Tools3D;
+
+import processing.core.PApplet;
+
+
+/**
+ * Draws the batches of a <code>RenderQueue</code> with OpenGL vertex arrays.
+ * <br>Has to be used by the rendering thread.
+ */
+public class GLRenderBackend implements IRenderBackend {
+
+	/** The applet. */
+	private PApplet pa;
+
+	/** The gl. */
+	private GL gl;
+
+	/** The current texture target, 0 if texturing is disabled. */
+	private int textureTarget;
+
+	/** The current line stipple. */
+	private short lineStipple;
+
+
+	/**
+	 * Instantiates a new gl render backend.
+	 *
+	 * @param pa the applet
+	 */
+	public GLRenderBackend(PApplet pa) {
+		this.pa = pa;
+	}
+
+	public void begin() {
+		gl = Tools3D.beginGL(pa);
+		//The vertices are already in eye space
+		gl.glMatrixMode(GL.GL_MODELVIEW);
+		gl.glPushMatrix();
+		gl.glLoadIdentity();
+
+		gl.glEnableClientState(GL.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GL.GL_COLOR_ARRAY);
+		textureTarget = 0;
+		lineStipple = 0;
+	}
+
+	public void setTexture(int textureTarget, int textureID) {
+		if (this.textureTarget != 0){
+			gl.glBindTexture(this.textureTarget, 0);
+			if (this.textureTarget != textureTarget || textureID == 0){
+				gl.glDisable(this.textureTarget);
+			}
+		}
+		if (textureID != 0){
+			gl.glEnable(textureTarget);
+			gl.glBindTexture(textureTarget, textureID);
+			this.textureTarget = textureTarget;
+		}else{
+			this.textureTarget = 0;
+		}
+	}
+
+	public void setLineState(float strokeWeight, short lineStipple) {
+		if (lineStipple != 0){
+			gl.glLineStipple(1, lineStipple);
+			gl.glEnable(GL.GL_LINE_STIPPLE);
+		}else if (this.lineStipple != 0){
+			gl.glDisable(GL.GL_LINE_STIPPLE);
+		}
+		this.lineStipple = lineStipple;
+
+		if (strokeWeight > 0)
+			gl.glLineWidth(strokeWeight);
+	}
+
+	public void drawTriangles(FloatBuffer vertices, FloatBuffer colors, FloatBuffer texCoords, int vertexCount) {
+		gl.glVertexPointer(3, GL.GL_FLOAT, 0, vertices);
+		gl.glColorPointer(4, GL.GL_FLOAT, 0, colors);
+		if (texCoords != null){
+			gl.glEnableClientState(GL.GL_TEXTURE_COORD_ARRAY);
+			gl.glTexCoordPointer(2, GL.GL_FLOAT, 0, texCoords);
+		}
+		gl.glDrawArrays(GL.GL_TRIANGLES, 0, vertexCount);
+		if (texCoords != null){
+			gl.glDisableClientState(GL.GL_TEXTURE_COORD_ARRAY);
+		}
+	}
+
+	public void drawLines(FloatBuffer vertices, FloatBuffer colors, int vertexCount) {
+		gl.glVertexPointer(3, GL.GL_FLOAT, 0, vertices);
+		gl.glColorPointer(4, GL.GL_FLOAT, 0, colors);
+		Tools3D.setLineSmoothEnabled(gl, true);
+		gl.glDrawArrays(GL.GL_LINES, 0, vertexCount);
+		Tools3D.setLineSmoothEnabled(gl, false);
+	}
+
+	public void end() {
+		this.setTexture(0, 0);
+		if (lineStipple != 0){
+			gl.glDisable(GL.GL_LINE_STIPPLE);
+			lineStipple = 0;
+		}
+		gl.glDisableClientState(GL.GL_VERTEX_ARRAY);
+		gl.glDisableClientState(GL.GL_COLOR_ARRAY);
+
+		gl.glMatrixMode(GL.GL_MODELVIEW);
+		gl.glPopMatrix();
+		Tools3D.endGL(pa);
+		gl = null;
+	}
+
+}
@@ -0,0 +1,76 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.components.renderQueue;
+
+import java.nio.FloatBuffer;
+
+
+/**
+ * The commands a <code>RenderQueue</code> issues when it is flushed.
+ * <br>The vertices are in eye space, so the modelview matrix has to be the identity
+ * while drawing, the projection matrix is left as it is.
+ * The queue only calls the state setters when the state actually changes.
+ */
+public interface IRenderBackend {
+
+	/**
+	 * Called before the first command of a flush.
+	 */
+	public void begin();
+
+	/**
+	 * Sets the texture used by the following triangle draw calls.
+	 *
+	 * @param textureTarget the texture target, i.e. <code>GL.GL_TEXTURE_2D</code>
+	 * @param textureID the texture id or 0 to draw without a texture
+	 */
+	public void setTexture(int textureTarget, int textureID);
+
+	/**
+	 * Sets the line state used by the following line draw calls.
+	 *
+	 * @param strokeWeight the stroke weight
+	 * @param lineStipple the line stipple, 0 for solid lines
+	 */
+	public void setLineState(float strokeWeight, short lineStipple);
+
+	/**
+	 * Draws triangles.
+	 *
+	 * @param vertices the vertices, 3 floats per vertex
+	 * @param colors the colors, 4 floats per vertex
+	 * @param texCoords the texture coordinates, 2 floats per vertex, null if no texture is set
+	 * @param vertexCount the vertex count
+	 */
+	public void drawTriangles(FloatBuffer vertices, FloatBuffer colors, FloatBuffer texCoords, int vertexCount);
+
+	/**
+	 * Draws lines.
+	 *
+	 * @param vertices the vertices, 3 floats per vertex
+	 * @param colors the colors, 4 floats per vertex
+	 * @param vertexCount the vertex count
+	 */
+	public void drawLines(FloatBuffer vertices, FloatBuffer colors, int vertexCount);
+
+	/**
+	 * Called after the last command of a flush.
+	 */
+	public void end();
+
+}
@@ -0,0 +1,181 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.components.renderQueue;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A render backend which doesn't draw anything but records the issued commands.
+ * <br>Doesn't need an OpenGL context, so it can be used to check the number of
+ * state changes and draw calls of a scene without a display.
+ */
+public class RecordingRenderBackend implements IRenderBackend {
+
+	/** The recorded commands. */
+	private List<Command> commands;
+
+	/** The number of state changes. */
+	private int stateChangeCount;
+
+	/** The number of draw calls. */
+	private int drawCallCount;
+
+	/** The number of drawn vertices. */
+	private int vertexCount;
+
+
+	/**
+	 * Instantiates a new recording render backend.
+	 */
+	public RecordingRenderBackend() {
+		this.commands = new ArrayList<Command>();
+	}
+
+	public void begin() {
+		commands.add(new Command(Command.BEGIN, 0, 0, 0));
+	}
+
+	public void setTexture(int textureTarget, int textureID) {
+		commands.add(new Command(Command.SET_TEXTURE, textureTarget, textureID, 0));
+		stateChangeCount++;
+	}
+
+	public void setLineState(float strokeWeight, short lineStipple) {
+		commands.add(new Command(Command.SET_LINE_STATE, lineStipple, 0, strokeWeight));
+		stateChangeCount++;
+	}
+
+	public void drawTriangles(FloatBuffer vertices, FloatBuffer colors, FloatBuffer texCoords, int vertexCount) {
+		commands.add(new Command(Command.DRAW_TRIANGLES, vertexCount, 0, 0));
+		drawCallCount++;
+		this.vertexCount += vertexCount;
+	}
+
+	public void drawLines(FloatBuffer vertices, FloatBuffer colors, int vertexCount) {
+		commands.add(new Command(Command.DRAW_LINES, vertexCount, 0, 0));
+		drawCallCount++;
+		this.vertexCount += vertexCount;
+	}
+
+	public void end() {
+		commands.add(new Command(Command.END, 0, 0, 0));
+	}
+
+
+	/**
+	 * Clears the recorded commands and counters.
+	 */
+	public void reset(){
+		commands.clear();
+		stateChangeCount = 0;
+		drawCallCount = 0;
+		vertexCount = 0;
+	}
+
+	/**
+	 * Gets the recorded commands.
+	 *
+	 * @return the commands
+	 */
+	public List<Command> getCommands() {
+		return commands;
+	}
+
+	/**
+	 * Gets the number of texture and line state changes.
+	 *
+	 * @return the state change count
+	 */
+	public int getStateChangeCount() {
+		return stateChangeCount;
+	}
+
+	/**
+	 * Gets the number of draw calls.
+	 *
+	 * @return the draw call count
+	 */
+	public int getDrawCallCount() {
+		return drawCallCount;
+	}
+
+	/**
+	 * Gets the number of drawn vertices.
+	 *
+	 * @return the vertex count
+	 */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+
+	/**
+	 * A recorded command.
+	 */
+	public static class Command{
+		public static final int BEGIN 			= 0;
+		public static final int SET_TEXTURE 	= 1;
+		public static final int SET_LINE_STATE 	= 2;
+		public static final int DRAW_TRIANGLES 	= 3;
+		public static final int DRAW_LINES 		= 4;
+		public static final int END 			= 5;
+
+		private int type;
+		private int arg0;
+		private int arg1;
+		private float floatArg;
+
+		private Command(int type, int arg0, int arg1, float floatArg) {
+			this.type = type;
+			this.arg0 = arg0;
+			this.arg1 = arg1;
+			this.floatArg = floatArg;
+		}
+
+		/**
+		 * Gets the type.
+		 *
+		 * @return the type
+		 */
+		public int getType() {
+			return type;
+		}
+
+		@Override
+		public String toString() {
+			switch (type) {
+			case BEGIN:
+				return "begin";
+			case SET_TEXTURE:
+				return "setTexture(" + arg0 + ", " + arg1 + ")";
+			case SET_LINE_STATE:
+				return "setLineState(" + floatArg + ", " + arg0 + ")";
+			case DRAW_TRIANGLES:
+				return "drawTriangles(" + arg0 + ")";
+			case DRAW_LINES:
+				return "drawLines(" + arg0 + ")";
+			default:
+				return "end";
+			}
+		}
+	}
+
+}
@@ -0,0 +1,278 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.components.renderQueue;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import javax.media.opengl.GL;
+
+import org.mt4j.components.visibleComponents.GeometryInfo;
+
+import processing.core.PMatrix3D;
+
+
+/**
+ * A queued draw of the fill or the outline of a shape.
+ */
+class RenderItem {
+
+	/** The geometry. */
+	GeometryInfo geometry;
+
+	/** The vertices of the geometry. */
+	FloatBuffer vertices;
+
+	/** The indices of the geometry, null if the geometry isn't indexed. */
+	IntBuffer indices;
+
+	/** The number of indices or vertices drawn. */
+	int count;
+
+	/** The modelview matrix, row major. */
+	float[] modelView = new float[16];
+
+	/** The colors, 4 floats per vertex. */
+	FloatBuffer colors;
+
+	/** The texture coordinates, null if not textured. */
+	FloatBuffer texCoords;
+
+	/** The draw mode of the geometry. */
+	int drawMode;
+
+	/** True if this is the outline of the shape. */
+	boolean stroke;
+
+	/** The texture target. */
+	int textureTarget;
+
+	/** The texture id, 0 if not textured. */
+	int textureID;
+
+	/** The stroke weight. */
+	float strokeWeight;
+
+	/** The line stipple. */
+	short lineStipple;
+
+	/** Whether the item may be blended. */
+	boolean transparent;
+
+	/** The layer. */
+	int layer;
+
+	/** The order the item was queued in. */
+	int order;
+
+	/** The stamp of the last layer assignment which checked this item. */
+	int visitStamp;
+
+	/** False if the item can't be bounded on the screen, i.e. because it reaches behind the camera. */
+	boolean bounded;
+
+	/** The screen bounds in normalized device coordinates. */
+	float minX, minY, maxX, maxY;
+
+
+	/**
+	 * Sets the geometry and matrix and calculates the screen bounds.
+	 */
+	void setGeometry(GeometryInfo geometry, PMatrix3D mv, PMatrix3D proj, IntBuffer indices, int count){
+		this.geometry = geometry;
+		this.vertices = geometry.getVertBuff();
+		this.indices = indices;
+		this.count = count;
+		float[] m = modelView;
+		m[0]  = mv.m00; m[1]  = mv.m01; m[2]  = mv.m02; m[3]  = mv.m03;
+		m[4]  = mv.m10; m[5]  = mv.m11; m[6]  = mv.m12; m[7]  = mv.m13;
+		m[8]  = mv.m20; m[9]  = mv.m21; m[10] = mv.m22; m[11] = mv.m23;
+		m[12] = mv.m30; m[13] = mv.m31; m[14] = mv.m32; m[15] = mv.m33;
+
+		bounded = true;
+		minX = minY = Float.POSITIVE_INFINITY;
+		maxX = maxY = Float.NEGATIVE_INFINITY;
+		int vertexCount = vertices.capacity() / 3;
+		for (int i = 0; i < vertexCount; i++) {
+			float x = vertices.get(i * 3);
+			float y = vertices.get(i * 3 + 1);
+			float z = vertices.get(i * 3 + 2);
+			float ex = m[0] * x + m[1] * y + m[2] * z + m[3];
+			float ey = m[4] * x + m[5] * y + m[6] * z + m[7];
+			float ez = m[8] * x + m[9] * y + m[10] * z + m[11];
+			float ew = m[12] * x + m[13] * y + m[14] * z + m[15];
+			float cx = proj.m00 * ex + proj.m01 * ey + proj.m02 * ez + proj.m03 * ew;
+			float cy = proj.m10 * ex + proj.m11 * ey + proj.m12 * ez + proj.m13 * ew;
+			float cw = proj.m30 * ex + proj.m31 * ey + proj.m32 * ez + proj.m33 * ew;
+			if (cw <= 0){
+				bounded = false;
+				return;
+			}
+			float nx = cx / cw;
+			float ny = cy / cw;
+			if (nx < minX) minX = nx;
+			if (nx > maxX) maxX = nx;
+			if (ny < minY) minY = ny;
+			if (ny > maxY) maxY = ny;
+		}
+	}
+
+
+	/**
+	 * Checks if the item may overlap the other item on the screen.
+	 */
+	boolean overlaps(RenderItem other){
+		if (!bounded || !other.bounded){
+			return true;
+		}
+		return minX <= other.maxX && other.minX <= maxX
+			&& minY <= other.maxY && other.minY <= maxY;
+	}
+
+
+	/**
+	 * Checks if the other item can be drawn in the same draw call.
+	 */
+	boolean isBatchableWith(RenderItem other){
+		if (stroke != other.stroke){
+			return false;
+		}
+		if (stroke){
+			return strokeWeight == other.strokeWeight && lineStipple == other.lineStipple;
+		}
+		return textureID == other.textureID && (textureID == 0 || textureTarget == other.textureTarget);
+	}
+
+
+	/**
+	 * Gets the number of vertices the item is drawn with as separate triangles or lines.
+	 */
+	int getExpandedVertexCount(){
+		int n = count;
+		if (stroke){
+			return Math.max(0, n - 1) * 2;
+		}
+		switch (drawMode) {
+		case GL.GL_TRIANGLES:
+			return n / 3 * 3;
+		case GL.GL_QUADS:
+			return n / 4 * 6;
+		case GL.GL_QUAD_STRIP:
+			return Math.max(0, (n - 2) / 2) * 6;
+		default: //Fan, polygon, strip
+			return Math.max(0, n - 2) * 3;
+		}
+	}
+
+
+	/**
+	 * Writes the vertices in eye space, the colors and texture coordinates
+	 * as separate triangles or lines into the buffers.
+	 *
+	 * @param vertexOut the vertex buffer
+	 * @param colorOut the color buffer
+	 * @param texCoordOut the texture coordinate buffer, null if the batch isn't textured
+	 */
+	void write(FloatBuffer vertexOut, FloatBuffer colorOut, FloatBuffer texCoordOut){
+		int n = count;
+		if (stroke){
+			for (int i = 0; i < n - 1; i++) {
+				this.put(i, vertexOut, colorOut, texCoordOut);
+				this.put(i + 1, vertexOut, colorOut, texCoordOut);
+			}
+			return;
+		}
+		switch (drawMode) {
+		case GL.GL_TRIANGLES:
+			for (int i = 0; i + 2 < n; i += 3) {
+				this.putTriangle(i, i + 1, i + 2, vertexOut, colorOut, texCoordOut);
+			}
+			break;
+		case GL.GL_TRIANGLE_STRIP:
+			for (int i = 0; i + 2 < n; i++) {
+				if (i % 2 == 0)
+					this.putTriangle(i, i + 1, i + 2, vertexOut, colorOut, texCoordOut);
+				else
+					this.putTriangle(i + 1, i, i + 2, vertexOut, colorOut, texCoordOut);
+			}
+			break;
+		case GL.GL_QUADS:
+			for (int i = 0; i + 3 < n; i += 4) {
+				this.putTriangle(i, i + 1, i + 2, vertexOut, colorOut, texCoordOut);
+				this.putTriangle(i, i + 2, i + 3, vertexOut, colorOut, texCoordOut);
+			}
+			break;
+		case GL.GL_QUAD_STRIP:
+			for (int i = 0; i + 3 < n; i += 2) {
+				this.putTriangle(i, i + 1, i + 3, vertexOut, colorOut, texCoordOut);
+				this.putTriangle(i, i + 3, i + 2, vertexOut, colorOut, texCoordOut);
+			}
+			break;
+		default: //Fan, polygon
+			for (int i = 1; i + 1 < n; i++) {
+				this.putTriangle(0, i, i + 1, vertexOut, colorOut, texCoordOut);
+			}
+			break;
+		}
+	}
+
+
+	private void putTriangle(int a, int b, int c, FloatBuffer vertexOut, FloatBuffer colorOut, FloatBuffer texCoordOut){
+		this.put(a, vertexOut, colorOut, texCoordOut);
+		this.put(b, vertexOut, colorOut, texCoordOut);
+		this.put(c, vertexOut, colorOut, texCoordOut);
+	}
+
+
+	private void put(int i, FloatBuffer vertexOut, FloatBuffer colorOut, FloatBuffer texCoordOut){
+		int v = indices != null ? indices.get(i) : i;
+		float x = vertices.get(v * 3);
+		float y = vertices.get(v * 3 + 1);
+		float z = vertices.get(v * 3 + 2);
+		float[] m = modelView;
+		float w = m[12] * x + m[13] * y + m[14] * z + m[15];
+		if (w == 0)
+			w = 1;
+		vertexOut.put((m[0] * x + m[1] * y + m[2] * z + m[3]) / w);
+		vertexOut.put((m[4] * x + m[5] * y + m[6] * z + m[7]) / w);
+		vertexOut.put((m[8] * x + m[9] * y + m[10] * z + m[11]) / w);
+
+		colorOut.put(colors.get(v * 4));
+		colorOut.put(colors.get(v * 4 + 1));
+		colorOut.put(colors.get(v * 4 + 2));
+		colorOut.put(colors.get(v * 4 + 3));
+
+		if (texCoordOut != null){
+			texCoordOut.put(texCoords.get(v * 2));
+			texCoordOut.put(texCoords.get(v * 2 + 1));
+		}
+	}
+
+
+	/**
+	 * Releases the references to the geometry.
+	 */
+	void clear(){
+		geometry = null;
+		vertices = null;
+		indices = null;
+		colors = null;
+		texCoords = null;
+	}
+
+}
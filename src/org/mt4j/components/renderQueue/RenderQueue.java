@@ -0,0 +1,596 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.components.renderQueue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.media.opengl.GL;
+
+import org.mt4j.components.MTComponent;
+import org.mt4j.components.visibleComponents.AbstractVisibleComponent;
+import org.mt4j.components.visibleComponents.GeometryInfo;
+import org.mt4j.components.visibleComponents.shapes.AbstractShape;
+import org.mt4j.components.visibleComponents.shapes.MTPolygon;
+import org.mt4j.util.opengl.GLTexture;
+
+import processing.core.PGraphics;
+import processing.core.PGraphics3D;
+import processing.core.PMatrix3D;
+
+
+/**
+ * Collects the draws of shapes during the scene graph traversal and draws them sorted by state.
+ * <p>
+ * Shapes which draw themselves with the default <code>MTPolygon</code> OpenGL code are not drawn
+ * right away but added to the queue with their current modelview matrix, texture and line style.
+ * When the queue is flushed the draws are divided into layers: a draw is put into the layer above
+ * the highest layer of the earlier draws it overlaps on the screen. The earlier draws are found with a
+ * screen space grid, so only draws in the same grid cells are checked. Within each layer no draws overlap,
+ * so they are sorted by transparency, texture and line state without changing what is visible.
+ * Consecutive draws with the same state are then transformed into eye space and put into one shared
+ * vertex buffer, so they are drawn with a single draw call.
+ * <br>Everything else is drawn in scene graph order - the queue has to be flushed before a component
+ * which isn't queued is drawn and around components which change the OpenGL state for themselves or
+ * their children, i.e. clips and fill paints (see <code>isStateNeutral()</code>). Such components
+ * are drawn directly, not queued.
+ */
+public class RenderQueue {
+
+	/** The class has an empty drawComponent() method. */
+	private static final int DRAW_NOTHING = 0;
+
+	/** The class draws with the drawComponent() method of MTPolygon. */
+	private static final int DRAW_POLYGON = 1;
+
+	/** The class has its own drawComponent() method. */
+	private static final int DRAW_CUSTOM = 2;
+
+	/** How the classes draw themselves. */
+	private static Map<Class<?>, Integer> drawKinds = new HashMap<Class<?>, Integer>();
+
+	/** Whether the classes override the state changing draw methods. */
+	private static Map<Class<?>, Boolean> stateChangingClasses = new HashMap<Class<?>, Boolean>();
+
+	/** The backend. */
+	private IRenderBackend backend;
+
+	/** The queued items, reused between the flushes. */
+	private List<RenderItem> items;
+
+	/** The number of queued items. */
+	private int itemCount;
+
+	/** The highest layer of the queued items. */
+	private int maxLayer;
+
+	/** The number of grid cells along each screen axis. */
+	private static final int GRID_SIZE = 16;
+
+	/** The order of the queued items overlapping each grid cell. */
+	private int[][] gridItems;
+
+	/** The number of items in each grid cell. */
+	private int[] gridCounts;
+
+	/** The highest layer of the queued items which couldn't be put into the grid, -1 if there are none. */
+	private int maxUnboundedLayer;
+
+	/** Marks the items already checked for the item whose layer is assigned. */
+	private int visitStamp;
+
+	/** The sorted items. */
+	private List<RenderItem> sorted;
+
+	/** The shared vertex buffer. */
+	private FloatBuffer vertexBuffer;
+
+	/** The shared color buffer. */
+	private FloatBuffer colorBuffer;
+
+	/** The shared texture coordinate buffer. */
+	private FloatBuffer texCoordBuffer;
+
+	/** The number of items drawn by the last flush. */
+	private int lastFlushItemCount;
+
+	/** The number of batches drawn by the last flush. */
+	private int lastFlushBatchCount;
+
+
+	/**
+	 * Instantiates a new render queue.
+	 *
+	 * @param backend the backend to draw with
+	 */
+	public RenderQueue(IRenderBackend backend) {
+		this.backend = backend;
+		this.items = new ArrayList<RenderItem>();
+		this.sorted = new ArrayList<RenderItem>();
+		this.vertexBuffer = newFloatBuffer(1024 * 3);
+		this.colorBuffer = newFloatBuffer(1024 * 4);
+		this.texCoordBuffer = newFloatBuffer(1024 * 2);
+		this.gridItems = new int[GRID_SIZE * GRID_SIZE][8];
+		this.gridCounts = new int[GRID_SIZE * GRID_SIZE];
+		this.maxUnboundedLayer = -1;
+	}
+
+
+	/**
+	 * Adds the component to the queue if it can be drawn by the queue.
+	 * Has to be called instead of the component's <code>drawComponent()</code> method with
+	 * the same graphics state.
+	 *
+	 * @param comp the component
+	 * @param g the graphics context
+	 *
+	 * @return true, if the component was queued or has nothing to draw. If false, the queue
+	 * has to be flushed and the component has to be drawn by calling its <code>drawComponent()</code> method.
+	 */
+	public boolean add(MTComponent comp, PGraphics g){
+		int kind = getDrawKind(comp.getClass());
+		if (kind == DRAW_NOTHING){
+			return true;
+		}
+		if (kind != DRAW_POLYGON || !(g instanceof PGraphics3D)){
+			return false;
+		}
+		PGraphics3D g3d = (PGraphics3D)g;
+		return this.add((AbstractShape)comp, g3d.modelview, g3d.projection);
+	}
+
+
+	/**
+	 * Adds the draws of the shape with the given matrices.
+	 * <br>Only checks the state of the shape itself, not how its class draws it.
+	 *
+	 * @param shape the shape
+	 * @param modelView the modelview matrix to draw the shape with
+	 * @param projection the projection matrix
+	 *
+	 * @return true, if the shape was queued or has nothing to draw
+	 */
+	public boolean add(AbstractShape shape, PMatrix3D modelView, PMatrix3D projection){
+		GeometryInfo geom = shape.getGeometryInfo();
+		if (!shape.isUseDirectGL()
+			|| shape.isUseDisplayList()
+			|| geom.isContainsNormals()
+			|| geom.getVertBuff() == null
+			|| geom.getColorBuff() == null
+			|| geom.getStrokeColBuff() == null
+		){
+			return false;
+		}
+		int drawMode = shape.getFillDrawMode();
+		if (!shape.isNoFill() && !isTriangleMode(drawMode)){
+			return false;
+		}
+		if (shape.isNoFill() && shape.isNoStroke()){
+			return true;
+		}
+		boolean textured = shape.isTextureEnabled() && shape.getTexture() instanceof GLTexture;
+		if (textured && geom.getTexBuff() == null){
+			return false;
+		}
+
+		IntBuffer indexBuff = geom.isIndexed() ? geom.getIndexBuff() : null;
+		int count = indexBuff != null ? indexBuff.limit() : geom.getVertBuff().capacity() / 3;
+		if (count == 0){
+			return true;
+		}
+
+		if (!shape.isNoFill()){
+			RenderItem item = this.nextItem();
+			item.setGeometry(geom, modelView, projection, indexBuff, count);
+			item.stroke = false;
+			item.drawMode = drawMode;
+			item.colors = geom.getColorBuff();
+			item.texCoords = null;
+			item.textureTarget = GL.GL_TEXTURE_2D;
+			item.textureID = 0;
+			if (textured){
+				GLTexture tex = (GLTexture)shape.getTexture();
+				item.texCoords = geom.getTexBuff();
+				item.textureTarget = tex.getTextureTarget();
+				item.textureID = tex.getTextureID();
+			}
+			item.transparent = item.textureID != 0 || hasTransparentColor(item.colors, geom.getVertBuff().capacity() / 3);
+			this.assignLayer(item);
+		}
+		if (!shape.isNoStroke()){
+			RenderItem item = this.nextItem();
+			item.setGeometry(geom, modelView, projection, indexBuff, count);
+			item.stroke = true;
+			item.drawMode = GL.GL_LINE_STRIP;
+			item.colors = geom.getStrokeColBuff();
+			item.texCoords = null;
+			item.strokeWeight = shape.getStrokeWeight();
+			item.lineStipple = shape.getLineStipple();
+			item.transparent = true; //Smoothed lines are always blended
+			this.assignLayer(item);
+		}
+		return true;
+	}
+
+
+	private static boolean isTriangleMode(int drawMode){
+		return drawMode == GL.GL_TRIANGLES
+			|| drawMode == GL.GL_TRIANGLE_FAN
+			|| drawMode == GL.GL_TRIANGLE_STRIP
+			|| drawMode == GL.GL_POLYGON
+			|| drawMode == GL.GL_QUADS
+			|| drawMode == GL.GL_QUAD_STRIP;
+	}
+
+
+	private static boolean hasTransparentColor(FloatBuffer colors, int vertexCount){
+		for (int i = 0; i < vertexCount; i++) {
+			if (colors.get(i * 4 + 3) < 1f){
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	private RenderItem nextItem(){
+		if (itemCount == items.size()){
+			items.add(new RenderItem());
+		}
+		RenderItem item = items.get(itemCount);
+		item.order = itemCount;
+		itemCount++;
+		return item;
+	}
+
+
+	/**
+	 * Puts the item into the layer above the highest layer of the earlier items it overlaps.
+	 * <br>Only checks the earlier items in the grid cells the item covers. Items which can't
+	 * be bounded on the screen overlap every other item.
+	 *
+	 * @param item the item
+	 */
+	private void assignLayer(RenderItem item){
+		int layer;
+		if (!item.bounded){
+			layer = item.order == 0 ? 0 : maxLayer + 1;
+			maxUnboundedLayer = Math.max(maxUnboundedLayer, layer);
+		}else{
+			layer = maxUnboundedLayer + 1;
+			int minCellX = toCell(item.minX);
+			int maxCellX = toCell(item.maxX);
+			int minCellY = toCell(item.minY);
+			int maxCellY = toCell(item.maxY);
+			
+			//Check each earlier item in the covered cells once
+			int stamp = ++visitStamp;
+			for (int cy = minCellY; cy <= maxCellY; cy++) {
+				for (int cx = minCellX; cx <= maxCellX; cx++) {
+					int cell = cy * GRID_SIZE + cx;
+					int[] cellItems = gridItems[cell];
+					int count = gridCounts[cell];
+					for (int i = 0; i < count; i++) {
+						RenderItem other = items.get(cellItems[i]);
+						if (other.visitStamp != stamp){
+							other.visitStamp = stamp;
+							if (other.layer >= layer && item.overlaps(other)){
+								layer = other.layer + 1;
+							}
+						}
+					}
+				}
+			}
+			
+			for (int cy = minCellY; cy <= maxCellY; cy++) {
+				for (int cx = minCellX; cx <= maxCellX; cx++) {
+					int cell = cy * GRID_SIZE + cx;
+					int count = gridCounts[cell];
+					if (count == gridItems[cell].length){
+						int[] grown = new int[count * 2];
+						System.arraycopy(gridItems[cell], 0, grown, 0, count);
+						gridItems[cell] = grown;
+					}
+					gridItems[cell][count] = item.order;
+					gridCounts[cell] = count + 1;
+				}
+			}
+		}
+		item.layer = layer;
+		maxLayer = Math.max(maxLayer, layer);
+	}
+
+
+	/**
+	 * Gets the grid cell of the normalized device coordinate, coordinates off the screen are put into the border cells.
+	 */
+	private static int toCell(float ndc){
+		int cell = (int) ((ndc + 1f) * 0.5f * GRID_SIZE);
+		if (cell < 0 || ndc != ndc){
+			return 0;
+		}
+		return cell >= GRID_SIZE ? GRID_SIZE - 1 : cell;
+	}
+
+
+	/**
+	 * Draws the queued items and empties the queue.
+	 */
+	public void flush(){
+		lastFlushItemCount = itemCount;
+		lastFlushBatchCount = 0;
+		if (itemCount == 0){
+			return;
+		}
+
+		sorted.clear();
+		for (int i = 0; i < itemCount; i++) {
+			sorted.add(items.get(i));
+		}
+		Collections.sort(sorted, STATE_ORDER);
+
+		backend.begin();
+		boolean textureSet = false;
+		int textureTarget = 0;
+		int textureID = 0;
+		boolean lineStateSet = false;
+		float strokeWeight = 0;
+		short lineStipple = 0;
+
+		int start = 0;
+		while (start < itemCount){
+			RenderItem first = sorted.get(start);
+			int end = start + 1;
+			while (end < itemCount && first.isBatchableWith(sorted.get(end))){
+				end++;
+			}
+
+			if (first.stroke){
+				if (!lineStateSet || strokeWeight != first.strokeWeight || lineStipple != first.lineStipple){
+					backend.setLineState(first.strokeWeight, first.lineStipple);
+					lineStateSet = true;
+					strokeWeight = first.strokeWeight;
+					lineStipple = first.lineStipple;
+				}
+			}else{
+				if (!textureSet || textureID != first.textureID || (textureID != 0 && textureTarget != first.textureTarget)){
+					backend.setTexture(first.textureTarget, first.textureID);
+					textureSet = true;
+					textureTarget = first.textureTarget;
+					textureID = first.textureID;
+				}
+			}
+
+			this.drawBatch(start, end);
+			lastFlushBatchCount++;
+			start = end;
+		}
+		backend.end();
+
+		for (int i = 0; i < itemCount; i++) {
+			items.get(i).clear();
+		}
+		itemCount = 0;
+		maxLayer = 0;
+		maxUnboundedLayer = -1;
+		Arrays.fill(gridCounts, 0);
+		sorted.clear();
+	}
+
+
+	/**
+	 * Puts the sorted items from start to end into the shared buffers and draws them.
+	 */
+	private void drawBatch(int start, int end){
+		RenderItem first = sorted.get(start);
+		int vertexCount = 0;
+		for (int i = start; i < end; i++) {
+			vertexCount += sorted.get(i).getExpandedVertexCount();
+		}
+		this.ensureCapacity(vertexCount);
+		vertexBuffer.clear();
+		colorBuffer.clear();
+		texCoordBuffer.clear();
+		boolean textured = !first.stroke && first.textureID != 0;
+		for (int i = start; i < end; i++) {
+			sorted.get(i).write(vertexBuffer, colorBuffer, textured ? texCoordBuffer : null);
+		}
+		vertexBuffer.flip();
+		colorBuffer.flip();
+		texCoordBuffer.flip();
+
+		if (first.stroke){
+			backend.drawLines(vertexBuffer, colorBuffer, vertexCount);
+		}else{
+			backend.drawTriangles(vertexBuffer, colorBuffer, textured ? texCoordBuffer : null, vertexCount);
+		}
+	}
+
+
+	private void ensureCapacity(int vertexCount){
+		if (vertexBuffer.capacity() < vertexCount * 3){
+			int capacity = Math.max(vertexCount, vertexBuffer.capacity() / 3 * 2);
+			vertexBuffer = newFloatBuffer(capacity * 3);
+			colorBuffer = newFloatBuffer(capacity * 4);
+			texCoordBuffer = newFloatBuffer(capacity * 2);
+		}
+	}
+
+
+	private static FloatBuffer newFloatBuffer(int size){
+		return ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+	}
+
+
+	/**
+	 * Gets the number of queued items.
+	 *
+	 * @return the item count
+	 */
+	public int getItemCount() {
+		return itemCount;
+	}
+
+	/**
+	 * Gets the number of items drawn by the last flush.
+	 *
+	 * @return the item count of the last flush
+	 */
+	public int getLastFlushItemCount() {
+		return lastFlushItemCount;
+	}
+
+	/**
+	 * Gets the number of draw calls of the last flush.
+	 *
+	 * @return the batch count of the last flush
+	 */
+	public int getLastFlushBatchCount() {
+		return lastFlushBatchCount;
+	}
+
+	/**
+	 * Gets the backend.
+	 *
+	 * @return the backend
+	 */
+	public IRenderBackend getBackend() {
+		return backend;
+	}
+
+	/**
+	 * Sets the backend. The queue should be empty.
+	 *
+	 * @param backend the new backend
+	 */
+	public void setBackend(IRenderBackend backend) {
+		this.backend = backend;
+	}
+
+
+	/**
+	 * Checks if the component's <code>preDraw()</code>, <code>postDraw()</code> and <code>postDrawChildren()</code>
+	 * methods don't change the OpenGL state besides the modelview matrix.
+	 * If they do, the queue has to be flushed before and after the component and its children are drawn,
+	 * and the component itself has to be drawn directly instead of being queued.
+	 *
+	 * @param comp the component
+	 *
+	 * @return true, if the component doesn't change the state for its children
+	 */
+	public static boolean isStateNeutral(MTComponent comp){
+		if (comp.getAttachedCamera() != null
+			|| comp.getClip() != null
+			|| comp.getChildClip() != null
+			|| comp.getLight() != null
+			|| comp.isDepthBufferDisabled()
+		){
+			return false;
+		}
+		if (comp instanceof AbstractVisibleComponent){
+			AbstractVisibleComponent visible = (AbstractVisibleComponent)comp;
+			if (visible.getMaterial() != null || visible.getFillPaint() != null){
+				return false;
+			}
+		}
+		return !isStateChangingClass(comp.getClass());
+	}
+
+
+	private static synchronized boolean isStateChangingClass(Class<?> c){
+		Boolean stateChanging = stateChangingClasses.get(c);
+		if (stateChanging == null){
+			stateChanging = Boolean.valueOf(
+					!isDeclaredByBaseClass(c, "preDraw")
+					|| !isDeclaredByBaseClass(c, "postDraw")
+					|| !isDeclaredByBaseClass(c, "postDrawChildren"));
+			stateChangingClasses.put(c, stateChanging);
+		}
+		return stateChanging.booleanValue();
+	}
+
+
+	private static boolean isDeclaredByBaseClass(Class<?> c, String method){
+		Class<?> declaring = getDeclaringClass(c, method);
+		return declaring == MTComponent.class || declaring == AbstractVisibleComponent.class;
+	}
+
+
+	private static synchronized int getDrawKind(Class<?> c){
+		Integer kind = drawKinds.get(c);
+		if (kind == null){
+			Class<?> declaring = getDeclaringClass(c, "drawComponent");
+			if (declaring == MTComponent.class){
+				kind = Integer.valueOf(DRAW_NOTHING);
+			}else if (declaring == MTPolygon.class){
+				kind = Integer.valueOf(DRAW_POLYGON);
+			}else{
+				kind = Integer.valueOf(DRAW_CUSTOM);
+			}
+			drawKinds.put(c, kind);
+		}
+		return kind.intValue();
+	}
+
+
+	private static Class<?> getDeclaringClass(Class<?> c, String method){
+		try {
+			return c.getMethod(method, PGraphics.class).getDeclaringClass();
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+
+	/**
+	 * The order the items are drawn in: by layer, opaque before transparent,
+	 * fills before strokes, then by texture or line state.
+	 */
+	private static final Comparator<RenderItem> STATE_ORDER = new Comparator<RenderItem>() {
+		public int compare(RenderItem a, RenderItem b) {
+			if (a.layer != b.layer)
+				return a.layer < b.layer ? -1 : 1;
+			if (a.transparent != b.transparent)
+				return a.transparent ? 1 : -1;
+			if (a.stroke != b.stroke)
+				return a.stroke ? 1 : -1;
+			if (a.stroke){
+				if (a.strokeWeight != b.strokeWeight)
+					return a.strokeWeight < b.strokeWeight ? -1 : 1;
+				if (a.lineStipple != b.lineStipple)
+					return a.lineStipple < b.lineStipple ? -1 : 1;
+			}else{
+				if (a.textureTarget != b.textureTarget)
+					return a.textureTarget < b.textureTarget ? -1 : 1;
+				if (a.textureID != b.textureID)
+					return a.textureID < b.textureID ? -1 : 1;
+			}
+			return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+		}
+	};
+
+}
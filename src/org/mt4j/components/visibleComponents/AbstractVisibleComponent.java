@@ -95,6 +95,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
 	public void setFillPaint(FillPaint fillPaint) {
 		this.fillPaint = fillPaint;
 		this.fillPaint.setShape(this);
+		setDrawDirty();
 	}
 
 	/* (non-Javadoc)
@@ -289,6 +290,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
  */
 	public void setFillColor(MTColor fillColor){
 		this.styleInfo.setFillColor(fillColor);
+		setDrawDirty();
 	}
 
 	/**
@@ -323,6 +325,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
  */
 	public void setStrokeColor(MTColor strokeColor){
 		this.styleInfo.setStrokeColor(strokeColor);
+		setDrawDirty();
 	}
 
 	/**
@@ -389,6 +392,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
 	 */
 	public void setDrawSmooth(boolean drawSmooth) {
 		styleInfo.setDrawSmooth(drawSmooth);
+		setDrawDirty();
 	}
 
 
@@ -403,6 +407,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
 	 */
 	public void setNoFill(boolean noFill) {
 		styleInfo.setNoFill(noFill);
+		setDrawDirty();
 	}
 
 	/**
@@ -414,6 +419,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
 	 */
 	public void setNoStroke(boolean noStroke) {
 		styleInfo.setNoStroke(noStroke);
+		setDrawDirty();
 	}
 
 
@@ -428,6 +434,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
 	 */
 	public void setStrokeWeight(float strokeWeight) {
 		styleInfo.setStrokeWeight(strokeWeight);
+		setDrawDirty();
 	}
 
 	
@@ -449,6 +456,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
 	 */
 	public void setFillDrawMode(int fillDrawMode) {
 		styleInfo.setFillDrawMode(fillDrawMode);
+		setDrawDirty();
 	}
 	
 	/**
@@ -464,6 +472,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
 			System.err.println("Cant set line stipple pattern if not using the OpenGL renderer. " + (this));
 		}
 		styleInfo.setLineStipple(stipplePattern);
+		setDrawDirty();
 	}
 	
 	
@@ -483,6 +492,7 @@ public abstract class AbstractVisibleComponent extends MTComponent {
 	 */
 	public void setMaterial(GLMaterial material){
 		this.styleInfo.setMaterial(material);
+		setDrawDirty();
 	}
 	
 	/**
@@ -22,6 +22,7 @@ import java.nio.IntBuffer;
 
 import javax.media.opengl.GL;
 
+import org.mt4j.components.MTComponent;
 import org.mt4j.util.MT4jSettings;
 import org.mt4j.util.math.Tools3D;
 import org.mt4j.util.math.ToolsBuffers;
@@ -220,6 +221,7 @@ public class GeometryInfo {
 			boolean 	createOrUpdateVBO, 
 			StyleInfo 	styleInfo
 		){
+		MTComponent.setDrawDirty();
 		//Make untransformed vertex backup
 //		this.verticesLocal = Vertex.getDeepVertexArrayCopy(vertices); //FIXME Unnecessary now?
 		this.vertices = vertices;
@@ -262,6 +264,7 @@ public class GeometryInfo {
 	 * @param createOrUpdateOGLBuffers the create or update ogl buffers
 	 */
 	public void setIndices(int[] indices, boolean createOrUpdateOGLBuffers/*, boolean createOrUpdateVBO*/) {
+		MTComponent.setDrawDirty();
 		if (indices != null && indices.length > 0){
 			this.setIndexed(true);
 			this.indices = indices;
@@ -321,6 +324,7 @@ public class GeometryInfo {
 	 * @param createOrUpdateVBO the create or update vbo
 	 */
 	public void setNormals(Vector3D[] normals, boolean createOrUpdateOGLBuffers, boolean createOrUpdateVBO) {
+		MTComponent.setDrawDirty();
 		if (normals != null && normals.length > 0){
 			this.setContainsNormals(true);
 			//Set the normal array and say that the geometry contains normals
@@ -411,6 +415,7 @@ public class GeometryInfo {
 	 * @param styleInfo the style info
 	 */
 	public void generateOrUpdateBuffersLocal(StyleInfo styleInfo){
+		MTComponent.setDrawDirty();
 ////		if (this.getVertBuff() == null){
 //			this.generateDefaultVertexBuffer();
 ////		}
@@ -687,6 +692,7 @@ public class GeometryInfo {
 	 * @param setAsNewVertexArray the set as new vertex array
 	 */
 	public void updateVertexVBO(FloatBuffer vertexBuffer, boolean setAsNewVertexBuffer , boolean setAsNewVertexArray){
+		MTComponent.setDrawDirty();
 		if (setAsNewVertexArray)
 			this.vertices = ToolsBuffers.getVertexArray(vertexBuffer);
 		//FIXME size correctly calculated?
@@ -701,6 +707,7 @@ public class GeometryInfo {
 	 * @param textureBuffer the texture buffer
 	 */
 	public void updateTextureVBO(FloatBuffer textureBuffer){
+		MTComponent.setDrawDirty();
 		this.setTextureBuffer(textureBuffer);
 		//FIXME size correctly calculated?
 		ToolsVBO.updateTextureVBO(this.getRenderer(), textureBuffer, textureBuffer.capacity()/(2 /*2 col data per vertex */ * 4 /*when buffer created v array * 4*/), this.getVBOTextureName()); 
@@ -712,6 +719,7 @@ public class GeometryInfo {
 	 * @param colorBuffer the color buffer
 	 */
 	public void updateColorVBO(FloatBuffer colorBuffer){
+		MTComponent.setDrawDirty();
 		this.setColorBuffer(colorBuffer);
 		//FIXME size correctly calculated?
 		ToolsVBO.updateColorVBO(this.getRenderer(), colorBuffer, colorBuffer.capacity()/(4 /*4 col data per vertex */ * 4 /*when buffer created v array * 4*/), this.getVBOColorName());
@@ -723,6 +731,7 @@ public class GeometryInfo {
 	 * @param strokeColorBuffer the stroke color buffer
 	 */
 	public void updateStrokeColorVBO(FloatBuffer strokeColorBuffer){
+		MTComponent.setDrawDirty();
 		this.setStrokeColorBuffer(strokeColorBuffer);
 		//FIXME size correctly calculated?
 		ToolsVBO.updateStrokeColorVBO(this.getRenderer(), strokeColorBuffer, strokeColorBuffer.capacity()/(4 /*4 col data per vertex */ * 4 /*when buffer created v array * 4*/), this.getVBOStrokeColorName());
@@ -736,6 +745,7 @@ public class GeometryInfo {
 	 * @param setAsNewNormalArray the set as new normal array
 	 */
 	public void updateNormalsVBO(FloatBuffer normalsBuffer, boolean setAsNewNormalBuffer, boolean setAsNewNormalArray){
+		MTComponent.setDrawDirty();
 		if (setAsNewNormalArray)
 			this.setNormals(ToolsBuffers.getVector3DArray(normalsBuffer), false, false);
 		if (setAsNewNormalBuffer)
@@ -888,6 +898,7 @@ public class GeometryInfo {
 	 * @param ids the ids
 	 */
 	public void setDisplayListIDs(int[] ids){
+		MTComponent.setDrawDirty();
 		this.displayListIDs = ids;
 	}
 	////////////////DISPLAY LISTS //////////////////////
@@ -925,6 +936,7 @@ public class GeometryInfo {
 	 * @param a the a
 	 */
 	public void setVerticesColorAll(float r, float g, float b, float a){
+		MTComponent.setDrawDirty();
 		for (Vertex vertex : this.getVertices()){
 			vertex.setR(r);
 			vertex.setG(g);
@@ -958,6 +970,7 @@ public class GeometryInfo {
 	 * @param a the a
 	 */
 	public void setStrokeColorAll(float r, float g, float b, float a){
+		MTComponent.setDrawDirty();
 		//Dont always create a new buffer -> update old one if possible
 		if (this.getStrokeColBuff() != null && this.getVertices().length == (this.getStrokeColBuff().limit()/4)){
 			ToolsBuffers.updateStrokeColorBuffer(this.getStrokeColBuff(), r, g, b, a);
@@ -983,6 +996,7 @@ public class GeometryInfo {
 	 * <br>Doesent update strokecolors!
 	 */
 	public void updateVerticesColorBuffer(){
+		MTComponent.setDrawDirty();
 		if (MT4jSettings.getInstance().isOpenGlMode()){
 			//Dont always create a new buffer -> update old one if possible
 			if (this.getColorBuff() != null && this.getVertices().length == (this.getColorBuff().limit()/4)){
@@ -1007,6 +1021,7 @@ public class GeometryInfo {
 	 * @param updateVBO the update vbo
 	 */
 	public void updateTextureBuffer(boolean updateVBO){
+		MTComponent.setDrawDirty();
 		if (MT4jSettings.getInstance().isOpenGlMode()){
 			this.generateDefaultTextureBuffer();
 			if (updateVBO && this.getVBOTextureName() != -1){
@@ -27,6 +27,7 @@ import org.apache.log4j.Logger;
 import org.apache.log4j.SimpleLayout;
 import org.mt4j.components.MTComponent;
 import org.mt4j.components.TransformSpace;
+import org.mt4j.components.bounds.BoundingSphere;
 import org.mt4j.components.bounds.IBoundingShape;
 import org.mt4j.components.bounds.OrientedBoundingBox;
 import org.mt4j.components.visibleComponents.AbstractVisibleComponent;
@@ -116,6 +117,9 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	/** global vertices dirty. */
 	private boolean globalVerticesDirty;
 	
+	/** The local box around the geometry and bounds, null if it has to be recomputed. */
+	private float[] contentBoundsLocal;
+	
 	
 	/**
 	 * Creates a new shape with the vertices provided.
@@ -296,6 +300,8 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	 */
 	public void setBoundsBehaviour(int boundsBehaviour){
 		this.boundsBehaviour = boundsBehaviour;
+		this.contentBoundsLocal = null;
+		this.setSubtreeBoundsDirty();
 	}
 	
 	/**
@@ -303,7 +309,7 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	 * 
 	 * @return the bounds behaviour constant
 	 */
-	private int getBoundsBehaviour(){
+	public int getBoundsBehaviour(){
 		return this.boundsBehaviour;
 	}
 	
@@ -339,6 +345,9 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	public void setBoundingShape(IBoundingShape boundingShape){
 		this.boundingShape = boundingShape;
 		this.setBoundsGlobalDirty(true);
+		//Is also called when the geometry changes
+		this.contentBoundsLocal = null;
+		this.setSubtreeBoundsDirty();
 	}	
 	
 	/**
@@ -402,6 +411,7 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	 * @param geometryInfo the geometry info
 	 */
 	public void setGeometryInfo(GeometryInfo geometryInfo){
+		setDrawDirty();
 		if (this.isUseDirectGL()){
 			if (geometryInfo.getVertBuff() == null 	|| geometryInfo.getStrokeColBuff() == null){ 
 				//new geometryinfo has no drawbuffers created yet -> create them!
@@ -473,6 +483,7 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	 * @param vertices the vertices
 	 */
 	public void setVertices(Vertex[] vertices){
+		setDrawDirty();
 		this.getGeometryInfo().reconstruct(
 				vertices,
 				this.getGeometryInfo().getNormals(), 
@@ -787,6 +798,7 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	 */
 	public void setTextureEnabled(boolean texture){
 		this.textureEnabled = texture;
+		setDrawDirty();
 	}
 	
 	/**
@@ -815,6 +827,7 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	 * @param newTexImage the new tex image
 	 */
 	public void setTexture(PImage newTexImage){
+		setDrawDirty();
 		if (newTexImage == null){
 			this.textureImage = null;
 //			System.out.println("Set texture to null");
@@ -1018,6 +1031,7 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	 */
 	public void setTextureMode(int textureMode){
 		this.textureMode = textureMode;
+		setDrawDirty();
 	}
 	
 	/**
@@ -1189,6 +1203,61 @@ public abstract class AbstractShape extends AbstractVisibleComponent {
 	}
 	
 	
+	/* (non-Javadoc)
+	 * @see org.mt4j.components.MTComponent#getContentBoundsLocal()
+	 */
+	@Override
+	protected float[] getContentBoundsLocal() {
+		if (isIntersectionOverridden(this.getClass(), AbstractShape.class)){
+			return null;
+		}
+		if (this.contentBoundsLocal == null){
+			this.contentBoundsLocal = this.computeContentBoundsLocal();
+		}
+		return this.contentBoundsLocal;
+	}
+	
+	
+	/**
+	 * Computes the box around the vertices and the bounding shape, which
+	 * contains every intersection found by <code>getIntersectionLocal()</code>.
+	 * 
+	 * @return the local content bounds
+	 */
+	private float[] computeContentBoundsLocal(){
+		float[] b = new float[]{Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+		boolean empty = true;
+		GeometryInfo geometry = this.getGeometryInfo();
+		if (geometry != null){
+			Vertex[] vertices = geometry.getVertices();
+			for (int i = 0; i < vertices.length; i++) {
+				Vertex v = vertices[i];
+				b[0] = Math.min(b[0], v.x); b[1] = Math.min(b[1], v.y); b[2] = Math.min(b[2], v.z);
+				b[3] = Math.max(b[3], v.x); b[4] = Math.max(b[4], v.y); b[5] = Math.max(b[5], v.z);
+				empty = false;
+			}
+		}
+		IBoundingShape bounds = this.getBoundingShape();
+		if (bounds instanceof BoundingSphere){
+			BoundingSphere sphere = (BoundingSphere) bounds;
+			Vector3D c = sphere.getCenterPointLocal();
+			float r = sphere.getRadius();
+			b[0] = Math.min(b[0], c.x - r); b[1] = Math.min(b[1], c.y - r); b[2] = Math.min(b[2], c.z - r);
+			b[3] = Math.max(b[3], c.x + r); b[4] = Math.max(b[4], c.y + r); b[5] = Math.max(b[5], c.z + r);
+			empty = false;
+		}else if (bounds != null){
+			Vector3D[] vectors = bounds.getVectorsLocal();
+			for (int i = 0; i < vectors.length; i++) {
+				Vector3D v = vectors[i];
+				b[0] = Math.min(b[0], v.x); b[1] = Math.min(b[1], v.y); b[2] = Math.min(b[2], v.z);
+				b[3] = Math.max(b[3], v.x); b[4] = Math.max(b[4], v.y); b[5] = Math.max(b[5], v.z);
+				empty = false;
+			}
+		}
+		return empty ? NO_BOUNDS : b;
+	}
+	
+	
 	/* (non-Javadoc)
 	 * @see org.mt4j.components.MTComponent#isContainedIn(util.camera.IFrustum)
 	 */
@@ -236,7 +236,7 @@ public class MTSceneTexture extends MTRectangle {
 			switch (posEvt.getId()) 
 			{
 			case AbstractCursorInputEvt.INPUT_DETECTED:{
-				InputCursor newCursor = new InputCursor();
+				InputCursor newCursor = new InputCursor(posEvt.getCursor().getEventHistoryDepth());
 				try {
 					newEvt = (AbstractCursorInputEvt) posEvt.clone();
 					newEvt.setPositionX(newX);
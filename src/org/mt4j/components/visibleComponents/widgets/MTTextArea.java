@@ -211,6 +211,8 @@ public class MTTextArea extends MTRectangle implements IdragClusterable, ITextIn
 	public void updateComponent(long timeDelta) {
 		super.updateComponent(timeDelta);
 		if (enableCaret){
+			//Keep the caret blinking
+			requestUpdate();
 			caretTimeCounter+=timeDelta;
 			if (caretTimeCounter >= showCaretTime && !showCaret){
 				showCaret 		 = true;
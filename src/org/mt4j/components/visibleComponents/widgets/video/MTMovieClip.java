@@ -224,6 +224,8 @@ implements IdragClusterable {
 	 */
 	public void movieEvent(GSMovie myMovie) throws InterruptedException {
 		m = myMovie;
+		//Wake up an application which skips idle frames
+		setDrawDirty();
 		
 		if (!dragging){
 			slider.setValue(myMovie.time()); //ONLY DO THIS WHEN NOT DRAGGING THE SLIDER
@@ -255,12 +257,24 @@ implements IdragClusterable {
 	}
 	
 	
+	/* (non-Javadoc)
+	 * @see org.mt4j.components.MTComponent#isUpdateThreadSafe()
+	 */
+	@Override
+	public boolean isUpdateThreadSafe() {
+		return false; //Uploads the movie frames to the texture
+	}
+	
+	
 	/* (non-Javadoc)
 	 * @see com.jMT.components.MTBaseComponent#updateComponent(long)
 	 */
 	@Override
 	public void updateComponent(long timeDelta){
 		super.updateComponent(timeDelta);
+		if (m != null && m.isPlaying()){
+			requestUpdate();
+		}
 //		/*
 		if (   m != null 
 			&& m.isPlaying()
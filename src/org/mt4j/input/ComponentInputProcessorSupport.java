@@ -30,12 +30,20 @@ import processing.core.PApplet;
 /**
  * The Class ComponentInputProcessorSupport. Keeps the list of registered component input processors for
  * one component and sorts them by locking prioriy.
+ * <br>The processors an event is sent to are looked up by the class of the event and whether it has a
+ * target. The lookups are cached until a processor is registered or unregistered.
  * 
  * @author Christopher Ruff
  */
 public class ComponentInputProcessorSupport implements IMTInputEventListener /*, IGestureEventListener*/ {
+	/** The empty processor array. */
+	private static final AbstractComponentProcessor[] NO_PROCESSORS = new AbstractComponentProcessor[0];
+	
 	private List<AbstractComponentProcessor> registeredProcessors;
 	
+	/** The processors by event type, replaced when the processors change. */
+	private volatile ProcessorIndex processorIndex;
+	
 	private MTComponent associatedComponent;
 	
 	public ComponentInputProcessorSupport(PApplet graphicsContext, MTComponent associatedComponent) {
@@ -43,6 +51,7 @@ public class ComponentInputProcessorSupport implements IMTInputEventListener /*,
 				
 		this.associatedComponent = associatedComponent;
 		this.registeredProcessors = new ArrayList<AbstractComponentProcessor>();
+		this.processorIndex = null;
 		
 		//Listen to the components input events
 		this.associatedComponent.addInputListener(this);
@@ -50,12 +59,17 @@ public class ComponentInputProcessorSupport implements IMTInputEventListener /*,
 
 
 	public boolean processInputEvent(MTInputEvent inEvt){
-//		/*
+		ProcessorIndex index = this.processorIndex;
+		if (index == null){
+			return false;
+		}
+		AbstractComponentProcessor[] processors = index.getProcessors(inEvt.getClass(), inEvt.hasTarget());
+		
 		boolean handled = false;
-		for (int i = 0; i < registeredProcessors.size(); i++) {
-			AbstractComponentProcessor inputProcessor = registeredProcessors.get(i);
+		for (int i = 0; i < processors.length; i++) {
+			AbstractComponentProcessor inputProcessor = processors[i];
 			//Send events
-			if (inputProcessor.isInterestedIn(inEvt) 
+			if ((inputProcessor.isInterestDeclared() || inputProcessor.isInterestedIn(inEvt)) 
 				&& this.associatedComponent.isGestureAllowed(inputProcessor.getClass())
 			){
 				handled = true;
@@ -63,7 +77,6 @@ public class ComponentInputProcessorSupport implements IMTInputEventListener /*,
 			}
 		}
 		return handled;
-//		*/
 	}
 	
 	
@@ -74,6 +87,7 @@ public class ComponentInputProcessorSupport implements IMTInputEventListener /*,
 			//Sort the list so that the cursor processors
 			//with the highest locking priority get served first
 			Collections.sort(registeredProcessors,  Collections.reverseOrder());
+			this.processorIndex = new ProcessorIndex(this.getInputProcessors());
 			
 			//FIXME DO THIS DIRECTLY INSTEAD? - then we should also unregister the comp from the processor if processor is removed
 			//so the processors fire to the comp directly instead of this and then to the comp
@@ -86,13 +100,92 @@ public class ComponentInputProcessorSupport implements IMTInputEventListener /*,
 	public synchronized void unregisterInputProcessor(AbstractComponentProcessor inputProcessor){
 		if (this.registeredProcessors.contains(inputProcessor)){
 			this.registeredProcessors.remove(inputProcessor);
+			this.processorIndex = registeredProcessors.isEmpty() ? null : new ProcessorIndex(this.getInputProcessors());
 		}
 	}
 	
-	public AbstractComponentProcessor[] getInputProcessors(){
+	public synchronized AbstractComponentProcessor[] getInputProcessors(){
 		return this.registeredProcessors.toArray(new AbstractComponentProcessor[this.registeredProcessors.size()]);
 	}
 	
 	
+	/**
+	 * The registered processors, by the event types and target requirement they declare.
+	 * The index itself is immutable but lazily fills its lookup cache, which
+	 * is only done by the thread processing the input.
+	 */
+	private static final class ProcessorIndex {
+		/** The processors in dispatch order. */
+		private final AbstractComponentProcessor[] processors;
+		
+		/** The event types resolved so far. */
+		private Class<?>[] eventTypes;
+		
+		/** The processors for targeted events of each resolved event type. */
+		private AbstractComponentProcessor[][] targeted;
+		
+		/** The processors for events without target of each resolved event type. */
+		private AbstractComponentProcessor[][] untargeted;
+		
+		/** The number of resolved event types. */
+		private int typeCount;
+		
+		ProcessorIndex(AbstractComponentProcessor[] processors){
+			this.processors = processors;
+			this.eventTypes = new Class<?>[2];
+			this.targeted = new AbstractComponentProcessor[2][];
+			this.untargeted = new AbstractComponentProcessor[2][];
+			this.typeCount = 0;
+		}
+		
+		/**
+		 * Gets the processors which may be interested in events of the type.
+		 * Processors which dont declare their interest are always included.
+		 * 
+		 * @param eventType the event type
+		 * @param hasTarget whether the event has a target
+		 * 
+		 * @return the processors
+		 */
+		AbstractComponentProcessor[] getProcessors(Class<? extends MTInputEvent> eventType, boolean hasTarget){
+			//Components get only a few event types, a linear search is fastest
+			for (int i = 0; i < typeCount; i++) {
+				if (eventTypes[i] == eventType){
+					return hasTarget ? targeted[i] : untargeted[i];
+				}
+			}
+			
+			if (typeCount == eventTypes.length){
+				Class<?>[] types = new Class<?>[typeCount * 2];
+				System.arraycopy(eventTypes, 0, types, 0, typeCount);
+				eventTypes = types;
+				AbstractComponentProcessor[][] t = new AbstractComponentProcessor[typeCount * 2][];
+				System.arraycopy(targeted, 0, t, 0, typeCount);
+				targeted = t;
+				AbstractComponentProcessor[][] u = new AbstractComponentProcessor[typeCount * 2][];
+				System.arraycopy(untargeted, 0, u, 0, typeCount);
+				untargeted = u;
+			}
+			eventTypes[typeCount] 	= eventType;
+			targeted[typeCount] 	= this.filter(eventType, true);
+			untargeted[typeCount] 	= this.filter(eventType, false);
+			typeCount++;
+			return hasTarget ? targeted[typeCount - 1] : untargeted[typeCount - 1];
+		}
+		
+		private AbstractComponentProcessor[] filter(Class<? extends MTInputEvent> eventType, boolean hasTarget){
+			List<AbstractComponentProcessor> result = new ArrayList<AbstractComponentProcessor>(processors.length);
+			for (int i = 0; i < processors.length; i++) {
+				AbstractComponentProcessor processor = processors[i];
+				if (!processor.isInterestDeclared()
+					|| (processor.getInterestEventType().isAssignableFrom(eventType) 
+						&& (hasTarget || !processor.isTargetRequired()))
+				){
+					result.add(processor);
+				}
+			}
+			return result.isEmpty() ? NO_PROCESSORS : result.toArray(new AbstractComponentProcessor[result.size()]);
+		}
+	}
 
 }
@@ -18,28 +18,34 @@
 package org.mt4j.input;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import org.mt4j.input.inputProcessors.IGestureEventListener;
 import org.mt4j.input.inputProcessors.IInputProcessor;
 import org.mt4j.input.inputProcessors.MTGestureEvent;
 
+/**
+ * Keeps the gesture listeners of a component by the input processor they listen to.
+ * <br>The listener arrays are never modified but replaced on every change, so firing
+ * events needs no locking and listeners may be added or removed while events are fired.
+ */
 public class GestureEventSupport {
 //	private List<IGestureEventListener> gestureListeners;
 	
-	/** The gestureEvtSenders to listener. */
-	private Map<Class<? extends IInputProcessor>, IGestureEventListener[]> gestureSenderToGestureListener;
-	
 	/** The Constant EMPTY. */
 	private static final IGestureEventListener[] EMPTY = {};
 	
+	/** The listeners listening to all gesture evt senders. */
+	private volatile IGestureEventListener[] commonListeners;
+	
+	/** The gesture evt senders, index aligned with <code>senderListeners</code>. */
+	private volatile SenderListeners[] senderListeners;
+	
 	
 	public GestureEventSupport() {
 		super();
-		
+		this.commonListeners = EMPTY;
+		this.senderListeners = new SenderListeners[0];
 //		this.gestureListeners = new ArrayList<IGestureEventListener>();
 	}
 
@@ -69,20 +75,23 @@ public class GestureEventSupport {
             return;
         }
         
-        this.lazyInitMap();
-        
-        IGestureEventListener[] array = this.gestureSenderToGestureListener.get(gestureEvtSender);
-        
-        //Add listener to array 
-        int size = (array != null) ? array.length  : 0;
-        IGestureEventListener[] clone = newArray(size + 1);
-        clone[size] = listener;
-        if (array != null) {
-            System.arraycopy(array, 0, clone, 0, size);
+        if (gestureEvtSender == null){
+        	this.commonListeners = this.added(this.commonListeners, listener);
+        	return;
         }
         
-        //Put new listener array into map
-        this.gestureSenderToGestureListener.put(gestureEvtSender, clone);
+        SenderListeners[] senders = this.senderListeners;
+        int index = indexOf(senders, gestureEvtSender);
+        if (index != -1){
+        	SenderListeners[] clone = senders.clone();
+        	clone[index] = new SenderListeners(gestureEvtSender, this.added(senders[index].listeners, listener));
+        	this.senderListeners = clone;
+        }else{
+        	SenderListeners[] clone = new SenderListeners[senders.length + 1];
+        	System.arraycopy(senders, 0, clone, 0, senders.length);
+        	clone[senders.length] = new SenderListeners(gestureEvtSender, this.added(EMPTY, listener));
+        	this.senderListeners = clone;
+        }
     }
     
     
@@ -96,6 +105,44 @@ public class GestureEventSupport {
     protected IGestureEventListener[] newArray(int length) {
         return (0 < length) ? new IGestureEventListener[length] : EMPTY;
     }
+    
+    
+    /**
+     * Gets a copy of the array with the listener appended.
+     * 
+     * @param array the array
+     * @param listener the listener
+     * 
+     * @return the new array
+     */
+    private IGestureEventListener[] added(IGestureEventListener[] array, IGestureEventListener listener){
+    	IGestureEventListener[] clone = newArray(array.length + 1);
+    	System.arraycopy(array, 0, clone, 0, array.length);
+    	clone[array.length] = listener;
+    	return clone;
+    }
+    
+    
+    /**
+     * Gets a copy of the array without the first occurence of the listener.
+     * 
+     * @param array the array
+     * @param listener the listener
+     * 
+     * @return the new array or the same array if the listener wasnt found
+     */
+    private IGestureEventListener[] removed(IGestureEventListener[] array, IGestureEventListener listener){
+    	for (int i = 0; i < array.length; i++) {
+    		if (listener.equals(array[i])) {
+    			int size = array.length - 1;
+    			IGestureEventListener[] clone = newArray(size);
+    			System.arraycopy(array, 0, clone, 0, i);
+    			System.arraycopy(array, i + 1, clone, i, size - i);
+    			return clone;
+    		}
+    	}
+    	return array;
+    }
 
     
     /**
@@ -110,32 +157,21 @@ public class GestureEventSupport {
             return;
         }
     	
-    	 this.lazyInitMap();
-    	 
-    	  if (this.gestureSenderToGestureListener != null) {
-              IGestureEventListener[] array = this.gestureSenderToGestureListener.get(gestureEvtSender);
-              if (array != null) {
-            	  
-                  for (int i = 0; i < array.length; i++) {
-                      if (listener.equals(array[i])) {
-                          int size = array.length - 1;
-                          if (size > 0) {
-                        	  IGestureEventListener[] clone = newArray(size);
-                              System.arraycopy(array, 0, clone, 0, i);
-                              System.arraycopy(array, i + 1, clone, i, size - i);
-                              this.gestureSenderToGestureListener.put(gestureEvtSender, clone);
-                          }
-                          else {
-                              this.gestureSenderToGestureListener.remove(gestureEvtSender);
-                              if (this.gestureSenderToGestureListener.isEmpty()) {
-                                  this.gestureSenderToGestureListener = null;
-                              }
-                          }
-                          break;
-                      }
-                  }
-              }
-          }
+    	SenderListeners[] senders = this.senderListeners;
+    	int index = indexOf(senders, gestureEvtSender);
+    	if (index != -1){
+    		IGestureEventListener[] listeners = this.removed(senders[index].listeners, listener);
+    		if (listeners.length > 0){
+    			SenderListeners[] clone = senders.clone();
+    			clone[index] = new SenderListeners(gestureEvtSender, listeners);
+    			this.senderListeners = clone;
+    		}else{
+    			SenderListeners[] clone = new SenderListeners[senders.length - 1];
+    			System.arraycopy(senders, 0, clone, 0, index);
+    			System.arraycopy(senders, index + 1, clone, index, senders.length - index - 1);
+    			this.senderListeners = clone;
+    		}
+    	}
     }
     
     
@@ -143,13 +179,8 @@ public class GestureEventSupport {
      * Clear listeners.
      */
     public synchronized void clearListeners(){
-    	if (this.gestureSenderToGestureListener == null){
-    		return;
-    	}
-    	
-    	 this.lazyInitMap();
-    	 
-    	 this.gestureSenderToGestureListener.clear();
+    	this.commonListeners = EMPTY;
+    	this.senderListeners = new SenderListeners[0];
     }
     
     /**
@@ -158,18 +189,19 @@ public class GestureEventSupport {
      * @param evt  The GestureEvent object.
      */
     public void fireGestureEvt(MTGestureEvent evt) {
-    	if (this.gestureSenderToGestureListener != null 
-        && !this.gestureSenderToGestureListener.isEmpty()
-        ){
-//	    	Class<? extends GestureEventFireMarker> gestureEvtSenderName = evt.getgestureEvtSender();
-	    	
-	    	Class<? extends IInputProcessor> marker = evt.getSource().getClass();
-	        
-	        IGestureEventListener[] common = this.gestureSenderToGestureListener.get(null);
-	        IGestureEventListener[] named = (marker != null) ? this.gestureSenderToGestureListener.get(marker) : null;
-	
-	        this.fire(common, evt);
-	        this.fire(named, evt);
+    	IGestureEventListener[] common = this.commonListeners;
+    	SenderListeners[] senders = this.senderListeners;
+    	if (common.length == 0 && senders.length == 0){
+    		return;
+    	}
+    	
+//    	Class<? extends GestureEventFireMarker> gestureEvtSenderName = evt.getgestureEvtSender();
+    	Class<? extends IInputProcessor> marker = evt.getSource().getClass();
+    	int index = indexOf(senders, marker);
+    	
+    	this.fire(common, evt);
+    	if (index != -1){
+    		this.fire(senders[index].listeners, evt);
     	}
     }
 
@@ -182,11 +214,28 @@ public class GestureEventSupport {
      * @param event the event
      */
     private void fire(IGestureEventListener[] listeners, MTGestureEvent event) {
-        if (listeners != null) {
-            for (IGestureEventListener listener : listeners) {
-                listener.processGestureEvent(event);
-            }
-        }
+    	for (int i = 0; i < listeners.length; i++) {
+    		listeners[i].processGestureEvent(event);
+    	}
+    }
+    
+    
+    /**
+     * Gets the index of the gesture evt sender.
+     * 
+     * @param senders the senders
+     * @param gestureEvtSender the gesture evt sender
+     * 
+     * @return the index or -1
+     */
+    private static int indexOf(SenderListeners[] senders, Class<? extends IInputProcessor> gestureEvtSender){
+    	//Components have only a few processors, a linear search is fastest
+    	for (int i = 0; i < senders.length; i++) {
+    		if (senders[i].sender == gestureEvtSender){
+    			return i;
+    		}
+    	}
+    	return -1;
     }
     
     
@@ -195,26 +244,17 @@ public class GestureEventSupport {
      * 
      * @return an array of all listeners
      */
-    public final synchronized IGestureEventListener[] getListeners() {
-        if (this.gestureSenderToGestureListener == null) {
-            return newArray(0);
-        }
+    public final IGestureEventListener[] getListeners() {
+    	IGestureEventListener[] common = this.commonListeners;
+    	SenderListeners[] senders = this.senderListeners;
         List<IGestureEventListener> list = new ArrayList<IGestureEventListener>();
-
-        IGestureEventListener[] listeners = this.gestureSenderToGestureListener.get(null);
-        if (listeners != null) {
-            for (IGestureEventListener listener : listeners) {
-                list.add(listener);
-            }
+        for (IGestureEventListener listener : common) {
+        	list.add(listener);
         }
-        
-        for (Entry<Class<? extends IInputProcessor>, IGestureEventListener[]> entry : this.gestureSenderToGestureListener.entrySet()) {
-        	Class<? extends IInputProcessor> gestureEvtSender = entry.getKey();
-            if (gestureEvtSender != null) {
-                for (IGestureEventListener listener : entry.getValue()) {
-                    list.add(listener);
-                }
-            }
+        for (SenderListeners sender : senders) {
+        	for (IGestureEventListener listener : sender.listeners) {
+        		list.add(listener);
+        	}
         }
         return list.toArray(newArray(list.size()));
     }
@@ -229,9 +269,10 @@ public class GestureEventSupport {
      */
     public final IGestureEventListener[] getListeners(Class<? extends IInputProcessor> gestureEvtSender) {
         if (gestureEvtSender != null) {
-        	IGestureEventListener[] listeners =  this.gestureSenderToGestureListener.get(gestureEvtSender);
-            if (listeners != null) {
-                return listeners.clone();
+        	SenderListeners[] senders = this.senderListeners;
+        	int index = indexOf(senders, gestureEvtSender);
+            if (index != -1) {
+                return senders[index].listeners.clone();
             }
         }
         return newArray(0);
@@ -246,26 +287,23 @@ public class GestureEventSupport {
      * @return      {@code true} if at least one listener exists or
      * {@code false} otherwise
      */
-    public final synchronized boolean hasListeners(Class<? extends IInputProcessor> gestureEvtSender) {
-        if (this.gestureSenderToGestureListener == null) {
-            return false;
-        }
-        IGestureEventListener[] array = this.gestureSenderToGestureListener.get(null);
-        return (array != null) || ((gestureEvtSender != null) && (null != this.gestureSenderToGestureListener.get(gestureEvtSender)));
+    public final boolean hasListeners(Class<? extends IInputProcessor> gestureEvtSender) {
+        return this.commonListeners.length > 0 
+        	|| (gestureEvtSender != null && indexOf(this.senderListeners, gestureEvtSender) != -1);
     }
     
     
     /**
-     * Checks if the map is null and then lazily initializes it.
+     * The listeners of one gesture evt sender. Immutable.
      */
-    private void lazyInitMap(){
-    	if (gestureSenderToGestureListener == null){
-    		 gestureSenderToGestureListener = new HashMap<Class<? extends IInputProcessor>, IGestureEventListener[]>();
+    private static final class SenderListeners {
+    	final Class<? extends IInputProcessor> sender;
+    	final IGestureEventListener[] listeners;
+    	
+    	SenderListeners(Class<? extends IInputProcessor> sender, IGestureEventListener[] listeners){
+    		this.sender = sender;
+    		this.listeners = listeners;
     	}
     }
-
-
-
-	
 	
 }
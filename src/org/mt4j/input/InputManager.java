@@ -27,11 +27,9 @@ import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
 
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
@@ -43,6 +41,7 @@ import org.mt4j.input.inputSources.AbstractInputSource;
 import org.mt4j.input.inputSources.KeyboardInputSource;
 import org.mt4j.input.inputSources.MouseInputSource;
 import org.mt4j.input.inputSources.MultipleMiceInputSource;
+import org.mt4j.input.inputSources.NioTuioInputSource;
 import org.mt4j.input.inputSources.TuioInputSource;
 import org.mt4j.input.inputSources.Win7NativeTouchSource;
 import org.mt4j.sceneManagement.Iscene;
@@ -73,6 +72,9 @@ public class InputManager {
 	/** The In processor to scene. */
 	private Map<AbstractGlobalInputProcessor, Iscene> inputProcessorsToScene;
 	
+	/** The processors of each scene. The arrays are replaced on change, never modified. */
+	private Map<Iscene, AbstractGlobalInputProcessor[]> sceneToInputProcessors;
+	
 	/** The pa. */
 	private MTApplication app;
 	
@@ -88,6 +90,7 @@ public class InputManager {
 
 //		this.inputProcessorsToScene = new WeakHashMap<AbstractGlobalInputProcessor, Iscene>();
 		this.inputProcessorsToScene = new HashMap<AbstractGlobalInputProcessor, Iscene>();
+		this.sceneToInputProcessors = new HashMap<Iscene, AbstractGlobalInputProcessor[]>();
 		
 		this.app = pa;
 		
@@ -101,10 +104,14 @@ public class InputManager {
 	 */
 	protected void registerDefaultInputSources(){
 		boolean enableMultiMouse = false;
+		boolean enableNioTuio = false;
+		String tuioPorts = "3333";
 		Properties properties = new Properties();
 	    try {
 	        properties.load(new FileInputStream(System.getProperty("user.dir") + File.separator + "Settings.txt"));
 	        enableMultiMouse = Boolean.parseBoolean(properties.getProperty("MultiMiceEnabled", "false"));
+	        enableNioTuio = Boolean.parseBoolean(properties.getProperty("TuioNio", "false"));
+	        tuioPorts = properties.getProperty("TuioPorts", "3333");
 	    } catch (Exception e) {
 	    	logger.error("Error while loading Settings.txt file. Using defaults.");
 	    }
@@ -158,7 +165,13 @@ public class InputManager {
 	    }
 
 	    KeyboardInputSource keyInput= new KeyboardInputSource(app);
-		TuioInputSource tuioInput 	= new TuioInputSource(app);
+		int[] ports = this.parsePorts(tuioPorts);
+		AbstractInputSource tuioInput;
+		if (enableNioTuio){
+			tuioInput = new NioTuioInputSource(app, ports);
+		}else{
+			tuioInput = new TuioInputSource(app, ports[0]);
+		}
 //		MuitoInputSource muitoInput = new MuitoInputSource(pa, "localhost", 6666);
 		
 		registeredInputSources.add(keyInput);
@@ -167,6 +180,34 @@ public class InputManager {
 	}
 	
 	
+	/**
+	 * Parses a comma separated list of ports.
+	 * 
+	 * @param ports the ports
+	 * 
+	 * @return the ports, the default TUIO port if none are valid
+	 */
+	private int[] parsePorts(String ports){
+		String[] tokens = ports.split(",");
+		int[] result = new int[tokens.length];
+		int count = 0;
+		for (int i = 0; i < tokens.length; i++) {
+			try {
+				result[count] = Integer.parseInt(tokens[i].trim());
+				count++;
+			} catch (NumberFormatException e) {
+				logger.error("Invalid TUIO port in Settings.txt: " + tokens[i]);
+			}
+		}
+		if (count == 0){
+			return new int[]{3333};
+		}
+		int[] valid = new int[count];
+		System.arraycopy(result, 0, valid, 0, count);
+		return valid;
+	}
+	
+	
 	/**
 	 * Registers a new inputsource.
 	 * 
@@ -176,9 +217,7 @@ public class InputManager {
 		if (!registeredInputSources.contains(newInputSource)){
 			registeredInputSources.add(newInputSource);
 			//Add all processors to the new input source
-			Set<AbstractGlobalInputProcessor> set = inputProcessorsToScene.keySet(); 
-			for (Iterator<AbstractGlobalInputProcessor> iter = set.iterator(); iter.hasNext();) {
-				AbstractGlobalInputProcessor processor = (AbstractGlobalInputProcessor) iter.next();
+			for (AbstractGlobalInputProcessor processor : inputProcessorsToScene.keySet()){
 				//newInputSource.addInputListener(processor);
 				this.saveAddInputListenerToSource(newInputSource, processor);
 			}
@@ -243,7 +282,19 @@ public class InputManager {
 			inputprocessor.setDisabled(true);
 		}
 		
-		inputProcessorsToScene.put(inputprocessor, scene);
+		Iscene oldScene = inputProcessorsToScene.put(inputprocessor, scene);
+		if (oldScene != null){
+			this.removeFromScene(oldScene, inputprocessor);
+		}
+		AbstractGlobalInputProcessor[] processors = sceneToInputProcessors.get(scene);
+		if (processors == null){
+			processors = new AbstractGlobalInputProcessor[0];
+		}
+		AbstractGlobalInputProcessor[] newProcessors = new AbstractGlobalInputProcessor[processors.length + 1];
+		System.arraycopy(processors, 0, newProcessors, 0, processors.length);
+		newProcessors[processors.length] = inputprocessor;
+		sceneToInputProcessors.put(scene, newProcessors);
+		
 		//Register the processor with all registered inputsources
 		for (AbstractInputSource source: registeredInputSources){
 			this.saveAddInputListenerToSource(source, inputprocessor);
@@ -282,8 +333,9 @@ public class InputManager {
 		*/
 		
 		//Remove the input processor from the processor->scene map
-		if (inputProcessorsToScene.containsKey(inputprocessor)){
-			inputProcessorsToScene.remove(inputprocessor);	
+		Iscene scene = inputProcessorsToScene.remove(inputprocessor);
+		if (scene != null){
+			this.removeFromScene(scene, inputprocessor);
 		}
 		
 		for (AbstractInputSource source: registeredInputSources){
@@ -300,17 +352,35 @@ public class InputManager {
 	 * @return the scene inputprocessors
 	 */
 	public AbstractGlobalInputProcessor[] getGlobalInputProcessors(Iscene scene){
-		List<AbstractGlobalInputProcessor> processors = new ArrayList<AbstractGlobalInputProcessor>();
-		
-		Set<AbstractGlobalInputProcessor> set = inputProcessorsToScene.keySet(); 
-		for (Iterator<AbstractGlobalInputProcessor> iter = set.iterator(); iter.hasNext();) {
-			AbstractGlobalInputProcessor processor = (AbstractGlobalInputProcessor) iter.next();
-			
-			if (inputProcessorsToScene.get(processor).equals(scene)){
-				processors.add(processor);	
+		AbstractGlobalInputProcessor[] processors = sceneToInputProcessors.get(scene);
+		return processors != null ? processors.clone() : new AbstractGlobalInputProcessor[0];
+	}
+	
+	
+	/**
+	 * Removes the processor from the processors of the scene.
+	 * 
+	 * @param scene the scene
+	 * @param inputprocessor the input processor
+	 */
+	private void removeFromScene(Iscene scene, AbstractGlobalInputProcessor inputprocessor){
+		AbstractGlobalInputProcessor[] processors = sceneToInputProcessors.get(scene);
+		if (processors == null){
+			return;
+		}
+		for (int i = 0; i < processors.length; i++) {
+			if (processors[i].equals(inputprocessor)){
+				if (processors.length == 1){
+					sceneToInputProcessors.remove(scene);
+				}else{
+					AbstractGlobalInputProcessor[] newProcessors = new AbstractGlobalInputProcessor[processors.length - 1];
+					System.arraycopy(processors, 0, newProcessors, 0, i);
+					System.arraycopy(processors, i + 1, newProcessors, i, processors.length - i - 1);
+					sceneToInputProcessors.put(scene, newProcessors);
+				}
+				return;
 			}
 		}
-		return processors.toArray(new AbstractGlobalInputProcessor[processors.size()]);
 	}
 	
 	/**
@@ -319,11 +389,10 @@ public class InputManager {
 	 * @param scene the scene
 	 */
 	public void enableGlobalInputProcessors(Iscene scene){
-		Set<AbstractGlobalInputProcessor> set = inputProcessorsToScene.keySet(); 
-		for (Iterator<AbstractGlobalInputProcessor> iter = set.iterator(); iter.hasNext();) {
-			AbstractGlobalInputProcessor processor = (AbstractGlobalInputProcessor) iter.next();
-			if (inputProcessorsToScene.get(processor).equals(scene)){
-				processor.setDisabled(false);
+		AbstractGlobalInputProcessor[] processors = sceneToInputProcessors.get(scene);
+		if (processors != null){
+			for (int i = 0; i < processors.length; i++) {
+				processors[i].setDisabled(false);
 			}
 		}
 	}
@@ -334,11 +403,10 @@ public class InputManager {
 	 * @param scene the scene
 	 */
 	public void disableGlobalInputProcessors(Iscene scene){
-		Set<AbstractGlobalInputProcessor> set = inputProcessorsToScene.keySet(); 
-		for (Iterator<AbstractGlobalInputProcessor> iter = set.iterator(); iter.hasNext();) {
-			AbstractGlobalInputProcessor processor = (AbstractGlobalInputProcessor) iter.next();
-			if (inputProcessorsToScene.get(processor).equals(scene)){
-				processor.setDisabled(true);
+		AbstractGlobalInputProcessor[] processors = sceneToInputProcessors.get(scene);
+		if (processors != null){
+			for (int i = 0; i < processors.length; i++) {
+				processors[i].setDisabled(true);
 			}
 		}
 	}
@@ -0,0 +1,280 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.input;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.mt4j.MTApplication;
+import org.mt4j.input.inputSources.AbstractInputSource;
+
+
+/**
+ * A thread which polls and flushes the input sources independently of the
+ * frame rate, so the input sources, global input processors and component input
+ * processors run at the rate the input arrives.
+ * <p>
+ * Changes to the scene which result from the input - like gesture listeners
+ * moving components - must not happen on this thread. They are collected with
+ * <code>runOnRenderThread()</code> and handed to the render thread as one batch per
+ * input pass, which runs them at the start of the next frame.
+ * <br>The thread also advances the <code>TimerWheel</code> after each input pass.
+ * <p>
+ * Picking reads and fills the lazily computed global matrices, subtree bounds and
+ * the hit test cache of the scene, which the render thread changes while it animates,
+ * updates and draws the scene. So the input processing is mutually exclusive with
+ * the whole scene pass of a frame - including the execution of the command batches,
+ * the animations, the update, transform and render phases and scene changes
+ * (see <code>MTApplication.getInputLock()</code>). The input is processed while the
+ * render thread swaps buffers, waits for the next frame or skips idle frames.
+ * <p>
+ * NOTE: Input listeners added directly to components and code which reads the
+ * cursors in the render thread are not synchronized and have to be threadsafe
+ * when using this thread.
+ */
+public class InputProcessingThread extends Thread {
+	/** The Constant logger. */
+	private static final Logger logger = Logger.getLogger(InputProcessingThread.class.getName());
+	static{
+		logger.setLevel(Level.INFO);
+		SimpleLayout l = new SimpleLayout();
+		ConsoleAppender ca = new ConsoleAppender(l);
+		logger.addAppender(ca);
+	}
+
+	/** The default maximum time to wait for new input in milliseconds. */
+	public static final int DEFAULT_MAX_IDLE_MILLIS = 5;
+
+	/** The app. */
+	private MTApplication app;
+
+	/** The running. */
+	private volatile boolean running;
+
+	/** The maximum time to wait for new input. */
+	private volatile long maxIdleNanos;
+
+	/** The render thread commands collected in the current input pass. */
+	private List<Runnable> pendingCommands;
+
+	/** The render thread commands waiting for the next frame. */
+	private List<Runnable> publishedCommands;
+
+	/** The commands being run by the render thread. */
+	private List<Runnable> runningCommands;
+	
+	/** The thread running a command deferred for an input event, see <code>getInputTimeNanos()</code>. */
+	private static Thread eventCommandThread;
+	
+	/** The creation time of the input event of that command. */
+	private static long eventCommandNanos;
+
+
+	/**
+	 * Instantiates a new input processing thread.
+	 *
+	 * @param app the app
+	 */
+	public InputProcessingThread(MTApplication app) {
+		super("MT4j input processing");
+		this.app = app;
+		this.running = true;
+		this.maxIdleNanos = DEFAULT_MAX_IDLE_MILLIS * 1000000L;
+		this.pendingCommands 	= new ArrayList<Runnable>();
+		this.publishedCommands 	= new ArrayList<Runnable>();
+		this.runningCommands 	= new ArrayList<Runnable>();
+		this.setDaemon(true);
+	}
+
+
+	@Override
+	public void run() {
+		logger.info("Input processing thread started.");
+		while (running){
+			try {
+				synchronized (app.getInputLock()) {
+					InputManager inputManager = app.getInputManager();
+					if (inputManager != null){
+						for (AbstractInputSource source : inputManager.getRegisteredInputSources()){
+							source.pollAndFlushEvents();
+						}
+					}
+					TimerWheel.getInstance().advance();
+				}
+			} catch (Exception e) {
+				logger.error("Error while processing input: " + e.getMessage());
+				e.printStackTrace();
+			}
+			this.publishCommands();
+
+			//Sources wake us up when new events are queued
+			LockSupport.parkNanos(this, maxIdleNanos);
+		}
+		logger.info("Input processing thread stopped.");
+	}
+
+
+	/**
+	 * Wakes the thread up to process newly queued input.
+	 */
+	public void inputAvailable(){
+		LockSupport.unpark(this);
+	}
+
+
+	/**
+	 * Stops the thread after the current input pass.
+	 */
+	public void shutDown(){
+		this.running = false;
+		LockSupport.unpark(this);
+	}
+
+
+	/**
+	 * Sets the maximum time the thread waits for new input before polling the
+	 * input sources again.
+	 *
+	 * @param maxIdleMillis the max idle millis
+	 */
+	public void setMaxIdleMillis(int maxIdleMillis){
+		this.maxIdleNanos = maxIdleMillis * 1000000L;
+	}
+
+
+	/**
+	 * Hands the commands of the last input pass to the render thread.
+	 */
+	private void publishCommands(){
+		if (!pendingCommands.isEmpty()){
+			synchronized (this) {
+				publishedCommands.addAll(pendingCommands);
+			}
+			pendingCommands.clear();
+		}
+	}
+
+
+	/**
+	 * Checks if commands are waiting to be run by the render thread.
+	 *
+	 * @return true, if commands are waiting
+	 */
+	public boolean hasPublishedCommands(){
+		synchronized (this) {
+			return !publishedCommands.isEmpty();
+		}
+	}
+
+
+	/**
+	 * Runs the commands handed over by the input thread.
+	 * <br>NOTE: Is called by the MTApplication at the start of each frame in the render thread.
+	 */
+	public void runCommands(){
+		synchronized (this) {
+			if (publishedCommands.isEmpty()){
+				return;
+			}
+			List<Runnable> swap = runningCommands;
+			runningCommands = publishedCommands;
+			publishedCommands = swap;
+		}
+		synchronized (app.getInputLock()) {
+			for (int i = 0; i < runningCommands.size(); i++) {
+				runningCommands.get(i).run();
+			}
+		}
+		runningCommands.clear();
+	}
+
+
+	/**
+	 * Checks if the current thread is an input processing thread.
+	 *
+	 * @return true, if is input thread
+	 */
+	public static boolean isInputThread(){
+		return Thread.currentThread() instanceof InputProcessingThread;
+	}
+
+
+	/**
+	 * Runs the command in the render thread. If called from an input processing
+	 * thread the command is run at the start of the next frame, else it is run immediately.
+	 *
+	 * @param command the command
+	 */
+	public static void runOnRenderThread(Runnable command){
+		Thread current = Thread.currentThread();
+		if (current instanceof InputProcessingThread){
+			((InputProcessingThread) current).pendingCommands.add(command);
+		}else{
+			command.run();
+		}
+	}
+	
+	
+	/**
+	 * Runs the command in the render thread like <code>runOnRenderThread(Runnable)</code>,
+	 * as a reaction to an input event. While the deferred command runs, <code>getInputTimeNanos()</code>
+	 * returns the creation time of the event, so the time windows of the cursors the command 
+	 * looks at end when the event happened, not up to a frame later when the command runs.
+	 *
+	 * @param command the command
+	 * @param eventNanos the creation time of the event (see <code>MTEvent.getWhenNanos()</code>)
+	 */
+	public static void runOnRenderThread(final Runnable command, final long eventNanos){
+		runOnRenderThread(isInputThread() ? new Runnable() {
+			public void run() {
+				Thread previousThread = eventCommandThread;
+				long previousNanos = eventCommandNanos;
+				eventCommandThread = Thread.currentThread();
+				eventCommandNanos = eventNanos;
+				try{
+					command.run();
+				}finally{
+					eventCommandThread = previousThread;
+					eventCommandNanos = previousNanos;
+				}
+			}
+		} : command);
+	}
+	
+	
+	/**
+	 * Gets the current time of the input, like <code>System.nanoTime()</code>.
+	 * In a command deferred for an input event (see <code>runOnRenderThread(Runnable, long)</code>),
+	 * this is the creation time of that event instead.
+	 * <br>The time windows of the cursor histories end at this time.
+	 *
+	 * @return the input time in nanoseconds
+	 */
+	public static long getInputTimeNanos(){
+		if (eventCommandThread == Thread.currentThread()){
+			return eventCommandNanos;
+		}
+		return System.nanoTime();
+	}
+
+}
@@ -29,6 +29,9 @@ public class MTEvent {
 	/** The creation time stamp. */
 	private long creationTimeStamp;
 	
+	/** The creation time stamp from <code>System.nanoTime()</code>. */
+	private long creationTimeStampNanos;
+	
 	/** The consumed. */
 	private boolean consumed;
 	
@@ -42,8 +45,35 @@ public class MTEvent {
 		consumed = false;
 		this.source = source;
 		this.creationTimeStamp = System.currentTimeMillis();
+		this.creationTimeStampNanos = System.nanoTime();
 	}
 
+	/**
+	 * Resets the event to the state of a newly created event,
+	 * used when events are reused.
+	 * 
+	 * @param source the source
+	 */
+	protected void reinitialize(Object source){
+		this.consumed = false;
+		this.source = source;
+		this.creationTimeStamp = System.currentTimeMillis();
+		this.creationTimeStampNanos = System.nanoTime();
+	}
+	
+	
+	/**
+	 * Sets the time stamps to the ones of the specified event,
+	 * used when events are copied.
+	 * 
+	 * @param evt the evt
+	 */
+	protected void copyTimeStamps(MTEvent evt){
+		this.creationTimeStamp = evt.creationTimeStamp;
+		this.creationTimeStampNanos = evt.creationTimeStampNanos;
+	}
+	
+	
 	/**
 	 * Gets the source.
 	 * 
@@ -61,6 +91,18 @@ public class MTEvent {
 	public long getWhen(){
 		return creationTimeStamp;
 	}
+	
+	/**
+	 * Gets the creation time of the event from the monotonic, high resolution 
+	 * <code>System.nanoTime()</code> clock. Only useful for measuring the time between
+	 * events or to <code>System.nanoTime()</code>, not as a wall clock time.
+	 * <br>Input events are created when the input source recieves the input.
+	 * 
+	 * @return the creation time in nanoseconds
+	 */
+	public long getWhenNanos(){
+		return creationTimeStampNanos;
+	}
 
 	/**
 	 * Checks if is consumed.
@@ -0,0 +1,361 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.input;
+
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+
+
+/**
+ * A hierarchical timer wheel for the timeouts of input processors.
+ * Scheduling and cancelling a timeout is O(1) and only the timeouts which
+ * expire cost any work, so input processors don't have to poll every frame.
+ * <p>
+ * The wheel has a resolution of one millisecond and four levels of 64 slots.
+ * A timeout is kept on the level of the highest 6 bit group in which its
+ * deadline differs from the current tick and is moved to the lower levels
+ * as the time approaches its deadline. Timeouts further away than the
+ * wheel spans wait in an overflow list.
+ * <p>
+ * The wheel is advanced by the thread which processes the input - at the start of each
+ * frame by the <code>MTApplication</code> or by the <code>InputProcessingThread</code> if
+ * it is enabled. The timeouts run in that thread, so input processors can use it without
+ * synchronization.
+ * <br>NOTE: Must only be used by the thread which processes the input.
+ */
+public class TimerWheel {
+	/** The Constant logger. */
+	private static final Logger logger = Logger.getLogger(TimerWheel.class.getName());
+	static{
+		logger.setLevel(Level.ERROR);
+		SimpleLayout l = new SimpleLayout();
+		ConsoleAppender ca = new ConsoleAppender(l);
+		logger.addAppender(ca);
+	}
+
+	/** The bits of a slot index. */
+	private static final int SLOT_BITS = 6;
+
+	/** The slots per level. */
+	private static final int SLOTS = 1 << SLOT_BITS;
+
+	/** The levels. */
+	private static final int LEVELS = 4;
+
+	/** The duration of a tick in nanoseconds. */
+	private static final long TICK_NANOS = 1000000L;
+
+	/** The timer wheel. */
+	private static TimerWheel timerWheel;
+
+	/** The slots, each the sentinel of a list of timeouts. */
+	private final Timeout[][] wheel;
+
+	/** The timeouts beyond the span of the wheel. */
+	private final Timeout overflow;
+
+	/** The time of tick 0. */
+	private final long startNanos;
+
+	/** The current tick. */
+	private long currentTick;
+
+	/** The number of scheduled timeouts. */
+	private int timeoutCount;
+
+
+	/**
+	 * Instantiates a new timer wheel.
+	 */
+	private TimerWheel(){
+		this.wheel = new Timeout[LEVELS][SLOTS];
+		for (int level = 0; level < LEVELS; level++) {
+			for (int slot = 0; slot < SLOTS; slot++) {
+				wheel[level][slot] = new Timeout(null, this);
+			}
+		}
+		this.overflow = new Timeout(null, this);
+		this.startNanos = System.nanoTime();
+		this.currentTick = 0;
+		this.timeoutCount = 0;
+	}
+
+	/**
+	 * Gets the single instance of TimerWheel.
+	 *
+	 * @return single instance of TimerWheel
+	 */
+	public static synchronized TimerWheel getInstance(){
+		if (timerWheel == null){
+			timerWheel = new TimerWheel();
+		}
+		return timerWheel;
+	}
+
+
+	/**
+	 * Schedules the task to run once after the specified delay.
+	 *
+	 * @param task the task
+	 * @param delayMillis the delay in milliseconds
+	 *
+	 * @return the timeout which can be used to cancel the task
+	 */
+	public Timeout schedule(Runnable task, long delayMillis){
+		Timeout timeout = new Timeout(task, this);
+		this.schedule(timeout, delayMillis);
+		return timeout;
+	}
+
+
+	/**
+	 * Schedules the timeout (again) to run after the specified delay.
+	 * If the timeout is already scheduled, it is rescheduled.
+	 * <br>Allows to reuse a timeout instead of creating a new one for each schedule.
+	 *
+	 * @param timeout the timeout
+	 * @param delayMillis the delay in milliseconds
+	 */
+	public void schedule(Timeout timeout, long delayMillis){
+		if (timeout.wheel != this){
+			throw new IllegalArgumentException("The timeout belongs to another timer wheel.");
+		}
+		timeout.cancel();
+		long nowTick = (System.nanoTime() - startNanos) / TICK_NANOS;
+		timeout.deadline = Math.max(currentTick, nowTick) + Math.max(1, delayMillis);
+		timeout.expired = false;
+		this.insert(timeout);
+		timeoutCount++;
+	}
+
+
+	/**
+	 * Creates a timeout for the task which isn't scheduled yet.
+	 *
+	 * @param task the task
+	 *
+	 * @return the timeout
+	 */
+	public Timeout createTimeout(Runnable task){
+		return new Timeout(task, this);
+	}
+
+
+	/**
+	 * Puts the timeout in the slot of its deadline.
+	 *
+	 * @param timeout the timeout
+	 */
+	private void insert(Timeout timeout){
+		long deadline = timeout.deadline;
+		if (deadline <= currentTick){
+			deadline = currentTick + 1;
+			timeout.deadline = deadline;
+		}
+		//The highest 6 bit group in which the deadline and the current tick differ
+		long diff = deadline ^ currentTick;
+		int level = (63 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+		Timeout sentinel;
+		if (level < LEVELS){
+			sentinel = wheel[level][(int) (deadline >>> (level * SLOT_BITS)) & (SLOTS - 1)];
+		}else{
+			sentinel = overflow;
+		}
+		timeout.linkBefore(sentinel);
+	}
+
+
+	/**
+	 * Advances the wheel to the current time and runs the expired timeouts.
+	 */
+	public void advance(){
+		this.advance(System.nanoTime());
+	}
+
+
+	/**
+	 * Advances the wheel to the specified time and runs the expired timeouts.
+	 * <br>NOTE: Is called by the MTApplication at the start of each frame or by the input processing thread.
+	 *
+	 * @param nowNanos the time as returned by <code>System.nanoTime()</code>
+	 */
+	public void advance(long nowNanos){
+		long targetTick = (nowNanos - startNanos) / TICK_NANOS;
+		while (currentTick < targetTick){
+			if (timeoutCount == 0){
+				currentTick = targetTick;
+				return;
+			}
+			currentTick++;
+
+			//Move the timeouts of the levels whose lower levels wrapped around one level down, highest first
+			if ((currentTick & ((1L << (LEVELS * SLOT_BITS)) - 1)) == 0){
+				this.cascade(overflow);
+			}
+			for (int level = LEVELS - 1; level > 0; level--) {
+				if ((currentTick & ((1L << (level * SLOT_BITS)) - 1)) == 0){
+					this.cascade(wheel[level][(int) (currentTick >>> (level * SLOT_BITS)) & (SLOTS - 1)]);
+				}
+			}
+
+			Timeout sentinel = wheel[0][(int) currentTick & (SLOTS - 1)];
+			while (sentinel.next != sentinel){
+				Timeout timeout = sentinel.next;
+				timeout.unlink();
+				if (timeout.deadline > currentTick){
+					this.insert(timeout);
+					continue;
+				}
+				timeoutCount--;
+				timeout.expired = true;
+				try {
+					timeout.task.run();
+				} catch (Exception e) {
+					logger.error("Error in timeout task: " + e.getMessage());
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Reinserts the timeouts of the slot relative to the current tick.
+	 *
+	 * @param sentinel the sentinel of the slot
+	 */
+	private void cascade(Timeout sentinel){
+		Timeout first = sentinel.next;
+		if (first == sentinel){
+			return;
+		}
+		//Detach the list first, reinserting may put timeouts into the same slot again
+		Timeout last = sentinel.prev;
+		sentinel.next = sentinel;
+		sentinel.prev = sentinel;
+		last.next = null;
+		Timeout timeout = first;
+		while (timeout != null){
+			Timeout next = timeout.next;
+			timeout.prev = null;
+			timeout.next = null;
+			this.insert(timeout);
+			timeout = next;
+		}
+	}
+
+
+	/**
+	 * Gets the number of scheduled timeouts.
+	 *
+	 * @return the timeout count
+	 */
+	public int getTimeoutCount() {
+		return timeoutCount;
+	}
+
+
+
+	/**
+	 * A task scheduled on the timer wheel.
+	 */
+	public static final class Timeout {
+
+		/** The task. */
+		private final Runnable task;
+
+		/** The wheel. */
+		private final TimerWheel wheel;
+
+		/** The deadline tick. */
+		private long deadline;
+
+		/** The expired. */
+		private boolean expired;
+
+		/** The previous timeout in the slot. */
+		private Timeout prev;
+
+		/** The next timeout in the slot. */
+		private Timeout next;
+
+		/**
+		 * Instantiates a new timeout.
+		 *
+		 * @param task the task
+		 * @param wheel the wheel
+		 */
+		private Timeout(Runnable task, TimerWheel wheel){
+			this.task = task;
+			this.wheel = wheel;
+			if (task == null){ //sentinel
+				this.prev = this;
+				this.next = this;
+			}
+		}
+
+		private void linkBefore(Timeout sentinel){
+			this.next = sentinel;
+			this.prev = sentinel.prev;
+			sentinel.prev.next = this;
+			sentinel.prev = this;
+		}
+
+		private void unlink(){
+			prev.next = next;
+			next.prev = prev;
+			prev = null;
+			next = null;
+		}
+
+		/**
+		 * Cancels the timeout if it is scheduled.
+		 *
+		 * @return true, if the timeout was scheduled
+		 */
+		public boolean cancel(){
+			if (next == null){
+				return false;
+			}
+			this.unlink();
+			wheel.timeoutCount--;
+			return true;
+		}
+
+		/**
+		 * Checks if the timeout is scheduled.
+		 *
+		 * @return true, if is scheduled
+		 */
+		public boolean isScheduled(){
+			return next != null;
+		}
+
+		/**
+		 * Checks if the timeout has run since it was last scheduled.
+		 *
+		 * @return true, if is expired
+		 */
+		public boolean isExpired(){
+			return expired;
+		}
+	}
+
+}
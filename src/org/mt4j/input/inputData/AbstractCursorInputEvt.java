@@ -56,6 +56,12 @@ public abstract class AbstractCursorInputEvt extends MTInputEvent {
 	/** The associated cursor. */
 	private InputCursor associatedCursor;
 	
+	/** Whether the event was obtained from the <code>InputEventPool</code> and is not yet recycled. */
+	private boolean pooled;
+	
+	/** Where the event was recycled, only set in the pool's debug mode. */
+	private Throwable recycledAt;
+	
 	/**
 	 * Instantiates a new touch event.
 	 * 
@@ -96,6 +102,51 @@ public abstract class AbstractCursorInputEvt extends MTInputEvent {
 	}
 	
 	
+	/**
+	 * Resets the event to the state of a newly created event.
+	 * Used by the <code>InputEventPool</code>.
+	 * 
+	 * @param source the source
+	 * @param target the target
+	 * @param positionX the position x
+	 * @param positionY the position y
+	 * @param id the id
+	 * @param m the m
+	 */
+	void reinitialize(AbstractInputSource source, IMTComponent3D target, float positionX, float positionY, int id, InputCursor m){
+		super.reinitialize(source, target);
+		this.id = id;
+		this.positionX = positionX;
+		this.positionY = positionY;
+		this.associatedCursor = m;
+		this.recycledAt = null;
+	}
+	
+	
+	boolean isPooled(){
+		return this.pooled;
+	}
+	
+	void setPooled(boolean pooled){
+		this.pooled = pooled;
+	}
+	
+	void setRecycled(Throwable recycledAt){
+		this.recycledAt = recycledAt;
+	}
+	
+	
+	/**
+	 * Throws an exception if the event is used after it was recycled.
+	 * Only detected if the <code>InputEventPool</code> is in debug mode.
+	 */
+	private void checkNotRecycled(){
+		if (recycledAt != null){
+			throw new IllegalStateException("Input event used after it was recycled: " + super.toString(), recycledAt);
+		}
+	}
+	
+	
 	public void setId(int id){
 		this.id = id;
 	}
@@ -108,6 +159,7 @@ public abstract class AbstractCursorInputEvt extends MTInputEvent {
 	 * @return the cursor
 	 */
 	public InputCursor getCursor() {
+		checkNotRecycled();
 		return this.associatedCursor;
 	}
 
@@ -138,6 +190,7 @@ public abstract class AbstractCursorInputEvt extends MTInputEvent {
 	 * @return the position x
 	 */
 	public float getPosX() {
+		checkNotRecycled();
 		return positionX;
 	}
 
@@ -148,6 +201,7 @@ public abstract class AbstractCursorInputEvt extends MTInputEvent {
 	 * @return the position y
 	 */
 	public float getPosY() {
+		checkNotRecycled();
 		return positionY;
 	}
 	
@@ -166,6 +220,7 @@ public abstract class AbstractCursorInputEvt extends MTInputEvent {
 	 * @return the id
 	 */
 	public int getId() {
+		checkNotRecycled();
 		return id;
 	}
 
@@ -0,0 +1,311 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.input.inputData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Groups input cursors by spatial and temporal proximity, so that cursors
+ * which were put down close to each other at about the same time - usually the
+ * fingers of one hand - are treated as belonging together.
+ * <br>Two cursors are neighbours if their current positions are at most
+ * <code>maxDistance</code> apart and they started at most <code>maxStartDelay</code>
+ * apart.
+ * <p>
+ * The pairs of neighbours are found by sorting the cursors by x and sweeping over them,
+ * which takes O(n log n + n*k) time, k being the number of cursors within <code>maxDistance</code>
+ * in x of a cursor. So it is fast for cursors spread over a table, but O(n^2) if all cursors are close.
+ * The neighbours and the nearest of the candidates for a single cursor are found in O(n).
+ */
+public class CursorClustering {
+
+	/** The default maximum distance of neighbouring cursors in pixels. */
+	public static final float DEFAULT_MAX_DISTANCE = 250f;
+
+	/** The default maximum time between the starts of neighbouring cursors in milliseconds. */
+	public static final int DEFAULT_MAX_START_DELAY_MILLIS = 1500;
+
+	/** The cursor clustering. */
+	private static final CursorClustering cursorClustering = new CursorClustering();
+
+	/** The max distance. */
+	private volatile float maxDistance;
+
+	/** The max start delay nanos. */
+	private volatile long maxStartDelayNanos;
+
+
+	/**
+	 * Instantiates a new cursor clustering.
+	 */
+	private CursorClustering(){
+		this.maxDistance = DEFAULT_MAX_DISTANCE;
+		this.maxStartDelayNanos = DEFAULT_MAX_START_DELAY_MILLIS * 1000000L;
+	}
+
+	/**
+	 * Gets the single instance of CursorClustering.
+	 *
+	 * @return single instance of CursorClustering
+	 */
+	public static CursorClustering getInstance(){
+		return cursorClustering;
+	}
+
+
+	/**
+	 * Gets the pairs of neighbouring cursors, the closest pairs first.
+	 * The cursors of a pair are in the order of the list.
+	 *
+	 * @param cursors the cursors
+	 *
+	 * @return the pairs
+	 */
+	public List<InputCursor[]> getPairs(List<InputCursor> cursors){
+		Snapshot s = new Snapshot(cursors);
+		float maxDistance = this.maxDistance;
+		long maxDelay = this.maxStartDelayNanos;
+		List<Candidate> candidates = new ArrayList<Candidate>();
+		for (int a = 0; a < s.count; a++) {
+			int i = s.order[a];
+			for (int b = a + 1; b < s.count && s.x[s.order[b]] - s.x[i] <= maxDistance; b++) {
+				int j = s.order[b];
+				if (s.isNeighbour(i, j, maxDistance, maxDelay)){
+					//Keep the order of the list within the pair
+					int first = Math.min(s.index[i], s.index[j]);
+					int second = Math.max(s.index[i], s.index[j]);
+					candidates.add(new Candidate(new InputCursor[]{cursors.get(first), cursors.get(second)}, s.score(i, j, maxDistance, maxDelay)));
+				}
+			}
+		}
+		Candidate[] sorted = candidates.toArray(new Candidate[candidates.size()]);
+		Arrays.sort(sorted);
+		List<InputCursor[]> pairs = new ArrayList<InputCursor[]>(sorted.length);
+		for (int i = 0; i < sorted.length; i++) {
+			pairs.add((InputCursor[]) sorted[i].value);
+		}
+		return pairs;
+	}
+
+
+	/**
+	 * Gets the candidates which are neighbours of the cursor, the closest first.
+	 *
+	 * @param cursor the cursor
+	 * @param candidates the candidates
+	 *
+	 * @return the neighbouring candidates
+	 */
+	public List<InputCursor> getNeighbours(InputCursor cursor, List<InputCursor> candidates){
+		List<InputCursor> result = new ArrayList<InputCursor>();
+		AbstractCursorInputEvt evt = cursor.getCurrentEvent();
+		if (evt == null){
+			return result;
+		}
+		float x = evt.getPosX();
+		float y = evt.getPosY();
+		long start = startTime(cursor);
+
+		float maxDistance = this.maxDistance;
+		long maxDelay = this.maxStartDelayNanos;
+		List<Candidate> neighbours = new ArrayList<Candidate>();
+		for (int i = 0; i < candidates.size(); i++) {
+			InputCursor c = candidates.get(i);
+			AbstractCursorInputEvt e = c.getCurrentEvent();
+			if (c == cursor || e == null){
+				continue;
+			}
+			float dx = e.getPosX() - x;
+			float dy = e.getPosY() - y;
+			float distance = (float) Math.sqrt(dx*dx + dy*dy);
+			long delay = Math.abs(startTime(c) - start);
+			if (distance <= maxDistance && delay <= maxDelay){
+				neighbours.add(new Candidate(c, distance / maxDistance + (float) delay / maxDelay));
+			}
+		}
+		Candidate[] sorted = neighbours.toArray(new Candidate[neighbours.size()]);
+		Arrays.sort(sorted);
+		for (int i = 0; i < sorted.length; i++) {
+			result.add((InputCursor) sorted[i].value);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Gets the candidate whose current position is closest to the cursor, whether
+	 * it is a neighbour or not.
+	 *
+	 * @param cursor the cursor
+	 * @param candidates the candidates
+	 *
+	 * @return the nearest candidate or null if no other candidate has a current event
+	 */
+	public InputCursor getNearest(InputCursor cursor, List<InputCursor> candidates){
+		AbstractCursorInputEvt evt = cursor.getCurrentEvent();
+		if (evt == null){
+			return null;
+		}
+		InputCursor nearest = null;
+		float nearestDistanceSquared = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < candidates.size(); i++) {
+			InputCursor c = candidates.get(i);
+			AbstractCursorInputEvt e = c.getCurrentEvent();
+			if (c == cursor || e == null){
+				continue;
+			}
+			float dx = e.getPosX() - evt.getPosX();
+			float dy = e.getPosY() - evt.getPosY();
+			float distanceSquared = dx*dx + dy*dy;
+			if (nearest == null || distanceSquared < nearestDistanceSquared){
+				nearest = c;
+				nearestDistanceSquared = distanceSquared;
+			}
+		}
+		return nearest;
+	}
+
+
+	private static long startTime(InputCursor cursor){
+		AbstractCursorInputEvt first = cursor.getFirstEvent();
+		return first != null ? first.getWhenNanos() : 0;
+	}
+
+
+	/**
+	 * Gets the max distance.
+	 *
+	 * @return the max distance
+	 */
+	public float getMaxDistance() {
+		return maxDistance;
+	}
+
+	/**
+	 * Sets the maximum distance of cursors in pixels for them to be neighbours.
+	 *
+	 * @param maxDistance the new max distance
+	 */
+	public void setMaxDistance(float maxDistance) {
+		this.maxDistance = maxDistance;
+	}
+
+	/**
+	 * Gets the max start delay in milliseconds.
+	 *
+	 * @return the max start delay millis
+	 */
+	public int getMaxStartDelayMillis() {
+		return (int) (maxStartDelayNanos / 1000000L);
+	}
+
+	/**
+	 * Sets the maximum time between the starts of cursors for them to be neighbours.
+	 *
+	 * @param maxStartDelayMillis the new max start delay millis
+	 */
+	public void setMaxStartDelayMillis(int maxStartDelayMillis) {
+		this.maxStartDelayNanos = maxStartDelayMillis * 1000000L;
+	}
+
+
+	/**
+	 * The positions and start times of the cursors, and their order by x.
+	 */
+	private static final class Snapshot {
+		final int count;
+		final int[] index;
+		final float[] x;
+		final float[] y;
+		final long[] start;
+		final int[] order;
+
+		Snapshot(List<InputCursor> cursors){
+			int n = cursors.size();
+			int[] index = new int[n];
+			float[] x = new float[n];
+			float[] y = new float[n];
+			long[] start = new long[n];
+			int count = 0;
+			for (int i = 0; i < n; i++) {
+				InputCursor c = cursors.get(i);
+				AbstractCursorInputEvt evt = c.getCurrentEvent();
+				if (evt != null){
+					index[count] = i;
+					x[count] = evt.getPosX();
+					y[count] = evt.getPosY();
+					start[count] = startTime(c);
+					count++;
+				}
+			}
+			this.count = count;
+			this.index = index;
+			this.x = x;
+			this.y = y;
+			this.start = start;
+
+			//Sort by x, packed as sortable longs to avoid boxing
+			long[] keys = new long[count];
+			for (int i = 0; i < count; i++) {
+				int bits = Float.floatToIntBits(x[i]);
+				bits ^= (bits >> 31) & 0x7fffffff;
+				keys[i] = ((long) bits << 32) | i;
+			}
+			Arrays.sort(keys);
+			this.order = new int[count];
+			for (int i = 0; i < count; i++) {
+				order[i] = (int) keys[i];
+			}
+		}
+
+		boolean isNeighbour(int i, int j, float maxDistance, long maxDelay){
+			float dx = x[j] - x[i];
+			float dy = y[j] - y[i];
+			return dx*dx + dy*dy <= maxDistance*maxDistance
+				&& Math.abs(start[j] - start[i]) <= maxDelay;
+		}
+
+		float score(int i, int j, float maxDistance, long maxDelay){
+			float dx = x[j] - x[i];
+			float dy = y[j] - y[i];
+			return (float) Math.sqrt(dx*dx + dy*dy) / maxDistance + (float) Math.abs(start[j] - start[i]) / maxDelay;
+		}
+	}
+
+
+	/**
+	 * A candidate with its score, lower is closer.
+	 */
+	private static final class Candidate implements Comparable<Candidate> {
+		final Object value;
+		final float score;
+
+		Candidate(Object value, float score){
+			this.value = value;
+			this.score = score;
+		}
+
+		public int compareTo(Candidate o) {
+			return Float.compare(score, o.score);
+		}
+	}
+
+}
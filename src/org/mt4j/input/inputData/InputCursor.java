@@ -17,18 +17,16 @@
  ***********************************************************************/
 package org.mt4j.input.inputData;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.RandomAccess;
 
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.SimpleLayout;
+import org.mt4j.input.InputProcessingThread;
 import org.mt4j.input.inputProcessors.componentProcessors.AbstractCursorProcessor;
 import org.mt4j.util.math.Vector3D;
 
@@ -43,7 +41,9 @@ import org.mt4j.util.math.Vector3D;
 public class InputCursor{
 	private static final Logger logger = Logger.getLogger(InputCursor.class.getName());
 
-	private static final int EVENT_HISTORY_DEPTH = 99;
+	/** The default number of events a cursor keeps in its history. */
+	public static final int DEFAULT_EVENT_HISTORY_DEPTH = 99;
+	
 	static{
 		logger.setLevel(Level.ERROR);
 		SimpleLayout l = new SimpleLayout();
@@ -51,8 +51,26 @@ public class InputCursor{
 		logger.addAppender(ca);
 	}
 	
-	/** The events. */
-	private List<AbstractCursorInputEvt> events;
+	/** The events. A circular buffer, <code>eventsHead</code> is the index of the oldest event. */
+	private AbstractCursorInputEvt[] events;
+	
+	/** The index of the oldest event in the circular buffer. */
+	private int eventsHead;
+	
+	/** The number of events currently in the history. */
+	private int eventCount;
+	
+	/** The x positions of the events at the time they were added, parallel to <code>events</code>. */
+	private float[] eventPosX;
+	
+	/** The y positions of the events at the time they were added, parallel to <code>events</code>. */
+	private float[] eventPosY;
+	
+	/** The <code>System.nanoTime()</code> time stamps of the events, parallel to <code>events</code>. */
+	private long[] eventTimes;
+	
+	/** The read-only list view of the events. */
+	private List<AbstractCursorInputEvt> eventsView;
 	
 	/** The current id. */
 	private static long currentID;
@@ -60,9 +78,20 @@ public class InputCursor{
 	/** The ID. */
 	private long ID;
 	
-	private TreeMap<AbstractCursorProcessor, Integer> lockSeekingProcessorsToPriority;
+	/** The processors currently holding a lock on this cursor. They all share the current lock priority. */
+	private AbstractCursorProcessor[] lockingProcessors;
 	
-	private TreeMap<AbstractCursorProcessor, Integer> interestedProcessorsToPriority;
+	/** The number of processors currently holding a lock on this cursor. */
+	private int lockingProcessorCount;
+	
+	/** The priority by which this cursor is currently locked. */
+	private int currentLockPriority;
+	
+	/** The processors interested in this cursor, sorted by ascending lock priority. Replaced, never modified in place. */
+	private AbstractCursorProcessor[] interestedProcessors;
+	
+	/** The empty processor array. */
+	private static final AbstractCursorProcessor[] NO_PROCESSORS = new AbstractCursorProcessor[0];
 	
     
 	
@@ -70,44 +99,33 @@ public class InputCursor{
 	 * Instantiates a new input cursor.
 	 */
 	public InputCursor(){
+		this(DEFAULT_EVENT_HISTORY_DEPTH);
+	}
+	
+	/**
+	 * Instantiates a new input cursor which keeps at most the specified
+	 * number of events in its history.
+	 * 
+	 * @param eventHistoryDepth the event history depth
+	 */
+	public InputCursor(int eventHistoryDepth){
+		if (eventHistoryDepth < 1){
+			throw new IllegalArgumentException("The event history depth has to be at least 1: " + eventHistoryDepth);
+		}
 		this.ID = generateNewID();
 		
-		events = new ArrayList<AbstractCursorInputEvt>(100);
-//		events = new LinkedList<AbstractCursorInputEvt>();
+		events 		= new AbstractCursorInputEvt[eventHistoryDepth];
+		eventPosX 	= new float[eventHistoryDepth];
+		eventPosY 	= new float[eventHistoryDepth];
+		eventTimes 	= new long[eventHistoryDepth];
+		eventsHead 	= 0;
+		eventCount 	= 0;
+		eventsView 	= new EventHistoryList();
 		
-		lockSeekingProcessorsToPriority = new TreeMap<AbstractCursorProcessor, Integer>(new Comparator<AbstractCursorProcessor>() {
-			//@Override //TODO make comparater inner clas and reuse 
-			public int compare(AbstractCursorProcessor o1, AbstractCursorProcessor o2) {
-				if (o1.getLockPriority() < o2.getLockPriority()){
-					return -1;
-				}else if (o1.getLockPriority() > o2.getLockPriority()){
-					return 1;
-				}else{
-					if (!o1.equals(o2) 
-						&& o1.getLockPriority() == o2.getLockPriority()){
-						return -1;
-					}
-					return 0;
-				}
-			}
-		});
-		
-		interestedProcessorsToPriority = new TreeMap<AbstractCursorProcessor, Integer>(new Comparator<AbstractCursorProcessor>() {
-			//@Override
-			public int compare(AbstractCursorProcessor o1, AbstractCursorProcessor o2) {
-				if (o1.getLockPriority() < o2.getLockPriority()){
-					return -1;
-				}else if (o1.getLockPriority() > o2.getLockPriority()){
-					return 1;
-				}else{
-					if (!o1.equals(o2) 
-						&& o1.getLockPriority() == o2.getLockPriority()){
-						return -1;
-					}
-					return 0;
-				}
-			}
-		});
+		lockingProcessors 		= new AbstractCursorProcessor[4];
+		lockingProcessorCount 	= 0;
+		currentLockPriority 	= 0;
+		interestedProcessors 	= NO_PROCESSORS;
 	}
 	
 
@@ -118,24 +136,14 @@ public class InputCursor{
 	 * @return the current lock priority
 	 */
 	public int getCurrentLockPriority(){
-		if (lockSeekingProcessorsToPriority.isEmpty()){
-			return 0;
-		}else{
-			return lockSeekingProcessorsToPriority.lastKey().getLockPriority();
-		}
+		return this.currentLockPriority;
 	}
 	
 
 	
 	public boolean canLock(AbstractCursorProcessor ia){
-		int currentLockPriority = this.getCurrentLockPriority();
-		if (currentLockPriority == ia.getLockPriority()){
-			return true;
-		}else if (currentLockPriority < ia.getLockPriority()){
-			return true;
-		}else{ //cursor claimed by higher priority already
-			return false;
-		}
+		//cursor claimed by higher priority already?
+		return this.getCurrentLockPriority() <= ia.getLockPriority();
 	}
 	
 	
@@ -148,60 +156,78 @@ public class InputCursor{
 	 * @return true if sucessfully locked
 	 */
 	public boolean getLock(AbstractCursorProcessor ia){
-//		if (ia instanceof AbstractCursorProcessor){
-//			AbstractCursorProcessor a = (AbstractCursorProcessor)ia;
-//			System.out.println(a.getName() + " trying to LOCK cursor: " + this.getId());
+		if (logger.isDebugEnabled())
 			logger.debug(ia.getName() + " trying to LOCK cursor: " + this.getId());
-//		}
 		
 		int currentLockPriority = this.getCurrentLockPriority();
+		int lockPriority = ia.getLockPriority();
 		
-		if (currentLockPriority == ia.getLockPriority()){
-			lockSeekingProcessorsToPriority.put(ia, ia.getLockPriority());
-			logger.debug("Cursor: " + this.getId() + " LOCKED sucessfully, dont send lock signal because cursor was already locked by same priority (" + currentLockPriority +   ")");
+		if (currentLockPriority == lockPriority){
+			addLockingProcessor(ia);
+			if (logger.isDebugEnabled())
+				logger.debug("Cursor: " + this.getId() + " LOCKED sucessfully, dont send lock signal because cursor was already locked by same priority (" + currentLockPriority +   ")");
 			return true;
-		}else if (currentLockPriority < ia.getLockPriority()){
-			lockSeekingProcessorsToPriority.put(ia, ia.getLockPriority());
-			
-			//FIXME MTInputPositionEvtEST - ONLY KEEPING MTInputPositionEvtHE HIGHEST PRIORITY ANALYZERS - just keep an array with the current highest priority analyzers?
-			//Just keep the head of the map
-			//sprich bei drag : 1 entry mit drag
-			//bei rotate/scale : 2 entries aber kein drag entry mehr gebraucht
-			SortedMap<AbstractCursorProcessor, Integer> m = lockSeekingProcessorsToPriority.headMap(ia);
-			Set<AbstractCursorProcessor> k = m.keySet();
-			for (Iterator<AbstractCursorProcessor> iterator = k.iterator(); iterator.hasNext();) {
-				AbstractCursorProcessor processor = (AbstractCursorProcessor) iterator.next();
-				logger.debug("itereating and removing old, lower priority processor: "  + processor);
-				iterator.remove();
+		}else if (currentLockPriority < lockPriority){
+			//Only the highest priority processors are kept, 
+			//i.e. at drag: 1 entry with drag, at rotate/scale: 2 entries but no drag entry anymore
+			for (int i = 0; i < lockingProcessorCount; i++) {
+				lockingProcessors[i] = null;
 			}
+			lockingProcessorCount = 0;
+			addLockingProcessor(ia);
+			this.currentLockPriority = lockPriority;
 			
-			logger.debug("Cursor: " + this.getId() + " LOCKED sucessfully, send lock signal - Cursor priority was lower " + "(" + currentLockPriority +   ")" +  " than the gesture priority (" + ia.getLockPriority() + ")");
+			if (logger.isDebugEnabled())
+				logger.debug("Cursor: " + this.getId() + " LOCKED sucessfully, send lock signal - Cursor priority was lower " + "(" + currentLockPriority +   ")" +  " than the gesture priority (" + lockPriority + ")");
 			//send only to ones lower than this priority
-			cursorLockedByHigherPriorityGesture(ia, ia.getLockPriority());
+			cursorLockedByHigherPriorityGesture(ia, lockPriority);
 			return true;
 		}else{ //cursor locked by higher priority already
-//			lockSeekingAnalyzersToPriority.put(ia, ia.getLockPriority()); //TODO REMOVE?
-			logger.debug("Cursor: " + this.getId() + " LOCKED UN-sucessfully, send no lock signal - Cursor priority " + "(" + currentLockPriority +   ")" +  " higher than the gesture priority (" + ia.getLockPriority() + ")");
+			if (logger.isDebugEnabled())
+				logger.debug("Cursor: " + this.getId() + " LOCKED UN-sucessfully, send no lock signal - Cursor priority " + "(" + currentLockPriority +   ")" +  " higher than the gesture priority (" + lockPriority + ")");
 			return false;
 		}
 	}
 	
 	
+	/**
+	 * Adds the processor to the lock holders if it isnt already holding a lock.
+	 * 
+	 * @param ia the processor
+	 */
+	private void addLockingProcessor(AbstractCursorProcessor ia){
+		for (int i = 0; i < lockingProcessorCount; i++) {
+			if (lockingProcessors[i] == ia){
+				return;
+			}
+		}
+		if (lockingProcessorCount == lockingProcessors.length){
+			AbstractCursorProcessor[] grown = new AbstractCursorProcessor[lockingProcessors.length * 2];
+			System.arraycopy(lockingProcessors, 0, grown, 0, lockingProcessorCount);
+			lockingProcessors = grown;
+		}
+		lockingProcessors[lockingProcessorCount++] = ia;
+	}
+	
 	
 	//only do this when previous highest priority strictly < the new priority!
 	private void cursorLockedByHigherPriorityGesture(AbstractCursorProcessor ia, int gesturePriority){
-		if (!interestedProcessorsToPriority.isEmpty()){
-			SortedMap<AbstractCursorProcessor, Integer> lesserPriorityGestureMap = interestedProcessorsToPriority.headMap(ia); //get analyzers with strictly lower priority than the locking one 
-			Set<AbstractCursorProcessor> lesserPriorityGestureKeys = lesserPriorityGestureMap.keySet();
-			for (Iterator<AbstractCursorProcessor> iterator = lesserPriorityGestureKeys.iterator(); iterator.hasNext();) {
-				AbstractCursorProcessor processor = (AbstractCursorProcessor) iterator.next();
-				//Only send lock signal to the processors whos priority is lower than the current locking cursor priority
-					if (processor instanceof AbstractCursorProcessor){
-						AbstractCursorProcessor a = (AbstractCursorProcessor)processor;
-						logger.debug("Cursor: " + this.getId() + " Sending cursor LOCKED signal to: " + a.getName());
-					}
-					processor.cursorLocked(this, ia);
+		//The array is never modified in place, so this is safe even if the processors change their interest
+		AbstractCursorProcessor[] interested = this.interestedProcessors;
+		for (int i = 0; i < interested.length; i++) {
+			AbstractCursorProcessor processor = interested[i];
+			//Only send lock signal to the processors whos priority isnt higher than the locking priority.
+			//Processors with the same priority get it too, like they did with the old sorted maps, 
+			//but not the locking processor itself
+			if (processor.getLockPriority() > gesturePriority){
+				break;
+			}
+			if (processor == ia){
+				continue;
 			}
+			if (logger.isDebugEnabled())
+				logger.debug("Cursor: " + this.getId() + " Sending cursor LOCKED signal to: " + processor.getName());
+			processor.cursorLocked(this, ia);
 		}
 	}
 	
@@ -214,7 +240,29 @@ public class InputCursor{
 	 * @param ia the ia
 	 */
 	public void registerGeneralInterest(AbstractCursorProcessor ia) {
-		interestedProcessorsToPriority.put(ia, ia.getLockPriority());
+		AbstractCursorProcessor[] interested = this.interestedProcessors;
+		for (int i = 0; i < interested.length; i++) {
+			if (interested[i] == ia){
+				return;
+			}
+		}
+		//Insert behind the processors with lower or equal priority
+		int priority = ia.getLockPriority();
+		int low = 0;
+		int high = interested.length;
+		while (low < high){
+			int mid = (low + high) >>> 1;
+			if (interested[mid].getLockPriority() <= priority){
+				low = mid + 1;
+			}else{
+				high = mid;
+			}
+		}
+		AbstractCursorProcessor[] newInterested = new AbstractCursorProcessor[interested.length + 1];
+		System.arraycopy(interested, 0, newInterested, 0, low);
+		newInterested[low] = ia;
+		System.arraycopy(interested, low, newInterested, low + 1, interested.length - low);
+		this.interestedProcessors = newInterested;
 	}
 	
 	/**
@@ -223,16 +271,20 @@ public class InputCursor{
 	 * @param ia the ia
 	 */
 	public void unregisterGeneralInterest(AbstractCursorProcessor ia){
-		Set<AbstractCursorProcessor> keys = interestedProcessorsToPriority.keySet();
-		for (Iterator<AbstractCursorProcessor> iterator = keys.iterator(); iterator.hasNext();) {
-			AbstractCursorProcessor inputAnalyzer = (AbstractCursorProcessor) iterator.next();
-			if (inputAnalyzer.equals(ia)){
-				iterator.remove();
+		AbstractCursorProcessor[] interested = this.interestedProcessors;
+		for (int i = 0; i < interested.length; i++) {
+			if (interested[i] == ia){
+				if (interested.length == 1){
+					this.interestedProcessors = NO_PROCESSORS;
+				}else{
+					AbstractCursorProcessor[] newInterested = new AbstractCursorProcessor[interested.length - 1];
+					System.arraycopy(interested, 0, newInterested, 0, i);
+					System.arraycopy(interested, i + 1, newInterested, i, interested.length - i - 1);
+					this.interestedProcessors = newInterested;
+				}
+				return;
 			}
 		}
-//		if (interestedAnalyzersToPriority.containsKey(ia)){ //FIXME REMOVE, NOT RELIABLE - BUG?
-//			interestedAnalyzersToPriority.remove(ia);
-//		}
 	}
 	
 	
@@ -246,79 +298,123 @@ public class InputCursor{
 	 * @param ia the AbstractCursorProcessor
 	 */
 	public void unlock(AbstractCursorProcessor ia){
-		if (ia instanceof AbstractCursorProcessor){
-			AbstractCursorProcessor a = (AbstractCursorProcessor)ia;
-			logger.debug(a.getName() + " UNLOCKING cursor: " + this.getId());
-		}else{
-			logger.debug(ia.getClass() + " UNLOCKING cursor: " + this.getId());
-		}
+		if (logger.isDebugEnabled())
+			logger.debug(ia.getName() + " UNLOCKING cursor: " + this.getId());
 		
 		int beforeLockPriority = this.getCurrentLockPriority();
 		int unlockingGesturePriority = ia.getLockPriority();
 		
-//		if (lockSeekingAnalyzersToPriority.containsKey(ia)){ //FIXME WARUM MANCHE NICHT IN LISTE DIE SEIN SOLLTEN??
-//			//remove the analyzer from the priority map in any case
-//			lockSeekingAnalyzersToPriority.remove(ia); 
-//		}
-			Set<AbstractCursorProcessor> keys = lockSeekingProcessorsToPriority.keySet();
-			for (Iterator<AbstractCursorProcessor> iterator = keys.iterator(); iterator.hasNext();) {
-				AbstractCursorProcessor inputAnalyzer = iterator.next();
-				if (inputAnalyzer.equals(ia)){
-					iterator.remove();
-					logger.debug("Removed " + ia + " from lockSeekingAnalyzersToPriority list.");
-				}
+		//remove the processor from the lock holders in any case
+		for (int i = 0; i < lockingProcessorCount; i++) {
+			if (lockingProcessors[i] == ia){
+				lockingProcessorCount--;
+				lockingProcessors[i] = lockingProcessors[lockingProcessorCount];
+				lockingProcessors[lockingProcessorCount] = null;
+				if (logger.isDebugEnabled())
+					logger.debug("Removed " + ia + " from lock holders.");
+				break;
 			}
+		}
+		if (lockingProcessorCount == 0){
+			this.currentLockPriority = 0;
+		}
 		
-			//dont send released signal if cursor was consumed by higher priority anyway
-			//should actually not occur because we should only call release when we have a lock on the cursor
-			if (beforeLockPriority > unlockingGesturePriority){ 
-				logger.debug("Trying to unlock cursor, but cursor was already locked by higher priority.");
-				return;
-			}
-			
-			int afterRemoveLockPriority = this.getCurrentLockPriority();
-			//Only send released signal if the priority really was lowered by releasing (there can be more than 1 lock with the same lock priority)
-			if (beforeLockPriority > afterRemoveLockPriority){ 
-				if (!interestedProcessorsToPriority.isEmpty()){
-					//Get strictly smaller priority gestures than the one relreasing, so that the ones with same priority dont get a signal
-					SortedMap<AbstractCursorProcessor, Integer> lesserPriorityGestureMap = interestedProcessorsToPriority.headMap(interestedProcessorsToPriority.lastKey());
-//					SortedMap<IInputAnalyzer, Integer> lesserPriorityGestureMap = watchingAnalyzersToPriority.headMap(ia);
-					Set<AbstractCursorProcessor> lesserPriorityGestureKeys = lesserPriorityGestureMap.keySet();
-					for (Iterator<AbstractCursorProcessor> iterator = lesserPriorityGestureKeys.iterator(); iterator.hasNext();) {
-						AbstractCursorProcessor processor = (AbstractCursorProcessor) iterator.next();
-						
-						//Only send released signal to the analyzers whos priority is higher than the current cursor priority
-						//the current highest priority of the cursor can change when released is called on a gesture that successfully
-						//locks this cursor, so check each loop iteration
-						if (   processor.getLockPriority() <  unlockingGesturePriority //Only call on gestures with a lower priority than the one releasing the lock
-						    && this.getCurrentLockPriority()   <= processor.getLockPriority() //only call unLocked on analyzers with a lower or equal lockpriority
-						){
-							processor.cursorUnlocked(this); 
-							//FIXME funktioniert das, wenn bei claim in anderer geste wieder was in die liste geadded wird etc?
-						}
-					}
+		//dont send released signal if cursor was consumed by higher priority anyway
+		//should actually not occur because we should only call release when we have a lock on the cursor
+		if (beforeLockPriority > unlockingGesturePriority){ 
+			logger.debug("Trying to unlock cursor, but cursor was already locked by higher priority.");
+			return;
+		}
+		
+		int afterRemoveLockPriority = this.getCurrentLockPriority();
+		//Only send released signal if the priority really was lowered by releasing (there can be more than 1 lock with the same lock priority)
+		if (beforeLockPriority > afterRemoveLockPriority){ 
+			//The array is never modified in place, so this is safe even if the processors change their interest
+			AbstractCursorProcessor[] interested = this.interestedProcessors;
+			for (int i = 0; i < interested.length; i++) {
+				AbstractCursorProcessor processor = interested[i];
+				//Only call on gestures with a lower priority than the one releasing the lock, 
+				//so that the ones with same priority dont get a signal
+				if (processor.getLockPriority() >= unlockingGesturePriority){
+					break;
+				}
+				//the current highest priority of the cursor can change when released is called on a gesture that successfully
+				//locks this cursor, so check each loop iteration
+				if (this.getCurrentLockPriority() <= processor.getLockPriority()){ //only call unLocked on analyzers with a lower or equal lockpriority
+					processor.cursorUnlocked(this); 
 				}
 			}
-		
+		}
 	}
 
 	
 
 	/**
 	 * Adds the event.
+	 * If the history is full, the oldest event is overwritten and given back to the <code>InputEventPool</code>.
+	 * <br>NOTE: Events are normally added in their <code>preFire()</code> method.
 	 * 
 	 * @param te the te
 	 */
-	protected void addEvent(AbstractCursorInputEvt te){
-		this.events.add(te);
-//		if (events.size() > EVENT_HISTORY_DEPTH && events.size() > 30){
-//            events.subList(0, 30).clear();
-//        }
-		if (events.size() > EVENT_HISTORY_DEPTH ){
-          events.remove(0);
-          //logger.debug(this.getId() + " - First event removed!");
-//          System.out.println("First event removed!");
-      }
+	public void addEvent(AbstractCursorInputEvt te){
+		int index;
+		if (eventCount == events.length){
+			//Overwrite the oldest event, its no longer referenced by the cursor
+			index = eventsHead;
+			eventsHead = (eventsHead + 1 == events.length) ? 0 : eventsHead + 1;
+			InputEventPool.getInstance().recycle(events[index]);
+		}else{
+			index = toRingIndex(eventCount);
+			eventCount++;
+		}
+		events[index] 		= te;
+		eventPosX[index] 	= te.getPosX();
+		eventPosY[index] 	= te.getPosY();
+		eventTimes[index] 	= te.getWhenNanos();
+	}
+	
+	
+	/**
+	 * Removes the most recent event from the history.
+	 * 
+	 * @return the removed event or null if there are no events
+	 */
+	public AbstractCursorInputEvt removeLastEvent(){
+		if (eventCount == 0){
+			return null;
+		}
+		int index = toRingIndex(eventCount - 1);
+		AbstractCursorInputEvt removed = events[index];
+		events[index] = null;
+		eventCount--;
+		return removed;
+	}
+	
+	
+	/**
+	 * Converts a <code>System.currentTimeMillis()</code> time to the <code>System.nanoTime()</code>
+	 * time base of the event time stamps.
+	 * 
+	 * @param millis the time in milliseconds
+	 * 
+	 * @return the time in nanoseconds
+	 */
+	private static long toNanoTime(long millis){
+		//The current time maps to the input time, which is the time of the event in deferred listeners
+		return InputProcessingThread.getInputTimeNanos() - (System.currentTimeMillis() - millis) * 1000000L;
+	}
+	
+	
+	/**
+	 * Maps a history index (0 = oldest event) to an index into the circular buffer.
+	 * 
+	 * @param historyIndex the history index
+	 * 
+	 * @return the buffer index
+	 */
+	private int toRingIndex(int historyIndex){
+		int index = eventsHead + historyIndex;
+		return (index >= events.length) ? index - events.length : index;
 	}
 
 	
@@ -330,7 +426,12 @@ public class InputCursor{
 	 * @return true, if successful
 	 */
 	public boolean containsEvent(AbstractCursorInputEvt te){
-		return this.events.contains(te);
+		for (int i = eventCount-1; i >= 0; i--) {
+			if (events[toRingIndex(i)].equals(te)){
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	
@@ -355,39 +456,243 @@ public class InputCursor{
 //	}
 	
 	/**
-	 * Gets the events.
+	 * Gets the events, ordered from the oldest to the most recent event.
+	 * <br>NOTE: The returned list is a read-only view of the cursor's history. 
+	 * Use <code>addEvent()</code> and <code>removeLastEvent()</code> to modify it.
 	 * 
 	 * @return the events
 	 */
 	public List<AbstractCursorInputEvt> getEvents(){
-		return this.events;
+		return this.eventsView;
+	}
+	
+	/**
+	 * Gets the maximum number of events this cursor keeps.
+	 * 
+	 * @return the event history depth
+	 */
+	public int getEventHistoryDepth(){
+		return this.events.length;
+	}
+	
+	/**
+	 * Gets the x position of the event at the specified history index (0 = oldest event)
+	 * as it was when the event was added to this cursor.
+	 * 
+	 * @param index the history index
+	 * 
+	 * @return the x position
+	 */
+	public float getHistoryPosX(int index){
+		checkHistoryIndex(index);
+		return this.eventPosX[toRingIndex(index)];
 	}
 	
+	/**
+	 * Gets the y position of the event at the specified history index (0 = oldest event)
+	 * as it was when the event was added to this cursor.
+	 * 
+	 * @param index the history index
+	 * 
+	 * @return the y position
+	 */
+	public float getHistoryPosY(int index){
+		checkHistoryIndex(index);
+		return this.eventPosY[toRingIndex(index)];
+	}
+	
+	/**
+	 * Gets the time stamp of the event at the specified history index (0 = oldest event).
+	 * 
+	 * @param index the history index
+	 * 
+	 * @return the time stamp in milliseconds
+	 */
+	public long getHistoryTime(int index){
+		checkHistoryIndex(index);
+		return this.events[toRingIndex(index)].getWhen();
+	}
 	
 	/**
-	 * Gets the events.
+	 * Gets the <code>System.nanoTime()</code> time stamp of the event at the 
+	 * specified history index (0 = oldest event).
+	 * 
+	 * @param index the history index
+	 * 
+	 * @return the time stamp in nanoseconds
+	 */
+	public long getHistoryTimeNanos(int index){
+		checkHistoryIndex(index);
+		return this.eventTimes[toRingIndex(index)];
+	}
+	
+	private void checkHistoryIndex(int index){
+		if (index < 0 || index >= eventCount){
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + eventCount);
+		}
+	}
+	
+	
+	/**
+	 * Gets the events of the last milliseconds, ordered from the most recent 
+	 * to the oldest event. The very first event of the history is never included.
+	 * <br>NOTE: This creates a new list at each call. Prefer the time window
+	 * methods like <code>getEventIndexAfter()</code>, <code>getEventsAfter()</code> 
+	 * or <code>getDisplacement()</code> in frequently called code.
 	 * 
 	 * @param millisAgo the millis ago
 	 * 
 	 * @return the events
 	 */
 	public List<AbstractCursorInputEvt> getEvents(int millisAgo){
-		ArrayList<AbstractCursorInputEvt> result = new ArrayList<AbstractCursorInputEvt>();
-		List<AbstractCursorInputEvt> allEvents = this.getEvents();
-		long now = System.currentTimeMillis();
-//		for (int i = 0; i < allEvents.size(); i++) {
-//			if(now-allEvents.get(i).getWhen()<millisAgo){
-//				result.add(allEvents.get(i));
-//			}
-//		}
-		for (int i = allEvents.size()-1; i > 0; i--) {
-			if((now - allEvents.get(i).getWhen()) < millisAgo){
-				result.add(allEvents.get(i));
-			}  
-			else{// schleife abbrechen wenn falsch damit rest nicht durchsucht werden muss
-				break;
+		int start = Math.max(1, this.getEventIndexAfterNanos(InputProcessingThread.getInputTimeNanos() - millisAgo * 1000000L));
+		ArrayList<AbstractCursorInputEvt> result = new ArrayList<AbstractCursorInputEvt>(Math.max(0, eventCount - start));
+		for (int i = eventCount-1; i >= start; i--) {
+			result.add(events[toRingIndex(i)]);
+		}
+		return result;
+	}
+	
+	
+	/**
+	 * Gets the history index (0 = oldest event) of the first event that 
+	 * was created strictly after the specified time.
+	 * Uses a binary search over the event time stamps, which are assumed to be 
+	 * in ascending order.
+	 * 
+	 * @param time the time in milliseconds, like <code>System.currentTimeMillis()</code>
+	 * 
+	 * @return the index of the first event after the time, or the event count if there is none
+	 */
+	public int getEventIndexAfter(long time){
+		return this.getEventIndexAfterNanos(toNanoTime(time));
+	}
+	
+	
+	/**
+	 * Gets the history index (0 = oldest event) of the first event that 
+	 * was created strictly after the specified <code>System.nanoTime()</code> time.
+	 * 
+	 * @param nanoTime the time in nanoseconds, like <code>System.nanoTime()</code>
+	 * 
+	 * @return the index of the first event after the time, or the event count if there is none
+	 */
+	public int getEventIndexAfterNanos(long nanoTime){
+		int low = 0;
+		int high = eventCount;
+		while (low < high){
+			int mid = (low + high) >>> 1;
+			if (eventTimes[toRingIndex(mid)] > nanoTime){
+				high = mid;
+			}else{
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+	
+	
+	/**
+	 * Gets a read-only view of the events created strictly after the specified time,
+	 * ordered from the oldest to the most recent event. The events are not copied.
+	 * 
+	 * @param time the time in milliseconds
+	 * 
+	 * @return the events after the time
+	 */
+	public List<AbstractCursorInputEvt> getEventsAfter(long time){
+		return this.eventsView.subList(this.getEventIndexAfter(time), eventCount);
+	}
+	
+	
+	/**
+	 * Calculates the displacement from the first event after the specified time to 
+	 * the current event and stores it in the result vector.
+	 * 
+	 * @param time the time in milliseconds
+	 * @param result the vector to store the result in
+	 * 
+	 * @return the result vector
+	 */
+	public Vector3D getDisplacement(long time, Vector3D result){
+		return getDisplacementFrom(this.getEventIndexAfter(time), result);
+	}
+	
+	
+	/**
+	 * Calculates the mean velocity, in units per millisecond, between the first event 
+	 * after the specified time and the current event and stores it in the result vector.
+	 * 
+	 * @param time the time in milliseconds
+	 * @param result the vector to store the result in
+	 * 
+	 * @return the result vector
+	 */
+	public Vector3D getMeanVelocity(long time, Vector3D result){
+		int start = this.getEventIndexAfter(time);
+		getDisplacementFrom(start, result);
+		if (eventCount - start >= 2){
+			float elapsed = (eventTimes[toRingIndex(eventCount-1)] - eventTimes[toRingIndex(start)]) / 1000000f;
+			if (elapsed > 0){
+				result.setXYZ(result.x / elapsed, result.y / elapsed, 0);
+				return result;
 			}
 		}
+		result.setXYZ(0, 0, 0);
+		return result;
+	}
+	
+	
+	/**
+	 * Calculates the 2D bounding box of the positions of the events created 
+	 * strictly after the specified time.
+	 * 
+	 * @param time the time in milliseconds
+	 * @param min the vector to store the minimum in
+	 * @param max the vector to store the maximum in
+	 * 
+	 * @return true, if there were events in the time window
+	 */
+	public boolean getBoundingBox(long time, Vector3D min, Vector3D max){
+		int start = this.getEventIndexAfter(time);
+		if (start >= eventCount){
+			return false;
+		}
+		float minX = Float.MAX_VALUE;
+		float minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE;
+		float maxY = -Float.MAX_VALUE;
+		for (int i = start; i < eventCount; i++) {
+			AbstractCursorInputEvt evt = events[toRingIndex(i)];
+			float x = evt.getPosX();
+			float y = evt.getPosY();
+			if (x < minX) minX = x;
+			if (x > maxX) maxX = x;
+			if (y < minY) minY = y;
+			if (y > maxY) maxY = y;
+		}
+		min.setXYZ(minX, minY, 0);
+		max.setXYZ(maxX, maxY, 0);
+		return true;
+	}
+	
+	
+	/**
+	 * Calculates the displacement from the event at the specified history index to the current event.
+	 * 
+	 * @param start the history index
+	 * @param result the vector to store the result in
+	 * 
+	 * @return the result vector
+	 */
+	private Vector3D getDisplacementFrom(int start, Vector3D result){
+		if (eventCount - start < 2){
+			result.setXYZ(0, 0, 0);
+		}else{
+			AbstractCursorInputEvt first 	= events[toRingIndex(start)];
+			AbstractCursorInputEvt last 	= events[toRingIndex(eventCount-1)];
+			result.setXYZ(last.getPosX() - first.getPosX(), last.getPosY() - first.getPosY(), 0);
+		}
 		return result;
 	}
 	
@@ -398,10 +703,10 @@ public class InputCursor{
 	 * @return the last event
 	 */
 	public AbstractCursorInputEvt getCurrentEvent(){
-		if(this.events.size()==0){ 
+		if(this.eventCount==0){ 
 			return null;
 		}else{
-			return this.events.get(this.getEventCount()-1);
+			return this.events[toRingIndex(this.eventCount-1)];
 		}
 	}
 	
@@ -411,10 +716,10 @@ public class InputCursor{
 	 * @return the evt before last event
 	 */
 	public AbstractCursorInputEvt getPreviousEvent(){
-		if(this.events.size()<2){
+		if(this.eventCount<2){
 			return null;
 		}else{
-			return this.events.get(this.getEventCount()-2);
+			return this.events[toRingIndex(this.eventCount-2)];
 		}
 	}
 	
@@ -496,10 +801,10 @@ public class InputCursor{
 	 * @return the first event
 	 */
 	public AbstractCursorInputEvt getFirstEvent(){
-		if(this.events.size()==0){
+		if(this.eventCount==0){
 			return null;
 		}else{
-			return this.events.get(0);
+			return this.events[eventsHead];
 		}
 	}
 	
@@ -509,7 +814,7 @@ public class InputCursor{
 	 * @return the event count
 	 */
 	public int getEventCount(){
-		return this.events.size();
+		return this.eventCount;
 	}
 	
 	/**
@@ -537,7 +842,7 @@ public class InputCursor{
 	 * @see java.lang.Object#hashCode()
 	 */
 	public int hashCode() {
-		return (""+this.ID).hashCode();
+		return (int)(this.ID ^ (this.ID >>> 32));
 	}
 	
 	/* (non-Javadoc)
@@ -545,18 +850,17 @@ public class InputCursor{
 	 */
 	public String toString() {
 		String s=("Cursor id=" +this.ID) + "\n";
-		for (int i = 0; i < this.events.size(); i++) {
-			s += "\t" + i + ": " + this.events.get(i)+ "\n";
+		for (int i = 0; i < this.eventCount; i++) {
+			s += "\t" + i + ": " + this.events[toRingIndex(i)]+ "\n";
 		}
 		return s;
 	}
 
 
 	public void printLockSeekingAnalyzerList() {
-		Set<AbstractCursorProcessor> claimed = lockSeekingProcessorsToPriority.keySet();
 		logger.debug("Lock seeking processors list of cursor: " + this.getId());
-		for (Iterator<AbstractCursorProcessor> iterator = claimed.iterator(); iterator.hasNext();) {
-			AbstractCursorProcessor inputAnalyzer = (AbstractCursorProcessor) iterator.next();
+		for (int i = 0; i < lockingProcessorCount; i++) {
+			AbstractCursorProcessor inputAnalyzer = lockingProcessors[i];
 			logger.debug(inputAnalyzer.getClass() + " " + " Priority: " + inputAnalyzer.getLockPriority());
 		}
 	}
@@ -564,10 +868,10 @@ public class InputCursor{
 
 
 	public void printInterestedAnalyzersList() {
-		Set<AbstractCursorProcessor> watching = interestedProcessorsToPriority.keySet();
+		AbstractCursorProcessor[] interested = this.interestedProcessors;
 		logger.debug("Interested processors list of cursor: " + this.getId());
-		for (Iterator<AbstractCursorProcessor> iterator = watching.iterator(); iterator.hasNext();) {
-			AbstractCursorProcessor inputAnalyzer = (AbstractCursorProcessor) iterator.next();
+		for (int i = 0; i < interested.length; i++) {
+			AbstractCursorProcessor inputAnalyzer = interested[i];
 			logger.debug(inputAnalyzer.getClass() + " " + " Priority: " + inputAnalyzer.getLockPriority());
 		}
 	}
@@ -624,11 +928,11 @@ public class InputCursor{
 	
 	
 	public Vector3D getDirection(){
-		if (this.events.isEmpty() || this.events.size() < 2)
+		if (this.eventCount < 2)
 			return Vector3D.ZERO_VECTOR;
 		
-		AbstractCursorInputEvt posEvt 	= events.get(events.size()-1);
-		AbstractCursorInputEvt prev 	= events.get(events.size()-2);
+		AbstractCursorInputEvt posEvt 	= this.getCurrentEvent();
+		AbstractCursorInputEvt prev 	= this.getPreviousEvent();
 		if (prev == null)
 			prev = posEvt;
 		//TODO normalize direction or not?
@@ -659,42 +963,26 @@ public class InputCursor{
 	 * @return the velocity vector
 	 */
 	public Vector3D getVelocityVector(int millisAgo){
-		List<AbstractCursorInputEvt> lastEvents = getEvents(millisAgo);
-		//System.out.println("Events " + millisAgo + "ms ago: " + lastEvents.size());
-		
-		float lastX = 0;
-		float lastY = 0;
-		
-		float totalX = 0;
-		float totalY = 0;
-		for (int i = 0; i < lastEvents.size(); i++) {
-			 AbstractCursorInputEvt ce = lastEvents.get(i);
-			 float x = ce.getPosX();
-			 float y = ce.getPosY();
-			 
-			 if (i == 0){
-				 lastX = x;
-				 lastY = y;
-			 }
-
-			 totalX += x - lastX;
-			 totalY += y - lastY;
-			 
-			 lastX = x;
-			 lastY = y;
-		}
-		
-//		totalX /= 20f;
-//		totalY /= 20f;
-		
-		totalX *= -0.2f;
-		totalY *= -0.2f;
+		return getVelocityVector(millisAgo, new Vector3D());
+	}
+	
+	/**
+	 * Calculates the velocity vector like <code>getVelocityVector(int)</code> but
+	 * stores it in the specified vector instead of creating a new one.
+	 * 
+	 * @param millisAgo the all events from millis ago are taken into calculation
+	 * @param result the vector to store the result in
+	 * 
+	 * @return the result vector
+	 */
+	public Vector3D getVelocityVector(int millisAgo, Vector3D result){
+		//The very first event is left out, like in getEvents(millisAgo)
+		int start = Math.max(1, this.getEventIndexAfterNanos(InputProcessingThread.getInputTimeNanos() - millisAgo * 1000000L));
+		getDisplacementFrom(start, result);
 		
 		//works ok with damping float dampingValue = 0.85f; later
-		
-		//System.out.println("X total: " + totalX);
-		//System.out.println("Y total: " + totalY);
-		return new Vector3D(totalX, totalY);
+		result.setXYZ(result.x * 0.2f, result.y * 0.2f, 0);
+		return result;
 	}
 	
 //    public double getAngleFromStartPoint() {
@@ -717,5 +1005,21 @@ public class InputCursor{
 //    
     
     
-}
+    
+    /**
+     * A read-only list view of the circular event history.
+     */
+    private class EventHistoryList extends AbstractList<AbstractCursorInputEvt> implements RandomAccess{
+    	@Override
+    	public AbstractCursorInputEvt get(int index) {
+    		checkHistoryIndex(index);
+    		return events[toRingIndex(index)];
+    	}
 
+    	@Override
+    	public int size() {
+    		return eventCount;
+    	}
+    }
+    
+}
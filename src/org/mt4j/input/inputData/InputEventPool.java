@@ -0,0 +1,280 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.input.inputData;
+
+import org.mt4j.components.interfaces.IMTComponent3D;
+import org.mt4j.input.inputSources.AbstractInputSource;
+
+
+/**
+ * A store for reusable finger and fiducial input events. The input sources
+ * get their events from here instead of creating a new event for every sample.
+ * <p>
+ * An event obtained from the pool is owned by its cursor once it has been fired:
+ * it is recycled when it falls out of the cursor's event history and when the
+ * input source has dispatched the <code>INPUT_ENDED</code> event of the cursor.
+ * Listeners which want to keep an event beyond that have to <code>clone()</code> it.
+ * <br>A listener which keeps feeding a cursor after it ended has to remove the
+ * ended event from the cursor (<code>InputCursor.removeLastEvent()</code>) while
+ * it is processed - the cursor's events are then left alone and the listener
+ * has to call <code>recycleEvents(cursor)</code> itself when done.
+ * <p>
+ * Pooling is disabled by default, in that case new events are created and
+ * nothing is recycled. In debug mode recycled events are never handed out
+ * again and throw an <code>IllegalStateException</code> when they are used,
+ * the cause of the exception shows where the event was recycled.
+ */
+public class InputEventPool {
+
+	/** The default maximum number of free events per event type. */
+	public static final int DEFAULT_MAX_FREE_EVENTS = 512;
+
+	/** The event pool. */
+	private static final InputEventPool eventPool = new InputEventPool();
+
+	/** The free finger events. */
+	private MTFingerInputEvt[] freeFingerEvents;
+
+	/** The free finger event count. */
+	private int freeFingerCount;
+
+	/** The free fiducial events. */
+	private MTFiducialInputEvt[] freeFiducialEvents;
+
+	/** The free fiducial event count. */
+	private int freeFiducialCount;
+
+	/** The enabled. */
+	private volatile boolean enabled;
+
+	/** The debug. */
+	private volatile boolean debug;
+
+
+	/**
+	 * Instantiates a new input event pool.
+	 */
+	private InputEventPool(){
+		this.enabled = false;
+		this.debug = false;
+		this.setMaxFreeEvents(DEFAULT_MAX_FREE_EVENTS);
+	}
+
+	/**
+	 * Gets the single instance of InputEventPool.
+	 *
+	 * @return single instance of InputEventPool
+	 */
+	public static InputEventPool getInstance(){
+		return eventPool;
+	}
+
+
+	/**
+	 * Gets a finger input event, initialized like a newly created one.
+	 *
+	 * @param source the source
+	 * @param positionX the position x
+	 * @param positionY the position y
+	 * @param id the id
+	 * @param m the cursor
+	 *
+	 * @return the finger input event
+	 */
+	public MTFingerInputEvt getFingerEvent(AbstractInputSource source, float positionX, float positionY, int id, InputCursor m){
+		return this.getFingerEvent(source, null, positionX, positionY, id, m);
+	}
+
+
+	/**
+	 * Gets a finger input event, initialized like a newly created one.
+	 *
+	 * @param source the source
+	 * @param target the target
+	 * @param positionX the position x
+	 * @param positionY the position y
+	 * @param id the id
+	 * @param m the cursor
+	 *
+	 * @return the finger input event
+	 */
+	public MTFingerInputEvt getFingerEvent(AbstractInputSource source, IMTComponent3D target, float positionX, float positionY, int id, InputCursor m){
+		if (!enabled){
+			return new MTFingerInputEvt(source, target, positionX, positionY, id, m);
+		}
+		MTFingerInputEvt evt = null;
+		synchronized (this) {
+			if (freeFingerCount > 0){
+				evt = freeFingerEvents[--freeFingerCount];
+				freeFingerEvents[freeFingerCount] = null;
+			}
+		}
+		if (evt == null){
+			evt = new MTFingerInputEvt(source, target, positionX, positionY, id, m);
+		}else{
+			evt.reinitialize(source, target, positionX, positionY, id, m);
+		}
+		evt.setPooled(true);
+		return evt;
+	}
+
+
+	/**
+	 * Gets a fiducial input event, initialized like a newly created one.
+	 *
+	 * @param source the source
+	 * @param positionX the position x
+	 * @param positionY the position y
+	 * @param id the id
+	 * @param m the cursor
+	 * @param fiducialId the fiducial id
+	 * @param angle the angle
+	 * @param xSpeed the x speed
+	 * @param ySpeed the y speed
+	 * @param rSpeed the r speed
+	 * @param mAccel the m accel
+	 * @param rAccel the r accel
+	 *
+	 * @return the fiducial input event
+	 */
+	public MTFiducialInputEvt getFiducialEvent(AbstractInputSource source, float positionX, float positionY, int id, InputCursor m,
+			int fiducialId, float angle, float xSpeed, float ySpeed, float rSpeed, float mAccel, float rAccel){
+		if (!enabled){
+			return new MTFiducialInputEvt(source, positionX, positionY, id, m, fiducialId, angle, xSpeed, ySpeed, rSpeed, mAccel, rAccel);
+		}
+		MTFiducialInputEvt evt = null;
+		synchronized (this) {
+			if (freeFiducialCount > 0){
+				evt = freeFiducialEvents[--freeFiducialCount];
+				freeFiducialEvents[freeFiducialCount] = null;
+			}
+		}
+		if (evt == null){
+			evt = new MTFiducialInputEvt(source, positionX, positionY, id, m, fiducialId, angle, xSpeed, ySpeed, rSpeed, mAccel, rAccel);
+		}else{
+			evt.reinitialize(source, null, positionX, positionY, id, m);
+			evt.setFiducialData(fiducialId, angle, xSpeed, ySpeed, rSpeed, mAccel, rAccel);
+		}
+		evt.setPooled(true);
+		return evt;
+	}
+
+
+	/**
+	 * Gives the event back to the pool. Events which were not obtained
+	 * from the pool or are already recycled are ignored.
+	 * <br>NOTE: This is called internally by the cursors and input sources.
+	 *
+	 * @param evt the evt
+	 */
+	public void recycle(AbstractCursorInputEvt evt){
+		if (evt == null || !evt.isPooled()){
+			return;
+		}
+		evt.setPooled(false);
+
+		if (debug){
+			//Poison the event and drop it, so any later use fails
+			evt.setRecycled(new Throwable("Input event recycled here"));
+			return;
+		}
+
+		evt.setTargetComponent(null);
+		evt.setCursor(null);
+		synchronized (this) {
+			if (evt instanceof MTFiducialInputEvt){
+				if (freeFiducialCount < freeFiducialEvents.length){
+					freeFiducialEvents[freeFiducialCount++] = (MTFiducialInputEvt) evt;
+				}
+			}else if (evt instanceof MTFingerInputEvt){
+				if (freeFingerCount < freeFingerEvents.length){
+					freeFingerEvents[freeFingerCount++] = (MTFingerInputEvt) evt;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Recycles all events of the cursor's event history and clears the history.
+	 *
+	 * @param m the cursor
+	 */
+	public void recycleEvents(InputCursor m){
+		AbstractCursorInputEvt evt;
+		while ((evt = m.removeLastEvent()) != null){
+			this.recycle(evt);
+		}
+	}
+
+
+	/**
+	 * Checks if pooling is enabled.
+	 *
+	 * @return true, if enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables pooling. If disabled, new events are created
+	 * and nothing is recycled.
+	 *
+	 * @param enabled the new enabled
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Checks if the use-after-recycle detection is enabled.
+	 *
+	 * @return true, if debug
+	 */
+	public boolean isDebug() {
+		return debug;
+	}
+
+	/**
+	 * Enables the use-after-recycle detection. Recycled events are then not
+	 * reused but throw an <code>IllegalStateException</code> when accessed.
+	 *
+	 * @param debug the new debug
+	 */
+	public void setDebug(boolean debug) {
+		this.debug = debug;
+	}
+
+	/**
+	 * Sets the maximum number of free events kept per event type.
+	 * Events recycled when the pool is full are left to the garbage collector.
+	 *
+	 * @param maxFreeEvents the new max free events
+	 */
+	public synchronized void setMaxFreeEvents(int maxFreeEvents){
+		if (maxFreeEvents < 0){
+			throw new IllegalArgumentException("The maximum number of free events cant be negative: " + maxFreeEvents);
+		}
+		freeFingerEvents 	= new MTFingerInputEvt[maxFreeEvents];
+		freeFingerCount 	= 0;
+		freeFiducialEvents 	= new MTFiducialInputEvt[maxFreeEvents];
+		freeFiducialCount 	= 0;
+	}
+
+}
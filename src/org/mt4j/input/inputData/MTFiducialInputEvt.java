@@ -95,6 +95,21 @@ public class MTFiducialInputEvt extends AbstractCursorInputEvt {
 	
 	
 	
+	/**
+	 * Sets the fiducial data of a reused event.
+	 * Used by the <code>InputEventPool</code>.
+	 */
+	void setFiducialData(int fiducial_id, float angle, float x_speed, float y_speed, float r_speed, float m_accel, float r_accel){
+		this.fiducial_id = fiducial_id;
+		this.angle   = angle;
+		this.x_speed = x_speed;
+		this.y_speed = y_speed;
+		this.r_speed = r_speed;
+		this.m_accel = m_accel;
+		this.r_accel = r_accel;
+	}
+	
+	
 	public int getFiducialId() {
 		return fiducial_id;
 	}
@@ -17,6 +17,8 @@
  ***********************************************************************/
 package org.mt4j.input.inputData;
 
+import java.util.Arrays;
+
 import org.mt4j.components.interfaces.IMTComponent3D;
 import org.mt4j.input.MTEvent;
 
@@ -27,6 +29,30 @@ import org.mt4j.input.MTEvent;
  */
 public class MTInputEvent extends MTEvent {
 	
+	/** Stage stamp: the event was queued by its input source. */
+	public static final int STAGE_QUEUED = 0;
+	
+	/** Stage stamp: the event was flushed by its input source to the global input processors. */
+	public static final int STAGE_FLUSHED = 1;
+	
+	/** Stage stamp: the event was assigned to its target component. */
+	public static final int STAGE_RETARGETED = 2;
+	
+	/** Stage stamp: the event was handled by a component input processor. */
+	public static final int STAGE_PROCESSED = 3;
+	
+	/** Stage stamp: the frame showing the results of the event was drawn. */
+	public static final int STAGE_RENDERED = 4;
+	
+	/** The number of stages. */
+	public static final int STAGE_COUNT = 5;
+	
+	/** Whether the stage stamps are recorded. */
+	private static volatile boolean stageStampsEnabled = false;
+	
+	/** The stage stamps from <code>System.nanoTime()</code>, created when the first stage is stamped. */
+	private long[] stageStamps;
+	
 	/** The target component. */
 	private IMTComponent3D targetComponent;
 	
@@ -52,6 +78,86 @@ public class MTInputEvent extends MTEvent {
 		this.targetComponent = targetComponent;
 	}
 
+	/**
+	 * Resets the event to the state of a newly created event,
+	 * used when events are reused.
+	 * 
+	 * @param source the source
+	 * @param targetComponent the target component
+	 */
+	protected void reinitialize(Object source, IMTComponent3D targetComponent){
+		super.reinitialize(source);
+		this.targetComponent = targetComponent;
+		if (this.stageStamps != null){
+			Arrays.fill(this.stageStamps, 0);
+		}
+	}
+	
+	
+	/**
+	 * Enables or disables recording the time at which input events pass the 
+	 * stages of the input pipeline, from the input source to the screen.
+	 * Used to profile the input latency.
+	 * 
+	 * @param enabled the enabled
+	 * 
+	 * @see #getStageStamp(int)
+	 */
+	public static void setStageStampsEnabled(boolean enabled){
+		stageStampsEnabled = enabled;
+	}
+	
+	/**
+	 * Checks if stage stamps are recorded.
+	 * 
+	 * @return true, if stage stamps are enabled
+	 */
+	public static boolean isStageStampsEnabled(){
+		return stageStampsEnabled;
+	}
+	
+	
+	/**
+	 * Records the current <code>System.nanoTime()</code> for the specified stage, if
+	 * stage stamps are enabled.
+	 * <br>NOTE: This is called internally by MT4j.
+	 * 
+	 * @param stage the stage, one of the <code>STAGE_</code> constants
+	 */
+	public void stampStage(int stage){
+		if (stageStampsEnabled){
+			if (this.stageStamps == null){
+				this.stageStamps = new long[STAGE_COUNT];
+			}
+			this.stageStamps[stage] = System.nanoTime();
+		}
+	}
+	
+	/**
+	 * Gets the <code>System.nanoTime()</code> at which the event passed the specified stage.
+	 * 
+	 * @param stage the stage, one of the <code>STAGE_</code> constants
+	 * 
+	 * @return the stage stamp or 0 if the stage wasnt stamped
+	 */
+	public long getStageStamp(int stage){
+		return (this.stageStamps != null) ? this.stageStamps[stage] : 0;
+	}
+	
+	/**
+	 * Gets the time from the creation of the event in the input source until 
+	 * the event passed the specified stage.
+	 * 
+	 * @param stage the stage, one of the <code>STAGE_</code> constants
+	 * 
+	 * @return the latency in nanoseconds or -1 if the stage wasnt stamped
+	 */
+	public long getStageLatencyNanos(int stage){
+		long stamp = this.getStageStamp(stage);
+		return (stamp != 0) ? stamp - this.getWhenNanos() : -1;
+	}
+	
+	
 //	/**
 //	 * Gets the source.
 //	 * 
@@ -24,6 +24,12 @@ import org.mt4j.input.inputData.MTInputEvent;
 
 /**
  * The Class GestureEvent.
+ * <p>
+ * Some input processors reuse one event instance for all of their <code>GESTURE_UPDATED</code>
+ * events (see <code>isReused()</code>). Such an event is only valid while it is being processed
+ * by the listeners. A listener which wants to keep an event beyond that has to keep
+ * <code>getRetainableEvent()</code> instead of the event itself.
+ * 
  * @author Christopher Ruff
  */
 public abstract class MTGestureEvent extends MTInputEvent {
@@ -31,6 +37,9 @@ public abstract class MTGestureEvent extends MTInputEvent {
 	/** The id. */
 	private int id;
 	
+	/** Whether the processor reuses this instance for its next events. */
+	private boolean reused;
+	
 	/** The target component. */
 //	private IMTComponent3D targetComponent;
 //	private InputMotion[] motions;
@@ -54,10 +63,93 @@ public abstract class MTGestureEvent extends MTInputEvent {
 	public MTGestureEvent(IInputProcessor source, int id, IMTComponent3D targetComponent) {
 		super(source, targetComponent);
 		this.id = id;
+		this.reused = false;
 //		this.targetComponent = targetComponent;
 	}
 	
 	
+	/**
+	 * Reinitializes a reused event like a newly created one.
+	 * 
+	 * @param source the source
+	 * @param id the id
+	 * @param targetComponent the target component
+	 */
+	protected void reinitialize(IInputProcessor source, int id, IMTComponent3D targetComponent) {
+		super.reinitialize(source, targetComponent);
+		this.id = id;
+	}
+	
+	
+	/**
+	 * Checks if the processor reuses this event instance for its next events,
+	 * so the event must not be kept after it was processed.
+	 * 
+	 * @return true, if reused
+	 */
+	public boolean isReused() {
+		return reused;
+	}
+
+	/**
+	 * Marks the event as reused by its processor. The event class has to
+	 * implement <code>copy()</code> then.
+	 * 
+	 * @param reused the new reused
+	 * 
+	 * @throws UnsupportedOperationException if the event is marked as reused but its class doesn't implement <code>copy()</code>
+	 */
+	public void setReused(boolean reused) {
+		if (reused && !implementsCopy(this.getClass())){
+			throw new UnsupportedOperationException(this.getClass().getName() + " cant be copied and must not be reused.");
+		}
+		this.reused = reused;
+	}
+	
+	
+	/**
+	 * Checks if the event class or one of its super classes below
+	 * <code>MTGestureEvent</code> implements <code>copy()</code>.
+	 * 
+	 * @param eventClass the event class
+	 * 
+	 * @return true, if copy is implemented
+	 */
+	private static boolean implementsCopy(Class<?> eventClass){
+		for (Class<?> c = eventClass; c != null && c != MTGestureEvent.class; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod("copy");
+				return true;
+			} catch (NoSuchMethodException e) {
+				//Look at the super class
+			}
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * Gets an event with the values of this event that may be kept after
+	 * it was processed. That is this event itself, unless it is reused by its processor.
+	 * 
+	 * @return the retainable event
+	 */
+	public MTGestureEvent getRetainableEvent() {
+		return reused ? this.copy() : this;
+	}
+	
+	
+	/**
+	 * Creates a copy of this event which is not reused.
+	 * Has to be implemented by events which are reused, <code>setReused()</code> checks that.
+	 * 
+	 * @return the copy
+	 */
+	protected MTGestureEvent copy() {
+		throw new UnsupportedOperationException(this.getClass().getName() + " cant be copied and must not be reused.");
+	}
+	
+	
 	
 
 	@Override
@@ -18,7 +18,9 @@
 package org.mt4j.input.inputProcessors.componentProcessors;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
@@ -46,8 +48,14 @@ public abstract class AbstractComponentProcessor implements IMTInputEventListene
 	}
 
 	
+	/** Whether the processor classes use the default <code>isInterestedIn()</code>, by class. */
+	private static final Map<Class<?>, Boolean> declaredInterestByClass = new HashMap<Class<?>, Boolean>();
+	
 	/** if disabled. */
 	private boolean disabled;
+	
+	/** Whether the interest of this processor is fully described by its interest event type and target requirement. */
+	private final boolean declaredInterest;
 
 	/** The input listeners. */
 	private List<IGestureEventListener> inputListeners;
@@ -63,6 +71,30 @@ public abstract class AbstractComponentProcessor implements IMTInputEventListene
 		this.inputListeners = new ArrayList<IGestureEventListener>();
 		
 		debug = false;
+		declaredInterest = usesDeclaredInterest(this.getClass());
+	}
+	
+	
+	/**
+	 * Checks if the processor class doesent override <code>isInterestedIn()</code>.
+	 * 
+	 * @param processorClass the processor class
+	 * 
+	 * @return true, if the interest is declared
+	 */
+	private static boolean usesDeclaredInterest(Class<?> processorClass){
+		synchronized (declaredInterestByClass) {
+			Boolean declared = declaredInterestByClass.get(processorClass);
+			if (declared == null){
+				try {
+					declared = processorClass.getMethod("isInterestedIn", MTInputEvent.class).getDeclaringClass() == AbstractComponentProcessor.class;
+				} catch (NoSuchMethodException e) {
+					declared = Boolean.FALSE;
+				}
+				declaredInterestByClass.put(processorClass, declared);
+			}
+			return declared.booleanValue();
+		}
 	}
 
 
@@ -74,6 +106,7 @@ public abstract class AbstractComponentProcessor implements IMTInputEventListene
 //	public void processInputEvent(MTInputEvent inEvt){
 		if(!this.isDisabled() && inEvt.hasTarget()){ //Allow component processors to recieve inputevts only if they have a target (Canvas is target if null is picked..)
 			this.processInputEvtImpl(inEvt);
+			inEvt.stampStage(MTInputEvent.STAGE_PROCESSED);
 			return true;
 		}else{
 			return false;
@@ -92,14 +125,52 @@ public abstract class AbstractComponentProcessor implements IMTInputEventListene
 	/**
 	 * Checks if this input processor is interested in the specified
 	 * MTInputEvent instance.
-	 * If we want to create custom input processors we override this method
-	 * and return true only for the kind of events we want to recieve.
+	 * <br>By default the processor is interested in events of its interest event type
+	 * which have a target if it requires one. Custom input processors should rather override
+	 * <code>getInterestEventType()</code> and <code>isTargetRequired()</code> than this method, 
+	 * because then the components can dispatch the events without asking each processor.
 	 * 
 	 * @param inputEvt the input evt
 	 * 
 	 * @return true, if is interested in
 	 */
-	abstract public boolean isInterestedIn(MTInputEvent inputEvt);
+	public boolean isInterestedIn(MTInputEvent inputEvt){
+		return this.getInterestEventType().isInstance(inputEvt)
+			&& (inputEvt.hasTarget() || !this.isTargetRequired());
+	}
+	
+	
+	/**
+	 * Gets the type of input events this processor is interested in.
+	 * Events of this type and its subtypes are sent to the processor.
+	 * 
+	 * @return the interest event type
+	 */
+	public Class<? extends MTInputEvent> getInterestEventType(){
+		return MTInputEvent.class;
+	}
+	
+	
+	/**
+	 * Checks if the processor is only interested in events which have a target component.
+	 * 
+	 * @return true, if target required
+	 */
+	public boolean isTargetRequired(){
+		return true;
+	}
+	
+	
+	/**
+	 * Checks if the interest of the processor is fully described by its interest event
+	 * type and target requirement, which is the case if the processor doesent override
+	 * <code>isInterestedIn()</code>.
+	 * 
+	 * @return true, if the interest is declared
+	 */
+	public boolean isInterestDeclared(){
+		return this.declaredInterest;
+	}
 	
 	
 	/**
@@ -20,6 +20,7 @@ package org.mt4j.input.inputProcessors.componentProcessors;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.mt4j.input.inputData.CursorClustering;
 import org.mt4j.input.inputData.InputCursor;
 import org.mt4j.input.inputData.MTFingerInputEvt;
 import org.mt4j.input.inputData.MTInputEvent;
@@ -39,10 +40,9 @@ public abstract class AbstractCursorProcessor extends AbstractComponentProcessor
 	}
 
 	@Override
-	public boolean isInterestedIn(MTInputEvent inputEvt) {
-//		return inputEvt instanceof AbstractCursorInputEvt;
-		return inputEvt instanceof MTFingerInputEvt 
-			&& inputEvt.hasTarget();
+	public Class<? extends MTInputEvent> getInterestEventType() {
+//		return AbstractCursorInputEvt.class;
+		return MTFingerInputEvt.class;
 	}
 
 
@@ -128,6 +128,105 @@ public abstract class AbstractCursorProcessor extends AbstractComponentProcessor
 	}
 	
 	
+	/**
+	 * Gets the cursor to use together with the specified cursor for a two finger gesture.
+	 * If there is only one candidate it is returned, else the best candidate
+	 * this processor can lock is returned: the nearest neighbour of the cursor (see <code>CursorClustering</code>), 
+	 * or if no neighbour can be locked the nearest candidate. So the fingers of different users on 
+	 * a large table aren't paired by the order they arrived in, but fingers far apart are still paired.
+	 * If no candidate can be locked the nearest neighbour or candidate is returned.
+	 * 
+	 * @param cursor the cursor
+	 * @param candidates the candidates
+	 * 
+	 * @return the partner cursor or null if there are no candidates
+	 */
+	protected InputCursor getPartnerCursor(InputCursor cursor, List<InputCursor> candidates){
+		if (candidates.isEmpty()){
+			return null;
+		}
+		if (candidates.size() == 1){
+			return candidates.get(0);
+		}
+		CursorClustering clustering = CursorClustering.getInstance();
+		List<InputCursor> neighbours = clustering.getNeighbours(cursor, candidates);
+		for (int i = 0; i < neighbours.size(); i++) {
+			InputCursor partner = neighbours.get(i);
+			if (this.canLock(partner)){
+				return partner;
+			}
+		}
+		InputCursor partner = clustering.getNearest(cursor, this.getLockable(candidates));
+		if (partner == null){
+			partner = !neighbours.isEmpty() ? neighbours.get(0) : clustering.getNearest(cursor, candidates);
+		}
+		if (partner == null){ //No candidate has a current event
+			partner = candidates.get(0) != cursor ? candidates.get(0) : candidates.get(1);
+		}
+		return partner;
+	}
+	
+	
+	/**
+	 * Gets two cursors to start a two finger gesture with.
+	 * If there are only two candidates they are returned, else the best pair
+	 * this processor can lock is returned: the nearest pair of neighbours (see <code>CursorClustering</code>),
+	 * or if no such pair can be locked the first lockable candidate with its nearest lockable candidate. 
+	 * If no pair can be locked the nearest pair of neighbours or the first two candidates are returned.
+	 * 
+	 * @param candidates the candidates
+	 * 
+	 * @return the cursor pair or null if there are less than two candidates
+	 */
+	protected InputCursor[] getCursorPair(List<InputCursor> candidates){
+		if (candidates.size() < 2){
+			return null;
+		}
+		if (candidates.size() == 2){
+			return new InputCursor[]{candidates.get(0), candidates.get(1)};
+		}
+		CursorClustering clustering = CursorClustering.getInstance();
+		List<InputCursor[]> pairs = clustering.getPairs(candidates);
+		for (int i = 0; i < pairs.size(); i++) {
+			InputCursor[] pair = pairs.get(i);
+			if (this.canLock(pair)){
+				return pair;
+			}
+		}
+		List<InputCursor> lockable = this.getLockable(candidates);
+		if (lockable.size() >= 2){
+			InputCursor first = lockable.get(0);
+			InputCursor second = clustering.getNearest(first, lockable);
+			if (second != null){
+				return new InputCursor[]{first, second};
+			}
+		}
+		if (!pairs.isEmpty()){
+			return pairs.get(0);
+		}
+		return new InputCursor[]{candidates.get(0), candidates.get(1)};
+	}
+	
+	
+	/**
+	 * Gets the candidates this processor has the priority to lock.
+	 * 
+	 * @param candidates the candidates
+	 * 
+	 * @return the lockable candidates
+	 */
+	private List<InputCursor> getLockable(List<InputCursor> candidates){
+		List<InputCursor> lockable = new ArrayList<InputCursor>(candidates.size());
+		for (int i = 0; i < candidates.size(); i++) {
+			InputCursor candidate = candidates.get(i);
+			if (candidate.canLock(this)){
+				lockable.add(candidate);
+			}
+		}
+		return lockable;
+	}
+	
+	
 	
 	/**
 	 * Locks the cursor with this processor if the processors lock priority
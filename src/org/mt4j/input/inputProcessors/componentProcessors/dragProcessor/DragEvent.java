@@ -60,6 +60,34 @@ public class DragEvent extends MTGestureEvent {
 		this.to = to;
 		this.translationVect = to.getSubtracted(from);
 	}
+	
+	
+	/**
+	 * Reinitializes the reused event with new values.
+	 * 
+	 * @param id the id
+	 * @param targetComponent the target component
+	 * @param dragCursor the drag cursor
+	 * @param from the from
+	 * @param to the to
+	 */
+	void reset(int id, IMTComponent3D targetComponent, InputCursor dragCursor, Vector3D from, Vector3D to) {
+		this.reinitialize(this.getSource(), id, targetComponent);
+		this.dragCursor = dragCursor;
+		this.from = from;
+		this.to = to;
+		this.translationVect.setValues(to);
+		this.translationVect.subtractLocal(from);
+	}
+	
+	
+	@Override
+	protected MTGestureEvent copy() {
+		DragEvent copy = new DragEvent(this.getSource(), this.getId(), this.getTargetComponent(), dragCursor, from.getCopy(), to.getCopy());
+		copy.translationVect.setValues(translationVect);
+		copy.copyTimeStamps(this);
+		return copy;
+	}
 
 	/**
 	 * Gets the drag cursor.
@@ -51,6 +51,9 @@ public class DragProcessor extends AbstractCursorProcessor {
 	
 	/** The locked cursorss. */
 	private List<InputCursor> lockedCursors;
+
+	/** The event reused for all GESTURE_UPDATED events. */
+	private DragEvent updateEvent;
 	
 
 	/**
@@ -104,8 +107,22 @@ public class DragProcessor extends AbstractCursorProcessor {
 		IMTComponent3D comp = positionEvent.getTargetComponent();
 		if (lockedCursors.contains(m)){
 			dc.updateDragPosition();
-			this.fireGestureEvent(new DragEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, m, dc.getLastPosition(), dc.getNewPosition()));
+			this.fireUpdateEvent(comp, m, dc.getLastPosition(), dc.getNewPosition());
+		}
+	}
+
+	
+	/**
+	 * Fires a GESTURE_UPDATED event. The same event instance is reused for all updates.
+	 */
+	private void fireUpdateEvent(IMTComponent3D comp, InputCursor m, Vector3D from, Vector3D to){
+		if (updateEvent == null){
+			updateEvent = new DragEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, m, from, to);
+			updateEvent.setReused(true);
+		}else{
+			updateEvent.reset(MTGestureEvent.GESTURE_UPDATED, comp, m, from, to);
 		}
+		this.fireGestureEvent(updateEvent);
 	}
 
 	
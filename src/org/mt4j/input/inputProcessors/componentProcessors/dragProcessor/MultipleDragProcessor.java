@@ -45,6 +45,9 @@ public class MultipleDragProcessor extends AbstractCursorProcessor {
 	/** The motion to drag context. */
 	private HashMap<InputCursor, DragContext> motionToDragContext;
 
+	/** The event reused for all GESTURE_UPDATED events. */
+	private DragEvent updateEvent;
+
 	/**
 	 * Instantiates a new multiple drag processor.
 	 * 
@@ -79,8 +82,22 @@ public class MultipleDragProcessor extends AbstractCursorProcessor {
 		DragContext dc = motionToDragContext.get(inputCursor);
 		if (dc != null && dc.dragObject.getViewingCamera() != null){
 			dc.updateDragPosition();
-			this.fireGestureEvent(new DragEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, inputCursor, dc.lastPosition, dc.newPosition));
+			this.fireUpdateEvent(comp, inputCursor, dc.lastPosition, dc.newPosition);
+		}
+	}
+
+	
+	/**
+	 * Fires a GESTURE_UPDATED event. The same event instance is reused for all updates.
+	 */
+	private void fireUpdateEvent(IMTComponent3D comp, InputCursor m, Vector3D from, Vector3D to){
+		if (updateEvent == null){
+			updateEvent = new DragEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, m, from, to);
+			updateEvent.setReused(true);
+		}else{
+			updateEvent.reset(MTGestureEvent.GESTURE_UPDATED, comp, m, from, to);
 		}
+		this.fireGestureEvent(updateEvent);
 	}
 	
 	/* (non-Javadoc)
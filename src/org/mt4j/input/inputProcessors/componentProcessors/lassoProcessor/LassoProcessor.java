@@ -269,6 +269,15 @@ public class LassoProcessor extends AbstractCursorProcessor {
 		/** The gesture aborted. */
 		protected boolean gestureAborted;
 		
+		/** The clusterables inside the lasso. */
+		private LassoSelectionGrid selectionGrid;
+		
+		/** The first lasso vertex. */
+		private float firstX, firstY;
+		
+		/** The last lasso vertex. */
+		private float lastX, lastY;
+		
 		
 		/**
 		 * Instantiates a new clustering context.
@@ -294,6 +303,14 @@ public class LassoProcessor extends AbstractCursorProcessor {
 			this.newPosition = newPos;
 			this.lastPosition = newPos;
 			
+			//Track the selection while the lasso grows, starting with the initial triangle
+			this.selectionGrid = new LassoSelectionGrid(getTrackedSelectables());
+			this.firstX = newPos.getX();
+			this.firstY = newPos.getY();
+			this.lastX = newPos.getX();
+			this.lastY = newPos.getY()+0.1f;
+			selectionGrid.addTriangle(firstX, firstY, firstX+0.1f, firstY, lastX, lastY);
+			
 //			polygon = new MTPolygon(
 //					new Vertex[]{
 //							new Vertex(newPos.getX(), newPos.getY(), newPos.getZ()),
@@ -340,15 +357,7 @@ public class LassoProcessor extends AbstractCursorProcessor {
 		 */
 		public IdragClusterable[] getselectedComps() {
 			selectedComps.clear();
-			for (int i = 0; i < dragSelectables.size(); i++) {
-				IdragClusterable currentCard = dragSelectables.get(i);
-				Vector3D globCenter = new Vector3D(currentCard.getCenterPointGlobal());
-				globCenter.setZ(0);
-//				if (this.getPolygon().containsPointGlobal(currentCard.getCenterPointGlobal())){
-				if (this.getPolygon().containsPointGlobal(globCenter)){
-					selectedComps.add(currentCard);
-				}
-			}
+			selectedComps.addAll(selectionGrid.getContained());
 			return (IdragClusterable[])selectedComps.toArray(new IdragClusterable[this.selectedComps.size()]);
 		}
 
@@ -389,6 +398,11 @@ public class LassoProcessor extends AbstractCursorProcessor {
 					newArr[newArr.length-2] = newVert; //set the new value to be the length-2 one
 
 					polygon.setVertices(newArr);
+					
+					//Only the centers in the triangle of the new vertex, the last one and the first one change
+					selectionGrid.addTriangle(lastX, lastY, newPosition.getX(), newPosition.getY(), firstX, firstY);
+					lastX = newPosition.getX();
+					lastY = newPosition.getY();
 				}
 			}
 		}
@@ -0,0 +1,207 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.input.inputProcessors.componentProcessors.lassoProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mt4j.util.math.Vector3D;
+
+
+/**
+ * Keeps track of which clusterables are inside a growing lasso polygon.
+ * <p>
+ * The centers of the clusterables are put into a uniform grid when the lasso starts.
+ * Appending a vertex p to the closed polygon v0..vLast replaces the edge (vLast, v0) by
+ * the edges (vLast, p) and (p, v0) - which changes the winding number of the points inside
+ * the triangle (vLast, p, v0) only. So for each new vertex only the centers in the grid cells
+ * overlapping that triangle are tested, independently of the number of polygon vertices.
+ * <br>A center is inside the lasso if its winding number is odd, like in the even-odd test
+ * of <code>MTPolygon.containsPointGlobal()</code>.
+ */
+class LassoSelectionGrid {
+
+	/** The maximum number of grid cells in one direction. */
+	private static final int MAX_CELLS = 256;
+
+	/** The clusterables. */
+	private IdragClusterable[] clusterables;
+
+	/** The center x coordinates. */
+	private float[] x;
+
+	/** The center y coordinates. */
+	private float[] y;
+
+	/** The winding numbers of the centers. */
+	private int[] winding;
+
+	/** The grid origin. */
+	private float minX, minY;
+
+	/** The inverse cell size. */
+	private float invCellSize;
+
+	/** The grid size. */
+	private int cellsX, cellsY;
+
+	/** The index of the first entry of each cell in <code>cellEntries</code>. */
+	private int[] cellStart;
+
+	/** The clusterable indices sorted by cell. */
+	private int[] cellEntries;
+
+
+	/**
+	 * Instantiates a new lasso selection grid.
+	 *
+	 * @param clusterables the clusterables
+	 */
+	public LassoSelectionGrid(IdragClusterable[] clusterables) {
+		int n = clusterables.length;
+		this.clusterables = clusterables;
+		this.x = new float[n];
+		this.y = new float[n];
+		this.winding = new int[n];
+
+		float maxX = -Float.MAX_VALUE;
+		float maxY = -Float.MAX_VALUE;
+		minX = Float.MAX_VALUE;
+		minY = Float.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			Vector3D center = clusterables[i].getCenterPointGlobal();
+			x[i] = center.x;
+			y[i] = center.y;
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+
+		//About two centers per cell
+		float width = n > 0 ? Math.max(maxX - minX, 1) : 1;
+		float height = n > 0 ? Math.max(maxY - minY, 1) : 1;
+		float cellSize = (float) Math.sqrt(width * height / Math.max(n / 2f, 1));
+		cellsX = Math.min(MAX_CELLS, (int) (width / cellSize) + 1);
+		cellsY = Math.min(MAX_CELLS, (int) (height / cellSize) + 1);
+		cellSize = Math.max(width / cellsX, height / cellsY);
+		invCellSize = 1f / cellSize;
+
+		//Counting sort of the centers by cell
+		int[] cellOfEntry = new int[n];
+		cellStart = new int[cellsX * cellsY + 1];
+		for (int i = 0; i < n; i++) {
+			cellOfEntry[i] = this.cellY(y[i]) * cellsX + this.cellX(x[i]);
+			cellStart[cellOfEntry[i] + 1]++;
+		}
+		for (int c = 0; c < cellsX * cellsY; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		int[] fill = new int[cellsX * cellsY];
+		cellEntries = new int[n];
+		for (int i = 0; i < n; i++) {
+			int cell = cellOfEntry[i];
+			cellEntries[cellStart[cell] + fill[cell]++] = i;
+		}
+	}
+
+
+	private int cellX(float px){
+		return Math.max(0, Math.min(cellsX - 1, (int) ((px - minX) * invCellSize)));
+	}
+
+	private int cellY(float py){
+		return Math.max(0, Math.min(cellsY - 1, (int) ((py - minY) * invCellSize)));
+	}
+
+
+	/**
+	 * Adds the winding of the triangle (a, b, c) to the centers inside of it.
+	 *
+	 * @param ax the ax
+	 * @param ay the ay
+	 * @param bx the bx
+	 * @param by the by
+	 * @param cx the cx
+	 * @param cy the cy
+	 */
+	public void addTriangle(float ax, float ay, float bx, float by, float cx, float cy){
+		float triMinX = Math.min(ax, Math.min(bx, cx));
+		float triMinY = Math.min(ay, Math.min(by, cy));
+		float triMaxX = Math.max(ax, Math.max(bx, cx));
+		float triMaxY = Math.max(ay, Math.max(by, cy));
+		if (clusterables.length == 0
+			|| triMaxX < minX || triMaxY < minY
+			|| triMinX > minX + cellsX / invCellSize || triMinY > minY + cellsY / invCellSize
+		){
+			return;
+		}
+
+		int startX = this.cellX(triMinX);
+		int endX = this.cellX(triMaxX);
+		int endY = this.cellY(triMaxY);
+		for (int cellY = this.cellY(triMinY); cellY <= endY; cellY++) {
+			for (int cellX = startX; cellX <= endX; cellX++) {
+				int cell = cellY * cellsX + cellX;
+				for (int e = cellStart[cell]; e < cellStart[cell + 1]; e++) {
+					int i = cellEntries[e];
+					float px = x[i];
+					float py = y[i];
+					if (px >= triMinX && px <= triMaxX && py >= triMinY && py <= triMaxY){
+						winding[i] += crossing(ax, ay, bx, by, px, py)
+									+ crossing(bx, by, cx, cy, px, py)
+									+ crossing(cx, cy, ax, ay, px, py);
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Gets the signed crossing of the edge (a, b) with the ray from the point to the right.
+	 */
+	private static int crossing(float ax, float ay, float bx, float by, float px, float py){
+		float isLeft = (bx - ax) * (py - ay) - (px - ax) * (by - ay);
+		if (ay <= py){
+			if (by > py && isLeft > 0){
+				return 1;
+			}
+		}else if (by <= py && isLeft < 0){
+			return -1;
+		}
+		return 0;
+	}
+
+
+	/**
+	 * Gets the clusterables whose center is inside the lasso.
+	 *
+	 * @return the contained clusterables
+	 */
+	public List<IdragClusterable> getContained(){
+		List<IdragClusterable> contained = new ArrayList<IdragClusterable>();
+		for (int i = 0; i < clusterables.length; i++) {
+			if ((winding[i] & 1) != 0){
+				contained.add(clusterables[i]);
+			}
+		}
+		return contained;
+	}
+
+}
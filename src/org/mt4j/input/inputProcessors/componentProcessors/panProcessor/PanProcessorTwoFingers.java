@@ -144,8 +144,9 @@ public class PanProcessorTwoFingers extends AbstractCursorProcessor {
 			InputCursor leftOverCursor = (lockedCursors.get(0).equals(m))? lockedCursors.get(1) : lockedCursors.get(0);
 			
 			lockedCursors.remove(m);
-			if (unUsedCursors.size() > 0){ //Check if there are other cursors we could use for scaling if one was removed
-				InputCursor futureCursor = unUsedCursors.get(0);
+			//Check if there are other cursors we could use for scaling if one was removed
+			InputCursor futureCursor = this.getPartnerCursor(leftOverCursor, unUsedCursors);
+			if (futureCursor != null){
 				if (this.canLock(futureCursor)){ //check if we have priority to lock another cursor and use it
 					float newDistance = Vector3D.distance(
 							new Vector3D(leftOverCursor.getCurrentEvent().getPosX(), leftOverCursor.getCurrentEvent().getPosY(),0),
@@ -225,9 +226,10 @@ public class PanProcessorTwoFingers extends AbstractCursorProcessor {
 		}
 		
 		if (unUsedCursors.contains(m)){ //should always be true here!?
-			if (unUsedCursors.size() >= 2){ //we can try to resume the gesture
-				InputCursor firstCursor = unUsedCursors.get(0);
-				InputCursor secondCursor = unUsedCursors.get(1);
+			InputCursor[] pair = this.getCursorPair(unUsedCursors);
+			if (pair != null){ //we can try to resume the gesture
+				InputCursor firstCursor = pair[0];
+				InputCursor secondCursor = pair[1];
 
 				//See if we can obtain a lock on both cursors
 				if (this.canLock(firstCursor, secondCursor)){
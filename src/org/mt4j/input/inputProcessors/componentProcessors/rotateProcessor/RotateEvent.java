@@ -66,6 +66,36 @@ public class RotateEvent extends MTGestureEvent {
 		this.rotationPoint = rotationPoint;
 		this.rotationDegrees = rotationDegrees;
 	}
+	
+	
+	/**
+	 * Reinitializes the reused event with new values.
+	 * 
+	 * @param id the id
+	 * @param targetComponent the target component
+	 * @param firstFingerMotion the first finger motion
+	 * @param secondFingerMotion the second finger motion
+	 * @param translationVector the translation vector
+	 * @param rotationPoint the rotation point
+	 * @param rotationDegrees the rotation degrees
+	 */
+	void reset(int id, IMTComponent3D targetComponent, InputCursor firstFingerMotion, InputCursor secondFingerMotion, Vector3D translationVector, Vector3D rotationPoint, float rotationDegrees) {
+		this.reinitialize(this.getSource(), id, targetComponent);
+		this.firstFingerMotion = firstFingerMotion;
+		this.secondFingerMotion = secondFingerMotion;
+		this.translationVector = translationVector;
+		this.rotationPoint = rotationPoint;
+		this.rotationDegrees = rotationDegrees;
+	}
+	
+	
+	@Override
+	protected MTGestureEvent copy() {
+		RotateEvent copy = new RotateEvent(this.getSource(), this.getId(), this.getTargetComponent(), firstFingerMotion, secondFingerMotion, 
+				translationVector.getCopy(), rotationPoint.getCopy(), rotationDegrees);
+		copy.copyTimeStamps(this);
+		return copy;
+	}
 
 	/**
 	 * Gets the first finger motion.
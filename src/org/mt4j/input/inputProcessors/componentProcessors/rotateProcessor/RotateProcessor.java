@@ -51,6 +51,9 @@ public class RotateProcessor extends AbstractCursorProcessor {
 	
 	/** The rc. */
 	private RotationContext rc;
+
+	/** The event reused for all GESTURE_UPDATED events. */
+	private RotateEvent updateEvent;
 	
 	/** The drag plane normal. */
 	private Vector3D dragPlaneNormal;
@@ -113,8 +116,22 @@ public class RotateProcessor extends AbstractCursorProcessor {
 		IMTComponent3D comp = positionEvent.getTargetComponent();
 		if (lockedCursors.size() == 2 && lockedCursors.contains(m)){
 			float rotationAngleDegrees = rc.updateAndGetRotationAngle(m);
-			this.fireGestureEvent(new RotateEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, rc.getPinFingerCursor(), rc.getRotateFingerCursor(), Vector3D.ZERO_VECTOR, rc.getRotationPoint(), rotationAngleDegrees));
+			this.fireUpdateEvent(comp, rc.getPinFingerCursor(), rc.getRotateFingerCursor(), Vector3D.ZERO_VECTOR, rc.getRotationPoint(), rotationAngleDegrees);
+		}
+	}
+
+	
+	/**
+	 * Fires a GESTURE_UPDATED event. The same event instance is reused for all updates.
+	 */
+	private void fireUpdateEvent(IMTComponent3D comp, InputCursor firstCursor, InputCursor secondCursor, Vector3D translation, Vector3D rotationPoint, float degrees){
+		if (updateEvent == null){
+			updateEvent = new RotateEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, firstCursor, secondCursor, translation, rotationPoint, degrees);
+			updateEvent.setReused(true);
+		}else{
+			updateEvent.reset(MTGestureEvent.GESTURE_UPDATED, comp, firstCursor, secondCursor, translation, rotationPoint, degrees);
 		}
+		this.fireGestureEvent(updateEvent);
 	}
 
 
@@ -137,8 +154,9 @@ public class RotateProcessor extends AbstractCursorProcessor {
 			lockedCursors.remove(m);
 			InputCursor leftOverCursor = lockedCursors.get(0);
 			
-			if (unUsedCursors.size() > 0){ //Check if there are other cursors we could use for scaling if one was removed
-				InputCursor futureCursor = unUsedCursors.get(0);
+			//Check if there are other cursors we could use for scaling if one was removed
+			InputCursor futureCursor = this.getPartnerCursor(leftOverCursor, unUsedCursors);
+			if (futureCursor != null){
 				if (this.canLock(futureCursor)){ //check if we have priority to claim another cursor and use it
 					RotationContext newContext = new RotationContext(futureCursor, leftOverCursor, comp);
 					if (!newContext.isGestureAborted()){
@@ -216,9 +234,10 @@ public class RotateProcessor extends AbstractCursorProcessor {
 		}
 		
 		if (unUsedCursors.contains(m)){ //should always be true here!?
-			if (unUsedCursors.size() >= 2){ //we can try to resume the gesture
-				InputCursor firstCursor = unUsedCursors.get(0);
-				InputCursor secondCursor = unUsedCursors.get(1);
+			InputCursor[] pair = this.getCursorPair(unUsedCursors);
+			if (pair != null){ //we can try to resume the gesture
+				InputCursor firstCursor = pair[0];
+				InputCursor secondCursor = pair[1];
 
 				//See if we can obtain a lock on both cursors
 				if (this.canLock(firstCursor, secondCursor)){
@@ -71,6 +71,38 @@ public class ScaleEvent extends MTGestureEvent{
 		this.scaleFactorZ = scaleFactorZ;
 		this.scalingPoint = scalingPoint;
 	}
+	
+	
+	/**
+	 * Reinitializes the reused event with new values.
+	 * 
+	 * @param id the id
+	 * @param scalingObject the scaling object
+	 * @param firstCursor the first cursor
+	 * @param secondCursor the second cursor
+	 * @param scaleFactorX the scale factor x
+	 * @param scaleFactorY the scale factor y
+	 * @param scaleFactorZ the scale factor z
+	 * @param scalingPoint the scaling point
+	 */
+	void reset(int id, IMTComponent3D scalingObject, InputCursor firstCursor, InputCursor secondCursor, float scaleFactorX, float scaleFactorY, float scaleFactorZ, Vector3D scalingPoint) {
+		this.reinitialize(this.getSource(), id, scalingObject);
+		this.firstCursor = firstCursor;
+		this.secondCursor = secondCursor;
+		this.scaleFactorX = scaleFactorX;
+		this.scaleFactorY = scaleFactorY;
+		this.scaleFactorZ = scaleFactorZ;
+		this.scalingPoint = scalingPoint;
+	}
+	
+	
+	@Override
+	protected MTGestureEvent copy() {
+		ScaleEvent copy = new ScaleEvent(this.getSource(), this.getId(), this.getTargetComponent(), firstCursor, secondCursor, 
+				scaleFactorX, scaleFactorY, scaleFactorZ, scalingPoint.getCopy());
+		copy.copyTimeStamps(this);
+		return copy;
+	}
 
 	/**
 	 * Gets the scale factor x.
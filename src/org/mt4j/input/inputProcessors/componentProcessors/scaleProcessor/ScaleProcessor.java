@@ -51,6 +51,9 @@ public class ScaleProcessor extends AbstractCursorProcessor {
 	
 	/** The scale context. */
 	private ScaleContext sc;
+
+	/** The event reused for all GESTURE_UPDATED events. */
+	private ScaleEvent updateEvent;
 	
 	
 	
@@ -114,14 +117,28 @@ public class ScaleProcessor extends AbstractCursorProcessor {
 			float newFactor = sc.getUpdatedScaleFactor(m);
 			//Use the other cursor as the scaling point
 			if (m.equals(sc.getFirstFingerCursor())){
-				this.fireGestureEvent(new ScaleEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, sc.getFirstFingerCursor(), sc.getSecondFingerCursor(), newFactor, newFactor, 1, sc.getSecondFingerNewPos()));
+				this.fireUpdateEvent(comp, sc.getFirstFingerCursor(), sc.getSecondFingerCursor(), newFactor, sc.getSecondFingerNewPos());
 			}else{
-				this.fireGestureEvent(new ScaleEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, sc.getFirstFingerCursor(), sc.getSecondFingerCursor(), newFactor, newFactor, 1, sc.getFirstFingerNewPos()));
+				this.fireUpdateEvent(comp, sc.getFirstFingerCursor(), sc.getSecondFingerCursor(), newFactor, sc.getFirstFingerNewPos());
 			}
 		}
 	}
 
 	
+	/**
+	 * Fires a GESTURE_UPDATED event. The same event instance is reused for all updates.
+	 */
+	private void fireUpdateEvent(IMTComponent3D comp, InputCursor firstCursor, InputCursor secondCursor, float factor, Vector3D scalingPoint){
+		if (updateEvent == null){
+			updateEvent = new ScaleEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, firstCursor, secondCursor, factor, factor, 1, scalingPoint);
+			updateEvent.setReused(true);
+		}else{
+			updateEvent.reset(MTGestureEvent.GESTURE_UPDATED, comp, firstCursor, secondCursor, factor, factor, 1, scalingPoint);
+		}
+		this.fireGestureEvent(updateEvent);
+	}
+
+	
 	
 	@Override
 	public void cursorEnded(InputCursor m, MTFingerInputEvt fEvt) {
@@ -143,8 +160,9 @@ public class ScaleProcessor extends AbstractCursorProcessor {
 			lockedCursors.remove(m);
 			InputCursor leftOverCursor = lockedCursors.get(0);
 			
-			if (unUsedCursors.size() > 0){ //Check if there are other cursors we could use for scaling if one was removed
-				InputCursor futureCursor = unUsedCursors.get(0);
+			//Check if there are other cursors we could use for scaling if one was removed
+			InputCursor futureCursor = this.getPartnerCursor(leftOverCursor, unUsedCursors);
+			if (futureCursor != null){
 				if (this.canLock(futureCursor)){ //check if we have priority to claim another cursor and use it
 					ScaleContext newContext = new ScaleContext(futureCursor, leftOverCursor, comp);
 					if (!newContext.isGestureAborted()){
@@ -220,9 +238,10 @@ public class ScaleProcessor extends AbstractCursorProcessor {
 		}
 		
 		if (unUsedCursors.contains(m)){ //should always be true here!?
-			if (unUsedCursors.size() >= 2){ //we can try to resume the gesture
-				InputCursor firstCursor = unUsedCursors.get(0);
-				InputCursor secondCursor = unUsedCursors.get(1);
+			InputCursor[] pair = this.getCursorPair(unUsedCursors);
+			if (pair != null){ //we can try to resume the gesture
+				InputCursor firstCursor = pair[0];
+				InputCursor secondCursor = pair[1];
 
 				if (this.canLock(firstCursor, secondCursor)){
 					IMTComponent3D comp = firstCursor.getFirstEvent().getTargetComponent();
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 
 import org.mt4j.components.MTCanvas;
 import org.mt4j.components.interfaces.IMTComponent3D;
+import org.mt4j.input.TimerWheel;
 import org.mt4j.input.inputData.InputCursor;
 import org.mt4j.input.inputData.MTFingerInputEvt;
 import org.mt4j.input.inputProcessors.IInputProcessor;
@@ -41,6 +42,9 @@ import processing.core.PApplet;
  */
 public class TapAndHoldProcessor extends AbstractCursorProcessor {
 	
+	/** The default time between the update events in ms. */
+	public static final int DEFAULT_UPDATE_INTERVAL = 16;
+	
 	/** The applet. */
 	private PApplet applet;
 	
@@ -62,6 +66,12 @@ public class TapAndHoldProcessor extends AbstractCursorProcessor {
 	/** The tap time. */
 	private int holdTime;
 	
+	/** The time between the update events in ms. */
+	private int updateInterval;
+	
+	/** The timeout which updates and ends the gesture. */
+	private TimerWheel.Timeout holdTimeout;
+	
 	//TODO atm this only allows 1 tap on 1 component
 	//if we want more we have to do different (save each cursor to each start time etc, dont relock other cursors)
 	
@@ -85,6 +95,12 @@ public class TapAndHoldProcessor extends AbstractCursorProcessor {
 		
 		this.maxFingerUpDist = 17.0f;
 		this.holdTime = duration;
+		this.updateInterval = DEFAULT_UPDATE_INTERVAL;
+		this.holdTimeout = TimerWheel.getInstance().createTimeout(new Runnable() {
+			public void run() {
+				update();
+			}
+		});
 		
 		this.unUsedCursors 	= new ArrayList<InputCursor>();
 		this.lockedCursors 	= new ArrayList<InputCursor>();
@@ -112,11 +128,7 @@ public class TapAndHoldProcessor extends AbstractCursorProcessor {
 					
 					this.fireGestureEvent(new TapAndHoldEvent(this, MTGestureEvent.GESTURE_DETECTED, positionEvent.getTargetComponent(), c, false, new Vector3D(c.getCurrentEvent().getPosX(), c.getCurrentEvent().getPosY(), 0), this.holdTime, 0, 0));
 					
-					try {
-						applet.registerPre(this);
-					} catch (Exception e) {
-						System.err.println(e.getMessage());
-					}
+					TimerWheel.getInstance().schedule(holdTimeout, Math.min(updateInterval, holdTime));
 				}else{
 					unUsedCursors.add(c);
 				}
@@ -127,13 +139,13 @@ public class TapAndHoldProcessor extends AbstractCursorProcessor {
 	}
 
 	//problem: mouse does only send update evt if mouse is actually dragged
-	//idea: registerPre and check if we have  alocked cursor and the times is up
-	//then do the checking
+	//so we schedule a timeout which fires the updates and checks if the time is up
 	
 	/**
-	 * Pre.
+	 * Fires the update event or ends the gesture if the hold time is up.
+	 * <br>Is called by the hold timeout on the <code>TimerWheel</code>.
 	 */
-	public void pre(){
+	private void update(){
 		if (lockedCursors.size() == 1){
 			IMTComponent3D comp = lockedCursors.get(0).getCurrentEvent().getTargetComponent();
 			InputCursor c = lockedCursors.get(0).getCurrentEvent().getCursor();
@@ -158,13 +170,10 @@ public class TapAndHoldProcessor extends AbstractCursorProcessor {
 				}
 				lockedCursors.remove(c);
 				this.unLock(c); 
-				try {
-					applet.unregisterPre(this);
-				} catch (Exception e) {
-					System.err.println(e.getMessage());
-				}
+				holdTimeout.cancel();
 			}else{
 				this.fireGestureEvent(new TapAndHoldEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, c, false, screenPos, this.holdTime, elapsedTime, normalized));
+				TimerWheel.getInstance().schedule(holdTimeout, Math.min(updateInterval, holdTime - elapsedTime));
 			}
 		}
 	}
@@ -186,11 +195,7 @@ public class TapAndHoldProcessor extends AbstractCursorProcessor {
 				logger.debug("DISTANCE TOO FAR OR NO INTERSECTION");
 				lockedCursors.remove(c);
 				this.unLock(c); 
-				try {
-					applet.unregisterPre(this);
-				} catch (Exception e) {
-					System.err.println(e.getMessage());
-				}
+				holdTimeout.cancel();
 				this.fireGestureEvent(new TapAndHoldEvent(this, MTGestureEvent.GESTURE_ENDED, comp, c, false, screenPos, this.holdTime, elapsedTime, normalized));
 			}
 		}
@@ -222,20 +227,12 @@ public class TapAndHoldProcessor extends AbstractCursorProcessor {
 				}else{
 					//Other cursor has higher prior -> end this gesture
 					this.fireGestureEvent(new TapAndHoldEvent(this, MTGestureEvent.GESTURE_ENDED, c.getCurrentEvent().getTargetComponent(), c, false,  new Vector3D(c.getCurrentEvent().getPosX(), c.getCurrentEvent().getPosY(), 0), this.holdTime, elapsedTime, normalized));
-					try {
-						applet.unregisterPre(this);
-					} catch (Exception e) {
-						System.err.println(e.getMessage());
-					}
+					holdTimeout.cancel();
 				}
 			}else{
 				//We have no other cursor to continure gesture -> end
 				this.fireGestureEvent(new TapAndHoldEvent(this, MTGestureEvent.GESTURE_ENDED, c.getCurrentEvent().getTargetComponent(), c, false,  new Vector3D(c.getCurrentEvent().getPosX(), c.getCurrentEvent().getPosY(), 0), this.holdTime, elapsedTime, normalized));
-				try {
-					applet.unregisterPre(this);
-				} catch (Exception e) {
-					System.err.println(e.getMessage());
-				}
+				holdTimeout.cancel();
 			}
 			this.unLock(c); 
 		}else{ //cursor was not used here
@@ -266,11 +263,7 @@ public class TapAndHoldProcessor extends AbstractCursorProcessor {
 			
 			this.fireGestureEvent(new TapAndHoldEvent(this, MTGestureEvent.GESTURE_ENDED, c.getCurrentEvent().getTargetComponent(), c, false, new Vector3D(c.getCurrentEvent().getPosX(), c.getCurrentEvent().getPosY(), 0), this.holdTime, elapsedTime, normalized));
 			
-			try {
-				applet.unregisterPre(this);
-			} catch (Exception e) {
-				System.err.println(e.getMessage());
-			}
+			holdTimeout.cancel();
 			
 			unUsedCursors.add(c);
 			logger.debug(this.getName() + " cursor:" + c.getId() + " MOTION LOCKED. Was an active cursor in this gesture!");
@@ -358,6 +351,26 @@ public class TapAndHoldProcessor extends AbstractCursorProcessor {
 	public void setHoldTime(int tapTime) {
 		this.holdTime = tapTime;
 	}
+	
+	
+	/**
+	 * Gets the time (in ms.) between the update events of a gesture in progress.
+	 * 
+	 * @return the update interval
+	 */
+	public int getUpdateInterval() {
+		return this.updateInterval;
+	}
+	
+	
+	/**
+	 * Sets the time (in ms.) between the update events of a gesture in progress.
+	 * 
+	 * @param updateInterval the new update interval
+	 */
+	public void setUpdateInterval(int updateInterval) {
+		this.updateInterval = updateInterval;
+	}
 
 
 
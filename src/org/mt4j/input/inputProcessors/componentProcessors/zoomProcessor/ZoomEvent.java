@@ -60,6 +60,33 @@ public class ZoomEvent extends MTGestureEvent {
 		this.camZoomAmount = camZoomAmount;
 		this.camera = camera;
 	}
+	
+	
+	/**
+	 * Reinitializes the reused event with new values.
+	 * 
+	 * @param id the id
+	 * @param targetComponent the target component
+	 * @param firstCursor the first cursor
+	 * @param secondCursor the second cursor
+	 * @param camZoomAmount the cam zoom amount
+	 * @param camera the camera
+	 */
+	void reset(int id, IMTComponent3D targetComponent, InputCursor firstCursor, InputCursor secondCursor, float camZoomAmount, Icamera camera) {
+		this.reinitialize(this.getSource(), id, targetComponent);
+		this.firstCursor = firstCursor;
+		this.secondCursor = secondCursor;
+		this.camZoomAmount = camZoomAmount;
+		this.camera = camera;
+	}
+	
+	
+	@Override
+	protected MTGestureEvent copy() {
+		ZoomEvent copy = new ZoomEvent(this.getSource(), this.getId(), this.getTargetComponent(), firstCursor, secondCursor, camZoomAmount, camera);
+		copy.copyTimeStamps(this);
+		return copy;
+	}
 
 	/**
 	 * Gets the cam zoom amount.
@@ -54,6 +54,9 @@ public class ZoomProcessor extends AbstractCursorProcessor {
 	
 	/** The locked motions. */
 	private List<InputCursor> lockedMotions;
+
+	/** The event reused for all GESTURE_UPDATED events. */
+	private ZoomEvent updateEvent;
 	
 	/**
 	 * Instantiates a new zoom processor.
@@ -123,17 +126,27 @@ public class ZoomProcessor extends AbstractCursorProcessor {
 		if (lockedMotions.size() == 2 && lockedMotions.contains(m)){
 			InputCursor firstMotion = lockedMotions.get(0);
 			InputCursor secondMotion = lockedMotions.get(1);
-			float fingerDistance = Vector3D.distance(
-					new Vector3D(firstMotion.getCurrentEvent().getPosX(), firstMotion.getCurrentEvent().getPosY(), 0),
-					new Vector3D(secondMotion.getCurrentEvent().getPosX(), secondMotion.getCurrentEvent().getPosY(), 0));
+			float dx = secondMotion.getCurrentEvent().getPosX() - firstMotion.getCurrentEvent().getPosX();
+			float dy = secondMotion.getCurrentEvent().getPosY() - firstMotion.getCurrentEvent().getPosY();
+			float fingerDistance = (float)Math.sqrt(dx*dx + dy*dy);
 			float camZoomAmount = fingerDistance - oldDistance;
 			oldDistance = fingerDistance;
-			if (m.equals(firstMotion)){
-				this.fireGestureEvent(new ZoomEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, firstMotion, secondMotion, camZoomAmount, comp.getViewingCamera()));
-			}else{
-				this.fireGestureEvent(new ZoomEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, firstMotion, secondMotion, camZoomAmount, comp.getViewingCamera()));
-			}
+			this.fireUpdateEvent(comp, firstMotion, secondMotion, camZoomAmount);
+		}
+	}
+
+	
+	/**
+	 * Fires a GESTURE_UPDATED event. The same event instance is reused for all updates.
+	 */
+	private void fireUpdateEvent(IMTComponent3D comp, InputCursor firstMotion, InputCursor secondMotion, float camZoomAmount){
+		if (updateEvent == null){
+			updateEvent = new ZoomEvent(this, MTGestureEvent.GESTURE_UPDATED, comp, firstMotion, secondMotion, camZoomAmount, comp.getViewingCamera());
+			updateEvent.setReused(true);
+		}else{
+			updateEvent.reset(MTGestureEvent.GESTURE_UPDATED, comp, firstMotion, secondMotion, camZoomAmount, comp.getViewingCamera());
 		}
+		this.fireGestureEvent(updateEvent);
 	}
 
 	@Override
@@ -45,8 +45,11 @@ public abstract class AbstractGlobalInputProcessor implements IinputSourceListen
 		logger.addAppender(ca);
 	}
 	
+	/** Counts the changes of the disabled state of all global input processors. */
+	private static volatile int dispatchModCount = 0;
+	
 	/** if disabled. */
-	private boolean disabled;
+	private volatile boolean disabled;
 	
 	private List<IMTInputEventListener> inputListeners;
 	
@@ -97,7 +100,36 @@ public abstract class AbstractGlobalInputProcessor implements IinputSourceListen
 	 * @param disabled the new disabled
 	 */
 	public void setDisabled(boolean disabled) {
-		this.disabled = disabled;
+		if (this.disabled != disabled){
+			this.disabled = disabled;
+			synchronized (AbstractGlobalInputProcessor.class) {
+				dispatchModCount++;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Gets the type of input events this processor processes. The input sources
+	 * only fire events of this type (and its subtypes) to the processor.
+	 * <br>Override this if the processor ignores other events.
+	 * 
+	 * @return the listen event type
+	 */
+	public Class<? extends MTInputEvent> getListenEventType(){
+		return MTInputEvent.class;
+	}
+	
+	
+	/**
+	 * Gets a counter which changes whenever a global input processor is
+	 * enabled or disabled. The input sources use it to know when they have to 
+	 * rebuild the lists of processors they fire to.
+	 * 
+	 * @return the dispatch mod count
+	 */
+	public static int getDispatchModCount(){
+		return dispatchModCount;
 	}
 
 
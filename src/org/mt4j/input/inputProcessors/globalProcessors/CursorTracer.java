@@ -27,6 +27,7 @@ import org.mt4j.components.bounds.IBoundingShape;
 import org.mt4j.components.visibleComponents.shapes.AbstractShape;
 import org.mt4j.components.visibleComponents.shapes.MTEllipse;
 import org.mt4j.components.visibleComponents.widgets.MTOverlayContainer;
+import org.mt4j.input.InputProcessingThread;
 import org.mt4j.input.inputData.AbstractCursorInputEvt;
 import org.mt4j.input.inputData.InputCursor;
 import org.mt4j.input.inputData.MTInputEvent;
@@ -169,6 +170,12 @@ public class CursorTracer extends AbstractGlobalInputProcessor{
 	
 	
 
+	@Override
+	public Class<? extends MTInputEvent> getListenEventType(){
+		return AbstractCursorInputEvt.class;
+	}
+	
+	
 	/* (non-Javadoc)
 	 * @see org.mt4j.input.inputProcessors.globalProcessors.AbstractGlobalInputProcessor#processInputEvtImpl(org.mt4j.input.inputData.MTInputEvent)
 	 */
@@ -176,34 +183,56 @@ public class CursorTracer extends AbstractGlobalInputProcessor{
 	public void processInputEvtImpl(MTInputEvent inputEvent) {
 		if (inputEvent instanceof AbstractCursorInputEvt) {
 			AbstractCursorInputEvt cursorEvt = (AbstractCursorInputEvt)inputEvent;
-			InputCursor c = ((AbstractCursorInputEvt)inputEvent).getCursor();
-			Vector3D position = new Vector3D(cursorEvt.getPosX(), cursorEvt.getPosY());
-
-			AbstractShape displayShape = null;
-			switch (cursorEvt.getId()) {
-			case AbstractCursorInputEvt.INPUT_DETECTED:
-				displayShape = createDisplayComponent(app, position);
-				cursorIDToDisplayShape.put(c, displayShape);
-				overlayGroup.addChild(displayShape);
-				
+			final InputCursor c = ((AbstractCursorInputEvt)inputEvent).getCursor();
+			final Vector3D position = new Vector3D(cursorEvt.getPosX(), cursorEvt.getPosY());
+			final int evtId = cursorEvt.getId();
+			
+			if (InputProcessingThread.isInputThread()){
+				//Dont modify the scene from the input thread
+				InputProcessingThread.runOnRenderThread(new Runnable() {
+					public void run() {
+						updateDisplayShape(evtId, c, position);
+					}
+				});
+			}else{
+				this.updateDisplayShape(evtId, c, position);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Creates, moves or removes the display shape of the cursor.
+	 * 
+	 * @param evtId the input event id
+	 * @param c the cursor
+	 * @param position the position
+	 */
+	private void updateDisplayShape(int evtId, InputCursor c, Vector3D position){
+		AbstractShape displayShape = null;
+		switch (evtId) {
+		case AbstractCursorInputEvt.INPUT_DETECTED:
+			displayShape = createDisplayComponent(app, position);
+			cursorIDToDisplayShape.put(c, displayShape);
+			overlayGroup.addChild(displayShape);
+			
 //				compToCreationTime.put(displayShape, System.currentTimeMillis()); //FIXME REMOVE
 //				displayShape.setUserData("Cursor", c);//FIXME REMOVE
-				break;
-			case AbstractCursorInputEvt.INPUT_UPDATED:
-				displayShape = cursorIDToDisplayShape.get(c);
-				if (displayShape != null){
-					displayShape.setPositionGlobal(position);
-				}
-				break;
-			case AbstractCursorInputEvt.INPUT_ENDED:
-				displayShape = cursorIDToDisplayShape.remove(c);
-				if (displayShape != null){
-					displayShape.destroy();
-				}
-				break;
-			default:
-				break;
+			break;
+		case AbstractCursorInputEvt.INPUT_UPDATED:
+			displayShape = cursorIDToDisplayShape.get(c);
+			if (displayShape != null){
+				displayShape.setPositionGlobal(position);
+			}
+			break;
+		case AbstractCursorInputEvt.INPUT_ENDED:
+			displayShape = cursorIDToDisplayShape.remove(c);
+			if (displayShape != null){
+				displayShape.destroy();
 			}
+			break;
+		default:
+			break;
 		}
 	}
 }
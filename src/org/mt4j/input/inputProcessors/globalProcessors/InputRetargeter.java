@@ -17,14 +17,12 @@
  ***********************************************************************/
 package org.mt4j.input.inputProcessors.globalProcessors;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.mt4j.components.interfaces.IMTComponent3D;
 import org.mt4j.input.IHitTestInfoProvider;
 import org.mt4j.input.inputData.AbstractCursorInputEvt;
 import org.mt4j.input.inputData.InputCursor;
 import org.mt4j.input.inputData.MTInputEvent;
+import org.mt4j.util.LongHashMap;
 
 /**
  * The Class InputRetargeter. This global input analyzer is automatically created with each new scene and listens
@@ -37,7 +35,8 @@ import org.mt4j.input.inputData.MTInputEvent;
  * @author Christopher Ruff
  */
 public class InputRetargeter extends AbstractGlobalInputProcessor {
-	private Map<InputCursor, IMTComponent3D> motionToObjectMap;
+	/** The targets of the active cursors by cursor id. */
+	private LongHashMap<IMTComponent3D> motionToObjectMap;
 	
 	/** The app info provider. */
 	private IHitTestInfoProvider appInfoProvider;
@@ -45,10 +44,16 @@ public class InputRetargeter extends AbstractGlobalInputProcessor {
 	public InputRetargeter(IHitTestInfoProvider appInfoProvider) {
 		super();
 		this.appInfoProvider = appInfoProvider;
-		this.motionToObjectMap = new HashMap<InputCursor, IMTComponent3D>();
+		this.motionToObjectMap = new LongHashMap<IMTComponent3D>();
 	}
 
 
+	@Override
+	public Class<? extends MTInputEvent> getListenEventType(){
+		return AbstractCursorInputEvt.class;
+	}
+	
+	
 	public void processInputEvtImpl(MTInputEvent inputEvent) {
 		if (inputEvent instanceof AbstractCursorInputEvt) {
 			AbstractCursorInputEvt posEvt = (AbstractCursorInputEvt) inputEvent;
@@ -61,17 +66,19 @@ public class InputRetargeter extends AbstractGlobalInputProcessor {
 				//Check if there is an object under the cursor and save it to a hashtable with the event if so
 				IMTComponent3D obj = appInfoProvider.getComponentAt(posEvt.getPosX(), posEvt.getPosY());
 				if (obj != null){
-					motionToObjectMap.put(m, obj);
+					motionToObjectMap.put(m.getId(), obj);
 					posEvt.setTargetComponent(obj);
+					posEvt.stampStage(MTInputEvent.STAGE_RETARGETED);
 					this.fireInputEvent(posEvt);
 				}
 			}
 			break;
 			case AbstractCursorInputEvt.INPUT_UPDATED:{
 //				logger.debug("Finger UPDATE-> " + " ID:" + posEvt.getId() + "; X:" + posEvt.getPositionX() + " Y:" + posEvt.getPositionY() + "; Source: " + posEvt.getSource());
-				IMTComponent3D associatedObj = motionToObjectMap.get(m);
+				IMTComponent3D associatedObj = motionToObjectMap.get(m.getId());
 				if (associatedObj != null){
 					posEvt.setTargetComponent(associatedObj);
+					posEvt.stampStage(MTInputEvent.STAGE_RETARGETED);
 					this.fireInputEvent(posEvt);
 				}
 			}
@@ -79,9 +86,10 @@ public class InputRetargeter extends AbstractGlobalInputProcessor {
 			case AbstractCursorInputEvt.INPUT_ENDED:{
 //				logger.debug("Finger UP-> " + " ID:" + posEvt.getId() + "; X:" + posEvt.getPositionX() + " Y:" + posEvt.getPositionY() + "; Source: " + posEvt.getSource());
 //				IMTComponent3D associatedObj = motionToObjectMap.get(m);
-				IMTComponent3D associatedObj = motionToObjectMap.remove(m);
+				IMTComponent3D associatedObj = motionToObjectMap.remove(m.getId());
 				if (associatedObj != null){
 					posEvt.setTargetComponent(associatedObj);
+					posEvt.stampStage(MTInputEvent.STAGE_RETARGETED);
 					this.fireInputEvent(posEvt);
 //					motionToObjectMap.remove(m);
 				}
@@ -27,6 +27,11 @@ import org.mt4j.input.inputData.MTInputEvent;
  * @author Christopher Ruff
  */
 public class RawFiducialProcessor extends AbstractGlobalInputProcessor {
+	
+	@Override
+	public Class<? extends MTInputEvent> getListenEventType(){
+		return MTFiducialInputEvt.class;
+	}
 
 	/* (non-Javadoc)
 	 * @see org.mt4j.input.inputProcessors.globalProcessors.AbstractGlobalInputProcessor#processInputEvtImpl(org.mt4j.input.inputData.MTInputEvent)
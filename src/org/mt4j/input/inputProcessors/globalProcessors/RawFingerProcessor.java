@@ -32,6 +32,11 @@ import org.mt4j.input.inputData.MTInputEvent;
  */
 public class RawFingerProcessor extends AbstractGlobalInputProcessor {
 	
+	@Override
+	public Class<? extends MTInputEvent> getListenEventType(){
+		return MTFingerInputEvt.class;
+	}
+	
 	public void processInputEvtImpl(MTInputEvent inputEvent){ 
 //		MTFingerInputEvt touchEvt = (MTFingerInputEvt)inputEvent;
 		
@@ -18,14 +18,20 @@
 package org.mt4j.input.inputSources;
 
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.mt4j.MTApplication;
+import org.mt4j.input.IMTInputEventListener;
+import org.mt4j.input.InputProcessingThread;
+import org.mt4j.input.inputData.AbstractCursorInputEvt;
+import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputData.InputEventPool;
 import org.mt4j.input.inputData.MTInputEvent;
+import org.mt4j.input.inputProcessors.globalProcessors.AbstractGlobalInputProcessor;
+import org.mt4j.util.LongHashMap;
 
 
 /**
@@ -36,15 +42,46 @@ import org.mt4j.input.inputData.MTInputEvent;
  */
 public abstract class AbstractInputSource {
 	
-	/** The input listeners. */
-	private List<IinputSourceListener> inputListeners;
+	/** The empty listener array. */
+	private static final IinputSourceListener[] NO_LISTENERS = new IinputSourceListener[0];
 	
-	/** The event queue. */
-	private Deque<MTInputEvent> eventQueue;
+	/** The input listeners. Replaced by a new array on every change, never modified. */
+	private volatile IinputSourceListener[] inputListeners;
+	
+	/** The event queue. Filled by the input threads, drained by the render thread. */
+	private Queue<MTInputEvent> eventQueue;
+	
+	/** Whether only the latest update event of a cursor is fired per flush. */
+	private boolean coalescingUpdates;
+	
+	/** The events of the current flush, used when coalescing. */
+	private List<MTInputEvent> flushBatch;
+	
+	/** The latest update event per cursor ID of the current flush, used when coalescing. */
+	private LongHashMap<MTInputEvent> latestUpdates;
+	
+	/** The index of the next event of the current flush to fire, used when coalescing. */
+	private int flushBatchIndex;
+	
+	/** Whether a coalesced flush is in progress. */
+	private boolean flushingBatch;
+	
+	/** The events fired since the last frame, only kept if stage stamps are enabled. */
+	private List<MTInputEvent> eventsAwaitingRender;
+	
+	/** The ended cursors whose events are recycled after the next frame, if stage stamps are enabled. */
+	private List<InputCursor> cursorsAwaitingRecycle;
+	
+	/** The listeners informed when an event has been rendered. */
+	private List<IMTInputEventListener> renderedEventListeners;
 	
 	private MTApplication app;
 	
-	private List<IinputSourceListener> inputProcessorsToFireTo;
+	/** The listeners the current flush fires to. */
+	private DispatchTable inputProcessorsToFireTo;
+	
+	/** The number of events the cursors created by this source keep. */
+	private int eventHistoryDepth;
 	
 	/**
 	 * Instantiates a new abstract input source.
@@ -52,17 +89,72 @@ public abstract class AbstractInputSource {
 	 * @param applet the applet
 	 */
 	public AbstractInputSource(MTApplication mtApp) {
-		this.inputListeners = new ArrayList<IinputSourceListener>();
-		this.eventQueue 	= new ArrayDeque<MTInputEvent>(20);
+		this.inputListeners = NO_LISTENERS;
+		this.eventQueue 	= new ConcurrentLinkedQueue<MTInputEvent>();
+		this.coalescingUpdates = false;
+		this.flushBatch 	= new ArrayList<MTInputEvent>(20);
+		this.latestUpdates 	= new LongHashMap<MTInputEvent>();
+		this.eventsAwaitingRender 	= new ArrayList<MTInputEvent>();
+		this.cursorsAwaitingRecycle = new ArrayList<InputCursor>();
+		this.renderedEventListeners = new ArrayList<IMTInputEventListener>();
 		
 		this.app = mtApp;
 		
 		app.registerPre(this);
 		
-		inputProcessorsToFireTo = new ArrayList<IinputSourceListener>(10);
+		inputProcessorsToFireTo = null;
+		
+		eventHistoryDepth = InputCursor.DEFAULT_EVENT_HISTORY_DEPTH;
 	} 
 	
 	
+	/**
+	 * Sets the number of events that the cursors created by this input source
+	 * keep in their history. Only affects cursors created afterwards.
+	 * 
+	 * @param eventHistoryDepth the event history depth
+	 */
+	public void setEventHistoryDepth(int eventHistoryDepth){
+		if (eventHistoryDepth < 1){
+			throw new IllegalArgumentException("The event history depth has to be at least 1: " + eventHistoryDepth);
+		}
+		this.eventHistoryDepth = eventHistoryDepth;
+	}
+	
+	/**
+	 * Gets the number of events that the cursors created by this input source
+	 * keep in their history.
+	 * 
+	 * @return the event history depth
+	 */
+	public int getEventHistoryDepth(){
+		return this.eventHistoryDepth;
+	}
+	
+	
+	/**
+	 * Sets whether only the latest <code>INPUT_UPDATED</code> event of each cursor is
+	 * fired to the input processors per flush. <code>INPUT_DETECTED</code> and 
+	 * <code>INPUT_ENDED</code> events are always fired. The skipped updates are still 
+	 * added to their cursor so the cursor history (and velocity) stays complete.
+	 * <br>Useful for sources which deliver updates faster than the frame rate.
+	 * 
+	 * @param coalescingUpdates true to coalesce updates
+	 */
+	public void setCoalescingUpdates(boolean coalescingUpdates){
+		this.coalescingUpdates = coalescingUpdates;
+	}
+	
+	/**
+	 * Checks if update events are coalesced per cursor and flush.
+	 * 
+	 * @return true, if coalescing updates
+	 */
+	public boolean isCoalescingUpdates(){
+		return this.coalescingUpdates;
+	}
+	
+	
 //	/**
 //	 * Fires event type.
 //	 * Determines if this particular input source fires the specified input event type.
@@ -80,27 +172,71 @@ public abstract class AbstractInputSource {
 	 * Queue input event for firing.
 	 * They will be fired automatically before the next frame in snychronization with
 	 * the render thread. Use this method instead of fireInputEvent()!
+	 * <br>Can be called from any thread, the queue is lock-free.
 	 * 
 	 * @param inputEvt the input evt
 	 */
 	protected void enqueueInputEvent(MTInputEvent inputEvt){ 
 //		System.out.println("ENQUEUE EVENT: Cursor: " +  ((MTFingerInputEvt)inputEvt).getCursor().getId() + " Evt-ID: " +  ((MTFingerInputEvt)inputEvt).getId());
-		this.eventQueue.addLast(inputEvt); //TODO synchronize access?
+		inputEvt.stampStage(MTInputEvent.STAGE_QUEUED);
+		this.eventQueue.offer(inputEvt);
+		
+		InputProcessingThread inputThread = app.getInputThread();
+		if (inputThread != null){
+			inputThread.inputAvailable();
+		}
 	}
 	
 	
 	
 	/**
 	 * The input events have to be fired in processings (and openGL's) thread.
+	 * <br>If the application uses an input processing thread, that thread 
+	 * polls and flushes the events instead.
 	 */
 	public void pre(){
+		if (app.getInputThread() == null){
+			this.pollAndFlushEvents();
+		}
+	}
+	
+	
+	/**
+	 * Polls new input from sources that have to ask for it and flushes the queued events.
+	 * <p>NOTE: Is called before every frame or by the input processing thread.
+	 */
+	public void pollAndFlushEvents(){
+		this.pollEvents();
 		this.flushEvents();
 	}
 	
 	
+	/**
+	 * Polls new input from sources that have to ask for it and checks if events are 
+	 * waiting to be flushed.
+	 * <br>NOTE: Is called by the MTApplication instead of <code>pre()</code> while it skips idle frames.
+	 * 
+	 * @return true, if events are queued
+	 */
+	public boolean pollAndCheckEvents(){
+		if (app.getInputThread() == null){
+			this.pollEvents();
+		}
+		return !eventQueue.isEmpty();
+	}
+	
+	
+	/**
+	 * Override this to poll input and enqueue the events if the
+	 * input source doesent get notified of new input by itself.
+	 */
+	protected void pollEvents(){
+	}
+	
+	
 	/**
 	 * Flushes the events.
-	 * <p>NOTE: not threadsafe! Has to be called in the opengl thread if in opengl mode!
+	 * <p>NOTE: Must only be called by one thread at a time! Has to be called in the opengl thread if in opengl mode!
 	 */
 	public void flushEvents(){
 		/*
@@ -129,7 +265,7 @@ public abstract class AbstractInputSource {
 		}
 		*/
 		
-		if (!eventQueue.isEmpty()){
+		if (!eventQueue.isEmpty() || flushingBatch){
 //			System.out.print("START FLUSH CURSOR: " + ((MTFingerInputEvt)eventQueue.peek()).getCursor().getId() + " Evt-ID: " + ((MTFingerInputEvt)eventQueue.peek()).getId()+ " ");
 			//To ensure that all global input processors of the current scene
 			//get the queued events even if through the result of one event processing the scene
@@ -141,21 +277,17 @@ public abstract class AbstractInputSource {
 			//-> else if we disable input processors it may get delayed..
 			
 			//FIXME problem that this can get called twice - because called again in initiateScenechange
-			inputProcessorsToFireTo.clear();
-			for (IinputSourceListener listener : inputListeners){  
-				if (!listener.isDisabled()){
-					inputProcessorsToFireTo.add(listener);
-				}
-			}
+			this.updateDispatchTable();
 			
-			while (!eventQueue.isEmpty()){
-				try {
-					MTInputEvent te = eventQueue.pollFirst();
+			//A scene change while firing flushes again, then just fire the rest - 
+			//of the coalesced batch first, if there is one
+			if (coalescingUpdates || flushingBatch){
+				this.flushCoalesced();
+			}else{
+				MTInputEvent te;
+				while ((te = eventQueue.poll()) != null){
 					this.fireInputEvent(te);
-				} catch (NoSuchElementException e) {
-					e.printStackTrace();
-					//System.err.println(e.getMessage());
-				} 
+				}
 			}
 //			System.out.println("END FLUSH");
 		}
@@ -163,6 +295,163 @@ public abstract class AbstractInputSource {
 	
 	
 	
+	/**
+	 * Rebuilds the listeners to fire to if listeners were added or removed or
+	 * a global input processor was enabled or disabled since the last flush.
+	 */
+	private void updateDispatchTable(){
+		IinputSourceListener[] listeners = this.inputListeners;
+		int modCount = AbstractGlobalInputProcessor.getDispatchModCount();
+		DispatchTable table = this.inputProcessorsToFireTo;
+		if (table == null 
+			|| table.listeners != listeners 
+			|| table.modCount != modCount
+			|| table.untracked
+		){
+			this.inputProcessorsToFireTo = new DispatchTable(listeners, modCount);
+		}
+	}
+	
+	
+	/**
+	 * Fires the currently queued events, only the latest update event
+	 * of each cursor is fired, the others are just added to their cursor.
+	 * <br>If called again while firing, the queued events are appended to the batch 
+	 * and the rest of the batch is fired by the inner call, so the events stay in order.
+	 */
+	private void flushCoalesced(){
+		boolean outermost = !flushingBatch;
+		flushingBatch = true;
+		MTInputEvent te;
+		while ((te = eventQueue.poll()) != null){
+			flushBatch.add(te);
+			if (isUpdate(te)){
+				latestUpdates.put(((AbstractCursorInputEvt) te).getCursor().getId(), te);
+			}
+		}
+		
+		try {
+			while (flushBatchIndex < flushBatch.size()) {
+				te = flushBatch.get(flushBatchIndex++);
+				if (isUpdate(te) && latestUpdates.get(((AbstractCursorInputEvt) te).getCursor().getId()) != te){
+					//Superseded by a later update, only keep it in the cursor history
+					te.preFire();
+				}else{
+					this.fireInputEvent(te);
+				}
+			}
+		} finally {
+			if (outermost){
+				flushBatch.clear();
+				latestUpdates.clear();
+				flushBatchIndex = 0;
+				flushingBatch = false;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Gives the events of the cursor back to the pool - unless a listener
+	 * took the ended event off the cursor to keep it going.
+	 * If stage stamps are enabled, this is done after the next frame, when the 
+	 * ended event got its rendered stamp.
+	 * 
+	 * @param endedEvt the ended event of the cursor
+	 */
+	private void recycleEndedCursor(AbstractCursorInputEvt endedEvt){
+		InputCursor cursor = endedEvt.getCursor();
+		if (cursor.getCurrentEvent() != endedEvt){
+			return;
+		}
+		if (MTInputEvent.isStageStampsEnabled()){
+			synchronized (eventsAwaitingRender) {
+				cursorsAwaitingRecycle.add(cursor);
+			}
+		}else{
+			InputEventPool.getInstance().recycleEvents(cursor);
+		}
+	}
+	
+	
+	/**
+	 * Checks if the event is a cursor update which can be coalesced.
+	 * 
+	 * @param te the te
+	 * 
+	 * @return true, if update
+	 */
+	private boolean isUpdate(MTInputEvent te){
+		if (te instanceof AbstractCursorInputEvt){
+			AbstractCursorInputEvt cursorEvt = (AbstractCursorInputEvt) te;
+			return cursorEvt.getId() == AbstractCursorInputEvt.INPUT_UPDATED && cursorEvt.getCursor() != null;
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * Stamps the events fired since the last frame with the <code>STAGE_RENDERED</code> 
+	 * stage and informs the rendered event listeners.
+	 * If stage stamps were disabled in the meantime, the events are only dropped.
+	 * In both cases the events of the cursors which ended are given back to the pool.
+	 * <br>NOTE: This is called by the MTApplication after each frame.
+	 */
+	public void stampRenderedEvents(){
+		MTInputEvent[] rendered;
+		InputCursor[] ended;
+		synchronized (eventsAwaitingRender) {
+			if (eventsAwaitingRender.isEmpty() && cursorsAwaitingRecycle.isEmpty()){
+				return;
+			}
+			rendered 	= eventsAwaitingRender.toArray(new MTInputEvent[eventsAwaitingRender.size()]);
+			ended 		= cursorsAwaitingRecycle.toArray(new InputCursor[cursorsAwaitingRecycle.size()]);
+			eventsAwaitingRender.clear();
+			cursorsAwaitingRecycle.clear();
+		}
+		
+		if (MTInputEvent.isStageStampsEnabled()){
+			for (int i = 0; i < rendered.length; i++) {
+				MTInputEvent evt = rendered[i];
+				evt.stampStage(MTInputEvent.STAGE_RENDERED);
+				for (int j = 0; j < renderedEventListeners.size(); j++) {
+					renderedEventListeners.get(j).processInputEvent(evt);
+				}
+			}
+		}
+		
+		for (int i = 0; i < ended.length; i++) {
+			InputEventPool.getInstance().recycleEvents(ended[i]);
+		}
+	}
+	
+	
+	/**
+	 * Adds a listener which gets each event of this input source after the frame 
+	 * showing its results has been drawn - if stage stamps are enabled. 
+	 * The listener can then read the stage stamps of the event to profile the input latency.
+	 * <br>The event must not be kept by the listener.
+	 * 
+	 * @param listener the listener
+	 * 
+	 * @see MTInputEvent#setStageStampsEnabled(boolean)
+	 */
+	public synchronized void addRenderedEventListener(IMTInputEventListener listener){
+		if (!renderedEventListeners.contains(listener)){
+			renderedEventListeners.add(listener);
+		}
+	}
+	
+	/**
+	 * Removes the rendered event listener.
+	 * 
+	 * @param listener the listener
+	 */
+	public synchronized void removeRenderedEventListener(IMTInputEventListener listener){
+		renderedEventListeners.remove(listener);
+	}
+	
+	
 	/**
 	 * Fire input event.
 	 * <br><b>Note:</b> This method should NOT be called directly.
@@ -171,11 +460,45 @@ public abstract class AbstractInputSource {
 	 * @param inputEvt the input evt
 	 */
 	private void fireInputEvent(MTInputEvent inputEvt){
+		inputEvt.stampStage(MTInputEvent.STAGE_FLUSHED);
+		
 		//Adds the events to the cursors one by one before firing
 		inputEvt.preFire();
 		
-		for (int i=0; i<inputProcessorsToFireTo.size(); i++) {
-			inputProcessorsToFireTo.get(i).processInputEvent(inputEvt);
+		IinputSourceListener[] listeners = inputProcessorsToFireTo.getListeners(inputEvt.getClass());
+		for (int i=0; i<listeners.length; i++) {
+			listeners[i].processInputEvent(inputEvt);
+		}
+		
+		boolean stamping = MTInputEvent.isStageStampsEnabled();
+		if (stamping){
+			synchronized (eventsAwaitingRender) {
+				eventsAwaitingRender.add(inputEvt);
+			}
+		}
+		
+		//The cursor is finished, give its events back to the pool - unless a listener
+		//took the ended event off the cursor to keep it going
+		if (inputEvt instanceof AbstractCursorInputEvt){
+			AbstractCursorInputEvt cursorEvt = (AbstractCursorInputEvt) inputEvt;
+			if (InputEventPool.getInstance().isEnabled() 
+				&& cursorEvt.getId() == AbstractCursorInputEvt.INPUT_ENDED
+				&& cursorEvt.getCursor() != null
+				&& cursorEvt.getCursor().getCurrentEvent() == cursorEvt
+			){
+				if (InputProcessingThread.isInputThread()){
+					//The gesture listeners run at the start of the next frame in the render thread
+					//and may still read the cursor history, so recycle after them
+					final AbstractCursorInputEvt endedEvt = cursorEvt;
+					InputProcessingThread.runOnRenderThread(new Runnable() {
+						public void run() {
+							recycleEndedCursor(endedEvt);
+						}
+					});
+				}else{
+					this.recycleEndedCursor(cursorEvt);
+				}
+			}
 		}
 		/*
 		for (IinputSourceListener listener : inputListeners){
@@ -192,8 +515,12 @@ public abstract class AbstractInputSource {
 	 * @param listener the listener
 	 */
 	public synchronized void addInputListener(IinputSourceListener listener){
-		if (!inputListeners.contains(listener)){
-				inputListeners.add(listener);
+		IinputSourceListener[] listeners = this.inputListeners;
+		if (indexOf(listeners, listener) == -1){
+			IinputSourceListener[] newListeners = new IinputSourceListener[listeners.length + 1];
+			System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+			newListeners[listeners.length] = listener;
+			this.inputListeners = newListeners;
 		}
 	}
 	
@@ -204,8 +531,13 @@ public abstract class AbstractInputSource {
 	 * @param listener the listener
 	 */
 	public synchronized void removeInputListener(IinputSourceListener listener){
-		if (inputListeners.contains(listener)){
-			inputListeners.remove(listener);
+		IinputSourceListener[] listeners = this.inputListeners;
+		int index = indexOf(listeners, listener);
+		if (index != -1){
+			IinputSourceListener[] newListeners = new IinputSourceListener[listeners.length - 1];
+			System.arraycopy(listeners, 0, newListeners, 0, index);
+			System.arraycopy(listeners, index + 1, newListeners, index, listeners.length - index - 1);
+			this.inputListeners = newListeners;
 		}
 	}
 	
@@ -214,8 +546,111 @@ public abstract class AbstractInputSource {
 	 * 
 	 * @return the input listeners
 	 */
-	public synchronized IinputSourceListener[] getInputListeners(){
-		return (IinputSourceListener[])inputListeners.toArray(new IinputSourceListener[this.inputListeners.size()]);
+	public IinputSourceListener[] getInputListeners(){
+		return this.inputListeners.clone();
+	}
+	
+	
+	private static int indexOf(IinputSourceListener[] listeners, IinputSourceListener listener){
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i].equals(listener)){
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	
+	/**
+	 * The enabled listeners of a source, by the event types they listen to.
+	 * Only used by the flushing thread.
+	 */
+	private static final class DispatchTable {
+		/** The listener array of the source this table was built from. */
+		final IinputSourceListener[] listeners;
+		
+		/** The global input processor mod count this table was built at. */
+		final int modCount;
+		
+		/** Whether there are listeners whose disabled state changes arent tracked. */
+		final boolean untracked;
+		
+		/** The enabled listeners. */
+		private final IinputSourceListener[] enabled;
+		
+		/** The event types resolved so far. */
+		private Class<?>[] eventTypes;
+		
+		/** The enabled listeners for each resolved event type. */
+		private IinputSourceListener[][] listenersByType;
+		
+		/** The number of resolved event types. */
+		private int typeCount;
+		
+		DispatchTable(IinputSourceListener[] listeners, int modCount){
+			this.listeners = listeners;
+			this.modCount = modCount;
+			boolean untracked = false;
+			int count = 0;
+			IinputSourceListener[] enabled = new IinputSourceListener[listeners.length];
+			for (int i = 0; i < listeners.length; i++) {
+				IinputSourceListener listener = listeners[i];
+				if (!(listener instanceof AbstractGlobalInputProcessor)){
+					untracked = true;
+				}
+				if (!listener.isDisabled()){
+					enabled[count++] = listener;
+				}
+			}
+			this.untracked = untracked;
+			this.enabled = new IinputSourceListener[count];
+			System.arraycopy(enabled, 0, this.enabled, 0, count);
+			this.eventTypes = new Class<?>[4];
+			this.listenersByType = new IinputSourceListener[4][];
+			this.typeCount = 0;
+		}
+		
+		/**
+		 * Gets the enabled listeners which listen to the event type.
+		 * 
+		 * @param eventType the event type
+		 * 
+		 * @return the listeners
+		 */
+		IinputSourceListener[] getListeners(Class<? extends MTInputEvent> eventType){
+			//Sources fire only a few event types, a linear search is fastest
+			for (int i = 0; i < typeCount; i++) {
+				if (eventTypes[i] == eventType){
+					return listenersByType[i];
+				}
+			}
+			
+			int count = 0;
+			IinputSourceListener[] filtered = new IinputSourceListener[enabled.length];
+			for (int i = 0; i < enabled.length; i++) {
+				IinputSourceListener listener = enabled[i];
+				if (!(listener instanceof AbstractGlobalInputProcessor)
+					|| ((AbstractGlobalInputProcessor) listener).getListenEventType().isAssignableFrom(eventType)
+				){
+					filtered[count++] = listener;
+				}
+			}
+			IinputSourceListener[] result = new IinputSourceListener[count];
+			System.arraycopy(filtered, 0, result, 0, count);
+			
+			if (typeCount == eventTypes.length){
+				Class<?>[] types = new Class<?>[typeCount * 2];
+				System.arraycopy(eventTypes, 0, types, 0, typeCount);
+				eventTypes = types;
+				IinputSourceListener[][] byType = new IinputSourceListener[typeCount * 2][];
+				System.arraycopy(listenersByType, 0, byType, 0, typeCount);
+				listenersByType = byType;
+			}
+			eventTypes[typeCount] = eventType;
+			listenersByType[typeCount] = result;
+			typeCount++;
+			return result;
+		}
 	}
 	
 	
@@ -23,6 +23,7 @@ import java.awt.event.KeyEvent;
 import org.mt4j.MTApplication;
 import org.mt4j.input.inputData.ActiveCursorPool;
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputData.InputEventPool;
 import org.mt4j.input.inputData.MTFingerInputEvt;
 
 import processing.core.PApplet;
@@ -219,8 +220,8 @@ public class KeyboardInputSource extends AbstractInputSource {
 	 */
 	private void fingerDown(KeyEvent e){
 		if (!spaceHasBeenPressed){
-			InputCursor m = new InputCursor();
-			MTFingerInputEvt touchEvt = new MTFingerInputEvt(this, locationX, locationY, MTFingerInputEvt.INPUT_DETECTED, m);
+			InputCursor m = new InputCursor(this.getEventHistoryDepth());
+			MTFingerInputEvt touchEvt = InputEventPool.getInstance().getFingerEvent(this, locationX, locationY, MTFingerInputEvt.INPUT_DETECTED, m);
 //			m.addEvent(touchEvt);
 			
 			lastUsedKeybID = m.getId();
@@ -234,7 +235,7 @@ public class KeyboardInputSource extends AbstractInputSource {
 			InputCursor m = ActiveCursorPool.getInstance().getActiveCursorByID(lastUsedKeybID);
 			
 //			if (m.getLastEvent().getPositionX() != locationX || m.getLastEvent().getPositionY() != locationY){
-			MTFingerInputEvt te = new MTFingerInputEvt(this, locationX, locationY, MTFingerInputEvt.INPUT_UPDATED, m);
+			MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, locationX, locationY, MTFingerInputEvt.INPUT_UPDATED, m);
 //			m.addEvent(new MTFingerInputEvt2(this, e.getX(), e.getY(), MTFingerInputEvt.FINGER_UPDATE, m));
 			
 			//FIRE
@@ -250,7 +251,7 @@ public class KeyboardInputSource extends AbstractInputSource {
 	 */
 	private void fingerUp(KeyEvent e) {
 		InputCursor m = ActiveCursorPool.getInstance().getActiveCursorByID(lastUsedKeybID);
-		MTFingerInputEvt te = new MTFingerInputEvt(this, locationX, locationY, MTFingerInputEvt.INPUT_ENDED, m);
+		MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, locationX, locationY, MTFingerInputEvt.INPUT_ENDED, m);
 //		m.addEvent(te);
 		
 		this.enqueueInputEvent(te);
@@ -25,6 +25,7 @@ import java.awt.event.MouseMotionListener;
 import org.mt4j.MTApplication;
 import org.mt4j.input.inputData.ActiveCursorPool;
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputData.InputEventPool;
 import org.mt4j.input.inputData.MTFingerInputEvt;
 
 /**
@@ -132,8 +133,8 @@ public class MouseInputSource extends AbstractInputSource implements MouseMotion
 			mousePressedButton = e.getButton();
 			mouseBusy = true;
 			
-			InputCursor m = new InputCursor();
-			MTFingerInputEvt touchEvt = new MTFingerInputEvt(this, e.getX(), e.getY(), MTFingerInputEvt.INPUT_DETECTED, m);
+			InputCursor m = new InputCursor(this.getEventHistoryDepth());
+			MTFingerInputEvt touchEvt = InputEventPool.getInstance().getFingerEvent(this, e.getX(), e.getY(), MTFingerInputEvt.INPUT_DETECTED, m);
 //			m.addEvent(touchEvt);
 			
 			lastUsedMouseID = m.getId();
@@ -153,7 +154,7 @@ public class MouseInputSource extends AbstractInputSource implements MouseMotion
 		try {
 			InputCursor m = ActiveCursorPool.getInstance().getActiveCursorByID(lastUsedMouseID);
 			if (m != null){
-				MTFingerInputEvt te = new MTFingerInputEvt(this, e.getX(), e.getY(), MTFingerInputEvt.INPUT_UPDATED, m);
+				MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, e.getX(), e.getY(), MTFingerInputEvt.INPUT_UPDATED, m);
 //				m.addEvent(te);
 //				System.out.println("MouseSource Finger UPDATE, Motion ID: " + m.getId());
 				//FIRE
@@ -172,7 +173,7 @@ public class MouseInputSource extends AbstractInputSource implements MouseMotion
 	public void mouseReleased(MouseEvent e) {
 		if (e.getButton() == mousePressedButton) {
 			InputCursor m = ActiveCursorPool.getInstance().getActiveCursorByID(lastUsedMouseID);
-			MTFingerInputEvt te = new MTFingerInputEvt(this, e.getX(), e.getY(), MTFingerInputEvt.INPUT_ENDED, m);
+			MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, e.getX(), e.getY(), MTFingerInputEvt.INPUT_ENDED, m);
 //			m.addEvent(te);
 			
 			//System.out.println("MouseSource Finger UP, Motion ID: " + m.getId());
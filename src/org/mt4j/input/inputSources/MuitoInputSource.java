@@ -29,6 +29,7 @@ import muito.motion.provider.MuitoMotionTrackerPorvider;
 import org.mt4j.MTApplication;
 import org.mt4j.input.inputData.ActiveCursorPool;
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputData.InputEventPool;
 import org.mt4j.input.inputData.MTFingerInputEvt;
 import org.mt4j.util.MT4jSettings;
 
@@ -66,8 +67,8 @@ public class MuitoInputSource extends AbstractInputSource implements MotionProvi
 	public void newMotionProvided(Motion motion) {
 		MotionEvent me = motion.getLastEvent();
 		
-		InputCursor m = new InputCursor();
-		MTFingerInputEvt touchEvt = new MTFingerInputEvt(this, me.getXAbs(), me.getYAbs(), MTFingerInputEvt.INPUT_DETECTED, m);
+		InputCursor m = new InputCursor(this.getEventHistoryDepth());
+		MTFingerInputEvt touchEvt = InputEventPool.getInstance().getFingerEvent(this, me.getXAbs(), me.getYAbs(), MTFingerInputEvt.INPUT_DETECTED, m);
 //		m.addEvent(touchEvt);
 		
 		long motionID = motion.getId();
@@ -85,7 +86,7 @@ public class MuitoInputSource extends AbstractInputSource implements MotionProvi
 	public void providedMotionUpdated(Motion m, MotionEvent me) {
 		InputCursor mo = ActiveCursorPool.getInstance().getActiveCursorByID(muitoIDToInputMotionID.get(m.getId()));
 		
-		MTFingerInputEvt te = new MTFingerInputEvt(this, me.getXAbs(), me.getYAbs(), MTFingerInputEvt.INPUT_UPDATED, mo);
+		MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, me.getXAbs(), me.getYAbs(), MTFingerInputEvt.INPUT_UPDATED, mo);
 //		m.addEvent(new MTFingerInputEvt2(this, e.getX(), e.getY(), MTFingerInputEvt.FINGER_UPDATE, m));
 		
 		//FIRE
@@ -102,9 +103,9 @@ public class MuitoInputSource extends AbstractInputSource implements MotionProvi
 
 		MTFingerInputEvt te;
 		if (mo.getCurrentEvent() != null)
-			te = new MTFingerInputEvt(this, mo.getCurrentEvent().getPosX(), mo.getCurrentEvent().getPosY(), MTFingerInputEvt.INPUT_ENDED, mo);
+			te = InputEventPool.getInstance().getFingerEvent(this, mo.getCurrentEvent().getPosX(), mo.getCurrentEvent().getPosY(), MTFingerInputEvt.INPUT_ENDED, mo);
 		else
-			te = new MTFingerInputEvt(this, 0,0, MTFingerInputEvt.INPUT_ENDED, mo);
+			te = InputEventPool.getInstance().getFingerEvent(this, 0,0, MTFingerInputEvt.INPUT_ENDED, mo);
 		
 //		m.addEvent(te);
 		
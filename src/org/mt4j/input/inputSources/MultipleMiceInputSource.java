@@ -26,6 +26,7 @@ import org.mt4j.components.MTCanvas;
 import org.mt4j.components.visibleComponents.shapes.MTEllipse;
 import org.mt4j.input.inputData.ActiveCursorPool;
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputData.InputEventPool;
 import org.mt4j.input.inputData.MTFingerInputEvt;
 import org.mt4j.sceneManagement.ISceneChangeListener;
 import org.mt4j.sceneManagement.Iscene;
@@ -94,8 +95,6 @@ public class MultipleMiceInputSource extends AbstractInputSource {
 		
 		deviceToMouseInfo = new WeakHashMap<Integer, MouseInfo>();
 
-		applet.registerPost(this);
-
 		applet.registerDispose(this);
 		
 		defaultCenterCam = new MTCamera(applet);
@@ -121,10 +120,11 @@ public class MultipleMiceInputSource extends AbstractInputSource {
 	
 	
 	
-	/**
-	 * Post.
+	/* (non-Javadoc)
+	 * @see org.mt4j.input.inputSources.AbstractInputSource#pollEvents()
 	 */
-	public void post(){
+	@Override
+	protected void pollEvents(){ //Polled from the superclass, also while the application skips idle frames
 		if (mice > 0){
 			while (ManyMouse.PollEvent(event)) {
 				
@@ -379,8 +379,8 @@ public class MultipleMiceInputSource extends AbstractInputSource {
 			}
 		}
 		
-		InputCursor m = new InputCursor();
-		MTFingerInputEvt touchEvt = new MTFingerInputEvt(this, mouseInfo.x, mouseInfo.y, MTFingerInputEvt.INPUT_DETECTED, m);
+		InputCursor m = new InputCursor(this.getEventHistoryDepth());
+		MTFingerInputEvt touchEvt = InputEventPool.getInstance().getFingerEvent(this, mouseInfo.x, mouseInfo.y, MTFingerInputEvt.INPUT_DETECTED, m);
 //		m.addEvent(touchEvt);
 		
 //		long motionID = m.getId();
@@ -461,7 +461,7 @@ public class MultipleMiceInputSource extends AbstractInputSource {
 
 		if (mouseInfo.isButtonPressed){
 			InputCursor m = ActiveCursorPool.getInstance().getActiveCursorByID(device);
-			MTFingerInputEvt te = new MTFingerInputEvt(this, mouseInfo.x, mouseInfo.y, MTFingerInputEvt.INPUT_UPDATED, m);
+			MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, mouseInfo.x, mouseInfo.y, MTFingerInputEvt.INPUT_UPDATED, m);
 			//			m.addEvent(te);
 //			System.out.println("Motion update on device: #" + device+  " X:" + mouseInfo.x + " Y:" + mouseInfo.y);
 			this.enqueueInputEvent(te);
@@ -510,7 +510,7 @@ public class MultipleMiceInputSource extends AbstractInputSource {
 
 		if (mouseInfo.isButtonPressed){
 			InputCursor m = ActiveCursorPool.getInstance().getActiveCursorByID(device);
-			MTFingerInputEvt te = new MTFingerInputEvt(this, mouseInfo.x, mouseInfo.y, MTFingerInputEvt.INPUT_UPDATED, m);
+			MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, mouseInfo.x, mouseInfo.y, MTFingerInputEvt.INPUT_UPDATED, m);
 //			m.addEvent(te);
 //			System.out.println("Motion update on device: #" + device+  " X:" + mouseInfo.x + " Y:" + mouseInfo.y);
 			this.enqueueInputEvent(te);
@@ -536,9 +536,9 @@ public class MultipleMiceInputSource extends AbstractInputSource {
 
 			MTFingerInputEvt te;
 			if (m.getCurrentEvent() != null)
-				te = new MTFingerInputEvt(this, m.getCurrentEvent().getPosX(), m.getCurrentEvent().getPosY(), MTFingerInputEvt.INPUT_ENDED, m);
+				te = InputEventPool.getInstance().getFingerEvent(this, m.getCurrentEvent().getPosX(), m.getCurrentEvent().getPosY(), MTFingerInputEvt.INPUT_ENDED, m);
 			else
-				te = new MTFingerInputEvt(this, 0,0, MTFingerInputEvt.INPUT_ENDED, m);
+				te = InputEventPool.getInstance().getFingerEvent(this, 0,0, MTFingerInputEvt.INPUT_ENDED, m);
 
 //			m.addEvent(te); //werden nicht hier geadded sondern synchroniesert mit dem PApplet thread in den analyzern, so dass immer nur 1
 			// 1 te geadded wird und dann wieder verarbeitet, dann der nchste
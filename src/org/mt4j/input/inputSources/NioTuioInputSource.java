@@ -0,0 +1,583 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.input.inputSources;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.mt4j.MTApplication;
+import org.mt4j.input.inputData.ActiveCursorPool;
+import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputData.InputEventPool;
+import org.mt4j.input.inputData.MTFiducialInputEvt;
+import org.mt4j.input.inputData.MTFingerInputEvt;
+import org.mt4j.util.LongHashMap;
+import org.mt4j.util.MT4jSettings;
+
+
+/**
+ * A TUIO 1.1 input source which recieves the OSC packets itself instead of using
+ * the <code>TuioClient</code>. One thread recieves the datagrams of all ports into
+ * a reused direct buffer and parses the <code>/tuio/2Dcur</code> and <code>/tuio/2Dobj</code>
+ * messages in place, so no objects are created per message - only per new touch.
+ * <p>
+ * Several trackers can send to the same port if they identify themselves with the
+ * TUIO 1.1 <code>source</code> message, the sessions of each tracker and port are kept apart.
+ * Like the <code>TuioClient</code>, changes are applied at the end of each frame (<code>fseq</code>).
+ */
+public class NioTuioInputSource extends AbstractInputSource {
+	private static final Logger logger = Logger.getLogger(NioTuioInputSource.class.getName());
+	static{
+		logger.setLevel(Level.INFO);
+		SimpleLayout l = new SimpleLayout();
+		ConsoleAppender ca = new ConsoleAppender(l);
+		logger.addAppender(ca);
+	}
+
+	/** The maximum size of an UDP datagram. */
+	private static final int MAX_PACKET_SIZE = 65536;
+
+	private static final byte[] BUNDLE 		= ascii("#bundle");
+	private static final byte[] TUIO_2DCUR 	= ascii("/tuio/2Dcur");
+	private static final byte[] TUIO_2DOBJ 	= ascii("/tuio/2Dobj");
+	private static final byte[] CMD_SOURCE 	= ascii("source");
+	private static final byte[] CMD_ALIVE 	= ascii("alive");
+	private static final byte[] CMD_SET 	= ascii("set");
+	private static final byte[] CMD_FSEQ 	= ascii("fseq");
+
+	/** The ports. */
+	private int[] ports;
+
+	/** The channels, one per port. */
+	private DatagramChannel[] channels;
+
+	/** The selector. */
+	private Selector selector;
+
+	/** The reused packet buffer. */
+	private ByteBuffer buffer;
+
+	/** The receiver thread. */
+	private Thread receiver;
+
+	/** The running. */
+	private volatile boolean running;
+
+	/** The window width. */
+	private int windowWidth;
+
+	/** The window height. */
+	private int windowHeight;
+
+	/** The profile states by stream key, see <code>getProfile()</code>. */
+	private LongHashMap<Profile> profiles;
+
+	/** The index of the port the current packet was recieved on. */
+	private int currentPort;
+
+	/** The hash of the source name of the current bundle, 0 if none was sent. */
+	private int currentSource;
+
+	/** Reused argument storage. */
+	private int[] intArgs;
+
+	/** Reused argument storage. */
+	private float[] floatArgs;
+
+
+	/**
+	 * Instantiates a new NIO TUIO input source listening on the default TUIO port 3333.
+	 *
+	 * @param mtApp the mt app
+	 */
+	public NioTuioInputSource(MTApplication mtApp){
+		this(mtApp, new int[]{3333});
+	}
+
+	/**
+	 * Instantiates a new NIO TUIO input source listening on the specified ports.
+	 *
+	 * @param mtApp the mt app
+	 * @param ports the ports
+	 */
+	public NioTuioInputSource(MTApplication mtApp, int[] ports){
+		super(mtApp);
+		this.ports 		= ports.clone();
+		this.profiles 	= new LongHashMap<Profile>();
+		this.intArgs 	= new int[4];
+		this.floatArgs 	= new float[10];
+		this.buffer 	= ByteBuffer.allocateDirect(MAX_PACKET_SIZE);
+
+		windowWidth = MT4jSettings.getInstance().getScreenWidth();
+		windowHeight = MT4jSettings.getInstance().getScreenHeight();
+
+		try {
+			selector = Selector.open();
+			channels = new DatagramChannel[this.ports.length];
+			for (int i = 0; i < this.ports.length; i++) {
+				DatagramChannel channel = DatagramChannel.open();
+				channel.socket().bind(new InetSocketAddress(this.ports[i]));
+				channel.configureBlocking(false);
+				channel.register(selector, SelectionKey.OP_READ, Integer.valueOf(i));
+				channels[i] = channel;
+				logger.info("Initializing TUIO input on port: " + this.ports[i]);
+			}
+		} catch (IOException e) {
+			logger.error("Couldnt open the TUIO ports: " + e.getMessage());
+			this.close();
+			return;
+		}
+
+		running = true;
+		receiver = new Thread(new Runnable() {
+			public void run() {
+				receive();
+			}
+		}, "TUIO receiver");
+		receiver.setDaemon(true);
+		receiver.start();
+		
+		//Release the ports and stop the receiver when the application is closed
+		mtApp.registerDispose(this);
+	}
+
+
+	/**
+	 * Called by the applet when it is closed, closes the ports.
+	 */
+	public void dispose(){
+		this.close();
+	}
+
+
+	/**
+	 * Stops recieving and closes the ports.
+	 */
+	public void close(){
+		running = false;
+		if (selector != null){
+			selector.wakeup();
+		}
+		if (channels != null){
+			for (int i = 0; i < channels.length; i++) {
+				try {
+					if (channels[i] != null){
+						channels[i].close();
+					}
+				} catch (IOException e) {
+					logger.error(e.getMessage());
+				}
+			}
+		}
+		try {
+			if (selector != null){
+				selector.close();
+			}
+		} catch (IOException e) {
+			logger.error(e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Gets the ports.
+	 *
+	 * @return the ports
+	 */
+	public int[] getPorts(){
+		return this.ports.clone();
+	}
+
+
+	/**
+	 * The receiver loop.
+	 */
+	private void receive(){
+		while (running){
+			try {
+				if (selector.select() == 0){
+					continue;
+				}
+				Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+				while (it.hasNext()){
+					SelectionKey key = it.next();
+					it.remove();
+					DatagramChannel channel = (DatagramChannel) key.channel();
+					currentPort = ((Integer) key.attachment()).intValue();
+					//Drain all datagrams waiting on this port
+					while (true){
+						buffer.clear();
+						if (channel.receive(buffer) == null){
+							break;
+						}
+						buffer.flip();
+						currentSource = 0;
+						try {
+							this.parsePacket(0, buffer.limit());
+						} catch (IndexOutOfBoundsException e) {
+							logger.debug("Malformed OSC packet on port " + ports[currentPort]);
+						}
+					}
+				}
+			} catch (IOException e) {
+				if (running){
+					logger.error("Error while recieving TUIO: " + e.getMessage());
+				}
+			} catch (RuntimeException e) {
+				if (running){
+					logger.error("Error while recieving TUIO: " + e.getMessage());
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Parses an OSC packet, a bundle or a message.
+	 *
+	 * @param start the start
+	 * @param end the end
+	 */
+	private void parsePacket(int start, int end){
+		if (end - start >= 16 && this.stringEquals(start, end, BUNDLE)){
+			//Skip "#bundle" and the time tag
+			int pos = start + 16;
+			while (pos + 4 <= end){
+				int size = buffer.getInt(pos);
+				pos += 4;
+				if (size < 0 || pos + size > end){
+					return;
+				}
+				this.parsePacket(pos, pos + size);
+				pos += size;
+			}
+		}else{
+			this.parseMessage(start, end);
+		}
+	}
+
+
+	/**
+	 * Parses an OSC message if it belongs to a supported TUIO profile.
+	 *
+	 * @param start the start
+	 * @param end the end
+	 */
+	private void parseMessage(int start, int end){
+		boolean fiducial;
+		if (this.stringEquals(start, end, TUIO_2DCUR)){
+			fiducial = false;
+		}else if (this.stringEquals(start, end, TUIO_2DOBJ)){
+			fiducial = true;
+		}else{
+			return;
+		}
+
+		int tagPos = this.skipString(start, start, end);
+		if (tagPos >= end || buffer.get(tagPos) != ','){
+			return;
+		}
+		int tagEnd = tagPos + 1;
+		while (buffer.get(tagEnd) != 0){
+			tagEnd++;
+		}
+		int argPos = this.skipString(start, tagPos, end);
+
+		//The first argument is the command
+		int tag = tagPos + 1;
+		if (tag >= tagEnd || buffer.get(tag) != 's'){
+			return;
+		}
+		int command = argPos;
+		argPos = this.skipString(start, argPos, end);
+		tag++;
+
+		if (this.stringEquals(command, end, CMD_SET)){
+			int ints = 0;
+			int floats = 0;
+			for (; tag < tagEnd; tag++) {
+				byte t = buffer.get(tag);
+				if (t == 'i' && ints < intArgs.length){
+					intArgs[ints++] = buffer.getInt(argPos);
+					argPos += 4;
+				}else if (t == 'f' && floats < floatArgs.length){
+					floatArgs[floats++] = buffer.getFloat(argPos);
+					argPos += 4;
+				}else{
+					return;
+				}
+			}
+			Profile profile = this.getProfile(fiducial);
+			if (!fiducial && ints >= 1 && floats >= 2){
+				profile.set(intArgs[0], 0, floatArgs, floats);
+			}else if (fiducial && ints >= 2 && floats >= 3){
+				profile.set(intArgs[0], intArgs[1], floatArgs, floats);
+			}
+		}else if (this.stringEquals(command, end, CMD_ALIVE)){
+			Profile profile = this.getProfile(fiducial);
+			for (; tag < tagEnd; tag++) {
+				if (buffer.get(tag) != 'i'){
+					return;
+				}
+				profile.alive(buffer.getInt(argPos));
+				argPos += 4;
+			}
+		}else if (this.stringEquals(command, end, CMD_FSEQ)){
+			this.getProfile(fiducial).commitFrame();
+		}else if (this.stringEquals(command, end, CMD_SOURCE)){
+			if (tag < tagEnd && buffer.get(tag) == 's'){
+				currentSource = this.hashString(argPos, end);
+			}
+		}
+	}
+
+
+	/**
+	 * Gets the state of the profile of the current port and source.
+	 *
+	 * @param fiducial the fiducial
+	 *
+	 * @return the profile
+	 */
+	private Profile getProfile(boolean fiducial){
+		long key = ((long) currentSource << 32) | ((long) currentPort << 1) | (fiducial ? 1 : 0);
+		Profile profile = profiles.get(key);
+		if (profile == null){
+			profile = new Profile(fiducial);
+			profiles.put(key, profile);
+		}
+		return profile;
+	}
+
+
+	/**
+	 * Checks if the null terminated string at the position equals the specified string.
+	 *
+	 * @param pos the pos
+	 * @param end the end
+	 * @param string the string
+	 *
+	 * @return true, if successful
+	 */
+	private boolean stringEquals(int pos, int end, byte[] string){
+		if (pos + string.length >= end){
+			return false;
+		}
+		for (int i = 0; i < string.length; i++) {
+			if (buffer.get(pos + i) != string[i]){
+				return false;
+			}
+		}
+		return buffer.get(pos + string.length) == 0;
+	}
+
+
+	/**
+	 * Gets the position after the null terminated and 4 byte padded OSC string.
+	 *
+	 * @param messageStart the message start, the padding is relative to it
+	 * @param pos the pos
+	 * @param end the end
+	 *
+	 * @return the position after the string
+	 */
+	private int skipString(int messageStart, int pos, int end){
+		while (pos < end && buffer.get(pos) != 0){
+			pos++;
+		}
+		return messageStart + ((pos - messageStart + 4) & ~3);
+	}
+
+
+	/**
+	 * Hashes the null terminated string at the position.
+	 *
+	 * @param pos the pos
+	 * @param end the end
+	 *
+	 * @return the hash
+	 */
+	private int hashString(int pos, int end){
+		int hash = 1;
+		while (pos < end){
+			byte b = buffer.get(pos++);
+			if (b == 0){
+				break;
+			}
+			hash = 31 * hash + b;
+		}
+		return hash;
+	}
+
+
+	private static byte[] ascii(String s){
+		byte[] bytes = new byte[s.length()];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) s.charAt(i);
+		}
+		return bytes;
+	}
+
+
+	/**
+	 * The state of one TUIO session (a touch or a fiducial).
+	 */
+	private static final class Session {
+		final int sessionID;
+		InputCursor cursor;
+		int symbolID;
+		float x, y, angle, xSpeed, ySpeed, rSpeed, mAccel, rAccel;
+		boolean hasPosition;
+		int aliveFrame = -1;
+		int setFrame = -1;
+
+		Session(int sessionID){
+			this.sessionID = sessionID;
+		}
+	}
+
+
+	/**
+	 * The state of one profile (2Dcur or 2Dobj) of one tracker.
+	 */
+	private final class Profile {
+		private final boolean fiducial;
+		private final LongHashMap<Session> sessions;
+		private Session[] scratch;
+		private long[] removed;
+		private int frame;
+
+		Profile(boolean fiducial){
+			this.fiducial = fiducial;
+			this.sessions = new LongHashMap<Session>();
+			this.scratch = new Session[16];
+			this.removed = new long[16];
+		}
+
+		private Session getSession(int sessionID){
+			Session s = sessions.get(sessionID);
+			if (s == null){
+				s = new Session(sessionID);
+				sessions.put(sessionID, s);
+			}
+			return s;
+		}
+
+		void alive(int sessionID){
+			this.getSession(sessionID).aliveFrame = frame;
+		}
+
+		void set(int sessionID, int symbolID, float[] args, int count){
+			Session s = this.getSession(sessionID);
+			s.setFrame = frame;
+			s.hasPosition = true;
+			s.symbolID = symbolID;
+			if (fiducial){
+				//x y a X Y A m r
+				s.x 		= args[0];
+				s.y 		= args[1];
+				s.angle 	= args[2];
+				s.xSpeed 	= count > 3 ? args[3] : 0;
+				s.ySpeed 	= count > 4 ? args[4] : 0;
+				s.rSpeed 	= count > 5 ? args[5] : 0;
+				s.mAccel 	= count > 6 ? args[6] : 0;
+				s.rAccel 	= count > 7 ? args[7] : 0;
+			}else{
+				//x y X Y m
+				s.x 		= args[0];
+				s.y 		= args[1];
+				s.xSpeed 	= count > 2 ? args[2] : 0;
+				s.ySpeed 	= count > 3 ? args[3] : 0;
+				s.mAccel 	= count > 4 ? args[4] : 0;
+			}
+		}
+
+		/**
+		 * Fires the added, updated and removed sessions of the frame.
+		 */
+		void commitFrame(){
+			int count = sessions.size();
+			if (scratch.length < count){
+				scratch = new Session[count * 2];
+			}
+			sessions.values(scratch);
+			int removedCount = 0;
+			for (int i = 0; i < count; i++) {
+				Session s = scratch[i];
+				scratch[i] = null;
+				if (s.aliveFrame != frame){
+					if (s.cursor != null){
+						fireEnded(s);
+					}
+					if (removedCount == removed.length){
+						long[] grown = new long[removedCount * 2];
+						System.arraycopy(removed, 0, grown, 0, removedCount);
+						removed = grown;
+					}
+					removed[removedCount++] = s.sessionID;
+				}else if (s.hasPosition){
+					if (s.cursor == null){
+						fireDetected(s);
+					}else if (s.setFrame == frame){
+						fireUpdated(s, MTFingerInputEvt.INPUT_UPDATED);
+					}
+				}
+			}
+			for (int i = 0; i < removedCount; i++) {
+				sessions.remove(removed[i]);
+			}
+			frame++;
+		}
+
+		private void fireDetected(Session s){
+			InputCursor c = new InputCursor(getEventHistoryDepth());
+			s.cursor = c;
+			ActiveCursorPool.getInstance().putActiveCursor(c.getId(), c);
+			fireUpdated(s, MTFingerInputEvt.INPUT_DETECTED);
+		}
+
+		private void fireEnded(Session s){
+			fireUpdated(s, MTFingerInputEvt.INPUT_ENDED);
+			ActiveCursorPool.getInstance().removeCursor(s.cursor.getId());
+		}
+
+		private void fireUpdated(Session s, int id){
+			float absoluteX = s.x * windowWidth;
+			float absoluteY = s.y * windowHeight;
+			if (fiducial){
+				MTFiducialInputEvt evt = InputEventPool.getInstance().getFiducialEvent(NioTuioInputSource.this, absoluteX, absoluteY, id, s.cursor,
+						s.symbolID, s.angle, s.xSpeed, s.ySpeed, s.rSpeed, s.mAccel, s.rAccel);
+				enqueueInputEvent(evt);
+			}else{
+				MTFingerInputEvt evt = InputEventPool.getInstance().getFingerEvent(NioTuioInputSource.this, absoluteX, absoluteY, id, s.cursor);
+				enqueueInputEvent(evt);
+			}
+		}
+	}
+
+}
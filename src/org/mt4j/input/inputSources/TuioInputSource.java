@@ -18,9 +18,6 @@
 package org.mt4j.input.inputSources;
 
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -28,8 +25,10 @@ import org.apache.log4j.SimpleLayout;
 import org.mt4j.MTApplication;
 import org.mt4j.input.inputData.ActiveCursorPool;
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputData.InputEventPool;
 import org.mt4j.input.inputData.MTFiducialInputEvt;
 import org.mt4j.input.inputData.MTFingerInputEvt;
+import org.mt4j.util.LongHashMap;
 import org.mt4j.util.MT4jSettings;
 
 import TUIO.TuioClient;
@@ -70,10 +69,10 @@ public class TuioInputSource extends AbstractInputSource implements TuioListener
 	private int windowHeight;
 	
 	/** this is needed to track which events got fired as a finger down event already. */
-	private Map<Long, Long> tuioIDToCursorID;
+	private LongHashMap<Long> tuioIDToCursorID;
 
 	/** this is needed to track which events got fired as a fiducial down event already. */
-	private Map<Long, Long> tuioFiducialIDMap;
+	private LongHashMap<Long> tuioFiducialIDMap;
 	
 	/**
 	 * Instantiates a new tuio input source.
@@ -99,8 +98,8 @@ public class TuioInputSource extends AbstractInputSource implements TuioListener
 		tuioClient.connect();
 		tuioClient.addTuioListener(this);
 		
-		tuioIDToCursorID = new HashMap<Long, Long>();
-		tuioFiducialIDMap = new HashMap<Long, Long>();
+		tuioIDToCursorID = new LongHashMap<Long>();
+		tuioFiducialIDMap = new LongHashMap<Long>();
 		
 		windowWidth = MT4jSettings.getInstance().getScreenWidth();
 		windowHeight = MT4jSettings.getInstance().getScreenHeight();
@@ -115,8 +114,8 @@ public class TuioInputSource extends AbstractInputSource implements TuioListener
 		long sessionID = cursor.getSessionID();
 		
 //		logger.info("TUIO INPUT ADD FINGER - TUIO ID: " + sessionID);
-		InputCursor c = new InputCursor();
-		MTFingerInputEvt touchEvt = new MTFingerInputEvt(this, absoluteX, abosulteY, MTFingerInputEvt.INPUT_DETECTED, c);
+		InputCursor c = new InputCursor(this.getEventHistoryDepth());
+		MTFingerInputEvt touchEvt = InputEventPool.getInstance().getFingerEvent(this, absoluteX, abosulteY, MTFingerInputEvt.INPUT_DETECTED, c);
 		long cursorID = c.getId();
 		ActiveCursorPool.getInstance().putActiveCursor(cursorID, c);
 		tuioIDToCursorID.put(sessionID, cursorID);
@@ -134,7 +133,7 @@ public class TuioInputSource extends AbstractInputSource implements TuioListener
 //			logger.info("TUIO INPUT UPDATE FINGER - TUIO ID: " + sessionID);
 			InputCursor c = ActiveCursorPool.getInstance().getActiveCursorByID(tuioID);
 			if (c != null){
-				MTFingerInputEvt te = new MTFingerInputEvt(this, absoluteX, abosulteY, MTFingerInputEvt.INPUT_UPDATED, c);
+				MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, absoluteX, abosulteY, MTFingerInputEvt.INPUT_UPDATED, c);
 				this.enqueueInputEvent(te);
 			}else{
 //				logger.error("CURSOR NOT IN ACTIVE CURSOR LIST! TUIO ID: " + cursor.getSessionID());
@@ -154,7 +153,7 @@ public class TuioInputSource extends AbstractInputSource implements TuioListener
 				long cursorID = (long)lCursorID;
 				InputCursor c = ActiveCursorPool.getInstance().getActiveCursorByID(cursorID);
 				if (c != null){
-					MTFingerInputEvt te = new MTFingerInputEvt(this, absoluteX, abosulteY, MTFingerInputEvt.INPUT_ENDED, c);
+					MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, absoluteX, abosulteY, MTFingerInputEvt.INPUT_ENDED, c);
 					tuioIDToCursorID.remove(sessionID);
 					ActiveCursorPool.getInstance().removeCursor(cursorID);
 					this.enqueueInputEvent(te);
@@ -188,8 +187,8 @@ public class TuioInputSource extends AbstractInputSource implements TuioListener
 		float abosulteY =	tuioObject.getY() * windowHeight;
 //		logger.info("Added TuioObj tuio object-> sessionID: " + session_id + " fiducialID: " + fiducial_id + " xpos:" + tuioObject.getX() + " ypos:" + tuioObject.getY() + " angle:" + angle + " x_speed:" + x_speed + " y_speed:" + y_speed + " r_speed:" + r_speed + " m_accel:" + m_accel + " r_accel:" + r_accel);
 		
-		InputCursor c = new InputCursor();
-		MTFiducialInputEvt fiducialEvt = new MTFiducialInputEvt(this, absoluteX, abosulteY, MTFiducialInputEvt.INPUT_DETECTED, c, fiducial_id, angle, x_speed, y_speed, r_speed, m_accel, r_accel);
+		InputCursor c = new InputCursor(this.getEventHistoryDepth());
+		MTFiducialInputEvt fiducialEvt = InputEventPool.getInstance().getFiducialEvent(this, absoluteX, abosulteY, MTFiducialInputEvt.INPUT_DETECTED, c, fiducial_id, angle, x_speed, y_speed, r_speed, m_accel, r_accel);
 		long cursorID = c.getId(); //TODO do implicitly somehow
 		ActiveCursorPool.getInstance().putActiveCursor(cursorID, c);
 		tuioFiducialIDMap.put(session_id, cursorID);
@@ -215,7 +214,7 @@ public class TuioInputSource extends AbstractInputSource implements TuioListener
 		if (tuioID != null ){
 			InputCursor c = ActiveCursorPool.getInstance().getActiveCursorByID(tuioID);
 			if (c != null){
-				MTFiducialInputEvt fiducialEvt = new MTFiducialInputEvt(this, absoluteX, abosulteY, MTFiducialInputEvt.INPUT_UPDATED, c, fiducial_id, angle, x_speed, y_speed, r_speed, m_accel, r_accel);
+				MTFiducialInputEvt fiducialEvt = InputEventPool.getInstance().getFiducialEvent(this, absoluteX, abosulteY, MTFiducialInputEvt.INPUT_UPDATED, c, fiducial_id, angle, x_speed, y_speed, r_speed, m_accel, r_accel);
 				this.enqueueInputEvent(fiducialEvt);
 			}
 		}
@@ -235,9 +234,9 @@ public class TuioInputSource extends AbstractInputSource implements TuioListener
 			if (c != null){
 				MTFiducialInputEvt te;
 				if (c.getCurrentEvent() != null)
-					te = new MTFiducialInputEvt(this, c.getCurrentEvent().getPosX(), c.getCurrentEvent().getPosY(), MTFiducialInputEvt.INPUT_ENDED, c, fiducial_id);
+					te = InputEventPool.getInstance().getFiducialEvent(this, c.getCurrentEvent().getPosX(), c.getCurrentEvent().getPosY(), MTFiducialInputEvt.INPUT_ENDED, c, fiducial_id, 0, 0, 0, 0, 0, 0);
 				else
-					te = new MTFiducialInputEvt(this, 0,0, MTFiducialInputEvt.INPUT_ENDED, c, fiducial_id);
+					te = InputEventPool.getInstance().getFiducialEvent(this, 0,0, MTFiducialInputEvt.INPUT_ENDED, c, fiducial_id, 0, 0, 0, 0, 0, 0);
 
 				tuioFiducialIDMap.remove(session_id);
 				ActiveCursorPool.getInstance().removeCursor(cursorID);
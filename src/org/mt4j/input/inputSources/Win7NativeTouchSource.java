@@ -11,6 +11,7 @@ import org.apache.log4j.SimpleLayout;
 import org.mt4j.MTApplication;
 import org.mt4j.input.inputData.ActiveCursorPool;
 import org.mt4j.input.inputData.InputCursor;
+import org.mt4j.input.inputData.InputEventPool;
 import org.mt4j.input.inputData.MTFingerInputEvt;
 import org.xvolks.jnative.exceptions.NativeException;
 import org.xvolks.jnative.misc.basicStructures.HWND;
@@ -137,7 +138,7 @@ public class Win7NativeTouchSource extends AbstractInputSource {
 
 
 	@Override
-	public void pre(){ //we dont have to call registerPre() again (already in superclass and called there)
+	protected void pollEvents(){ //we dont have to call registerPre() again (polled from the superclass)
 		if (initialized){ //Only poll events if native c++ core was initialized successfully
 			while (pollEvent(wmTouchEvent)) {
 				/*
@@ -152,9 +153,9 @@ public class Win7NativeTouchSource extends AbstractInputSource {
 				case Native_WM_TOUCH_Event.TOUCH_DOWN:{
 //					logger.debug("TOUCH_DOWN ==> ID:" + wmTouchEvent.id + " x:" +  wmTouchEvent.x + " y:" +  wmTouchEvent.y);
 					
-					InputCursor c = new InputCursor();
+					InputCursor c = new InputCursor(this.getEventHistoryDepth());
 					long cursorID = c.getId();
-					MTFingerInputEvt touchEvt = new MTFingerInputEvt(this, wmTouchEvent.x, wmTouchEvent.y, MTFingerInputEvt.INPUT_DETECTED, c);
+					MTFingerInputEvt touchEvt = InputEventPool.getInstance().getFingerEvent(this, wmTouchEvent.x, wmTouchEvent.y, MTFingerInputEvt.INPUT_DETECTED, c);
 					int touchID = wmTouchEvent.id;
 					ActiveCursorPool.getInstance().putActiveCursor(cursorID, c);
 					touchToCursorID.put(touchID, cursorID);
@@ -168,7 +169,7 @@ public class Win7NativeTouchSource extends AbstractInputSource {
 					if (cursorID != null){
 						InputCursor c = ActiveCursorPool.getInstance().getActiveCursorByID(cursorID);
 						if (c != null){
-							MTFingerInputEvt te = new MTFingerInputEvt(this, wmTouchEvent.x, wmTouchEvent.y, MTFingerInputEvt.INPUT_UPDATED, c);
+							MTFingerInputEvt te = InputEventPool.getInstance().getFingerEvent(this, wmTouchEvent.x, wmTouchEvent.y, MTFingerInputEvt.INPUT_UPDATED, c);
 							this.enqueueInputEvent(te);	
 						}
 					}
@@ -182,7 +183,7 @@ public class Win7NativeTouchSource extends AbstractInputSource {
 						InputCursor c = ActiveCursorPool.getInstance().getActiveCursorByID(cursorID);
 						if (c != null){
 							MTFingerInputEvt te;
-							te = new MTFingerInputEvt(this, wmTouchEvent.x, wmTouchEvent.y, MTFingerInputEvt.INPUT_ENDED, c);
+							te = InputEventPool.getInstance().getFingerEvent(this, wmTouchEvent.x, wmTouchEvent.y, MTFingerInputEvt.INPUT_ENDED, c);
 							this.enqueueInputEvent(te);
 						}
 						ActiveCursorPool.getInstance().removeCursor(cursorID);
@@ -195,8 +196,6 @@ public class Win7NativeTouchSource extends AbstractInputSource {
 				}
 			}
 		}
-
-		super.pre();
 	}
 	
 	
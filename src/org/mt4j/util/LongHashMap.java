@@ -0,0 +1,289 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009 C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.util;
+
+import java.lang.reflect.Array;
+
+
+/**
+ * A hash map with primitive <code>long</code> keys.
+ * Uses open addressing with linear probing, so lookups dont box the key
+ * or create entry objects. <code>null</code> values are not allowed.
+ * <br>NOTE: Not threadsafe, like <code>java.util.HashMap</code>.
+ *
+ * @param <V> the value type
+ */
+public class LongHashMap<V> {
+
+	/** The default initial capacity. */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** The keys. */
+	private long[] keys;
+
+	/** The values, a <code>null</code> value marks a free slot. */
+	private Object[] values;
+
+	/** The number of mappings. */
+	private int size;
+
+	/** The size at which the tables are grown. */
+	private int threshold;
+
+
+	/**
+	 * Instantiates a new long hash map.
+	 */
+	public LongHashMap(){
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new long hash map which can hold the
+	 * specified number of mappings without growing.
+	 *
+	 * @param expectedSize the expected size
+	 */
+	public LongHashMap(int expectedSize){
+		int capacity = 4;
+		while (capacity < expectedSize * 2){
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+
+	private void allocate(int capacity){
+		keys 		= new long[capacity];
+		values 		= new Object[capacity];
+		threshold 	= capacity / 2;
+	}
+
+
+	/**
+	 * Spreads the bits of the key so that sequential ids dont cluster.
+	 *
+	 * @param key the key
+	 *
+	 * @return the slot index
+	 */
+	private int slot(long key){
+		long h = key * 0x9E3779B97F4A7C15L;
+		h ^= (h >>> 32);
+		return (int)h & (keys.length - 1);
+	}
+
+
+	/**
+	 * Gets the value mapped to the key.
+	 *
+	 * @param key the key
+	 *
+	 * @return the value or null if there is no mapping for the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key){
+		int mask = keys.length - 1;
+		for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key){
+				return (V) values[i];
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Checks if there is a mapping for the key.
+	 *
+	 * @param key the key
+	 *
+	 * @return true, if successful
+	 */
+	public boolean containsKey(long key){
+		return this.get(key) != null;
+	}
+
+
+	/**
+	 * Maps the key to the value.
+	 *
+	 * @param key the key
+	 * @param value the value, not null
+	 *
+	 * @return the previously mapped value or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value){
+		if (value == null){
+			throw new IllegalArgumentException("LongHashMap doesnt allow null values.");
+		}
+		int mask = keys.length - 1;
+		int i = slot(key);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key){
+				V old = (V) values[i];
+				values[i] = value;
+				return old;
+			}
+		}
+		keys[i] 	= key;
+		values[i] 	= value;
+		if (++size > threshold){
+			rehash(keys.length * 2);
+		}
+		return null;
+	}
+
+
+	/**
+	 * Removes the mapping for the key.
+	 *
+	 * @param key the key
+	 *
+	 * @return the removed value or null if there was no mapping
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key){
+		int mask = keys.length - 1;
+		for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key){
+				V old = (V) values[i];
+				values[i] = null;
+				size--;
+				closeGap(i);
+				return old;
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Moves entries of the probe sequence following the freed slot back,
+	 * so that no lookups are broken and no tombstones are needed.
+	 *
+	 * @param free the freed slot
+	 */
+	private void closeGap(int free){
+		int mask = keys.length - 1;
+		for (int i = (free + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+			int home = slot(keys[i]);
+			//Move the entry if its home slot is not cyclically in (free, i]
+			if (((i - home) & mask) >= ((i - free) & mask)){
+				keys[free] 		= keys[i];
+				values[free] 	= values[i];
+				values[i] 		= null;
+				free = i;
+			}
+		}
+	}
+
+
+	private void rehash(int newCapacity){
+		long[] oldKeys 		= keys;
+		Object[] oldValues 	= values;
+		allocate(newCapacity);
+		int mask = newCapacity - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldValues[j] != null){
+				int i = slot(oldKeys[j]);
+				while (values[i] != null){
+					i = (i + 1) & mask;
+				}
+				keys[i] 	= oldKeys[j];
+				values[i] 	= oldValues[j];
+			}
+		}
+	}
+
+
+	/**
+	 * Gets the number of mappings.
+	 *
+	 * @return the size
+	 */
+	public int size(){
+		return size;
+	}
+
+
+	/**
+	 * Checks if the map is empty.
+	 *
+	 * @return true, if empty
+	 */
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+
+	/**
+	 * Removes all mappings.
+	 */
+	public void clear(){
+		for (int i = 0; i < values.length; i++) {
+			values[i] = null;
+		}
+		size = 0;
+	}
+
+
+	/**
+	 * Gets the keys.
+	 *
+	 * @return a new array with the keys
+	 */
+	public long[] keys(){
+		long[] result = new long[size];
+		int j = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null){
+				result[j++] = keys[i];
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Gets the values. Like <code>Collection.toArray(T[])</code> the specified
+	 * array is used if it is big enough, else a new array of the same type is created.
+	 *
+	 * @param array the array
+	 *
+	 * @return the array with the values
+	 */
+	@SuppressWarnings("unchecked")
+	public V[] values(V[] array){
+		V[] result = array.length >= size ?
+				array :
+				(V[]) Array.newInstance(array.getClass().getComponentType(), size);
+		int j = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null){
+				result[j++] = (V) values[i];
+			}
+		}
+		if (result.length > size){
+			result[size] = null;
+		}
+		return result;
+	}
+
+}
@@ -75,6 +75,12 @@ public class Frustum implements IFrustum{
 	
 	public Plane[] planes;
 	
+	/** The signs which turn the plane normals to the inside of the frustum. */
+	private float[] planeSigns = new float[6];
+	
+	/** Whether the planes were computed. */
+	private boolean planesValid;
+	
 	private static final int TOP 	= 0;
 	private static final int BOTTOM = 1;
 	private static final int LEFT 	= 2;
@@ -270,6 +276,14 @@ public void setCamDef(Vector3D camPos, Vector3D viewCenterPos, float xUp, float
 		normal = Y.getCross(aux);
 		planes[RIGHT].reconstruct(nc.getAdded(xScaledNw), normal);
 //		*/
+		
+		//Orient the plane normals to a point inside the frustum
+		Vector3D inside = this.camPos.getSubtracted(Z.getScaled((nearD + farD) * 0.5f));
+		for (int i = 0; i < planes.length; i++) {
+			Plane plane = planes[i];
+			planeSigns[i] = plane.normal.dot(inside.getSubtracted(plane.origin)) >= 0 ? 1 : -1;
+		}
+		planesValid = true;
 	}
 
 
@@ -421,6 +435,42 @@ public void setCamDef(Vector3D camPos, Vector3D viewCenterPos, float xUp, float
 
 		return(result);
 	}
+	
+	
+	/**
+	 * Checks if an axis aligned box is in the frustum.
+	 * 
+	 * @param box the box as {minX, minY, minZ, maxX, maxY, maxZ}
+	 * 
+	 * @return <code>OUTSIDE</code>, <code>INTERSECT</code> or <code>INSIDE</code>
+	 */
+	public int isBoxInFrustum(float[] box) {
+		if (!planesValid){
+			return INTERSECT;
+		}
+		int result = INSIDE;
+		for (int i = 0; i < planes.length; i++) {
+			Vector3D o = planes[i].origin;
+			float nx = planes[i].normal.x * planeSigns[i];
+			float ny = planes[i].normal.y * planeSigns[i];
+			float nz = planes[i].normal.z * planeSigns[i];
+			//The corner furthest inside
+			float px = nx >= 0 ? box[3] : box[0];
+			float py = ny >= 0 ? box[4] : box[1];
+			float pz = nz >= 0 ? box[5] : box[2];
+			if (nx * (px - o.x) + ny * (py - o.y) + nz * (pz - o.z) < 0){
+				return OUTSIDE;
+			}
+			//The corner furthest outside
+			float qx = nx >= 0 ? box[0] : box[3];
+			float qy = ny >= 0 ? box[1] : box[4];
+			float qz = nz >= 0 ? box[2] : box[5];
+			if (nx * (qx - o.x) + ny * (qy - o.y) + nz * (qz - o.z) < 0){
+				result = INTERSECT;
+			}
+		}
+		return result;
+	}
 
 
 	public void drawPoints() {
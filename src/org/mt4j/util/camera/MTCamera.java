@@ -18,6 +18,7 @@
 package org.mt4j.util.camera;
 
 
+import org.mt4j.components.MTComponent;
 import org.mt4j.util.math.Matrix;
 import org.mt4j.util.math.Vector3D;
 
@@ -63,6 +64,9 @@ public class MTCamera implements Icamera, IFrustum{
 	private Matrix cameraInvMatrix;
 	
 	private PGraphics3D p3d;
+	
+	/** The snapshot of the matrices of the last update. */
+	private volatile ProjectionSnapshot projectionSnapshot;
 
 	/**
 	 * Instantiates a new mT camera.
@@ -107,7 +111,7 @@ public class MTCamera implements Icamera, IFrustum{
 		this.frustum.setCamDef(this.getPosition(), this.getViewCenterPos(),  xAxisUp, -yAxisUp, zAxisUp); //new Vector3D(xAxisUp, -yAxisUp, zAxisUp));
 		
 		this.p3d = ((PGraphics3D)pa.g);
-		this.dirty = true;
+		this.setDirty();
 		this.cameraMat 			= new PMatrix3D();
 		this.cameraInvMat 		= new PMatrix3D();
 		this.cameraMatrix 		= new Matrix();
@@ -143,6 +147,15 @@ public class MTCamera implements Icamera, IFrustum{
 	}
 	
 	
+	/**
+	 * Marks the camera matrices as changed.
+	 */
+	private void setDirty(){
+		this.dirty = true;
+		MTComponent.setDrawDirty();
+	}
+	
+	
 	private void setCachedCamMatrices(){
 		Matrix m = this.cameraMatrix;
 		Matrix mi = this.cameraInvMatrix;
@@ -170,6 +183,34 @@ public class MTCamera implements Icamera, IFrustum{
 		
 		p3d.modelview.set(cameraMat);
 		p3d.modelviewInv.set(cameraInvMat);
+		
+		this.updateProjectionSnapshot();
+	}
+	
+	
+	/**
+	 * Takes a new projection snapshot if the camera, projection or viewport changed since the last one.
+	 */
+	private void updateProjectionSnapshot(){
+		ProjectionSnapshot snapshot = this.projectionSnapshot;
+		if (snapshot == null || !snapshot.matches(cameraMat, p3d.projection, pa.width, pa.height, camPos)){
+			this.projectionSnapshot = new ProjectionSnapshot(cameraMat, p3d.projection, pa.width, pa.height, camPos);
+		}
+	}
+	
+	
+	/**
+	 * Gets the snapshot of the camera, projection and viewport taken at the last <code>update()</code>.
+	 * <br>The snapshot can be used to project and unproject points from other threads than the
+	 * rendering thread.
+	 * 
+	 * @return the projection snapshot or null if the camera was changed since the last update
+	 */
+	public ProjectionSnapshot getProjectionSnapshot(){
+		if (this.dirty){
+			return null;
+		}
+		return this.projectionSnapshot;
 	}
 	
 	
@@ -345,7 +386,7 @@ public class MTCamera implements Icamera, IFrustum{
 			Vector3D toCam = viewCenterPos.getAdded(dirToCamVect);
 			camPos.setXYZ(toCam.getX(), toCam.getY(), toCam.getZ());
 			
-			this.dirty = true;
+			this.setDirty();
 		}
 	}
 	
@@ -372,7 +413,7 @@ public class MTCamera implements Icamera, IFrustum{
 			//set the new camPos
 			camPos.setXYZ(toCam.getX(), toCam.getY(), toCam.getZ());
 			
-			this.dirty = true;
+			this.setDirty();
 		}
 	}
 	
@@ -416,7 +457,7 @@ public class MTCamera implements Icamera, IFrustum{
 	 */
 	public void moveCam(float directionX, float directionY, float directionZ){
 		camPos.setXYZ(camPos.getX() + directionX, camPos.getY() + directionY, camPos.getZ() + directionZ);
-		this.dirty = true;
+		this.setDirty();
 	}
 	
 	/**
@@ -428,7 +469,7 @@ public class MTCamera implements Icamera, IFrustum{
 	 */
 	public void setViewCenterPosition(float x, float y, float z){
 		viewCenterPos.setXYZ(x, y, z);
-		this.dirty = true;
+		this.setDirty();
 	}
 	
 	/**
@@ -440,7 +481,7 @@ public class MTCamera implements Icamera, IFrustum{
 	 */
 	public void moveViewCenter(float directionX, float directionY, float directionZ){
 		viewCenterPos.setXYZ(viewCenterPos.getX() + directionX, viewCenterPos.getY() + directionY, viewCenterPos.getZ() + directionZ);
-		this.dirty = true;
+		this.setDirty();
 	}
 	
 	
@@ -454,7 +495,7 @@ public class MTCamera implements Icamera, IFrustum{
 	public void moveCamAndViewCenter(float directionX, float directionY, float directionZ){
 		moveCam(directionX, directionY, directionZ);
 		moveViewCenter(directionX, directionY, directionZ);
-		this.dirty = true;
+		this.setDirty();
 	}
 	
 	/**
@@ -476,7 +517,7 @@ public class MTCamera implements Icamera, IFrustum{
 		this.yAxisUp = 1;
 		this.zAxisUp = 0;
 		
-		this.dirty = true;
+		this.setDirty();
 	}
 	
 	/* (non-Javadoc)
@@ -491,7 +532,7 @@ public class MTCamera implements Icamera, IFrustum{
 	 */
 	public void setPosition(Vector3D camPos) {
 		this.camPos = camPos;
-		this.dirty = true;
+		this.setDirty();
 	}
 
 	/* (non-Javadoc)
@@ -506,7 +547,7 @@ public class MTCamera implements Icamera, IFrustum{
 	 */
 	public void setViewCenterPos(Vector3D eyePos) {
 		this.viewCenterPos = eyePos;
-		this.dirty = true;
+		this.setDirty();
 	}
 
 	/**
@@ -525,7 +566,7 @@ public class MTCamera implements Icamera, IFrustum{
 	 */
 	public void setXAxisUp(float axisUp) {
 		xAxisUp = axisUp;
-		this.dirty = true;
+		this.setDirty();
 	}
 
 	/**
@@ -544,7 +585,7 @@ public class MTCamera implements Icamera, IFrustum{
 	 */
 	public void setYAxisUp(float axisUp) {
 		yAxisUp = axisUp;
-		this.dirty = true;
+		this.setDirty();
 	}
 
 	/**
@@ -563,7 +604,7 @@ public class MTCamera implements Icamera, IFrustum{
 	 */
 	public void setZAxisUp(float axisUp) {
 		zAxisUp = axisUp;
-		this.dirty = true;
+		this.setDirty();
 	}
 
 
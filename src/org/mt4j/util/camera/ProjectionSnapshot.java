@@ -0,0 +1,269 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.util.camera;
+
+import org.mt4j.util.math.Ray;
+import org.mt4j.util.math.Vector3D;
+
+import processing.core.PMatrix3D;
+
+
+/**
+ * An immutable copy of the camera (modelview), projection and viewport
+ * of a camera at the time it was last updated.
+ * <p>
+ * Projecting and unprojecting points is done in plain java with the
+ * inverse of the combined matrix which is calculated once, when the snapshot is taken.
+ * So unlike the methods in <code>Tools3D</code> using the OpenGL or processing state
+ * of the current frame, the snapshot can be used from any thread and
+ * doesn't need a valid OpenGL context.
+ * <br>The screen coordinates follow the conventions of processing, with the
+ * origin at the top left corner of the screen.
+ */
+public final class ProjectionSnapshot {
+
+	/** The modelview matrix, row major. */
+	private final float[] modelView;
+
+	/** The projection matrix, row major. */
+	private final float[] projection;
+
+	/** The combined projection * modelview matrix, row major. */
+	private final float[] combined;
+
+	/** The inverse of the combined matrix, row major. */
+	private final float[] combinedInv;
+
+	/** The viewport width. */
+	private final int viewportWidth;
+
+	/** The viewport height. */
+	private final int viewportHeight;
+
+	/** The camera position. */
+	private final Vector3D cameraPosition;
+
+
+	/**
+	 * Instantiates a new projection snapshot.
+	 *
+	 * @param modelView the modelview matrix with only the camera applied
+	 * @param projection the projection matrix
+	 * @param viewportWidth the viewport width
+	 * @param viewportHeight the viewport height
+	 * @param cameraPosition the camera position
+	 */
+	public ProjectionSnapshot(PMatrix3D modelView, PMatrix3D projection, int viewportWidth, int viewportHeight, Vector3D cameraPosition) {
+		this.modelView = toArray(modelView);
+		this.projection = toArray(projection);
+		this.viewportWidth = viewportWidth;
+		this.viewportHeight = viewportHeight;
+		this.cameraPosition = cameraPosition.getCopy();
+
+		this.combined = new float[16];
+		for (int row = 0; row < 4; row++) {
+			for (int col = 0; col < 4; col++) {
+				float sum = 0;
+				for (int k = 0; k < 4; k++) {
+					sum += this.projection[row * 4 + k] * this.modelView[k * 4 + col];
+				}
+				combined[row * 4 + col] = sum;
+			}
+		}
+		this.combinedInv = invert(combined);
+	}
+
+
+	private static float[] toArray(PMatrix3D m){
+		return new float[]{
+				m.m00, m.m01, m.m02, m.m03,
+				m.m10, m.m11, m.m12, m.m13,
+				m.m20, m.m21, m.m22, m.m23,
+				m.m30, m.m31, m.m32, m.m33};
+	}
+
+
+	/**
+	 * Inverts the 4x4 matrix by cofactor expansion in double precision.
+	 *
+	 * @param m the row major matrix
+	 *
+	 * @return the inverse or null if the matrix is singular
+	 */
+	private static float[] invert(float[] m){
+		double[] a = new double[16];
+		for (int i = 0; i < 16; i++) {
+			a[i] = m[i];
+		}
+		double[] inv = new double[16];
+		inv[0] = a[5]*a[10]*a[15] - a[5]*a[11]*a[14] - a[9]*a[6]*a[15] + a[9]*a[7]*a[14] + a[13]*a[6]*a[11] - a[13]*a[7]*a[10];
+		inv[4] = -a[4]*a[10]*a[15] + a[4]*a[11]*a[14] + a[8]*a[6]*a[15] - a[8]*a[7]*a[14] - a[12]*a[6]*a[11] + a[12]*a[7]*a[10];
+		inv[8] = a[4]*a[9]*a[15] - a[4]*a[11]*a[13] - a[8]*a[5]*a[15] + a[8]*a[7]*a[13] + a[12]*a[5]*a[11] - a[12]*a[7]*a[9];
+		inv[12] = -a[4]*a[9]*a[14] + a[4]*a[10]*a[13] + a[8]*a[5]*a[14] - a[8]*a[6]*a[13] - a[12]*a[5]*a[10] + a[12]*a[6]*a[9];
+		inv[1] = -a[1]*a[10]*a[15] + a[1]*a[11]*a[14] + a[9]*a[2]*a[15] - a[9]*a[3]*a[14] - a[13]*a[2]*a[11] + a[13]*a[3]*a[10];
+		inv[5] = a[0]*a[10]*a[15] - a[0]*a[11]*a[14] - a[8]*a[2]*a[15] + a[8]*a[3]*a[14] + a[12]*a[2]*a[11] - a[12]*a[3]*a[10];
+		inv[9] = -a[0]*a[9]*a[15] + a[0]*a[11]*a[13] + a[8]*a[1]*a[15] - a[8]*a[3]*a[13] - a[12]*a[1]*a[11] + a[12]*a[3]*a[9];
+		inv[13] = a[0]*a[9]*a[14] - a[0]*a[10]*a[13] - a[8]*a[1]*a[14] + a[8]*a[2]*a[13] + a[12]*a[1]*a[10] - a[12]*a[2]*a[9];
+		inv[2] = a[1]*a[6]*a[15] - a[1]*a[7]*a[14] - a[5]*a[2]*a[15] + a[5]*a[3]*a[14] + a[13]*a[2]*a[7] - a[13]*a[3]*a[6];
+		inv[6] = -a[0]*a[6]*a[15] + a[0]*a[7]*a[14] + a[4]*a[2]*a[15] - a[4]*a[3]*a[14] - a[12]*a[2]*a[7] + a[12]*a[3]*a[6];
+		inv[10] = a[0]*a[5]*a[15] - a[0]*a[7]*a[13] - a[4]*a[1]*a[15] + a[4]*a[3]*a[13] + a[12]*a[1]*a[7] - a[12]*a[3]*a[5];
+		inv[14] = -a[0]*a[5]*a[14] + a[0]*a[6]*a[13] + a[4]*a[1]*a[14] - a[4]*a[2]*a[13] - a[12]*a[1]*a[6] + a[12]*a[2]*a[5];
+		inv[3] = -a[1]*a[6]*a[11] + a[1]*a[7]*a[10] + a[5]*a[2]*a[11] - a[5]*a[3]*a[10] - a[9]*a[2]*a[7] + a[9]*a[3]*a[6];
+		inv[7] = a[0]*a[6]*a[11] - a[0]*a[7]*a[10] - a[4]*a[2]*a[11] + a[4]*a[3]*a[10] + a[8]*a[2]*a[7] - a[8]*a[3]*a[6];
+		inv[11] = -a[0]*a[5]*a[11] + a[0]*a[7]*a[9] + a[4]*a[1]*a[11] - a[4]*a[3]*a[9] - a[8]*a[1]*a[7] + a[8]*a[3]*a[5];
+		inv[15] = a[0]*a[5]*a[10] - a[0]*a[6]*a[9] - a[4]*a[1]*a[10] + a[4]*a[2]*a[9] + a[8]*a[1]*a[6] - a[8]*a[2]*a[5];
+
+		double det = a[0]*inv[0] + a[1]*inv[4] + a[2]*inv[8] + a[3]*inv[12];
+		if (det == 0){
+			return null;
+		}
+		float[] result = new float[16];
+		for (int i = 0; i < 16; i++) {
+			result[i] = (float) (inv[i] / det);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Checks if the snapshot was taken of the same matrices and viewport.
+	 *
+	 * @param modelView the modelview matrix
+	 * @param projection the projection matrix
+	 * @param viewportWidth the viewport width
+	 * @param viewportHeight the viewport height
+	 * @param cameraPosition the camera position
+	 *
+	 * @return true, if the snapshot is still up to date
+	 */
+	public boolean matches(PMatrix3D modelView, PMatrix3D projection, int viewportWidth, int viewportHeight, Vector3D cameraPosition){
+		return this.viewportWidth == viewportWidth
+			&& this.viewportHeight == viewportHeight
+			&& this.cameraPosition.x == cameraPosition.x
+			&& this.cameraPosition.y == cameraPosition.y
+			&& this.cameraPosition.z == cameraPosition.z
+			&& equals(this.modelView, modelView)
+			&& equals(this.projection, projection);
+	}
+
+
+	private static boolean equals(float[] a, PMatrix3D m){
+		return a[0] == m.m00 && a[1] == m.m01 && a[2] == m.m02 && a[3] == m.m03
+			&& a[4] == m.m10 && a[5] == m.m11 && a[6] == m.m12 && a[7] == m.m13
+			&& a[8] == m.m20 && a[9] == m.m21 && a[10] == m.m22 && a[11] == m.m23
+			&& a[12] == m.m30 && a[13] == m.m31 && a[14] == m.m32 && a[15] == m.m33;
+	}
+
+
+	/**
+	 * Projects the point in world space to the screen.
+	 * <br>Shows where on the screen the point will appear when viewed through the camera.
+	 *
+	 * @param point the point
+	 *
+	 * @return the screen coordinates, the z coordinate is the depth in the range 0..1
+	 * or a vector of infinite values if the point can't be projected
+	 */
+	public Vector3D project(Vector3D point){
+		float[] m = combined;
+		float x = m[0] * point.x + m[1] * point.y + m[2] * point.z + m[3];
+		float y = m[4] * point.x + m[5] * point.y + m[6] * point.z + m[7];
+		float z = m[8] * point.x + m[9] * point.y + m[10] * point.z + m[11];
+		float w = m[12] * point.x + m[13] * point.y + m[14] * point.z + m[15];
+		if (w == 0){
+			return new Vector3D(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+		}
+		return new Vector3D(
+				viewportWidth * (1 + x / w) / 2f,
+				viewportHeight * (1 + y / w) / 2f,
+				(z / w + 1) / 2f);
+	}
+
+
+	/**
+	 * Unprojects the screen coordinates at the given depth into world space.
+	 *
+	 * @param screenX the screen x
+	 * @param screenY the screen y
+	 * @param depth the depth in the range 0 (near plane) to 1 (far plane)
+	 *
+	 * @return the point in world space
+	 */
+	public Vector3D unproject(float screenX, float screenY, float depth){
+		float[] m = combinedInv;
+		if (m == null){
+			return new Vector3D(-999,-999,-999);
+		}
+		float x = 2 * screenX / viewportWidth - 1;
+		float y = 2 * screenY / viewportHeight - 1;
+		float z = 2 * depth - 1;
+		float rx = m[0] * x + m[1] * y + m[2] * z + m[3];
+		float ry = m[4] * x + m[5] * y + m[6] * z + m[7];
+		float rz = m[8] * x + m[9] * y + m[10] * z + m[11];
+		float rw = m[12] * x + m[13] * y + m[14] * z + m[15];
+		if (rw != 0){
+			rx /= rw;
+			ry /= rw;
+			rz /= rw;
+		}
+		return new Vector3D(rx, ry, rz);
+	}
+
+
+	/**
+	 * Constructs a picking ray from the camera position through the specified
+	 * screen coordinates (on the near plane).
+	 *
+	 * @param screenX the screen x
+	 * @param screenY the screen y
+	 *
+	 * @return the pick ray
+	 */
+	public Ray getPickRay(float screenX, float screenY){
+		return new Ray(cameraPosition.getCopy(), this.unproject(screenX, screenY, 0));
+	}
+
+
+	/**
+	 * Gets the camera position.
+	 *
+	 * @return a copy of the camera position
+	 */
+	public Vector3D getCameraPosition() {
+		return cameraPosition.getCopy();
+	}
+
+	/**
+	 * Gets the viewport width.
+	 *
+	 * @return the viewport width
+	 */
+	public int getViewportWidth() {
+		return viewportWidth;
+	}
+
+	/**
+	 * Gets the viewport height.
+	 *
+	 * @return the viewport height
+	 */
+	public int getViewportHeight() {
+		return viewportHeight;
+	}
+
+}
@@ -34,6 +34,8 @@ import org.mt4j.components.visibleComponents.GeometryInfo;
 import org.mt4j.components.visibleComponents.StyleInfo;
 import org.mt4j.util.MT4jSettings;
 import org.mt4j.util.camera.Icamera;
+import org.mt4j.util.camera.MTCamera;
+import org.mt4j.util.camera.ProjectionSnapshot;
 import org.mt4j.util.opengl.GLTexture;
 
 import processing.core.PApplet;
@@ -97,7 +99,10 @@ public class Tools3D {
 	 * Unprojects screen coordinates from 2D into 3D world space and returns a point that
 	 * can be used to construct a ray form the camera to that point and check
 	 * for intersections with objects.
-	 * <p><b>NOTE</b>: if using openGL mode, the openGL context has to be valid at the time of calling this method.
+	 * <br>If the camera has an up to date projection snapshot it is used instead of the current
+	 * openGL or processing matrices.
+	 * <p><b>NOTE</b>: if using openGL mode and the camera has no projection snapshot, 
+	 * the openGL context has to be valid at the time of calling this method.
 	 * 
 	 * @param applet the applet
 	 * @param camera the camera
@@ -107,6 +112,10 @@ public class Tools3D {
 	 * @return the vector3d
 	 */
 	public static Vector3D unprojectScreenCoords(PApplet applet, Icamera camera, float screenX, float screenY ){
+		ProjectionSnapshot snapshot = getProjectionSnapshot(camera);
+		if (snapshot != null){
+			return snapshot.unproject(screenX, screenY, 0);
+		}
 		Vector3D ret = null;
 		applet.pushMatrix();
 		camera.update();
@@ -267,7 +276,9 @@ public class Tools3D {
 	/**
 	 * Constructs a picking ray from the components viewing camera position
 	 * through the specified screen coordinates.
-	 * <p><b>NOTE</b>: the openGL context has to be valid at the time of calling this method.
+	 * <br>If the camera has an up to date projection snapshot it is used instead of the current
+	 * openGL or processing matrices, so the ray can be calculated from any thread.
+	 * <p><b>NOTE</b>: if the camera has no projection snapshot, the openGL context has to be valid at the time of calling this method.
 	 * 
 	 * @param applet the applet
 	 * @param screenX the screen x
@@ -277,6 +288,10 @@ public class Tools3D {
 	 * @return the pick ray
 	 */
 	public static Ray getCameraPickRay(PApplet applet, Icamera camera, float screenX, float screenY ){
+		ProjectionSnapshot snapshot = getProjectionSnapshot(camera);
+		if (snapshot != null){
+			return snapshot.getPickRay(screenX, screenY);
+		}
 		Vector3D rayStartPoint 		= camera.getPosition();
 		Vector3D newPointInRayDir 	=  Tools3D.unprojectScreenCoords(applet, camera, screenX, screenY);
 		return new Ray(rayStartPoint, newPointInRayDir);
@@ -284,6 +299,21 @@ public class Tools3D {
 	
 	
 	
+	/**
+	 * Gets the up to date projection snapshot of the camera.
+	 * 
+	 * @param camera the camera
+	 * 
+	 * @return the projection snapshot or null if the camera has none
+	 */
+	private static ProjectionSnapshot getProjectionSnapshot(Icamera camera){
+		if (camera instanceof MTCamera){
+			return ((MTCamera)camera).getProjectionSnapshot();
+		}
+		return null;
+	}
+	
+	
 	/**
 	 * Projects the given point to screenspace.
 	 * <br>Shows where on the screen the point in 3d-Space will appear according
@@ -357,6 +387,10 @@ public class Tools3D {
 	 * @return the vector3 d
 	 */
 	public static Vector3D project(PApplet applet, Icamera cam, Vector3D point){
+		ProjectionSnapshot snapshot = getProjectionSnapshot(cam);
+		if (snapshot != null){
+			return snapshot.project(point);
+		}
 		Vector3D ret;
 		applet.pushMatrix();
 		cam.update();
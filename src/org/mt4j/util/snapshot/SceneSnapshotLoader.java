@@ -0,0 +1,467 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.util.snapshot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.mt4j.components.MTComponent;
+import org.mt4j.components.bounds.BoundingSphere;
+import org.mt4j.components.bounds.BoundsArbitraryPlanarPolygon;
+import org.mt4j.components.bounds.BoundsZPlaneRectangle;
+import org.mt4j.components.bounds.IBoundingShape;
+import org.mt4j.components.bounds.OrientedBoundingBox;
+import org.mt4j.components.visibleComponents.GeometryInfo;
+import org.mt4j.components.visibleComponents.shapes.AbstractShape;
+import org.mt4j.components.visibleComponents.shapes.MTLine;
+import org.mt4j.components.visibleComponents.shapes.MTPolygon;
+import org.mt4j.components.visibleComponents.shapes.MTStencilPolygon;
+import org.mt4j.components.visibleComponents.shapes.mesh.MTTriangleMesh;
+import org.mt4j.util.MTColor;
+import org.mt4j.util.math.Matrix;
+import org.mt4j.util.math.Vector3D;
+import org.mt4j.util.math.Vertex;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+
+
+/**
+ * Loads a binary scene snapshot written by a <code>SceneSnapshotWriter</code>.
+ * <br>The file is memory mapped and the vertex, normal and index arrays are read in bulk.
+ * The shapes get their geometry, style and bounding shape as they were stored, so
+ * nothing is parsed, tessellated or computed from the vertices again.
+ * <p>The textures are loaded by their reference, by default with <code>PApplet.loadImage()</code>.
+ * Set already loaded textures with <code>setTexture()</code> or override <code>loadTexture()</code>
+ * to resolve the references differently.
+ * <br>In OpenGL mode the loader has to be used from the rendering thread, because the shapes
+ * create their buffers and textures while they are rebuilt.
+ *
+ * @see SceneSnapshotWriter
+ */
+public class SceneSnapshotLoader {
+	/** The Constant logger. */
+	private static final Logger logger = Logger.getLogger(SceneSnapshotLoader.class.getName());
+	static{
+		logger.setLevel(Level.WARN);
+		SimpleLayout l = new SimpleLayout();
+		ConsoleAppender ca = new ConsoleAppender(l);
+		logger.addAppender(ca);
+	}
+
+	/** The maximum nesting depth of the components in a snapshot. */
+	private static final int MAX_DEPTH = 256;
+
+	/** The applet. */
+	private PApplet pa;
+
+	/** The textures by reference. */
+	private Map<String, PImage> textures;
+
+
+	/**
+	 * Instantiates a new scene snapshot loader.
+	 *
+	 * @param pa the applet
+	 */
+	public SceneSnapshotLoader(PApplet pa) {
+		this.pa = pa;
+		this.textures = new HashMap<String, PImage>();
+	}
+
+
+	/**
+	 * Sets the texture used for the reference, so it isn't loaded again.
+	 *
+	 * @param reference the reference
+	 * @param texture the texture
+	 */
+	public void setTexture(String reference, PImage texture){
+		this.textures.put(reference, texture);
+	}
+
+
+	/**
+	 * Loads the texture with the reference.
+	 * <br>Loads the reference as an image path by default.
+	 *
+	 * @param reference the reference
+	 *
+	 * @return the texture or null if it couldn't be loaded
+	 */
+	protected PImage loadTexture(String reference){
+		return pa.loadImage(reference);
+	}
+
+
+	/**
+	 * Loads the snapshot in the file.
+	 *
+	 * @param file the file
+	 *
+	 * @return the root component of the snapshot
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred or that the file isn't a valid snapshot.
+	 */
+	public MTComponent load(File file) throws IOException{
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return this.load(buffer);
+		} finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Loads the snapshot in the buffer, starting at its position.
+	 *
+	 * @param buffer the buffer
+	 *
+	 * @return the root component of the snapshot
+	 *
+	 * @throws IOException Signals that the buffer doesn't contain a valid snapshot.
+	 */
+	public MTComponent load(ByteBuffer buffer) throws IOException{
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		try {
+			if (buffer.getInt() != SnapshotFormat.MAGIC){
+				throw new IOException("Not a scene snapshot.");
+			}
+			int version = buffer.getInt();
+			if (version != SnapshotFormat.VERSION){
+				throw new IOException("Unsupported scene snapshot version: " + version);
+			}
+			return this.readComponent(buffer, 0);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Scene snapshot is truncated.");
+		}
+	}
+
+
+	/**
+	 * Reads the component and its children.
+	 */
+	private MTComponent readComponent(ByteBuffer in, int depth) throws IOException{
+		if (depth >= MAX_DEPTH){
+			throw new IOException("Components of the scene snapshot are nested deeper than " + MAX_DEPTH + " levels.");
+		}
+		byte kind = in.get();
+		String type = readString(in);
+		String name = readString(in);
+		int flags = in.getInt();
+
+		Matrix localMatrix = null;
+		if ((flags & SnapshotFormat.FLAG_TRANSFORMED) != 0){
+			float[] m = readFloats(in, 16);
+			localMatrix = new Matrix();
+			localMatrix.m00 = m[0];  localMatrix.m01 = m[1];  localMatrix.m02 = m[2];  localMatrix.m03 = m[3];
+			localMatrix.m10 = m[4];  localMatrix.m11 = m[5];  localMatrix.m12 = m[6];  localMatrix.m13 = m[7];
+			localMatrix.m20 = m[8];  localMatrix.m21 = m[9];  localMatrix.m22 = m[10]; localMatrix.m23 = m[11];
+			localMatrix.m30 = m[12]; localMatrix.m31 = m[13]; localMatrix.m32 = m[14]; localMatrix.m33 = m[15];
+		}
+
+		MTComponent component;
+		switch (kind) {
+		case SnapshotFormat.KIND_GROUP:
+			component = new MTComponent(pa);
+			break;
+		case SnapshotFormat.KIND_POLYGON:
+		case SnapshotFormat.KIND_STENCIL_POLYGON:
+		case SnapshotFormat.KIND_TRIANGLE_MESH:
+		case SnapshotFormat.KIND_LINE:
+			component = this.readShape(kind, in);
+			break;
+		default:
+			throw new IOException("Unknown component kind " + kind + " of " + type + " '" + name + "'.");
+		}
+
+		component.setName(name);
+		if (localMatrix != null){
+			component.setLocalMatrix(localMatrix);
+		}
+		component.setVisible((flags & SnapshotFormat.FLAG_VISIBLE) != 0);
+		component.setPickable((flags & SnapshotFormat.FLAG_PICKABLE) != 0);
+		component.setComposite((flags & SnapshotFormat.FLAG_COMPOSITE) != 0);
+		//Before adding it to the parent, else the component is sent to the front
+		component.setDepthBufferDisabled((flags & SnapshotFormat.FLAG_DEPTH_BUFFER_DISABLED) != 0);
+		if ((flags & SnapshotFormat.FLAG_INPUT_PROCESSORS) == 0){
+			component.unregisterAllInputProcessors();
+		}
+
+		int childCount = readCount(in, 1);
+		for (int i = 0; i < childCount; i++) {
+			component.addChild(this.readComponent(in, depth + 1));
+		}
+		return component;
+	}
+
+
+	/**
+	 * Reads the style, geometry and bounds and creates the shape from them.
+	 */
+	private AbstractShape readShape(byte kind, ByteBuffer in) throws IOException{
+		//Style
+		MTColor fillColor = readColor(in);
+		MTColor strokeColor = readColor(in);
+		float strokeWeight = in.getFloat();
+		byte styleFlags = in.get();
+		int fillDrawMode = in.getInt();
+		short lineStipple = in.getShort();
+
+		//Shape settings
+		byte shapeFlags = in.get();
+		String textureReference = readString(in);
+		int boundsBehaviour = in.getInt();
+
+		//Geometry
+		Vertex[] vertices = readVertices(in);
+		int normalCount = readCount(in, 3 * 4);
+		Vector3D[] normals = null;
+		if (normalCount > 0){
+			float[] n = readFloats(in, normalCount * 3);
+			normals = new Vector3D[normalCount];
+			for (int i = 0; i < normalCount; i++) {
+				normals[i] = new Vector3D(n[i*3], n[i*3+1], n[i*3+2]);
+			}
+		}
+		int indexCount = readCount(in, 4);
+		int[] indices = null;
+		if (indexCount > 0){
+			indices = new int[indexCount];
+			in.asIntBuffer().get(indices);
+			in.position(in.position() + indexCount * 4);
+			for (int i = 0; i < indexCount; i++) {
+				if (indices[i] < 0 || indices[i] >= vertices.length){
+					throw new IOException("Invalid vertex index " + indices[i] + " of " + vertices.length + " vertices in the scene snapshot.");
+				}
+			}
+		}
+
+		//Create the shape without geometry, so setting the style doesn't change the stored vertex colors
+		AbstractShape shape;
+		Vertex[] empty = new Vertex[0];
+		switch (kind) {
+		case SnapshotFormat.KIND_STENCIL_POLYGON:
+			shape = new MTStencilPolygon(empty, pa);
+			break;
+		case SnapshotFormat.KIND_TRIANGLE_MESH:
+			shape = new MTTriangleMesh(pa, new GeometryInfo(pa, empty), false);
+			break;
+		case SnapshotFormat.KIND_LINE:
+			shape = new MTLine(pa, new Vertex(), new Vertex());
+			break;
+		default:
+			shape = new MTPolygon(empty, pa);
+			break;
+		}
+
+		boolean directGL = (shapeFlags & SnapshotFormat.SHAPE_DIRECT_GL) != 0;
+		if (shape.isUseDirectGL() != directGL){
+			shape.setUseDirectGL(directGL);
+		}
+		shape.setFillColor(fillColor);
+		shape.setStrokeColor(strokeColor);
+		shape.setStrokeWeight(strokeWeight);
+		shape.setNoFill((styleFlags & SnapshotFormat.STYLE_NO_FILL) != 0);
+		shape.setNoStroke((styleFlags & SnapshotFormat.STYLE_NO_STROKE) != 0);
+		shape.setDrawSmooth((styleFlags & SnapshotFormat.STYLE_DRAW_SMOOTH) != 0);
+		shape.setFillDrawMode(fillDrawMode);
+		if (shape.getLineStipple() != lineStipple){
+			shape.setLineStipple(lineStipple);
+		}
+
+		//Dont compute the bounds from the new geometry, the stored ones are set below
+		shape.setBoundsAutoCompute(false);
+		if (kind == SnapshotFormat.KIND_STENCIL_POLYGON){
+			//Also updates the area the stencil is cleared in
+			shape.setVertices(vertices);
+		}else{
+			shape.setGeometryInfo(new GeometryInfo(pa, vertices, normals, indices));
+		}
+		shape.setBoundingShape(readBounds(shape, in));
+		shape.setBoundsBehaviour(boundsBehaviour);
+		shape.setBoundsAutoCompute((shapeFlags & SnapshotFormat.SHAPE_BOUNDS_AUTO_COMPUTE) != 0);
+
+		//Outlines
+		if (kind == SnapshotFormat.KIND_STENCIL_POLYGON || kind == SnapshotFormat.KIND_TRIANGLE_MESH){
+			int contourCount = readCount(in, 4);
+			ArrayList<Vertex[]> contours = new ArrayList<Vertex[]>(contourCount);
+			for (int i = 0; i < contourCount; i++) {
+				contours.add(readVertices(in));
+			}
+			if (kind == SnapshotFormat.KIND_STENCIL_POLYGON){
+				((MTStencilPolygon)shape).setNewContours(contours);
+			}else if (contourCount > 0){
+				((MTTriangleMesh)shape).setOutlineContours(contours);
+			}
+		}
+
+		//Texture, the texture coordinates were stored normalized
+		if (textureReference.length() > 0){
+			PImage texture = this.getTexture(textureReference);
+			if (texture != null){
+				shape.setTexture(texture);
+			}
+		}
+		shape.setTextureEnabled((shapeFlags & SnapshotFormat.SHAPE_TEXTURE_ENABLED) != 0);
+		return shape;
+	}
+
+
+	/**
+	 * Gets the texture with the reference from the cache or loads it.
+	 */
+	private PImage getTexture(String reference){
+		PImage texture = this.textures.get(reference);
+		if (texture == null && !this.textures.containsKey(reference)){
+			texture = this.loadTexture(reference);
+			if (texture == null){
+				logger.warn("Couldn't load the texture '" + reference + "' of the scene snapshot.");
+			}
+			this.textures.put(reference, texture);
+		}
+		return texture;
+	}
+
+
+	/**
+	 * Reads the bounding shape and creates it for the shape.
+	 */
+	private static IBoundingShape readBounds(AbstractShape shape, ByteBuffer in) throws IOException{
+		byte type = in.get();
+		switch (type) {
+		case SnapshotFormat.BOUNDS_NONE:
+			return null;
+		case SnapshotFormat.BOUNDS_SPHERE:
+			float[] s = readFloats(in, 4);
+			float r = s[3];
+			return new BoundingSphere(shape, new Vector3D[]{
+					new Vector3D(s[0] - r, s[1], s[2]),
+					new Vector3D(s[0] + r, s[1], s[2])});
+		case SnapshotFormat.BOUNDS_Z_PLANE_RECTANGLE:
+			return new BoundsZPlaneRectangle(shape, readVectors(in));
+		case SnapshotFormat.BOUNDS_ORIENTED_BOX:
+			return new OrientedBoundingBox(shape, readVectors(in));
+		case SnapshotFormat.BOUNDS_PLANAR_POLYGON:
+			return new BoundsArbitraryPlanarPolygon(shape, readVectors(in));
+		case SnapshotFormat.BOUNDS_DEFAULT:
+			//The bounding shape wasn't a known type, let the shape compute its own
+			shape.setBoundsAutoCompute(true);
+			shape.setGeometryInfo(shape.getGeometryInfo());
+			return shape.getBoundingShape();
+		default:
+			throw new IOException("Unknown bounds type " + type + ".");
+		}
+	}
+
+
+	/**
+	 * Reads the vertices with their texture coordinates and colors.
+	 */
+	private static Vertex[] readVertices(ByteBuffer in) throws IOException{
+		int count = readCount(in, SnapshotFormat.FLOATS_PER_VERTEX * 4);
+		float[] f = readFloats(in, count * SnapshotFormat.FLOATS_PER_VERTEX);
+		Vertex[] vertices = new Vertex[count];
+		for (int i = 0; i < count; i++) {
+			int o = i * SnapshotFormat.FLOATS_PER_VERTEX;
+			vertices[i] = new Vertex(f[o], f[o+1], f[o+2], f[o+3], f[o+4], f[o+5], f[o+6], f[o+7], f[o+8]);
+		}
+		return vertices;
+	}
+
+
+	/**
+	 * Reads positions.
+	 */
+	private static Vector3D[] readVectors(ByteBuffer in) throws IOException{
+		int count = readCount(in, 3 * 4);
+		float[] f = readFloats(in, count * 3);
+		Vector3D[] vectors = new Vector3D[count];
+		for (int i = 0; i < count; i++) {
+			vectors[i] = new Vector3D(f[i*3], f[i*3+1], f[i*3+2]);
+		}
+		return vectors;
+	}
+
+
+	/**
+	 * Reads an element count and checks that the buffer can hold that many elements,
+	 * so a corrupt count doesn't allocate a huge or negative sized array.
+	 * 
+	 * @param in the buffer
+	 * @param elementSize the minimum number of bytes of an element
+	 * 
+	 * @return the count
+	 * 
+	 * @throws IOException if the count is negative or exceeds the remaining bytes
+	 */
+	private static int readCount(ByteBuffer in, int elementSize) throws IOException{
+		int count = in.getInt();
+		if (count < 0 || (long)count * elementSize > in.remaining()){
+			throw new IOException("Invalid element count " + count + " at position " + (in.position() - 4) + " of the scene snapshot.");
+		}
+		return count;
+	}
+
+
+	/**
+	 * Reads the floats in bulk.
+	 */
+	private static float[] readFloats(ByteBuffer in, int count){
+		float[] f = new float[count];
+		in.asFloatBuffer().get(f);
+		in.position(in.position() + count * 4);
+		return f;
+	}
+
+
+	/**
+	 * Reads a color.
+	 */
+	private static MTColor readColor(ByteBuffer in){
+		float[] c = readFloats(in, 4);
+		return new MTColor(c[0], c[1], c[2], c[3]);
+	}
+
+
+	/**
+	 * Reads a string stored as byte count and UTF-8 bytes.
+	 */
+	private static String readString(ByteBuffer in) throws IOException{
+		int length = readCount(in, 1);
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, SnapshotFormat.CHARSET);
+	}
+
+}
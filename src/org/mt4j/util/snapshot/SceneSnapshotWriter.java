@@ -0,0 +1,377 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.util.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.mt4j.components.MTComponent;
+import org.mt4j.components.bounds.BoundingSphere;
+import org.mt4j.components.bounds.BoundsArbitraryPlanarPolygon;
+import org.mt4j.components.bounds.BoundsZPlaneRectangle;
+import org.mt4j.components.bounds.IBoundingShape;
+import org.mt4j.components.bounds.OrientedBoundingBox;
+import org.mt4j.components.visibleComponents.GeometryInfo;
+import org.mt4j.components.visibleComponents.shapes.AbstractShape;
+import org.mt4j.components.visibleComponents.shapes.MTLine;
+import org.mt4j.components.visibleComponents.shapes.MTPolygon;
+import org.mt4j.components.visibleComponents.shapes.MTStencilPolygon;
+import org.mt4j.components.visibleComponents.shapes.mesh.MTTriangleMesh;
+import org.mt4j.util.MTColor;
+import org.mt4j.util.math.Matrix;
+import org.mt4j.util.math.Vector3D;
+import org.mt4j.util.math.Vertex;
+
+import processing.core.PConstants;
+import processing.core.PImage;
+
+
+/**
+ * Writes a component and its children into a binary scene snapshot, which
+ * a <code>SceneSnapshotLoader</code> can load again without parsing, tessellating or
+ * computing normals and bounds.
+ * <p>A snapshot stores the component type, the name, visibility and picking settings, the local matrix
+ * and, for shapes, the <code>StyleInfo</code>, the vertices with their texture coordinates and colors,
+ * the normals and indices, the bounding shape and a texture reference.
+ * <br>The components are stored as the generic class they are drawn like, i.e. a
+ * <code>MTRectangle</code> is loaded as a <code>MTPolygon</code> and a vector font character
+ * as a <code>MTTriangleMesh</code>. Other components are loaded as plain <code>MTComponent</code>
+ * groups, but their children are stored. Not stored are gesture listeners, controllers, fill paints,
+ * materials and widget state like the text of a text area.
+ * <p>Textures can't be stored, only a reference to them. Register the reference of each texture with
+ * <code>setTextureReference()</code>, the loader then resolves it, by default as an image path.
+ *
+ * @see SceneSnapshotLoader
+ */
+public class SceneSnapshotWriter {
+	/** The Constant logger. */
+	private static final Logger logger = Logger.getLogger(SceneSnapshotWriter.class.getName());
+	static{
+		logger.setLevel(Level.WARN);
+		SimpleLayout l = new SimpleLayout();
+		ConsoleAppender ca = new ConsoleAppender(l);
+		logger.addAppender(ca);
+	}
+
+	/** The texture references. */
+	private Map<PImage, String> textureReferences;
+
+
+	/**
+	 * Instantiates a new scene snapshot writer.
+	 */
+	public SceneSnapshotWriter() {
+		this.textureReferences = new HashMap<PImage, String>();
+	}
+
+
+	/**
+	 * Sets the reference under which a texture is stored, i.e. the path of the image file.
+	 * <br>The texture has to be the one returned by the shape's <code>getTexture()</code>, which
+	 * in OpenGL mode may be a <code>GLTexture</code> created from the image that was set.
+	 *
+	 * @param texture the texture
+	 * @param reference the reference
+	 */
+	public void setTextureReference(PImage texture, String reference){
+		this.textureReferences.put(texture, reference);
+	}
+
+
+	/**
+	 * Writes the component and its children to the file.
+	 *
+	 * @param component the component
+	 * @param file the file
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void write(MTComponent component, File file) throws IOException{
+		OutputStream out = new FileOutputStream(file);
+		try {
+			this.write(component, out);
+		} finally {
+			out.close();
+		}
+	}
+
+
+	/**
+	 * Writes the component and its children to the stream.
+	 *
+	 * @param component the component
+	 * @param out the stream, is not closed
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void write(MTComponent component, OutputStream out) throws IOException{
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(SnapshotFormat.MAGIC);
+		data.writeInt(SnapshotFormat.VERSION);
+		this.writeComponent(component, data);
+		data.flush();
+	}
+
+
+	/**
+	 * Writes the component and its children.
+	 */
+	private void writeComponent(MTComponent component, DataOutputStream out) throws IOException{
+		byte kind = getKind(component);
+		out.writeByte(kind);
+		writeString(component.getClass().getName(), out);
+		writeString(component.getName(), out);
+
+		Matrix m = component.getLocalMatrix();
+		boolean transformed = !m.isIdentity();
+		int flags = 0;
+		if (component.isVisible()) 							flags |= SnapshotFormat.FLAG_VISIBLE;
+		if (component.isPickable()) 						flags |= SnapshotFormat.FLAG_PICKABLE;
+		if (component.isComposite()) 						flags |= SnapshotFormat.FLAG_COMPOSITE;
+		if (component.isDepthBufferDisabled()) 				flags |= SnapshotFormat.FLAG_DEPTH_BUFFER_DISABLED;
+		if (component.getInputProcessors().length > 0) 		flags |= SnapshotFormat.FLAG_INPUT_PROCESSORS;
+		if (transformed) 									flags |= SnapshotFormat.FLAG_TRANSFORMED;
+		out.writeInt(flags);
+
+		if (transformed){
+			float[] values = new float[]{
+					m.m00, m.m01, m.m02, m.m03,
+					m.m10, m.m11, m.m12, m.m13,
+					m.m20, m.m21, m.m22, m.m23,
+					m.m30, m.m31, m.m32, m.m33};
+			for (int i = 0; i < values.length; i++) {
+				out.writeFloat(values[i]);
+			}
+		}
+
+		if (kind != SnapshotFormat.KIND_GROUP){
+			this.writeShape((AbstractShape)component, kind, out);
+		}
+
+		MTComponent[] children = component.getChildren();
+		out.writeInt(children.length);
+		for (int i = 0; i < children.length; i++) {
+			this.writeComponent(children[i], out);
+		}
+	}
+
+
+	/**
+	 * Writes the style, geometry and bounds of the shape.
+	 */
+	private void writeShape(AbstractShape shape, byte kind, DataOutputStream out) throws IOException{
+		//Style
+		writeColor(shape.getFillColor(), out);
+		writeColor(shape.getStrokeColor(), out);
+		out.writeFloat(shape.getStrokeWeight());
+		byte styleFlags = 0;
+		if (shape.isNoFill()) 		styleFlags |= SnapshotFormat.STYLE_NO_FILL;
+		if (shape.isNoStroke()) 	styleFlags |= SnapshotFormat.STYLE_NO_STROKE;
+		if (shape.isDrawSmooth()) 	styleFlags |= SnapshotFormat.STYLE_DRAW_SMOOTH;
+		out.writeByte(styleFlags);
+		out.writeInt(shape.getFillDrawMode());
+		out.writeShort(shape.getLineStipple());
+
+		//Shape settings
+		PImage texture = shape.getTexture();
+		String textureReference = null;
+		if (texture != null){
+			textureReference = this.textureReferences.get(texture);
+			if (textureReference == null){
+				logger.warn("No reference set for the texture of '" + shape.getName() + "', the texture is not stored.");
+			}
+		}
+		byte shapeFlags = 0;
+		if (shape.isUseDirectGL()) 				shapeFlags |= SnapshotFormat.SHAPE_DIRECT_GL;
+		if (shape.isTextureEnabled()) 			shapeFlags |= SnapshotFormat.SHAPE_TEXTURE_ENABLED;
+		if (shape.isBoundsAutoCompute()) 		shapeFlags |= SnapshotFormat.SHAPE_BOUNDS_AUTO_COMPUTE;
+		out.writeByte(shapeFlags);
+		writeString(textureReference != null ? textureReference : "", out);
+		out.writeInt(shape.getBoundsBehaviour());
+
+		//Geometry, the texture coordinates are stored normalized because the loader sets the texture again
+		GeometryInfo geometry = shape.getGeometryInfo();
+		float texScaleU = 1;
+		float texScaleV = 1;
+		if (texture != null && shape.getTextureMode() == PConstants.IMAGE && texture.width > 0 && texture.height > 0){
+			texScaleU = 1f / texture.width;
+			texScaleV = 1f / texture.height;
+		}
+		writeVertices(geometry.getVertices(), texScaleU, texScaleV, out);
+
+		Vector3D[] normals = geometry.isContainsNormals() ? geometry.getNormals() : null;
+		if (normals != null){
+			out.writeInt(normals.length);
+			for (int i = 0; i < normals.length; i++) {
+				Vector3D n = normals[i];
+				out.writeFloat(n.x);
+				out.writeFloat(n.y);
+				out.writeFloat(n.z);
+			}
+		}else{
+			out.writeInt(0);
+		}
+
+		int[] indices = geometry.isIndexed() ? geometry.getIndices() : null;
+		if (indices != null){
+			out.writeInt(indices.length);
+			for (int i = 0; i < indices.length; i++) {
+				out.writeInt(indices[i]);
+			}
+		}else{
+			out.writeInt(0);
+		}
+
+		writeBounds(shape.getBoundingShape(), out);
+
+		//Outlines
+		List<Vertex[]> contours = null;
+		if (kind == SnapshotFormat.KIND_STENCIL_POLYGON){
+			contours = ((MTStencilPolygon)shape).getContours();
+		}else if (kind == SnapshotFormat.KIND_TRIANGLE_MESH){
+			contours = ((MTTriangleMesh)shape).getOutlineContours();
+		}
+		if (kind == SnapshotFormat.KIND_STENCIL_POLYGON || kind == SnapshotFormat.KIND_TRIANGLE_MESH){
+			if (contours != null){
+				out.writeInt(contours.size());
+				for (Vertex[] contour : contours) {
+					writeVertices(contour, 1, 1, out);
+				}
+			}else{
+				out.writeInt(0);
+			}
+		}
+	}
+
+
+	/**
+	 * Gets the kind of component the loader creates for the component.
+	 */
+	private static byte getKind(MTComponent component){
+		if (component instanceof MTStencilPolygon){
+			return SnapshotFormat.KIND_STENCIL_POLYGON;
+		}else if (component instanceof MTTriangleMesh){
+			return SnapshotFormat.KIND_TRIANGLE_MESH;
+		}else if (component instanceof MTLine){
+			return ((MTLine)component).getVertexCount() == 2 ? SnapshotFormat.KIND_LINE : SnapshotFormat.KIND_POLYGON;
+		}else if (component instanceof MTPolygon){
+			return SnapshotFormat.KIND_POLYGON;
+		}else if (component instanceof AbstractShape){
+			//Drawn with the fill draw mode like a polygon
+			return SnapshotFormat.KIND_POLYGON;
+		}else{
+			return SnapshotFormat.KIND_GROUP;
+		}
+	}
+
+
+	/**
+	 * Writes the data which defines the bounding shape.
+	 */
+	private static void writeBounds(IBoundingShape bounds, DataOutputStream out) throws IOException{
+		if (bounds == null){
+			out.writeByte(SnapshotFormat.BOUNDS_NONE);
+		}else if (bounds instanceof BoundingSphere){
+			BoundingSphere sphere = (BoundingSphere)bounds;
+			out.writeByte(SnapshotFormat.BOUNDS_SPHERE);
+			Vector3D center = sphere.getCenter();
+			out.writeFloat(center.x);
+			out.writeFloat(center.y);
+			out.writeFloat(center.z);
+			out.writeFloat(sphere.getRadius());
+		}else if (bounds instanceof BoundsZPlaneRectangle){
+			out.writeByte(SnapshotFormat.BOUNDS_Z_PLANE_RECTANGLE);
+			writeVectors(bounds.getVectorsLocal(), out);
+		}else if (bounds instanceof OrientedBoundingBox){
+			out.writeByte(SnapshotFormat.BOUNDS_ORIENTED_BOX);
+			writeVectors(bounds.getVectorsLocal(), out);
+		}else if (bounds instanceof BoundsArbitraryPlanarPolygon){
+			out.writeByte(SnapshotFormat.BOUNDS_PLANAR_POLYGON);
+			writeVectors(bounds.getVectorsLocal(), out);
+		}else{
+			out.writeByte(SnapshotFormat.BOUNDS_DEFAULT);
+		}
+	}
+
+
+	/**
+	 * Writes the vertices with their texture coordinates and colors.
+	 */
+	private static void writeVertices(Vertex[] vertices, float texScaleU, float texScaleV, DataOutputStream out) throws IOException{
+		out.writeInt(vertices.length);
+		for (int i = 0; i < vertices.length; i++) {
+			Vertex v = vertices[i];
+			out.writeFloat(v.x);
+			out.writeFloat(v.y);
+			out.writeFloat(v.z);
+			out.writeFloat(v.getTexCoordU() * texScaleU);
+			out.writeFloat(v.getTexCoordV() * texScaleV);
+			out.writeFloat(v.getR());
+			out.writeFloat(v.getG());
+			out.writeFloat(v.getB());
+			out.writeFloat(v.getA());
+		}
+	}
+
+
+	/**
+	 * Writes the positions of the vectors.
+	 */
+	private static void writeVectors(Vector3D[] vectors, DataOutputStream out) throws IOException{
+		out.writeInt(vectors.length);
+		for (int i = 0; i < vectors.length; i++) {
+			Vector3D v = vectors[i];
+			out.writeFloat(v.x);
+			out.writeFloat(v.y);
+			out.writeFloat(v.z);
+		}
+	}
+
+
+	/**
+	 * Writes the color.
+	 */
+	private static void writeColor(MTColor color, DataOutputStream out) throws IOException{
+		out.writeFloat(color.getR());
+		out.writeFloat(color.getG());
+		out.writeFloat(color.getB());
+		out.writeFloat(color.getAlpha());
+	}
+
+
+	/**
+	 * Writes the string as byte count and UTF-8 bytes.
+	 */
+	private static void writeString(String s, DataOutputStream out) throws IOException{
+		byte[] bytes = (s != null ? s : "").getBytes(SnapshotFormat.CHARSET);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+}
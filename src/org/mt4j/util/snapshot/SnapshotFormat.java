@@ -0,0 +1,83 @@
+/***********************************************************************
+ * mt4j Copyright (c) 2008 - 2009, C.Ruff, Fraunhofer-Gesellschaft All rights reserved.
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ***********************************************************************/
+package org.mt4j.util.snapshot;
+
+
+/**
+ * The layout of a scene snapshot file, see <code>SceneSnapshotWriter</code>.
+ * <p>All values are big endian. The file starts with the magic number and the version, 
+ * followed by the root component. A component is stored as:
+ * <ul>
+ * <li>byte kind, string type (the class name), string name, int flags
+ * <li>16 floats local matrix, only if flagged as transformed
+ * <li>for shapes: the style, the shape settings, the geometry, the bounds and, 
+ * for stencil polygons and meshes, the outline contours
+ * <li>int child count, followed by the children
+ * </ul>
+ * Strings are stored as int byte count and UTF-8 bytes, arrays as int element count and the elements.
+ * A vertex takes 9 floats: x, y, z, u, v, r, g, b, a.
+ */
+class SnapshotFormat {
+	
+	/** The magic number a snapshot starts with ("MTSN"). */
+	static final int MAGIC = 0x4D54534E;
+	
+	/** The version of the format, increased with every incompatible change. */
+	static final int VERSION = 1;
+	
+	/** The number of floats stored per vertex. */
+	static final int FLOATS_PER_VERTEX = 9;
+	
+	//Component kinds, decide which class the loader creates
+	static final byte KIND_GROUP 			= 0;
+	static final byte KIND_POLYGON 			= 1;
+	static final byte KIND_STENCIL_POLYGON 	= 2;
+	static final byte KIND_TRIANGLE_MESH 	= 3;
+	static final byte KIND_LINE 			= 4;
+	
+	//Component flags
+	static final int FLAG_VISIBLE 				= 1;
+	static final int FLAG_PICKABLE 				= 1 << 1;
+	static final int FLAG_COMPOSITE 			= 1 << 2;
+	static final int FLAG_DEPTH_BUFFER_DISABLED = 1 << 3;
+	static final int FLAG_INPUT_PROCESSORS 		= 1 << 4;
+	static final int FLAG_TRANSFORMED 			= 1 << 5;
+	
+	//Style flags
+	static final byte STYLE_NO_FILL 	= 1;
+	static final byte STYLE_NO_STROKE 	= 1 << 1;
+	static final byte STYLE_DRAW_SMOOTH = 1 << 2;
+	
+	//Shape flags
+	static final byte SHAPE_DIRECT_GL 			= 1;
+	static final byte SHAPE_TEXTURE_ENABLED 	= 1 << 1;
+	static final byte SHAPE_BOUNDS_AUTO_COMPUTE = 1 << 2;
+	
+	//Bounding shape types
+	static final byte BOUNDS_NONE 				= 0;
+	static final byte BOUNDS_SPHERE 			= 1;
+	static final byte BOUNDS_Z_PLANE_RECTANGLE 	= 2;
+	static final byte BOUNDS_ORIENTED_BOX 		= 3;
+	static final byte BOUNDS_PLANAR_POLYGON 	= 4;
+	/** Bounds the format cant store, the loader computes the default bounds of the shape. */
+	static final byte BOUNDS_DEFAULT 			= 5;
+	
+	/** The charset of the strings. */
+	static final String CHARSET = "UTF-8";
+	
+}